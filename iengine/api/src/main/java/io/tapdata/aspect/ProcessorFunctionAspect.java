@@ -22,6 +22,19 @@ public abstract class ProcessorFunctionAspect<T extends ProcessorFunctionAspect<
 		return (T) this;
 	}
 	private Throwable throwable;
+	/**
+	 * 处理结果惰性发出时, 由调用方在结果全部发出后再结束切面
+	 */
+	private boolean endDeferred;
+
+	public T deferEnd() {
+		this.endDeferred = true;
+		return (T) this;
+	}
+
+	public boolean isEndDeferred() {
+		return endDeferred;
+	}
 
 	public T throwable(Throwable throwable) {
 		this.throwable = throwable;
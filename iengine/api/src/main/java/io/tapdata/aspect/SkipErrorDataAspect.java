@@ -6,6 +6,7 @@ import io.tapdata.entity.schema.TapTable;
 import io.tapdata.pdk.core.entity.params.PDKMethodInvoker;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 任务错误数据跳过
@@ -19,6 +20,10 @@ public class SkipErrorDataAspect extends DataNodeAspect<SkipErrorDataAspect> {
     private List<TapRecordEvent> tapRecordEvents;
     private PDKMethodInvoker pdkMethodInvoker;
     private ThrowableFunction<Void, List<TapRecordEvent>, Throwable> writeRecordFunction;
+    /**
+     * 重放跳过的事件, 返回写入失败的事件; 与本批次的写入结果回调、切面无关
+     */
+    private ThrowableFunction<Map<TapRecordEvent, Throwable>, List<TapRecordEvent>, Throwable> replayFunction;
 
     public SkipErrorDataAspect tapTable(TapTable tableName) {
         this.tapTable = tableName;
@@ -40,6 +45,11 @@ public class SkipErrorDataAspect extends DataNodeAspect<SkipErrorDataAspect> {
         return this;
     }
 
+    public SkipErrorDataAspect replayFunction(ThrowableFunction<Map<TapRecordEvent, Throwable>, List<TapRecordEvent>, Throwable> replayFunction) {
+        this.replayFunction = replayFunction;
+        return this;
+    }
+
     public TapTable getTapTable() {
         return tapTable;
     }
@@ -55,4 +65,8 @@ public class SkipErrorDataAspect extends DataNodeAspect<SkipErrorDataAspect> {
     public ThrowableFunction<Void, List<TapRecordEvent>, Throwable> getWriteRecordFunction() {
         return writeRecordFunction;
     }
+
+    public ThrowableFunction<Map<TapRecordEvent, Throwable>, List<TapRecordEvent>, Throwable> getReplayFunction() {
+        return replayFunction;
+    }
 }
@@ -100,6 +100,9 @@ public class AspectUtils {
 			if(interceptResult == null || !interceptResult.isIntercepted()) {
 				try {
 					consumer.accept(aspect);
+					if (aspect.isEndDeferred()) {
+						return interceptResult;
+					}
 					aspect.state(DataFunctionAspect.STATE_END);
 					return aspectManager.executeAspect(aspect);
 				} catch(Throwable throwable) {
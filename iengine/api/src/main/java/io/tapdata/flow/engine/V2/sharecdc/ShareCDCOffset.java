@@ -13,12 +13,21 @@ public class ShareCDCOffset implements Serializable {
 	private static final long serialVersionUID = 4290623022849235468L;
 	private Map<String, Long> sequenceMap;
 	private Object streamOffset;
+	/**
+	 * streamOffset 对应的事件时间; streamOffset 为空时, 回退直接增量从该时间开始
+	 */
+	private Long streamOffsetTime;
 
 	public ShareCDCOffset(Map<String, Long> sequenceMap, Object streamOffset) {
 		this.sequenceMap = sequenceMap;
 		this.streamOffset = streamOffset;
 	}
 
+	public ShareCDCOffset(Map<String, Long> sequenceMap, Object streamOffset, Long streamOffsetTime) {
+		this(sequenceMap, streamOffset);
+		this.streamOffsetTime = streamOffsetTime;
+	}
+
 	public Map<String, Long> getSequenceMap() {
 		return sequenceMap;
 	}
@@ -26,4 +35,8 @@ public class ShareCDCOffset implements Serializable {
 	public Object getStreamOffset() {
 		return streamOffset;
 	}
+
+	public Long getStreamOffsetTime() {
+		return streamOffsetTime;
+	}
 }
@@ -6,6 +6,7 @@ import com.tapdata.tm.commons.dag.Node;
 import com.tapdata.tm.commons.task.dto.TaskDto;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * @author samuel
@@ -19,6 +20,8 @@ public class ShareCdcTaskContext extends ShareCdcContext implements Serializable
 	private TaskDto taskDto;
 	private Node node;
 	private Connections connections;
+	// Tables to read from share cdc log storage
+	private List<String> tables;
 
 	public ShareCdcTaskContext(Long cdcStartTs, ConfigurationCenter configurationCenter, TaskDto taskDto, Node node, Connections connections) {
 		super(cdcStartTs, configurationCenter);
@@ -38,4 +41,12 @@ public class ShareCdcTaskContext extends ShareCdcContext implements Serializable
 	public Node getNode() {
 		return node;
 	}
+
+	public List<String> getTables() {
+		return tables;
+	}
+
+	public void setTables(List<String> tables) {
+		this.tables = tables;
+	}
 }
@@ -30,6 +30,7 @@ import io.tapdata.pdk.core.api.ConnectionNode;
 import io.tapdata.pdk.core.api.ConnectorNode;
 import io.tapdata.pdk.core.api.PDKIntegration;
 import io.tapdata.pdk.core.monitor.PDKInvocationMonitor;
+import io.tapdata.pdk.core.utils.CommonUtils;
 import io.tapdata.schema.SchemaProxy;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
@@ -41,11 +42,25 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -59,6 +74,15 @@ public class LoadSchemaRunner implements Runnable {
 	private final static String TAG = LoadSchemaRunner.class.getSimpleName();
 	private final static String THREAD_NAME = "LOAD-SCHEMA-FIELDS-[%s]";
 	private final static int BATCH_SIZE = 20;
+	private final static String DISCOVER_PARALLELISM_PROP_KEY = "LOAD_SCHEMA_DISCOVER_PARALLELISM";
+	private final static int DEFAULT_DISCOVER_PARALLELISM = 4;
+	private final static String UPLOAD_BATCH_BYTES_PROP_KEY = "LOAD_SCHEMA_UPLOAD_BATCH_BYTES";
+	private final static int DEFAULT_UPLOAD_BATCH_BYTES = 4 * 1024 * 1024;
+	/**
+	 * Table names handed to one discoverSchema call
+	 */
+	private final static int DISCOVER_CHUNK_SIZE = BATCH_SIZE * 25;
+	private final static int UNCHANGED_FLUSH_SIZE = 1000;
 	private final static String LOAD_SCHEMA_PROGRESS_WEBSOCKET_TYPE = "load_schema_progress";
 
 	private Logger logger = LogManager.getLogger(LoadSchemaRunner.class);
@@ -72,6 +96,21 @@ public class LoadSchemaRunner implements Runnable {
 	private Long lastUpdate = System.currentTimeMillis();
 	private Map<String, Object> nodeConfig;
 
+	private final int uploadBatchBytes = CommonUtils.getPropertyInt(UPLOAD_BATCH_BYTES_PROP_KEY, DEFAULT_UPLOAD_BATCH_BYTES);
+	private long pendingBytes;
+	private Map<String, String> previousFingerprints = new HashMap<>();
+	private final Map<String, String> currentFingerprints = new HashMap<>();
+	private final List<String> unchangedTables = new ArrayList<>();
+	private int addedCount;
+	private int changedCount;
+	/**
+	 * Connection updates are sent by one thread in submit order, so discovery goes on while the previous batch is uploading.
+	 * At most one batch waits behind the running one, discovery blocks instead of uploading on its own thread
+	 */
+	private ExecutorService uploadExecutor;
+	private final Semaphore uploadPermits = new Semaphore(2);
+	private final AtomicReference<Throwable> uploadError = new AtomicReference<>();
+
 	public LoadSchemaRunner(Connections connections, ClientMongoOperator clientMongoOperator, int tableCount) {
 		this(connections, clientMongoOperator, tableCount, null);
 	}
@@ -101,16 +140,52 @@ public class LoadSchemaRunner implements Runnable {
 		}
 	}
 
-	public void tableConsumer(TapTable table) {
+	public synchronized void tableConsumer(TapTable table) {
 		if (table == null) {
 			updateSchema(ConnectorConstant.LOAD_FIELD_STATUS_FINISHED, null);
 		} else {
-			schema.getTapTables().add(table);
 			loadSchemaProgress.increaLoadCount(1);
+			String tableName = tableName(table);
+			String fingerprint = SchemaFingerprints.fingerprint(table);
+			currentFingerprints.put(tableName, fingerprint);
+			String previous = previousFingerprints.get(tableName);
+			if (null == previous) {
+				addedCount++;
+			} else if (!previous.equals(fingerprint)) {
+				changedCount++;
+			} else {
+				unchangedTables.add(tableName);
+				updateSchema(ConnectorConstant.LOAD_FIELD_STATUS_LOADING, null);
+				return;
+			}
+			schema.getTapTables().add(table);
+			pendingBytes += estimateBytes(table);
 			updateSchema(ConnectorConstant.LOAD_FIELD_STATUS_LOADING, null);
 		}
 	}
 
+	private static String tableName(TapTable table) {
+		return StringUtils.isNotBlank(table.getName()) ? table.getName() : table.getId();
+	}
+
+	/**
+	 * Rough serialized size of a table, used to size upload batches without serializing twice
+	 */
+	protected static long estimateBytes(TapTable table) {
+		long bytes = 256;
+		LinkedHashMap<String, TapField> nameFieldMap = table.getNameFieldMap();
+		if (MapUtils.isNotEmpty(nameFieldMap)) {
+			for (TapField field : nameFieldMap.values()) {
+				bytes += 192 + StringUtils.length(field.getName()) * 2L + StringUtils.length(field.getDataType())
+						+ StringUtils.length(field.getComment()) + StringUtils.length(field.getDefaultValue() == null ? null : field.getDefaultValue().toString());
+			}
+		}
+		if (CollectionUtils.isNotEmpty(table.getIndexList())) {
+			bytes += 128L * table.getIndexList().size();
+		}
+		return bytes;
+	}
+
 	@Override
 	public void run() {
 		if (connections == null || clientMongoOperator == null) {
@@ -122,6 +197,8 @@ public class LoadSchemaRunner implements Runnable {
 
 		Update update = new Update().set(ConnectorConstant.LOAD_FIELDS, ConnectorConstant.LOAD_FIELD_STATUS_LOADING);
 		updateConnections(update);
+		uploadExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				r -> new Thread(r, String.format(THREAD_NAME, connections.getName()) + "-UPLOAD"));
 
 		try {
 				if (StringUtils.isBlank(connections.getPdkType())) {
@@ -155,23 +232,21 @@ public class LoadSchemaRunner implements Runnable {
 					ConnectionNode connectionNode = null;
 					try {
 						DatabaseTypeEnum.DatabaseType databaseType = ConnectionUtil.getDatabaseType(clientMongoOperator, connections.getPdkHash());
-						connectionNode = PDKIntegration.createConnectionConnectorBuilder()
-								.withConnectionConfig(DataMap.create(connections.getConfig()))
-								.withNodeConfig(DataMap.create(nodeConfig))
-								.withGroup(databaseType.getGroup())
-								.withPdkId(databaseType.getPdkId())
-								.withAssociateId(connections.getName() + "_" + ts)
-								.withVersion(databaseType.getVersion())
-								.withLog(new TapLog())
-								.build();
-						PDKInvocationMonitor.invoke(connectionNode, PDKMethod.INIT, connectionNode::connectorInit, "Init PDK", TAG);
+						connectionNode = createConnectionNode(databaseType, connections.getName() + "_" + ts);
 						if (loadSchemaProgress.getTableCount() <= 0) {
 							loadSchemaProgress.setTableCount(getPdkTableCount(connectionNode));
 						}
 
 						if (loadSchemaProgress.getTableCount() > 0) {
 							connections.setLoadSchemaField(true);
-							loadPdkSchema(connections, connectionNode, this::tableConsumer);
+							previousFingerprints = SchemaFingerprints.load(connections.getId(), connections.getSchemaVersion());
+							int parallelism = discoverParallelism(loadSchemaProgress.getTableCount());
+							if (parallelism > 1) {
+								loadPdkSchemaParallel(connectionNode, parallelism,
+										index -> createConnectionNode(databaseType, connections.getName() + "_" + ts + "_" + index));
+							} else {
+								loadPdkSchema(connections, connectionNode, this::tableConsumer);
+							}
 						}
 					} catch (Throwable throwable) {
 						TapLogger.error(TAG, "Load schema failed: {}", InstanceFactory.instance(TapUtils.class).getStackTrace(throwable));
@@ -192,13 +267,109 @@ public class LoadSchemaRunner implements Runnable {
 
 			logger.info("Finished load schema fields, connection name: {}, progress: {}/{}", connections.getName(),
 					loadSchemaProgress.getLoadCount(), loadSchemaProgress.getTableCount());
+			if (!currentFingerprints.isEmpty()) {
+				int dropped = (int) previousFingerprints.keySet().stream().filter(name -> !currentFingerprints.containsKey(name)).count();
+				logger.info("Load schema summary, connection name: {}, added: {}, changed: {}, dropped: {}, unchanged: {}", connections.getName(),
+						addedCount, changedCount, dropped, currentFingerprints.size() - addedCount - changedCount);
+			}
 		} catch (Exception e) {
 			String msg = String.format("Load schema fields error, connection name: %s, message: %s", connections.getName(), e.getMessage());
 			logger.error(msg + "\n  " + Log4jUtil.getStackString(e), e);
 			updateSchema(ConnectorConstant.LOAD_FIELD_STATUS_ERROR, new RuntimeException(msg, e));
+		} finally {
+			uploadExecutor.shutdown();
+		}
+	}
+
+	private ConnectionNode createConnectionNode(DatabaseTypeEnum.DatabaseType databaseType, String associateId) {
+		ConnectionNode connectionNode = PDKIntegration.createConnectionConnectorBuilder()
+				.withConnectionConfig(DataMap.create(connections.getConfig()))
+				.withNodeConfig(DataMap.create(nodeConfig))
+				.withGroup(databaseType.getGroup())
+				.withPdkId(databaseType.getPdkId())
+				.withAssociateId(associateId)
+				.withVersion(databaseType.getVersion())
+				.withLog(new TapLog())
+				.build();
+		PDKInvocationMonitor.invoke(connectionNode, PDKMethod.INIT, connectionNode::connectorInit, "Init PDK", TAG);
+		return connectionNode;
+	}
+
+	protected static int discoverParallelism(int tableCount) {
+		int parallelism = CommonUtils.getPropertyInt(DISCOVER_PARALLELISM_PROP_KEY, DEFAULT_DISCOVER_PARALLELISM);
+		int chunks = (tableCount + DISCOVER_CHUNK_SIZE - 1) / DISCOVER_CHUNK_SIZE;
+		return Math.max(1, Math.min(parallelism, chunks));
+	}
+
+	/**
+	 * Table names are listed by the main connection node, then discovered chunk by chunk by up to parallelism discoverers,
+	 * each discoverer owns its own connector session
+	 */
+	protected void loadPdkSchemaParallel(ConnectionNode connectionNode, int parallelism, IntFunction<ConnectionNode> discovererFactory) throws Exception {
+		GetTableNamesFunction getTableNamesFunction = connectionNode.getConnectionFunctions().getGetTableNamesFunction();
+		if (null == getTableNamesFunction) {
+			loadPdkSchema(connections, connectionNode, this::tableConsumer);
+			return;
+		}
+		TableFilter tableFilter = TableFilter.create(connections.getTable_filter(), connections.getIfOpenTableExcludeFilter());
+		AtomicInteger threadIndex = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				r -> new Thread(r, String.format(THREAD_NAME, connections.getName()) + "-DISCOVER-" + threadIndex.getAndIncrement()));
+		BlockingQueue<ConnectionNode> idleDiscoverers = new LinkedBlockingQueue<>();
+		List<ConnectionNode> discoverers = new CopyOnWriteArrayList<>();
+		AtomicInteger discovererIndex = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			List<String> tempList = new ArrayList<>();
+			PDKInvocationMonitor.invoke(connectionNode, PDKMethod.GET_TABLE_NAMES,
+					() -> getTableNamesFunction.tableNames(connectionNode.getConnectionContext(), BATCH_SIZE, tableNames -> {
+						if (CollectionUtils.isEmpty(tableNames)) {
+							return;
+						}
+						tableNames.stream().filter(tableFilter).forEach(tempList::add);
+						if (tempList.size() >= DISCOVER_CHUNK_SIZE) {
+							futures.add(submitDiscover(executor, new ArrayList<>(tempList), idleDiscoverers, discoverers, () -> discovererFactory.apply(discovererIndex.getAndIncrement())));
+							tempList.clear();
+						}
+					}), TAG);
+			if (CollectionUtils.isNotEmpty(tempList)) {
+				futures.add(submitDiscover(executor, new ArrayList<>(tempList), idleDiscoverers, discoverers, () -> discovererFactory.apply(discovererIndex.getAndIncrement())));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			tableConsumer((TapTable) null);
+		} catch (ExecutionException e) {
+			Throwable cause = null == e.getCause() ? e : e.getCause();
+			throw new Exception("Load pdk schema failed, message: " + cause.getMessage(), cause);
+		} catch (Throwable throwable) {
+			throw new Exception("Load pdk schema failed, message: " + throwable.getMessage(), throwable);
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+			executor.shutdownNow();
+			for (ConnectionNode discoverer : discoverers) {
+				PDKInvocationMonitor.invoke(discoverer, PDKMethod.STOP, discoverer::connectorStop, "Stop PDK", TAG);
+				PDKIntegration.releaseAssociateId(discoverer.getAssociateId());
+			}
 		}
 	}
 
+	private Future<?> submitDiscover(ExecutorService executor, List<String> tableNames, BlockingQueue<ConnectionNode> idleDiscoverers,
+									 List<ConnectionNode> discoverers, Supplier<ConnectionNode> discovererFactory) {
+		return executor.submit(() -> {
+			ConnectionNode discoverer = idleDiscoverers.poll();
+			if (null == discoverer) {
+				discoverer = discovererFactory.get();
+				discoverers.add(discoverer);
+			}
+			try {
+				pdkDiscoverSchema(discoverer, tableNames, this::tableConsumer);
+			} finally {
+				idleDiscoverers.offer(discoverer);
+			}
+		});
+	}
+
 	public static int getPdkTableCount(ConnectionNode connectionNode) throws Exception {
 		try {
 			AtomicInteger count = new AtomicInteger();
@@ -273,19 +444,27 @@ public class LoadSchemaRunner implements Runnable {
 		}
 	}
 
-	private void updateSchema(String loadFieldsStatus, Throwable error) {
+	private synchronized void updateSchema(String loadFieldsStatus, Throwable error) {
 		Update update = new Update();
 		boolean needUpdate = false;
 		if (schema != null
 				&& ((CollectionUtils.isNotEmpty(schema.getTables()) && schema.getTables().size() % BATCH_SIZE == 0)
-				|| (CollectionUtils.isNotEmpty(schema.getTapTables()) && schema.getTapTables().size() % BATCH_SIZE == 0))) {
+				|| (CollectionUtils.isNotEmpty(schema.getTapTables()) && pendingBytes >= uploadBatchBytes)
+				|| unchangedTables.size() >= UNCHANGED_FLUSH_SIZE)) {
 			setSchemaTables(update);
 			update.set("tableCount", loadSchemaProgress.getTableCount())
 					.set("loadCount", loadSchemaProgress.getLoadCount());
 			needUpdate = true;
 		}
 
-		if (StringUtils.equalsAny(loadFieldsStatus, ConnectorConstant.LOAD_FIELD_STATUS_FINISHED, ConnectorConstant.LOAD_FIELD_STATUS_ERROR)) {
+		boolean done = StringUtils.equalsAny(loadFieldsStatus, ConnectorConstant.LOAD_FIELD_STATUS_FINISHED, ConnectorConstant.LOAD_FIELD_STATUS_ERROR);
+		if (done) {
+			// wait for pipelined uploads, a failed upload fails the whole load
+			awaitUploads();
+			if (null == error && null != uploadError.get()) {
+				loadFieldsStatus = ConnectorConstant.LOAD_FIELD_STATUS_ERROR;
+				error = uploadError.get();
+			}
 			setSchemaTables(update);
 			update.set("tableCount", loadSchemaProgress.getTableCount())
 					.set("loadCount", loadSchemaProgress.getLoadCount());
@@ -302,9 +481,69 @@ public class LoadSchemaRunner implements Runnable {
 					.set("schemaVersion", this.schemaVersion)
 					.set("lastUpdate", this.lastUpdate)
 					.set("everLoadSchema", true);
-			updateConnections(update);
+			if (done) {
+				updateConnections(update);
+				saveFingerprints(loadFieldsStatus);
+			} else {
+				uploadAsync(update);
+			}
 			schema.getTables().clear();
 			schema.getTapTables().clear();
+			unchangedTables.clear();
+			pendingBytes = 0;
+		}
+	}
+
+	private void uploadAsync(Update update) {
+		if (null == uploadExecutor || uploadExecutor.isShutdown()) {
+			updateConnections(update);
+			return;
+		}
+		try {
+			uploadPermits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			uploadError.compareAndSet(null, e);
+			return;
+		}
+		uploadExecutor.execute(() -> {
+			try {
+				updateConnections(update);
+			} catch (Throwable e) {
+				uploadError.compareAndSet(null, e);
+				logger.warn("Upload schema failed, connection name: {}, message: {}", connections.getName(), e.getMessage());
+			} finally {
+				uploadPermits.release();
+			}
+		});
+	}
+
+	/**
+	 * Drain every submitted upload before the final status, later updates are sent on the caller thread
+	 */
+	private void awaitUploads() {
+		if (null == uploadExecutor) {
+			return;
+		}
+		uploadExecutor.shutdown();
+		try {
+			while (!uploadExecutor.awaitTermination(1L, TimeUnit.SECONDS)) {
+				logger.info("Waiting for schema uploads, connection name: {}", connections.getName());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			uploadError.compareAndSet(null, e);
+		}
+	}
+
+	private void saveFingerprints(String loadFieldsStatus) {
+		if (currentFingerprints.isEmpty()) {
+			return;
+		}
+		if (ConnectorConstant.LOAD_FIELD_STATUS_FINISHED.equals(loadFieldsStatus)) {
+			SchemaFingerprints.save(connections.getId(), schemaVersion, currentFingerprints);
+		} else {
+			SchemaFingerprints.remove(connections.getId());
 		}
 	}
 
@@ -328,12 +567,16 @@ public class LoadSchemaRunner implements Runnable {
 				logger.error("Load schema when convert type error, connection name: {}, err msg: {}", connections.getName(), e.getMessage(), e);
 			}
 			tables.forEach(table -> table.setSchemaVersion(schemaVersion));
-			update.set("schema.tables", tables);
+			update.set("schema.tables", new ArrayList<>(tables));
 		}
 		if (CollectionUtils.isNotEmpty(schema.getTapTables())) {
 			List<TapTable> tapTables = schema.getTapTables();
 			tapTables.forEach(t -> t.setLastUpdate(lastUpdate));
-			update.set("schema.tables", tapTables);
+			update.set("schema.tables", new ArrayList<>(tapTables));
+		}
+		if (CollectionUtils.isNotEmpty(unchangedTables)) {
+			// TM only refreshes lastUpdate of these tables, so they are not treated as dropped
+			update.set("unchangedTables", new ArrayList<>(unchangedTables));
 		}
 	}
 
@@ -0,0 +1,129 @@
+package io.tapdata.Runnable;
+
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.constant.MD5Util;
+import io.tapdata.entity.schema.TapField;
+import io.tapdata.entity.schema.TapIndex;
+import io.tapdata.entity.schema.TapIndexField;
+import io.tapdata.entity.schema.TapTable;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per table schema fingerprint, used by {@link LoadSchemaRunner} to upload only the tables whose definition changed since the last load.
+ * Fingerprints are cached in the engine work dir and only trusted when the connection still carries the schema version written with them,
+ * so a load done by another engine invalidates the cache.
+ */
+public class SchemaFingerprints {
+
+	private static final Logger logger = LogManager.getLogger(SchemaFingerprints.class);
+	private static final String DIR_NAME = "schema-fingerprints";
+	private static final String KEY_SCHEMA_VERSION = "schemaVersion";
+	private static final String KEY_FINGERPRINTS = "fingerprints";
+
+	private SchemaFingerprints() {
+	}
+
+	public static String fingerprint(TapTable table) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(table.getId()).append('|').append(table.getName()).append('\n');
+		LinkedHashMap<String, TapField> nameFieldMap = table.getNameFieldMap();
+		if (MapUtils.isNotEmpty(nameFieldMap)) {
+			for (TapField field : nameFieldMap.values()) {
+				sb.append(field.getName()).append('|')
+						.append(field.getDataType()).append('|')
+						.append(field.getNullable()).append('|')
+						.append(field.getPrimaryKeyPos()).append('|')
+						.append(field.getDefaultValue()).append('|')
+						.append(field.getComment()).append('\n');
+			}
+		}
+		if (CollectionUtils.isNotEmpty(table.getIndexList())) {
+			for (TapIndex index : table.getIndexList()) {
+				sb.append(index.getName()).append('|').append(index.getUnique());
+				if (CollectionUtils.isNotEmpty(index.getIndexFields())) {
+					for (TapIndexField indexField : index.getIndexFields()) {
+						sb.append('|').append(indexField.getName()).append(':').append(indexField.getFieldAsc());
+					}
+				}
+				sb.append('\n');
+			}
+		}
+		return MD5Util.crypt(sb.toString(), false);
+	}
+
+	/**
+	 * @return table name -> fingerprint of the last finished load, empty when there is no valid cache
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, String> load(String connectionId, String schemaVersion) {
+		Map<String, String> fingerprints = new HashMap<>();
+		Path path = path(connectionId);
+		if (StringUtils.isBlank(schemaVersion) || null == path || !Files.isRegularFile(path)) {
+			return fingerprints;
+		}
+		try {
+			Map<String, Object> cache = JSONUtil.json2Map(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+			if (schemaVersion.equals(cache.get(KEY_SCHEMA_VERSION)) && cache.get(KEY_FINGERPRINTS) instanceof Map) {
+				fingerprints.putAll((Map<String, String>) cache.get(KEY_FINGERPRINTS));
+			}
+		} catch (Exception e) {
+			logger.warn("Read schema fingerprints failed, will reload all tables, connection id: {}, message: {}", connectionId, e.getMessage());
+		}
+		return fingerprints;
+	}
+
+	public static void save(String connectionId, String schemaVersion, Map<String, String> fingerprints) {
+		Path path = path(connectionId);
+		if (null == path) {
+			return;
+		}
+		Map<String, Object> cache = new HashMap<>();
+		cache.put(KEY_SCHEMA_VERSION, schemaVersion);
+		cache.put(KEY_FINGERPRINTS, fingerprints);
+		try {
+			Files.createDirectories(path.getParent());
+			Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+			Files.write(tmp, JSONUtil.map2Json(cache).getBytes(StandardCharsets.UTF_8));
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.warn("Save schema fingerprints failed, connection id: {}, message: {}", connectionId, e.getMessage());
+		}
+	}
+
+	public static void remove(String connectionId) {
+		Path path = path(connectionId);
+		if (null == path) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			logger.warn("Remove schema fingerprints failed, connection id: {}, message: {}", connectionId, e.getMessage());
+		}
+	}
+
+	private static Path path(String connectionId) {
+		if (StringUtils.isBlank(connectionId)) {
+			return null;
+		}
+		String workDir = System.getenv("TAPDATA_WORK_DIR");
+		if (StringUtils.isBlank(workDir)) {
+			workDir = System.getProperty("user.dir");
+		}
+		return Paths.get(workDir, DIR_NAME, connectionId + ".json");
+	}
+}
@@ -2,6 +2,7 @@ package io.tapdata.flow.engine.V2.exactlyonce;
 
 import com.tapdata.constant.MD5Util;
 import io.tapdata.entity.conversion.TargetTypesGenerator;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
 import io.tapdata.entity.event.dml.TapRecordEvent;
 import io.tapdata.entity.result.TapResult;
 import io.tapdata.entity.schema.TapField;
@@ -10,9 +11,11 @@ import io.tapdata.entity.schema.TapIndexField;
 import io.tapdata.entity.schema.TapTable;
 import io.tapdata.entity.schema.type.TapNumber;
 import io.tapdata.entity.schema.type.TapString;
+import io.tapdata.entity.utils.DataMap;
 import io.tapdata.entity.utils.InstanceFactory;
 import io.tapdata.exception.TapCodeException;
 import io.tapdata.flow.engine.V2.exception.TapExactlyOnceWriteExCode_22;
+import io.tapdata.pdk.apis.entity.TapAdvanceFilter;
 import io.tapdata.pdk.core.api.ConnectorNode;
 import org.apache.commons.lang3.StringUtils;
 
@@ -76,4 +79,19 @@ public class ExactlyOnceUtil {
 		exactlyOnceCacheRow.put(TIMESTAMP_COL_NAME, referenceTime);
 		return exactlyOnceCacheRow;
 	}
+
+	public static TapAdvanceFilter cacheTableFilter(String nodeId, String tableName) {
+		DataMap match = DataMap.create();
+		match.put(NODE_ID_COL_NAME, nodeId);
+		match.put(TABLE_NAME_COL_NAME, tableName);
+		return TapAdvanceFilter.create().match(match);
+	}
+
+	public static long getTimestamp(TapInsertRecordEvent exactlyOnceWriteCache) {
+		Object timestamp = exactlyOnceWriteCache.getAfter().get(TIMESTAMP_COL_NAME);
+		if (!(timestamp instanceof Number)) {
+			throw new TapCodeException(TapExactlyOnceWriteExCode_22.WRITE_CACHE_FAILED_TIMESTAMP_IS_NULL, "Cache row: " + exactlyOnceWriteCache.getAfter());
+		}
+		return ((Number) timestamp).longValue();
+	}
 }
@@ -50,7 +50,11 @@ import java.util.concurrent.TimeUnit;
  **/
 public class ExactlyOnceWriteCleaner {
 	private static final Logger logger = LogManager.getLogger(ExactlyOnceWriteCleaner.class);
-	public static final int BATCH_SIZE = 100;
+	public static final int BATCH_SIZE = 500;
+	/**
+	 * 删除批次之间的停顿; 清理每小时执行一次, 每次只删除最近一小时过期的缓存
+	 */
+	public static final long BATCH_INTERVAL_MS = 200L;
 	public static final String TAG = ExactlyOnceWriteCleaner.class.getSimpleName();
 	private final ConcurrentHashMap<String, ExactlyOnceWriteCleanerEntity> cleanerEntityMap = new ConcurrentHashMap<>();
 	private static volatile ExactlyOnceWriteCleaner instance;
@@ -111,9 +115,8 @@ public class ExactlyOnceWriteCleaner {
 							TapTable tapTable = ExactlyOnceUtil.generateExactlyOnceTable(connectorNode);
 							tapTableMap.put(tapTable.getId(), tapTable);
 
-							TapAdvanceFilter tapAdvanceFilter = TapAdvanceFilter.create()
-									//							.op(QueryOperator.lt(ExactlyOnceUtil.TIMESTAMP_COL_NAME, System.currentTimeMillis() - TimeUnit.DAYS.toMillis(cleanerEntity.getTimeWindowDay())))
-									.op(QueryOperator.lt(ExactlyOnceUtil.TIMESTAMP_COL_NAME, 1684407986084L))
+							TapAdvanceFilter tapAdvanceFilter = ExactlyOnceUtil.cacheTableFilter(cleanerEntity.getNodeId(), cleanerEntity.getTableName())
+									.op(QueryOperator.lt(ExactlyOnceUtil.TIMESTAMP_COL_NAME, System.currentTimeMillis() - TimeUnit.DAYS.toMillis(cleanerEntity.getTimeWindowDay())))
 									.batchSize(BATCH_SIZE);
 							PDKInvocationMonitor.invoke(
 									connectorNode,
@@ -124,6 +127,9 @@ public class ExactlyOnceWriteCleaner {
 											return;
 										}
 										List<Map<String, Object>> results = rs.getResults();
+										if (null == results || results.isEmpty()) {
+											return;
+										}
 										List<TapRecordEvent> tapRecordEvents = new ArrayList<>();
 										for (Map<String, Object> result : results) {
 											TapDeleteRecordEvent tapDeleteRecordEvent = TapDeleteRecordEvent.create()
@@ -135,6 +141,12 @@ public class ExactlyOnceWriteCleaner {
 												PDKMethod.TARGET_WRITE_RECORD,
 												() -> writeRecordFunction.writeRecord(connectorNode.getConnectorContext(), tapRecordEvents, tapTable, delRs -> {
 												}), TAG);
+										// 每批删除之间稍作停顿, 避免对目标库产生集中的删除压力
+										try {
+											TimeUnit.MILLISECONDS.sleep(BATCH_INTERVAL_MS);
+										} catch (InterruptedException e) {
+											Thread.currentThread().interrupt();
+										}
 									}), TAG);
 						} finally {
 							PDKInvocationMonitor.invoke(connectorNode, PDKMethod.STOP, connectorNode::connectorStop, TAG);
@@ -144,7 +156,7 @@ public class ExactlyOnceWriteCleaner {
 			} catch (Exception e) {
 				logger.error("Clean exactly once cache error: ", e);
 			}
-		}, TimeUnit.HOURS.toMillis(1L), TimeUnit.DAYS.toMillis(1L), TimeUnit.MILLISECONDS);
+		}, TimeUnit.HOURS.toMillis(1L), TimeUnit.HOURS.toMillis(1L), TimeUnit.MILLISECONDS);
 	}
 
 	public void registerCleaner(ExactlyOnceWriteCleanerEntity cleanerEntity) {
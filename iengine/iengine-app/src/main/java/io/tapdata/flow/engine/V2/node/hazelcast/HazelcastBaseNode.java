@@ -429,6 +429,27 @@ public abstract class HazelcastBaseNode extends AbstractProcessor {
 	}
 
 	protected int bucketIndex = 0;
+	/**
+	 * 正在扇出到多个下游的事件, outbox 满时下次重试不再重复计数
+	 */
+	private TapdataEvent sharingEvent;
+	/**
+	 * 发送失败的副本, 重试时复用, 保证每个下游只占用一次共享计数
+	 */
+	private TapdataEvent bucketEvent;
+
+	/**
+	 * 节点是否会原地修改收到的 tapEvent, 不修改的节点可直接使用上游共享的 tapEvent
+	 */
+	protected boolean mutatesTapEvent() {
+		return true;
+	}
+
+	protected void ownTapEventIfNeed(TapdataEvent tapdataEvent) {
+		if (null != tapdataEvent && mutatesTapEvent()) {
+			tapdataEvent.ownTapEvent();
+		}
+	}
 
 	protected boolean offer(TapdataEvent dataEvent) {
 		if (dataEvent != null) {
@@ -448,12 +469,23 @@ public abstract class HazelcastBaseNode extends AbstractProcessor {
 			return true;
 		}
 		if (bucketCount > 1) {
+			// 各下游共享同一个 tapEvent, 只复制事件外壳, 需要修改 tapEvent 的下游自行复制
+			if (sharingEvent != dataEvent) {
+				dataEvent.beginShareTapEvent(bucketCount);
+				sharingEvent = dataEvent;
+				bucketEvent = null;
+			}
 			for (bucketIndex = Math.min(bucketIndex, bucketCount); bucketIndex < bucketCount; bucketIndex++) {
-				TapdataEvent cloneEvent = (TapdataEvent) dataEvent.clone();
-				if (!tryEmit(bucketIndex, cloneEvent)) {
+				if (null == bucketEvent) {
+					bucketEvent = dataEvent.shareClone();
+				}
+				if (!tryEmit(bucketIndex, bucketEvent)) {
 					return false;
 				}
+				bucketEvent = null;
 			}
+			dataEvent.releaseTapEvent();
+			sharingEvent = null;
 		} else {
 			return tryEmit(dataEvent);
 		}
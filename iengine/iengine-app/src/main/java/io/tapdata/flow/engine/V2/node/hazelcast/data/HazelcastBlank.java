@@ -19,6 +19,14 @@ public class HazelcastBlank extends HazelcastProcessorBaseNode {
 		super(processorBaseContext);
 	}
 
+	/**
+	 * 原样透传, 不读取也不修改记录
+	 */
+	@Override
+	protected boolean mutatesTapEvent() {
+		return false;
+	}
+
 	@Override
 	protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
 		TapEvent tapEvent = tapdataEvent.getTapEvent();
@@ -7,11 +7,13 @@ import com.tapdata.entity.SyncStage;
 import com.tapdata.entity.dataflow.SyncProgress;
 import com.tapdata.entity.task.context.DataProcessorContext;
 import io.tapdata.flow.engine.V2.node.hazelcast.HazelcastBaseNode;
+import io.tapdata.flow.engine.V2.util.SyncProgressJournal;
 import io.tapdata.flow.engine.V2.util.SyncTypeEnum;
 import lombok.SneakyThrows;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 
 import java.io.IOException;
 import java.util.List;
@@ -22,7 +24,7 @@ import java.util.Map;
  * @date 2022/2/22 5:04 PM
  **/
 public abstract class HazelcastDataBaseNode extends HazelcastBaseNode {
-	protected static final String STREAM_OFFSET_COMPRESS_PREFIX = "_tap_zip_";
+	public static final String STREAM_OFFSET_COMPRESS_PREFIX = "_tap_zip_";
 
 	protected SyncTypeEnum syncType;
 	protected DataProcessorContext dataProcessorContext;
@@ -70,6 +72,9 @@ public abstract class HazelcastDataBaseNode extends HazelcastBaseNode {
 			}
 			Object syncProgressObj = attrs.get("syncProgress");
 			if (syncProgressObj instanceof Map) {
+				// TM 暂时不可用时, 最新的断点可能只在本地日志中
+				ObjectId taskId = dataProcessorContext.getTaskDto().getId();
+				syncProgressObj = SyncProgressJournal.merge(null == taskId ? null : taskId.toHexString(), (Map<?, ?>) syncProgressObj);
 				for (Map.Entry<?, ?> entry : ((Map<?, ?>) syncProgressObj).entrySet()) {
 					Object key = entry.getKey();
 					Object syncProgressString = entry.getValue();
@@ -187,6 +187,8 @@ public class HazelcastTaskTarget extends HazelcastBaseNode {
 
 						MessageEntity messageEntity;
 						for (TapdataEvent tapdataEvent : tapdataEvents) {
+							// 消息直接引用 tapEvent 的 before/after, 写入目标时可能被修改, 先取得私有副本
+							ownTapEventIfNeed(tapdataEvent);
 							if (tapdataEvent.getMessageEntity() != null) {
 								messageEntity = tapdataEvent.getMessageEntity();
 							} else {
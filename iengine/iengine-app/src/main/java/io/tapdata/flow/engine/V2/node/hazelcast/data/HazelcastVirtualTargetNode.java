@@ -35,6 +35,8 @@ public class HazelcastVirtualTargetNode extends HazelcastDataBaseNode {
 					final int count = inbox.drainTo(tapdataEvents, 1000);
 					if (count > 0) {
 						counter.addAndGet(count);
+						// 只计数不使用 tapEvent, 放弃共享, 其它下游无需再复制
+						tapdataEvents.forEach(TapdataEvent::releaseTapEvent);
 					} else {
 						break;
 					}
@@ -72,6 +72,7 @@ public class HazelcastPdkSourceAndTargetTableNode extends HazelcastPdkBaseNode {
 		if (null != error) {
 			throw new RuntimeException(error);
 		}
+		// 由 target 逐条取得 tapEvent 的私有副本, 这里不直接使用事件
 		this.target.process(ordinal, inbox);
 	}
 }
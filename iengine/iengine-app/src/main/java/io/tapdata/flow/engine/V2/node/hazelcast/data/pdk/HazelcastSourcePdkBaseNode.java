@@ -47,6 +47,7 @@ import io.tapdata.entity.event.control.HeartbeatEvent;
 import io.tapdata.entity.event.ddl.TapDDLEvent;
 import io.tapdata.entity.event.ddl.table.TapCreateTableEvent;
 import io.tapdata.entity.event.ddl.table.TapDropTableEvent;
+import io.tapdata.entity.event.ddl.table.TapRenameTableEvent;
 import io.tapdata.entity.event.dml.TapRecordEvent;
 import io.tapdata.entity.mapping.DefaultExpressionMatchingMap;
 import io.tapdata.entity.schema.TapTable;
@@ -62,12 +63,15 @@ import io.tapdata.flow.engine.V2.monitor.MonitorManager;
 import io.tapdata.flow.engine.V2.monitor.impl.TableMonitor;
 import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.DynamicAdjustMemoryContext;
 import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.DynamicAdjustMemoryService;
+import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.EngineMemoryGovernor;
 import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.impl.DynamicAdjustMemoryImpl;
 import io.tapdata.flow.engine.V2.progress.SnapshotProgressManager;
 import io.tapdata.flow.engine.V2.sharecdc.ShareCDCOffset;
 import io.tapdata.flow.engine.V2.util.PdkUtil;
 import io.tapdata.flow.engine.V2.util.SyncTypeEnum;
 import io.tapdata.flow.engine.V2.util.TapEventUtil;
+import io.tapdata.metric.impl.EventRateGauge;
+import io.tapdata.metric.impl.SourceQueueUsageGauge;
 import io.tapdata.node.pdk.ConnectorNodeService;
 import io.tapdata.pdk.apis.functions.PDKMethod;
 import io.tapdata.pdk.apis.functions.connection.GetTableNamesFunction;
@@ -118,6 +122,7 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 	public static final double DEFAULT_SAMPLE_RATE = 0.2D;
 	public static final int MIN_QUEUE_SIZE = 10;
 	public static final int SOURCE_QUEUE_FACTOR = 2;
+	private static final boolean DDL_COALESCE_ENABLE = CommonUtils.getPropertyBool("SOURCE_DDL_COALESCE_ENABLE", true);
 	private final Logger logger = LogManager.getLogger(HazelcastSourcePdkBaseNode.class);
 	protected SyncProgress syncProgress;
 	protected ThreadPoolExecutorEx sourceRunner;
@@ -132,6 +137,10 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 	 * blocked when reading data from data source while jet using async when passing the event to next node.
 	 */
 	protected LinkedBlockingQueue<TapdataEvent> eventQueue;
+	/**
+	 * 引擎级内存调控分配给当前节点的队列预算, 堆内存紧张时入队会被限流
+	 */
+	protected EngineMemoryGovernor.MemoryBudget memoryBudget;
 	private final AtomicReference<Object> lastStreamOffset = new AtomicReference<>();
 	protected StreamReadFuncAspect streamReadFuncAspect;
 	protected TapdataEvent pendingEvent;
@@ -317,6 +326,8 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 		this.sourceQueueCapacity = readBatchSize * SOURCE_QUEUE_FACTOR;
 		this.originalSourceQueueCapacity = sourceQueueCapacity;
 		this.eventQueue = new LinkedBlockingQueue<>(sourceQueueCapacity);
+		SourceQueueUsageGauge.register(eventQueue);
+		this.memoryBudget = EngineMemoryGovernor.getInstance().register(getNode().getId(), getNode().getName(), sourceQueueCapacity);
 		obsLogger.info("Source node \"{}\" event queue capacity: {}", getNode().getName(), sourceQueueCapacity);
 	}
 
@@ -448,7 +459,12 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 			streamOffsetStr = uncompressStreamOffsetIfNeed(streamOffsetStr);
 			Object decodeOffset = PdkUtil.decodeOffset(streamOffsetStr, getConnectorNode());
 			if (decodeOffset instanceof ShareCDCOffset) {
-				syncProgress.setStreamOffsetObj(((ShareCDCOffset) decodeOffset).getStreamOffset());
+				ShareCDCOffset shareCDCOffset = (ShareCDCOffset) decodeOffset;
+				if (null == shareCDCOffset.getStreamOffset() && null != shareCDCOffset.getStreamOffsetTime()) {
+					initStreamOffsetFromTime(shareCDCOffset.getStreamOffsetTime());
+				} else {
+					syncProgress.setStreamOffsetObj(shareCDCOffset.getStreamOffset());
+				}
 			} else {
 				syncProgress.setStreamOffsetObj(PdkUtil.decodeOffset(streamOffset, getConnectorNode()));
 			}
@@ -469,7 +485,8 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 		if (StringUtils.isNotBlank(streamOffset)) {
 			Object decodeOffset = PdkUtil.decodeOffset(streamOffset, getConnectorNode());
 			if (decodeOffset instanceof ShareCDCOffset) {
-				syncProgress.setStreamOffsetObj(((ShareCDCOffset) decodeOffset).getSequenceMap());
+				// Keep the whole offset, the share cdc reader also needs the source offset of the slowest table
+				syncProgress.setStreamOffsetObj(decodeOffset);
 			} else {
 				syncProgress.setStreamOffsetObj(PdkUtil.decodeOffset(streamOffset, getConnectorNode()));
 			}
@@ -884,6 +901,7 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 		int size = events.size();
 		List<TapdataEvent> tapdataEvents = new ArrayList<>(size + 1);
 		List<TapEvent> eventCache = new ArrayList<>();
+		DDLCoalescer ddlCoalescer = DDL_COALESCE_ENABLE && sourceMode == SourceMode.NORMAL ? new DDLCoalescer() : null;
 		for (int i = 0; i < size; i++) {
 			TapEvent tapEvent = events.get(i);
 			if (null == tapEvent.getTime()) {
@@ -892,25 +910,82 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 			TapEvent tapEventCache = cdcDelayCalculation.filterAndCalcDelay(tapEvent, times -> AspectUtils.executeAspect(SourceCDCDelayAspect.class, () -> new SourceCDCDelayAspect().delay(times).dataProcessorContext(dataProcessorContext)));
 			eventCache.add(tapEventCache);
 			boolean isLast = i == (size - 1);
+			if (null != ddlCoalescer) {
+				ddlCoalescer.before(tapEventCache);
+			}
 			TapdataEvent tapdataEvent;
-			tapdataEvent = wrapTapdataEvent(tapEventCache, syncStage, offsetObj, isLast);
+			tapdataEvent = wrapTapdataEvent(tapEventCache, syncStage, offsetObj, isLast, ddlCoalescer);
 			if (null == tapdataEvent) {
 				continue;
 			}
 			tapdataEvents.add(tapdataEvent);
 		}
+		if (null != ddlCoalescer) {
+			ddlCoalescer.flush();
+		}
 		return tapdataEvents;
 	}
 
+	/**
+	 * 合并同一批事件中连续的 DDL, 整批只做一次模型推演
+	 * <pre>
+	 * - 遇到已收集的表的 DML 时先处理已收集的 DDL, 保证 DML 之前的 DDL 推演结果不包含 DML 之后的 DDL
+	 * - 表重命名会改变表名, 单独处理
+	 * </pre>
+	 */
+	protected class DDLCoalescer {
+		private final List<TapEvent> ddlEvents = new ArrayList<>();
+		private final Set<String> tableIds = new HashSet<>();
+
+		protected void before(TapEvent tapEvent) {
+			if (ddlEvents.isEmpty()) {
+				return;
+			}
+			if (tapEvent instanceof TapRenameTableEvent
+					|| (tapEvent instanceof TapRecordEvent && tableIds.contains(((TapRecordEvent) tapEvent).getTableId()))) {
+				flush();
+			}
+		}
+
+		protected void add(TapDDLEvent tapDDLEvent) {
+			ddlEvents.add(tapDDLEvent);
+			tableIds.add(tapDDLEvent.getTableId());
+			if (tapDDLEvent instanceof TapRenameTableEvent) {
+				flush();
+			}
+		}
+
+		protected void flush() {
+			if (ddlEvents.isEmpty()) {
+				return;
+			}
+			List<TapEvent> tapEvents = new ArrayList<>(ddlEvents);
+			ddlEvents.clear();
+			tableIds.clear();
+			try {
+				handleSchemaChange(tapEvents);
+			} catch (Throwable throwable) {
+				throw new NodeException("Error wrap TapEvent, event: " + tapEvents + ", error: " + throwable
+						.getMessage(), throwable)
+						.context(getDataProcessorContext())
+						.event(tapEvents.get(tapEvents.size() - 1));
+			}
+		}
+	}
+
 	protected TapdataEvent wrapTapdataEvent(TapEvent tapEvent, SyncStage syncStage, Object offsetObj, boolean isLast) {
+		return wrapTapdataEvent(tapEvent, syncStage, offsetObj, isLast, null);
+	}
+
+	private TapdataEvent wrapTapdataEvent(TapEvent tapEvent, SyncStage syncStage, Object offsetObj, boolean isLast, DDLCoalescer ddlCoalescer) {
 		try {
 			if (SyncStage.CDC == syncStage) {
 				// Fixed #149167 in 2023-10-29: CDC batch events not full consumed cause loss data
 				//todo: Remove lastStreamOffset if need add transaction in streamReadConsumer.
 				if (isLast) lastStreamOffset.set(offsetObj);
-				return wrapSingleTapdataEvent(tapEvent, syncStage, lastStreamOffset.get(), isLast);
+				return wrapSingleTapdataEvent(tapEvent, syncStage, lastStreamOffset.get(), isLast, ddlCoalescer);
 			} else {
-				return wrapSingleTapdataEvent(tapEvent, syncStage, offsetObj, isLast);
+				return wrapSingleTapdataEvent(tapEvent, syncStage, offsetObj, isLast, ddlCoalescer);
 			}
 		} catch (Throwable throwable) {
 			throw new NodeException("Error wrap TapEvent, event: " + tapEvent + ", error: " + throwable
@@ -920,7 +995,7 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 		}
 	}
 
-	private TapdataEvent wrapSingleTapdataEvent(TapEvent tapEvent, SyncStage syncStage, Object offsetObj, boolean isLast) {
+	private TapdataEvent wrapSingleTapdataEvent(TapEvent tapEvent, SyncStage syncStage, Object offsetObj, boolean isLast, DDLCoalescer ddlCoalescer) {
 		TapdataEvent tapdataEvent = null;
 		switch (sourceMode) {
 			case NORMAL:
@@ -1000,7 +1075,9 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 
 			tapdataEvent.setStreamOffset(offsetObj);
 			tapdataEvent.setSourceTime(((TapDDLEvent) tapEvent).getReferenceTime());
-			if (sourceMode.equals(SourceMode.NORMAL)) {
+			if (null != ddlCoalescer) {
+				ddlCoalescer.add((TapDDLEvent) tapEvent);
+			} else if (sourceMode.equals(SourceMode.NORMAL)) {
 				handleSchemaChange(tapEvent);
 			}
 		}
@@ -1008,99 +1085,178 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 	}
 
 	protected void handleSchemaChange(TapEvent tapEvent) {
-		String tableId = ((TapDDLEvent) tapEvent).getTableId();
-		TapTable tapTable;
-		// Modify schema by ddl event
-		if (tapEvent instanceof TapCreateTableEvent) {
-			tapTable = ((TapCreateTableEvent) tapEvent).getTable();
-		} else {
-			try {
-				tapTable = processorBaseContext.getTapTableMap().get(tableId);
-				ddlSchemaHandler().updateSchemaByDDLEvent((TapDDLEvent) tapEvent, tapTable);
-				TableFieldTypesGenerator tableFieldTypesGenerator = InstanceFactory.instance(TableFieldTypesGenerator.class);
-				DefaultExpressionMatchingMap dataTypesMap = getConnectorNode().getConnectorContext().getSpecification().getDataTypesMap();
-				tableFieldTypesGenerator.autoFill(tapTable.getNameFieldMap(), dataTypesMap);
-			} catch (Exception e) {
-				throw errorHandle(e, "Modify schema by ddl failed, ddl type: " + tapEvent.getClass() + ", error: " + e.getMessage());
-			}
+		handleSchemaChange(Collections.singletonList(tapEvent));
+	}
+
+	/**
+	 * 按顺序把一组 DDL 应用到内存模型和 DAG 上, 然后只做一次模型推演; 推演结果 (DAG, DAGDataService) 由这组 DDL 共享,
+	 * 每个事件各自带上自己表的元数据变更
+	 */
+	protected void handleSchemaChange(List<TapEvent> tapEvents) {
+		List<TapTable> tapTables = new ArrayList<>(tapEvents.size());
+		for (TapEvent tapEvent : tapEvents) {
+			tapTables.add(updateSchemaByDDLEvent(tapEvent));
 		}
 
 		// Refresh task config by ddl event
 		DAG dag = processorBaseContext.getTaskDto().getDag();
 		try {
 			// Update DAG config
-			dag.filedDdlEvent(processorBaseContext.getNode().getId(), (TapDDLEvent) tapEvent);
+			for (TapEvent tapEvent : tapEvents) {
+				dag.filedDdlEvent(processorBaseContext.getNode().getId(), (TapDDLEvent) tapEvent);
+			}
 			DAG cloneDag = dag.clone();
 			// Put new DAG into info map
-			tapEvent.addInfo(NEW_DAG_INFO_KEY, cloneDag);
+			for (TapEvent tapEvent : tapEvents) {
+				tapEvent.addInfo(NEW_DAG_INFO_KEY, cloneDag);
+			}
 		} catch (Exception e) {
 			throw errorHandle(e, "Update DAG by TapDDLEvent failed, error: " + e.getMessage());
 		}
 		// Refresh task schema by ddl event
+		TapEvent currentEvent = null;
 		try {
-			List<MetadataInstancesDto> insertMetadata = new CopyOnWriteArrayList<>();
-			Map<String, MetadataInstancesDto> updateMetadata = new ConcurrentHashMap<>();
-			List<String> removeMetadata = new CopyOnWriteArrayList<>();
 			if (null == transformerWsMessageDto) {
 				transformerWsMessageDto = clientMongoOperator.findOne(new Query(),
 						ConnectorConstant.TASK_COLLECTION + "/transformAllParam/" + processorBaseContext.getTaskDto().getId().toHexString(),
 						TransformerWsMessageDto.class);
 			}
 			DAGDataServiceImpl dagDataService = initDagDataService(transformerWsMessageDto);
-			String qualifiedName;
+			String[] qualifiedNames = new String[tapEvents.size()];
+			List<String> ddlTables = new ArrayList<>();
+			boolean transformAll = false;
+			for (int i = 0; i < tapEvents.size(); i++) {
+				currentEvent = tapEvents.get(i);
+				qualifiedNames[i] = applyDDLEventToMetadata(currentEvent, tapTables.get(i), dagDataService);
+				if (currentEvent instanceof TapDropTableEvent || currentEvent instanceof TapRenameTableEvent) {
+					transformAll = true;
+				} else {
+					ddlTables.add(((TapDDLEvent) currentEvent).getTableId());
+				}
+			}
+			currentEvent = null;
+
+			DAG.Options options = transformerWsMessageDto.getOptions();
 			Map<String, List<Message>> errorMessage;
-			if (tapEvent instanceof TapCreateTableEvent) {
-				qualifiedName = dagDataService.createNewTable(dataProcessorContext.getSourceConn().getId(), tapTable, processorBaseContext.getTaskDto().getId().toHexString());
-				obsLogger.info("Create new table in memory, qualified name: " + qualifiedName);
-				dataProcessorContext.getTapTableMap().putNew(tapTable.getId(), tapTable, qualifiedName);
-				errorMessage = dag.transformSchema(null, dagDataService, transformerWsMessageDto.getOptions());
-				TaskDto taskDto = dagDataService.getTaskById(processorBaseContext.getTaskDto().getId().toHexString());
-				taskDto.setDag(dag);
-				MetadataInstancesDto metadata = dagDataService.getMetadata(qualifiedName);
-				if (null == metadata.getId()) {
-					metadata.setId(new ObjectId());
+			try {
+				if (!transformAll && null != options) {
+					options.setDdlTables(ddlTables);
 				}
-				transformerWsMessageDto.getMetadataInstancesDtoList().add(metadata);
-				insertMetadata.add(metadata);
-				obsLogger.info("Create new table schema transform finished: " + tapTable);
-			} else if (tapEvent instanceof TapDropTableEvent) {
-				qualifiedName = dataProcessorContext.getTapTableMap().getQualifiedName(((TapDropTableEvent) tapEvent).getTableId());
-				obsLogger.info("Drop table in memory qualified name: " + qualifiedName);
-				dagDataService.dropTable(qualifiedName);
-				transformerWsMessageDto.getMetadataInstancesDtoList().stream().filter(m -> Objects.equals(m.getQualifiedName(), qualifiedName)).findFirst()
-						.ifPresent(m -> transformerWsMessageDto.getMetadataInstancesDtoList().remove(m));
-				errorMessage = dag.transformSchema(null, dagDataService, transformerWsMessageDto.getOptions());
-				removeMetadata.add(qualifiedName);
-				obsLogger.info("Drop table schema transform finished");
-			} else {
-				BatchOffsetUtil.updateBatchOffsetWhenTableRename(syncProgress, tapEvent);
-				qualifiedName = dataProcessorContext.getTapTableMap().getQualifiedName(tableId);
-				obsLogger.info("Alter table in memory, qualified name: " + qualifiedName);
-				dagDataService.coverMetaDataByTapTable(qualifiedName, tapTable);
-				errorMessage = dag.transformSchema(null, dagDataService, transformerWsMessageDto.getOptions());
-				MetadataInstancesDto metadata = dagDataService.getMetadata(qualifiedName);
-				if (metadata.getId() == null) {
-					metadata.setId(metadata.getOldId());
+				errorMessage = dag.transformSchema(null, dagDataService, options);
+			} finally {
+				if (null != options) {
+					options.setDdlTables(null);
 				}
-				transformerWsMessageDto.getMetadataInstancesDtoList().stream().filter(m -> Objects.equals(m.getQualifiedName(), qualifiedName)).findFirst()
-						.ifPresent(m -> transformerWsMessageDto.getMetadataInstancesDtoList().remove(m));
-				transformerWsMessageDto.getMetadataInstancesDtoList().add(metadata);
-				metadata.setTableAttr(metadata.getTableAttr());
-				updateMetadata.put(metadata.getId().toHexString(), metadata);
-				obsLogger.info("Alter table schema transform finished");
+			}
+			if (tapEvents.size() > 1) {
+				obsLogger.info("Coalesced " + tapEvents.size() + " ddl events into one schema transform, tables: " + ddlTables.size());
 			}
 
+			List<List<MetadataInstancesDto>> insertMetadataList = new ArrayList<>(tapEvents.size());
+			List<Map<String, MetadataInstancesDto>> updateMetadataList = new ArrayList<>(tapEvents.size());
+			List<List<String>> removeMetadataList = new ArrayList<>(tapEvents.size());
+			for (int i = 0; i < tapEvents.size(); i++) {
+				currentEvent = tapEvents.get(i);
+				List<MetadataInstancesDto> insertMetadata = new CopyOnWriteArrayList<>();
+				Map<String, MetadataInstancesDto> updateMetadata = new ConcurrentHashMap<>();
+				List<String> removeMetadata = new CopyOnWriteArrayList<>();
+				collectTransformedMetadata(currentEvent, tapTables.get(i), qualifiedNames[i], dagDataService, dag, insertMetadata, updateMetadata, removeMetadata);
+				insertMetadataList.add(insertMetadata);
+				updateMetadataList.add(updateMetadata);
+				removeMetadataList.add(removeMetadata);
+			}
+			currentEvent = null;
+
 			List<MetadataInstancesDto> metadataInstancesDtoList = transformerWsMessageDto.getMetadataInstancesDtoList();
 			Map<String, String> qualifiedNameIdMap = metadataInstancesDtoList.stream()
 					.collect(Collectors.toMap(MetadataInstancesDto::getQualifiedName, m -> null == m.getId() ? "" : m.getId().toHexString()));
-			tapEvent.addInfo(QUALIFIED_NAME_ID_MAP_INFO_KEY, qualifiedNameIdMap);
-			tapEvent.addInfo(INSERT_METADATA_INFO_KEY, insertMetadata);
-			tapEvent.addInfo(UPDATE_METADATA_INFO_KEY, updateMetadata);
-			tapEvent.addInfo(REMOVE_METADATA_INFO_KEY, removeMetadata);
-			tapEvent.addInfo(DAG_DATA_SERVICE_INFO_KEY, dagDataService);
-			tapEvent.addInfo(TRANSFORM_SCHEMA_ERROR_MESSAGE_INFO_KEY, errorMessage);
+			for (int i = 0; i < tapEvents.size(); i++) {
+				TapEvent tapEvent = tapEvents.get(i);
+				tapEvent.addInfo(QUALIFIED_NAME_ID_MAP_INFO_KEY, qualifiedNameIdMap);
+				tapEvent.addInfo(INSERT_METADATA_INFO_KEY, insertMetadataList.get(i));
+				tapEvent.addInfo(UPDATE_METADATA_INFO_KEY, updateMetadataList.get(i));
+				tapEvent.addInfo(REMOVE_METADATA_INFO_KEY, removeMetadataList.get(i));
+				tapEvent.addInfo(DAG_DATA_SERVICE_INFO_KEY, dagDataService);
+				tapEvent.addInfo(TRANSFORM_SCHEMA_ERROR_MESSAGE_INFO_KEY, errorMessage);
+			}
 		} catch (Throwable e) {
-			throw new RuntimeException("Transform schema by TapDDLEvent " + tapEvent + " failed, error: " + e.getMessage(), e);
+			Object event = null == currentEvent ? tapEvents : currentEvent;
+			throw new RuntimeException("Transform schema by TapDDLEvent " + event + " failed, error: " + e.getMessage(), e);
+		}
+	}
+
+	private TapTable updateSchemaByDDLEvent(TapEvent tapEvent) {
+		if (tapEvent instanceof TapCreateTableEvent) {
+			return ((TapCreateTableEvent) tapEvent).getTable();
+		}
+		// Modify schema by ddl event
+		try {
+			TapTable tapTable = processorBaseContext.getTapTableMap().get(((TapDDLEvent) tapEvent).getTableId());
+			ddlSchemaHandler().updateSchemaByDDLEvent((TapDDLEvent) tapEvent, tapTable);
+			TableFieldTypesGenerator tableFieldTypesGenerator = InstanceFactory.instance(TableFieldTypesGenerator.class);
+			DefaultExpressionMatchingMap dataTypesMap = getConnectorNode().getConnectorContext().getSpecification().getDataTypesMap();
+			tableFieldTypesGenerator.autoFill(tapTable.getNameFieldMap(), dataTypesMap);
+			return tapTable;
+		} catch (Exception e) {
+			throw errorHandle(e, "Modify schema by ddl failed, ddl type: " + tapEvent.getClass() + ", error: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * 推演前把 DDL 应用到内存元数据上
+	 *
+	 * @return 表的 qualified name
+	 */
+	private String applyDDLEventToMetadata(TapEvent tapEvent, TapTable tapTable, DAGDataServiceImpl dagDataService) {
+		String qualifiedName;
+		if (tapEvent instanceof TapCreateTableEvent) {
+			qualifiedName = dagDataService.createNewTable(dataProcessorContext.getSourceConn().getId(), tapTable, processorBaseContext.getTaskDto().getId().toHexString());
+			obsLogger.info("Create new table in memory, qualified name: " + qualifiedName);
+			dataProcessorContext.getTapTableMap().putNew(tapTable.getId(), tapTable, qualifiedName);
+		} else if (tapEvent instanceof TapDropTableEvent) {
+			qualifiedName = dataProcessorContext.getTapTableMap().getQualifiedName(((TapDropTableEvent) tapEvent).getTableId());
+			obsLogger.info("Drop table in memory qualified name: " + qualifiedName);
+			dagDataService.dropTable(qualifiedName);
+			transformerWsMessageDto.getMetadataInstancesDtoList().stream().filter(m -> Objects.equals(m.getQualifiedName(), qualifiedName)).findFirst()
+					.ifPresent(m -> transformerWsMessageDto.getMetadataInstancesDtoList().remove(m));
+		} else {
+			BatchOffsetUtil.updateBatchOffsetWhenTableRename(syncProgress, tapEvent);
+			qualifiedName = dataProcessorContext.getTapTableMap().getQualifiedName(((TapDDLEvent) tapEvent).getTableId());
+			obsLogger.info("Alter table in memory, qualified name: " + qualifiedName);
+			dagDataService.coverMetaDataByTapTable(qualifiedName, tapTable);
+		}
+		return qualifiedName;
+	}
+
+	/**
+	 * 推演后收集每个 DDL 对应的元数据变更, 由目标节点汇总后一次上报
+	 */
+	private void collectTransformedMetadata(TapEvent tapEvent, TapTable tapTable, String qualifiedName, DAGDataServiceImpl dagDataService, DAG dag,
+											List<MetadataInstancesDto> insertMetadata, Map<String, MetadataInstancesDto> updateMetadata, List<String> removeMetadata) {
+		if (tapEvent instanceof TapCreateTableEvent) {
+			TaskDto taskDto = dagDataService.getTaskById(processorBaseContext.getTaskDto().getId().toHexString());
+			taskDto.setDag(dag);
+			MetadataInstancesDto metadata = dagDataService.getMetadata(qualifiedName);
+			if (null == metadata.getId()) {
+				metadata.setId(new ObjectId());
+			}
+			transformerWsMessageDto.getMetadataInstancesDtoList().add(metadata);
+			insertMetadata.add(metadata);
+			obsLogger.info("Create new table schema transform finished: " + tapTable);
+		} else if (tapEvent instanceof TapDropTableEvent) {
+			removeMetadata.add(qualifiedName);
+			obsLogger.info("Drop table schema transform finished");
+		} else {
+			MetadataInstancesDto metadata = dagDataService.getMetadata(qualifiedName);
+			if (metadata.getId() == null) {
+				metadata.setId(metadata.getOldId());
+			}
+			transformerWsMessageDto.getMetadataInstancesDtoList().stream().filter(m -> Objects.equals(m.getQualifiedName(), qualifiedName)).findFirst()
+					.ifPresent(m -> transformerWsMessageDto.getMetadataInstancesDtoList().remove(m));
+			transformerWsMessageDto.getMetadataInstancesDtoList().add(metadata);
+			metadata.setTableAttr(metadata.getTableAttr());
+			updateMetadata.put(metadata.getId().toHexString(), metadata);
+			obsLogger.info("Alter table schema transform finished");
 		}
 	}
 
@@ -1121,9 +1277,11 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 				}
 			}
 
+			throttleByEngineMemory();
 			while (isRunning()) {
 				TapdataEvent event = this.tapEventFilter.handle(tapdataEvent);
 				if (eventQueue.offer(event, 3, TimeUnit.SECONDS)) {
+					EventRateGauge.record(1L);
 					break;
 				}
 			}
@@ -1134,6 +1292,20 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 		}
 	}
 
+	/**
+	 * 堆内存紧张时队列上限会低于实际容量, 超过上限后按压力大小分段等待, 而不是等到队列满或 OOM
+	 */
+	protected void throttleByEngineMemory() throws InterruptedException {
+		if (null == memoryBudget) {
+			return;
+		}
+		EngineMemoryGovernor governor = EngineMemoryGovernor.getInstance();
+		long throttleMs;
+		while (isRunning() && (throttleMs = governor.throttleMs(memoryBudget, eventQueue.size())) > 0) {
+			TimeUnit.MILLISECONDS.sleep(throttleMs);
+		}
+	}
+
 	@Override
 	protected boolean need2CDC() {
 		if (null != offsetFromTimeError) {
@@ -1306,6 +1478,8 @@ public abstract class HazelcastSourcePdkBaseNode extends HazelcastPdkBaseNode {
 			}), TAG);
 			CommonUtils.ignoreAnyError(() -> Optional.ofNullable(tableMonitorResultHandler).ifPresent(ExecutorService::shutdownNow), TAG);
 			CommonUtils.ignoreAnyError(() -> Optional.ofNullable(sourceRunner).ifPresent(ExecutorService::shutdownNow), TAG);
+			CommonUtils.ignoreAnyError(() -> SourceQueueUsageGauge.unregister(eventQueue), TAG);
+			CommonUtils.ignoreAnyError(() -> EngineMemoryGovernor.getInstance().unregister(memoryBudget), TAG);
 		} finally {
 			super.doClose();
 		}
@@ -52,6 +52,7 @@ import io.tapdata.flow.engine.V2.sharecdc.impl.ShareCdcFactory;
 import io.tapdata.flow.engine.V2.task.TaskClient;
 import io.tapdata.flow.engine.V2.task.TerminalMode;
 import io.tapdata.flow.engine.V2.util.SyncTypeEnum;
+import io.tapdata.metric.impl.SourceQueueUsageGauge;
 import io.tapdata.milestone.MilestoneStage;
 import io.tapdata.milestone.MilestoneStatus;
 import io.tapdata.pdk.apis.consumer.StreamReadConsumer;
@@ -112,11 +113,14 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 	private final Logger logger = LogManager.getRootLogger();
 	private static final int CDC_POLLING_MIN_INTERVAL_MS = 500;
 	private static final int CDC_POLLING_MIN_BATCH_SIZE = 1000;
+	private static final String CDC_POLLING_MAX_IDLE_INTERVAL_MS_PROP_KEY = "CDC_POLLING_MAX_IDLE_INTERVAL_MS";
+	private static final long CDC_POLLING_DEFAULT_MAX_IDLE_INTERVAL_MS = 10000L;
 	private static final long BATCH_COUNT_LIMIT = 5000000;
 	private static final int EQUAL_VALUE = 5;
 	private ShareCdcReader shareCdcReader;
 	private final SourceStateAspect sourceStateAspect;
 	private List<String> conditionFields;
+	private List<String> pollingOffsetFields;
 	private StreamReadConsumer streamReadConsumer;
 	private PDKMethodInvoker streamReadMethodInvoker;
 	private SyncProgress.Type syncProgressType = SyncProgress.Type.NORMAL;
@@ -571,7 +575,13 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 			if (newSourceQueueCapacity != this.sourceQueueCapacity) {
 				while (isRunning()) {
 					if (this.eventQueue.isEmpty()) {
+						LinkedBlockingQueue<TapdataEvent> oldEventQueue = this.eventQueue;
 						this.eventQueue = new LinkedBlockingQueue<>(newSourceQueueCapacity);
+						SourceQueueUsageGauge.unregister(oldEventQueue);
+						SourceQueueUsageGauge.register(this.eventQueue);
+						if (null != memoryBudget) {
+							memoryBudget.setQueueCapacity(newSourceQueueCapacity);
+						}
 						obsLogger.info("{}Source queue size adjusted, old size: {}, new size: {}", DynamicAdjustMemoryConstant.LOG_PREFIX, this.sourceQueueCapacity, newSourceQueueCapacity);
 						this.sourceQueueCapacity = newSourceQueueCapacity;
 						break;
@@ -616,18 +626,14 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 						// Try to start with share cdc
 						doShareCdc();
 					} catch (ShareCdcUnsupportedException e) {
-						if (e.isContinueWithNormalCdc() && !taskDto.getEnforceShareCdc()) {
-							// If share cdc is unavailable, and continue with normal cdc is true
-							obsLogger.info("Share cdc unusable, will use normal cdc mode, reason: " + e.getMessage());
-							try {
-								doNormalCDC();
-							} catch (Exception ex) {
-								throw new TapCodeException(TaskProcessorExCode_11.UNKNOWN_ERROR, e);
-							}
-						} else {
-							throw new TapCodeException(ShareCdcReaderExCode_13.UNKNOWN_ERROR, e);
-						}
+						switchShareCdcToNormalCdc(taskDto, e);
 					} catch (Exception e) {
+						// Share cdc reader may be unusable while listening, e.g. the reading position has expired in share log storage
+						Throwable unsupported = CommonUtils.matchThrowable(e, ShareCdcUnsupportedException.class);
+						if (unsupported instanceof ShareCdcUnsupportedException) {
+							switchShareCdcToNormalCdc(taskDto, (ShareCdcUnsupportedException) unsupported);
+							return;
+						}
 						Throwable throwable = CommonUtils.matchThrowable(e, TapCodeException.class);
 						if (null != throwable) {
 							throw throwable;
@@ -642,6 +648,31 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		}
 	}
 
+	protected void switchShareCdcToNormalCdc(TaskDto taskDto, ShareCdcUnsupportedException e) {
+		if (!e.isContinueWithNormalCdc() || Boolean.TRUE.equals(taskDto.getEnforceShareCdc())) {
+			throw new TapCodeException(ShareCdcReaderExCode_13.UNKNOWN_ERROR, e);
+		}
+		// If share cdc is unavailable, and continue with normal cdc is true
+		obsLogger.info("Share cdc unusable, will use normal cdc mode, reason: " + e.getMessage());
+		Object streamOffsetObj = syncProgress.getStreamOffsetObj();
+		if (streamOffsetObj instanceof ShareCDCOffset) {
+			// Continue from the source offset of the slowest table read from share log storage
+			ShareCDCOffset shareCDCOffset = (ShareCDCOffset) streamOffsetObj;
+			if (null != shareCDCOffset.getStreamOffset()) {
+				syncProgress.setStreamOffsetObj(shareCDCOffset.getStreamOffset());
+			} else if (null != shareCDCOffset.getStreamOffsetTime()) {
+				initStreamOffsetFromTime(shareCDCOffset.getStreamOffsetTime());
+			} else {
+				initStreamOffsetFromTime(syncProgress.getEventTime());
+			}
+		}
+		try {
+			doNormalCDC();
+		} catch (Exception ex) {
+			throw new TapCodeException(TaskProcessorExCode_11.UNKNOWN_ERROR, ex);
+		}
+	}
+
 	protected void enterCDCStage() {
 		this.endSnapshotLoop.set(true);
 		if (null == syncProgress.getStreamOffsetObj()) {
@@ -887,6 +918,7 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		TapTableMap<String, TapTable> tapTableMap = dataProcessorContext.getTapTableMap();
 		List<String> tables = new ArrayList<>(tapTableMap.keySet());
 		excludeRemoveTable(tables);
+		shareCdcTaskContext.setTables(tables);
 		this.syncProgressType = SyncProgress.Type.SHARE_CDC;
 		PDKMethodInvoker pdkMethodInvoker = createPdkMethodInvoker();
 		try {
@@ -934,6 +966,14 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 			throw new IllegalArgumentException("Polling cdc must specify conditional field");
 		}
 		conditionFields = cdcPollingFields.stream().map(TableNode.CdcPollingField::getField).collect(Collectors.toList());
+		pollingOffsetFields = new ArrayList<>(conditionFields);
+		TapTable tapTable = dataProcessorContext.getTapTableMap().get(((TableNode) node).getTableName());
+		if (null != tapTable) {
+			Collection<String> primaryKeys = tapTable.primaryKeys(true);
+			if (CollectionUtils.isNotEmpty(primaryKeys)) {
+				primaryKeys.stream().filter(pk -> !pollingOffsetFields.contains(pk)).forEach(pollingOffsetFields::add);
+			}
+		}
 	}
 
 	private void doPollingCDC() {
@@ -942,7 +982,7 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		}
 		syncProgressType = SyncProgress.Type.POLLING_CDC;
 		Node node = getNode();
-		AtomicLong loopTime = new AtomicLong(1L);
+		long loopTime = 1L;
 		TableNode tableNode = (TableNode) node;
 		String tableName = tableNode.getTableName();
 		TapTable tapTable = dataProcessorContext.getTapTableMap().get(tableName);
@@ -954,10 +994,12 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		tablePollingCDCOffset = getTablePollingCDCOffset((TableNode) node, tableName, tapTable, (Map) streamOffsetObj);
 		long cdcPollingInterval = ((TableNode) node).getCdcPollingInterval();
 		cdcPollingInterval = Math.max(cdcPollingInterval, CDC_POLLING_MIN_INTERVAL_MS);
+		PollingCdcPlanner.AdaptiveInterval adaptiveInterval = new PollingCdcPlanner.AdaptiveInterval(cdcPollingInterval,
+				CommonUtils.getPropertyLong(CDC_POLLING_MAX_IDLE_INTERVAL_MS_PROP_KEY, CDC_POLLING_DEFAULT_MAX_IDLE_INTERVAL_MS));
 		long logInterval = TimeUnit.MINUTES.toMillis(5);
-		long logLoopTime = logInterval / cdcPollingInterval;
+		long lastLogTime = 0L;
 		long heartbeatInterval = TimeUnit.MINUTES.toMillis(1);
-		long heartbeatTime = heartbeatInterval / cdcPollingInterval;
+		long lastHeartbeatTime = 0L;
 		int cdcPollingBatchSize = ((TableNode) node).getCdcPollingBatchSize();
 		cdcPollingBatchSize = Math.max(cdcPollingBatchSize, CDC_POLLING_MIN_BATCH_SIZE);
 
@@ -967,50 +1009,87 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		if (null == queryByAdvanceFilterFunction) {
 			throw new RuntimeException("Node " + connectorNode + " not support query by advance filter, cannot do polling cdc");
 		}
+		List<String> pollingOffsetFields = getPollingOffsetFields();
+		DataMap baseMatch = new DataMap();
+		List<QueryOperator> baseOperators = new ArrayList<>();
+		if (isTableFilter(tableNode) && CollectionUtils.isNotEmpty(tableNode.getConditions())) {
+			for (QueryOperator queryOperator : tableNode.getConditions()) {
+				if (EQUAL_VALUE == queryOperator.getOperator()) {
+					baseMatch.put(queryOperator.getKey(), queryOperator.getValue());
+				} else {
+					baseOperators.add(queryOperator);
+				}
+			}
+		}
 		String logMsg = "Start run table [" + tableName + "] polling cdc with parameters \n - Conditional field(s): " + streamOffsetObj;
-		logMsg += "\n - Loop polling interval: " + cdcPollingInterval + " ms\n - Batch size: " + cdcPollingBatchSize;
+		logMsg += "\n - Offset field(s): " + pollingOffsetFields;
+		logMsg += "\n - Loop polling interval: " + cdcPollingInterval + " ms, backs off while idle\n - Batch size: " + cdcPollingBatchSize;
 		obsLogger.info(logMsg);
 		while (isRunning()) {
-			TapAdvanceFilter tapAdvanceFilter = TapAdvanceFilter.create();
-			for (Map.Entry<String, Object> entry : tablePollingCDCOffset.entrySet()) {
-				String field = entry.getKey();
-				Object value = entry.getValue();
-				if (null != value) {
-					tapAdvanceFilter.op(QueryOperator.gt(field, value));
+			boolean logQuery = System.currentTimeMillis() - lastLogTime >= logInterval;
+			int rows = 0;
+			boolean full = false;
+			// 按 (轮询字段..., 主键...) 组合偏移量分段查询, 同一轮询字段值的多行数据不会在批次边界丢失
+			for (Integer depth : PollingCdcPlanner.phaseDepths(pollingOffsetFields, tablePollingCDCOffset)) {
+				TapAdvanceFilter tapAdvanceFilter = PollingCdcPlanner.phaseFilter(pollingOffsetFields, tablePollingCDCOffset, depth,
+						cdcPollingBatchSize, baseMatch, baseOperators);
+				if (logQuery) {
+					obsLogger.info("Query by advance filter\n - loop time: " + loopTime + "\n - table: " + tapTable.getId()
+							+ "\n - filter: " + tapAdvanceFilter.getOperators() + ", match: " + tapAdvanceFilter.getMatch()
+							+ "\n - limit: " + tapAdvanceFilter.getLimit() + "\n - sort: " + tapAdvanceFilter.getSortOnList());
+				}
+				int count = pollingCDCQuery(tableName, tapTable, tapAdvanceFilter, queryByAdvanceFilterFunction, cdcPollingBatchSize);
+				rows += count;
+				if (count >= cdcPollingBatchSize) {
+					// the offset moved, start again from the deepest position right away
+					full = true;
+					break;
+				}
+				if (!isRunning()) {
+					break;
 				}
-				tapAdvanceFilter.sort(SortOn.ascending(field));
+				tablePollingCDCOffset = getTablePollingCDCOffset(tableNode, tableName, tapTable, (Map) syncProgress.getStreamOffsetObj());
 			}
-			if (isTableFilter(tableNode)) {
-				List<QueryOperator> conditions = tableNode.getConditions();
-				if (CollectionUtils.isNotEmpty(conditions)) {
-					DataMap match = new DataMap();
-					for (QueryOperator queryOperator : conditions) {
-						if (EQUAL_VALUE == queryOperator.getOperator()) {
-							match.put(queryOperator.getKey(), queryOperator.getValue());
-						} else {
-							tapAdvanceFilter.op(queryOperator);
-						}
-					}
-					tapAdvanceFilter.match(match);
+			if (logQuery) {
+				lastLogTime = System.currentTimeMillis();
+			}
+			if (rows == 0 && System.currentTimeMillis() - lastHeartbeatTime >= heartbeatInterval) {
+				enqueue(TapdataHeartbeatEvent.create(System.currentTimeMillis(), syncProgress.getStreamOffsetObj(), SyncProgress.Type.POLLING_CDC));
+				lastHeartbeatTime = System.currentTimeMillis();
+			}
+			long sleepMs = adaptiveInterval.next(rows, full);
+			if (sleepMs > 0) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(sleepMs);
+				} catch (InterruptedException e) {
+					break;
 				}
 			}
-			tapAdvanceFilter.limit(cdcPollingBatchSize);
+			tablePollingCDCOffset = getTablePollingCDCOffset(tableNode, tableName, tapTable, (Map) syncProgress.getStreamOffsetObj());
+			loopTime++;
+		}
+	}
+
+	/**
+	 * @return polling fields followed by the primary keys of the table, which together identify the polling position of a row
+	 */
+	protected List<String> getPollingOffsetFields() {
+		return null == pollingOffsetFields ? conditionFields : pollingOffsetFields;
+	}
+
+	private int pollingCDCQuery(String tableName, TapTable tapTable, TapAdvanceFilter tapAdvanceFilter,
+								QueryByAdvanceFilterFunction queryByAdvanceFilterFunction, int cdcPollingBatchSize) {
+		ConnectorNode connectorNode = getConnectorNode();
+		AtomicInteger count = new AtomicInteger();
+		try {
+			PDKMethodInvoker pdkMethodInvoker = createPdkMethodInvoker();
 			try {
-				if (loopTime.get() == 1L || loopTime.get() % logLoopTime == 0) {
-					obsLogger.info("Query by advance filter\n - loop time: " + loopTime + "\n - table: " + tapTable.getId()
-							+ "\n - filter: " + tapAdvanceFilter.getOperators()
-							+ "\n - limit: " + tapAdvanceFilter.getLimit() + "\n - sort: " + tapAdvanceFilter.getSortOnList());
-				}
-				PDKMethodInvoker pdkMethodInvoker = createPdkMethodInvoker();
-				try {
-				int finalCdcPollingBatchSize = cdcPollingBatchSize;
-				AtomicBoolean hasData = new AtomicBoolean(false);
 				executeDataFuncAspect(
 						StreamReadFuncAspect.class,
 						() -> new StreamReadFuncAspect()
 								.dataProcessorContext(getDataProcessorContext())
 								.tables(Collections.singletonList(tableName))
-								.eventBatchSize(finalCdcPollingBatchSize)
+								.eventBatchSize(cdcPollingBatchSize)
 								.offsetState(syncProgress.getStreamOffsetObj())
 								.start(),
 						streamReadFuncAspect -> PDKInvocationMonitor.invoke(
@@ -1022,7 +1101,7 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 											return;
 										}
 										for (Map<String, Object> result : results) {
-											hasData.compareAndSet(false, true);
+											count.incrementAndGet();
 											TapInsertRecordEvent tapInsertRecordEvent = TapInsertRecordEvent
 													.create()
 													.after(result)
@@ -1049,22 +1128,13 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 									queryByAdvanceFilterFunction.query(connectorNode.getConnectorContext(), tapAdvanceFilter, tapTable, consumer);
 								})
 						));
-				if (!hasData.get() && (loopTime.get() == 1L || loopTime.get() % heartbeatTime == 0)) {
-					enqueue(TapdataHeartbeatEvent.create(System.currentTimeMillis(), syncProgress.getStreamOffsetObj(), SyncProgress.Type.POLLING_CDC));
-				}
-				}finally {
-					removePdkMethodInvoker(pdkMethodInvoker);
-				}
-			} catch (Throwable e) {
-				throw new RuntimeException("Query by advance filter failed, table: " + tapTable.getId() + ", filer: " + tapAdvanceFilter.getOperators() + ", sort: " + tapAdvanceFilter.getSortOnList() + ", limit: " + tapAdvanceFilter.getLimit(), e);
-			}
-			try {
-				TimeUnit.MILLISECONDS.sleep(cdcPollingInterval);
-			} catch (InterruptedException e) {
-				break;
+			} finally {
+				removePdkMethodInvoker(pdkMethodInvoker);
 			}
-			loopTime.incrementAndGet();
+		} catch (Throwable e) {
+			throw new RuntimeException("Query by advance filter failed, table: " + tapTable.getId() + ", filer: " + tapAdvanceFilter.getOperators() + ", match: " + tapAdvanceFilter.getMatch() + ", sort: " + tapAdvanceFilter.getSortOnList() + ", limit: " + tapAdvanceFilter.getLimit(), e);
 		}
+		return count.get();
 	}
 
 	private Map<String, Object> getTablePollingCDCOffset(TableNode node, String tableName, TapTable tapTable, Map streamOffsetObj) {
@@ -1169,9 +1239,9 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		} else {
 			data = ((TapDeleteRecordEvent) tapEvent).getBefore();
 		}
-		for (String conditionField : conditionFields) {
-			Object value = data.get(conditionField);
-			tablePollingCDCOffset.put(conditionField, value);
+		for (String offsetField : getPollingOffsetFields()) {
+			Object value = data.get(offsetField);
+			tablePollingCDCOffset.put(offsetField, value);
 		}
 		TapCodecsFilterManager connectorCodecsFilterManger = getConnectorNode().getCodecsFilterManager();
 		toTapValue(tablePollingCDCOffset, ((TapRecordEvent)tapEvent).getTableId(), connectorCodecsFilterManger);
@@ -1244,8 +1314,8 @@ public class HazelcastSourcePdkDataNode extends HazelcastSourcePdkBaseNode {
 		if (isPollingCDC(tableNode)) {
 			List<TableNode.CdcPollingField> cdcPollingFields = tableNode.getCdcPollingFields();
 			if (CollectionUtils.isNotEmpty(cdcPollingFields)) {
-				for (TableNode.CdcPollingField cdcPollingField : cdcPollingFields) {
-					tapAdvanceFilter.sort(SortOn.ascending(cdcPollingField.getField()));
+				for (String offsetField : getPollingOffsetFields()) {
+					tapAdvanceFilter.sort(SortOn.ascending(offsetField));
 				}
 			}
 		}
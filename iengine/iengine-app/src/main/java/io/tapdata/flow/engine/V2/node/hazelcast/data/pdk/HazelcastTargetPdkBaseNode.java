@@ -1,7 +1,6 @@
 package io.tapdata.flow.engine.V2.node.hazelcast.data.pdk;
 
 import cn.hutool.core.bean.BeanUtil;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.collect.Queues;
 import com.hazelcast.jet.core.Inbox;
 import com.tapdata.constant.*;
@@ -59,7 +58,8 @@ import io.tapdata.flow.engine.V2.node.hazelcast.data.pdk.concurrent.selector.Tap
 import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.DynamicAdjustMemoryConstant;
 import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.DynamicAdjustMemoryExCode_25;
 import io.tapdata.flow.engine.V2.util.GraphUtil;
-import io.tapdata.flow.engine.V2.util.PdkUtil;
+import io.tapdata.flow.engine.V2.util.SyncProgressCheckpoint;
+import io.tapdata.flow.engine.V2.util.SyncProgressJournal;
 import io.tapdata.flow.engine.V2.util.TapEventUtil;
 import io.tapdata.flow.engine.V2.util.TargetTapEventFilter;
 import io.tapdata.metric.collector.ISyncMetricCollector;
@@ -82,6 +82,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.ThreadContext;
+import org.bson.types.ObjectId;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -111,13 +112,15 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 	public static final long DEFAULT_TARGET_BATCH_INTERVAL_MS = 1000;
 	public static final int DEFAULT_TARGET_BATCH = 1000;
 	public static final int TARGET_QUEUE_FACTOR = 2;
-	public static final int COMPRESS_STREAM_OFFSET_STRING_LENGTH_THRESHOLD = 100;
+	public static final int COMPRESS_STREAM_OFFSET_STRING_LENGTH_THRESHOLD = SyncProgressCheckpoint.COMPRESS_STREAM_OFFSET_STRING_LENGTH_THRESHOLD;
 	protected Map<String, SyncProgress> syncProgressMap = new ConcurrentHashMap<>();
 	private AtomicBoolean firstBatchEvent = new AtomicBoolean();
 	private AtomicBoolean firstStreamEvent = new AtomicBoolean();
 	protected Map<String, List<String>> updateConditionFieldsMap = new HashMap<>();
 	protected String writeStrategy = "updateOrInsert";
 	private AtomicBoolean flushOffset = new AtomicBoolean(false);
+	private SyncProgressCheckpoint syncProgressCheckpoint;
+	private final Object checkpointLock = new Object();
 	protected AtomicBoolean uploadDagService;
 	private List<MetadataInstancesDto> insertMetadata;
 	private Map<String, MetadataInstancesDto> updateMetadata;
@@ -429,6 +432,7 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 				final int count = inbox.drainTo(tapdataEvents, targetBatch);
 				if (count > 0) {
 					for (TapdataEvent tapdataEvent : tapdataEvents) {
+						ownTapEventIfNeed(tapdataEvent);
 						// Filter TapEvent
 						if (null != tapdataEvent.getTapEvent() && this.targetTapEventFilter.test(tapdataEvent)) {
 							if (tapdataEvent.getSyncStage().equals(SyncStage.CDC)) {
@@ -464,7 +468,7 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 		}
 	}
 
-	private void dispatchTapdataEvents(List<TapdataEvent> tapdataEvents, Consumer<List<TapdataEvent>> consumer) {
+	static void dispatchTapdataEvents(List<TapdataEvent> tapdataEvents, Consumer<List<TapdataEvent>> consumer) {
 		if (null == tapdataEvents || null == consumer) return;
 		String preClassName = "";
 		List<TapdataEvent> consumeTapdataEvents = new ArrayList<>();
@@ -596,6 +600,7 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 		AtomicReference<TapdataEvent> lastTapdataEvent = new AtomicReference<>();
 		List<TapEvent> tapEvents = new ArrayList<>();
 		List<TapRecordEvent> exactlyOnceWriteCache = new ArrayList<>();
+		List<TapdataEvent> exactlyOnceLookupEvents = new ArrayList<>();
 		List<TapdataShareLogEvent> tapdataShareLogEvents = new ArrayList<>();
 		if (null != getConnectorNode()) {
 			codecsFilterManager = getConnectorNode().getCodecsFilterManager();
@@ -640,16 +645,8 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 						hasExactlyOnceWriteCache = handleExactlyOnceWriteCacheIfNeed(tapdataEvent, exactlyOnceWriteCache);
 						List<String> lookupTables = initAndGetExactlyOnceWriteLookupList();
 						String tgtTableNameFromTapEvent = getTgtTableNameFromTapEvent(tapRecordEvent);
-						if (null != lookupTables && lookupTables.contains(tgtTableNameFromTapEvent) && hasExactlyOnceWriteCache && eventExactlyOnceWriteCheckExists(tapdataEvent)) {
-							if (obsLogger.isDebugEnabled()) {
-								obsLogger.debug("Event check exactly once write exists, will ignore it: {}" + JSONUtil.obj2Json(tapRecordEvent));
-							}
-							continue;
-						} else {
-							if (SyncStage.CDC.equals(tapdataEvent.getSyncStage()) && null != lookupTables && lookupTables.contains(tgtTableNameFromTapEvent)) {
-								obsLogger.info("Target table {} stop look up exactly once cache", tgtTableNameFromTapEvent);
-								lookupTables.remove(tgtTableNameFromTapEvent);
-							}
+						if (null != lookupTables && lookupTables.contains(tgtTableNameFromTapEvent) && hasExactlyOnceWriteCache) {
+							exactlyOnceLookupEvents.add(tapdataEvent);
 						}
 						tapEvents.add(tapRecordEvent);
 						if (null != tapdataEvent.getBatchOffset() || null != tapdataEvent.getStreamOffset()) {
@@ -667,6 +664,7 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 				throw new TapdataEventException(TaskTargetProcessorExCode_15.HANDLE_EVENTS_FAILED, throwable).addEvent(tapdataEvent);
 			}
 		}
+		removeExactlyOnceWriteExists(exactlyOnceLookupEvents, tapEvents);
 		if (CollectionUtils.isNotEmpty(tapEvents)) {
 			try {
 				try {
@@ -949,6 +947,35 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 			}
 		}
 	}
+	/**
+	 * 一个批次只查一次 exactly once 缓存表, 已经写过的事件从 tapEvents 中去掉;
+	 * 批次中有未写过的事件, 说明已经追上了上次写入的位置, 该表后续不再查找
+	 */
+	private void removeExactlyOnceWriteExists(List<TapdataEvent> exactlyOnceLookupEvents, List<TapEvent> tapEvents) {
+		if (CollectionUtils.isEmpty(exactlyOnceLookupEvents)) {
+			return;
+		}
+		Set<TapdataEvent> existsEvents = eventsExactlyOnceWriteCheckExists(exactlyOnceLookupEvents);
+		Set<TapEvent> ignoreTapEvents = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<String> lookupTables = initAndGetExactlyOnceWriteLookupList();
+		for (TapdataEvent tapdataEvent : exactlyOnceLookupEvents) {
+			if (existsEvents.contains(tapdataEvent)) {
+				if (obsLogger.isDebugEnabled()) {
+					obsLogger.debug("Event check exactly once write exists, will ignore it: {}", JSONUtil.obj2Json(tapdataEvent.getTapEvent()));
+				}
+				ignoreTapEvents.add(tapdataEvent.getTapEvent());
+			} else {
+				String tgtTableNameFromTapEvent = getTgtTableNameFromTapEvent(tapdataEvent.getTapEvent());
+				if (null != lookupTables && lookupTables.remove(tgtTableNameFromTapEvent)) {
+					obsLogger.info("Target table {} stop look up exactly once cache", tgtTableNameFromTapEvent);
+				}
+			}
+		}
+		if (!ignoreTapEvents.isEmpty()) {
+			tapEvents.removeIf(ignoreTapEvents::contains);
+		}
+	}
+
 	private boolean handleExactlyOnceWriteCacheIfNeed(TapdataEvent tapdataEvent, List<TapRecordEvent> exactlyOnceWriteCache) {
 		if (!tableEnableExactlyOnceWrite(tapdataEvent.getSyncStage(), getTgtTableNameFromTapEvent(tapdataEvent.getTapEvent()))) {
 			return false;
@@ -994,6 +1021,18 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 		}
 	}
 
+	protected SyncProgressCheckpoint getSyncProgressCheckpoint() {
+		if (null == syncProgressCheckpoint) {
+			synchronized (this.checkpointLock) {
+				if (null == syncProgressCheckpoint) {
+					ObjectId taskId = dataProcessorContext.getTaskDto().getId();
+					syncProgressCheckpoint = new SyncProgressCheckpoint(null == taskId ? null : SyncProgressJournal.create(taskId.toHexString(), getNode().getId()));
+				}
+			}
+		}
+		return syncProgressCheckpoint;
+	}
+
 	private void flushSyncProgressMap(TapdataEvent tapdataEvent) {
 		if (null == tapdataEvent) return;
 		Node<?> node = processorBaseContext.getNode();
@@ -1038,6 +1077,7 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 			flushOffset.set(true);
 		}
 		syncProgress.setEventSerialNo(syncProgress.addAndGetSerialNo(1));
+		getSyncProgressCheckpoint().markDirty(progressKey);
 		if (syncProgress.getSyncStage() == null) {
 			obsLogger.warn(String.format("Found sync stage is null when flush sync progress, event: %s[%s]", tapdataEvent, tapdataEvent.getClass().getName()));
 		}
@@ -1086,34 +1126,22 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 		try {
 			if (!flushOffset.get()) return true;
 			if (MapUtils.isEmpty(syncProgressMap)) return true;
-			Map<String, String> syncProgressJsonMap = new HashMap<>(syncProgressMap.size());
-			for (Map.Entry<String, SyncProgress> entry : syncProgressMap.entrySet()) {
-				String key = entry.getKey();
-				SyncProgress syncProgress = entry.getValue();
-				List<String> list = Arrays.asList(key.split(","));
-				if (null != syncProgress.getBatchOffsetObj()) {
-					syncProgress.setBatchOffset(PdkUtil.encodeOffset(syncProgress.getBatchOffsetObj()));
-				}
-				if (null != syncProgress.getStreamOffsetObj()) {
-					syncProgress.setStreamOffset(PdkUtil.encodeOffset(syncProgress.getStreamOffsetObj()));
-					if (syncProgress.getStreamOffset().length() > COMPRESS_STREAM_OFFSET_STRING_LENGTH_THRESHOLD) {
-						String compress = StringCompression.compress(syncProgress.getStreamOffset());
-						syncProgress.setStreamOffset(STREAM_OFFSET_COMPRESS_PREFIX + compress);
-					}
-				}
-				try {
-					syncProgressJsonMap.put(JSONUtil.obj2Json(list), JSONUtil.obj2Json(syncProgress));
-				} catch (JsonProcessingException e) {
-					throw new RuntimeException("Convert offset to json failed, errors: " + e.getMessage(), e);
-				}
-			}
 			TaskDto taskDto = dataProcessorContext.getTaskDto();
 			String collection = ConnectorConstant.TASK_COLLECTION + "/syncProgress/" + taskDto.getId();
-			try {
-				clientMongoOperator.insertOne(syncProgressJsonMap, collection);
-			} catch (Exception e) {
-				obsLogger.warn("Save to snapshot failed, collection: {}, object: {}, errors: {}", collection, this.syncProgressMap, e.getMessage());
-				return false;
+			synchronized (this.checkpointLock) {
+				// 只上报有变化的断点, TM 按 key 合并
+				SyncProgressCheckpoint checkpoint = getSyncProgressCheckpoint();
+				Map<String, String> syncProgressJsonMap = checkpoint.takeDelta(syncProgressMap);
+				if (MapUtils.isNotEmpty(syncProgressJsonMap)) {
+					try {
+						clientMongoOperator.insertOne(syncProgressJsonMap, collection);
+						checkpoint.succeeded();
+					} catch (Exception e) {
+						obsLogger.warn("Save to snapshot failed, collection: {}, object: {}, errors: {}", collection, this.syncProgressMap, e.getMessage());
+						checkpoint.failed(syncProgressJsonMap);
+						return false;
+					}
+				}
 			}
 			if (uploadDagService.get()) {
 				synchronized (this.saveSnapshotLock) {
@@ -1384,7 +1412,7 @@ public abstract class HazelcastTargetPdkBaseNode extends HazelcastPdkBaseNode {
 		throw new UnsupportedOperationException();
 	}
 
-	boolean eventExactlyOnceWriteCheckExists(TapdataEvent tapdataEvent) {
+	Set<TapdataEvent> eventsExactlyOnceWriteCheckExists(List<TapdataEvent> tapdataEvents) {
 		throw new UnsupportedOperationException();
 	}
 
@@ -27,7 +27,6 @@ import io.tapdata.entity.schema.TapIndex;
 import io.tapdata.entity.schema.TapIndexField;
 import io.tapdata.entity.schema.TapTable;
 import io.tapdata.entity.simplify.pretty.ClassHandlers;
-import io.tapdata.entity.utils.DataMap;
 import io.tapdata.error.TapEventException;
 import io.tapdata.error.TaskTargetProcessorExCode_15;
 import io.tapdata.exception.NodeException;
@@ -35,6 +34,8 @@ import io.tapdata.exception.TapCodeException;
 import io.tapdata.flow.engine.V2.exactlyonce.ExactlyOnceUtil;
 import io.tapdata.flow.engine.V2.exception.TapExactlyOnceWriteExCode_22;
 import io.tapdata.flow.engine.V2.util.SyncTypeEnum;
+import io.tapdata.pdk.apis.entity.QueryOperator;
+import io.tapdata.pdk.apis.entity.SortOn;
 import io.tapdata.pdk.apis.entity.TapAdvanceFilter;
 import io.tapdata.pdk.apis.entity.WriteListResult;
 import io.tapdata.pdk.apis.entity.merge.MergeInfo;
@@ -59,6 +60,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -77,6 +79,10 @@ public class HazelcastTargetPdkDataNode extends HazelcastTargetPdkBaseNode {
 	public static final int CREATE_INDEX_THRESHOLD = 5000000;
 	private final Logger logger = LogManager.getLogger(HazelcastTargetPdkDataNode.class);
 	private ClassHandlers ddlEventHandlers;
+	/**
+	 * 目标表名 -> exactly once 缓存表中该表最大的时间戳
+	 */
+	private final Map<String, Long> exactlyOnceWriteWatermarks = new ConcurrentHashMap<>();
 
 	public HazelcastTargetPdkDataNode(DataProcessorContext dataProcessorContext) {
 		super(dataProcessorContext);
@@ -845,7 +851,8 @@ public class HazelcastTargetPdkDataNode extends HazelcastTargetPdkBaseNode {
 													.writeOneFunction((subTapRecordEvents) -> {
 														writeRecordFunction.writeRecord(connectorNode.getConnectorContext(), subTapRecordEvents, tapTable, resultConsumer);
 														return null;
-													}));
+													})
+													.replayFunction(replayEvents -> replaySkippedEvents(tgtTableName, replayEvents)));
 											if (!pdkMethodInvoker.isEnableSkipErrorEvent()) {
 												try {
 													writeRecordFunction.writeRecord(connectorNode.getConnectorContext(), tapRecordEvents, tapTable, resultConsumer);
@@ -870,6 +877,31 @@ public class HazelcastTargetPdkDataNode extends HazelcastTargetPdkBaseNode {
 		}
 	}
 
+	/**
+	 * 重放跳过的错误事件, 每次都重新获取连接器和表模型, 不使用写入批次的结果回调
+	 *
+	 * @return 写入失败的事件, 连接器通过 errorMap 返回的失败不会抛出异常
+	 */
+	protected Map<TapRecordEvent, Throwable> replaySkippedEvents(String tableName, List<TapRecordEvent> events) throws Throwable {
+		ConnectorNode connectorNode = getConnectorNode();
+		if (!isRunning() || null == connectorNode) {
+			throw new NodeException("Node is stopped, cannot replay skipped events").context(getDataProcessorContext());
+		}
+		WriteRecordFunction writeRecordFunction = connectorNode.getConnectorFunctions().getWriteRecordFunction();
+		if (null == writeRecordFunction) {
+			throw new TapCodeException(TaskTargetProcessorExCode_15.WRITE_RECORD_PDK_NONSUPPORT, String.format("PDK connector id: %s", connectorNode.getConnectorContext().getSpecification().getId()));
+		}
+		TapTable tapTable = dataProcessorContext.getTapTableMap().get(tableName);
+		Map<TapRecordEvent, Throwable> errorMap = new HashMap<>();
+		PDKInvocationMonitor.invoke(connectorNode, PDKMethod.TARGET_WRITE_RECORD,
+				() -> writeRecordFunction.writeRecord(connectorNode.getConnectorContext(), events, tapTable, writeListResult -> {
+					if (MapUtils.isNotEmpty(writeListResult.getErrorMap())) {
+						errorMap.putAll(writeListResult.getErrorMap());
+					}
+				}), TAG);
+		return errorMap;
+	}
+
 	private void addPropertyForMergeEvent(TapEvent tapEvent) {
 		if (null == tapEvent) return;
 		Object info = tapEvent.getInfo(MergeInfo.EVENT_INFO_KEY);
@@ -976,22 +1008,64 @@ public class HazelcastTargetPdkDataNode extends HazelcastTargetPdkBaseNode {
 	}
 
 	@Override
-	boolean eventExactlyOnceWriteCheckExists(TapdataEvent tapdataEvent) {
-		if (null == tapdataEvent) return false;
-		if (null == tapdataEvent.getExactlyOnceWriteCache()) return false;
+	Set<TapdataEvent> eventsExactlyOnceWriteCheckExists(List<TapdataEvent> tapdataEvents) {
+		Set<TapdataEvent> existsEvents = new HashSet<>();
+		if (CollectionUtils.isEmpty(tapdataEvents)) return existsEvents;
 		ConnectorNode connectorNode = getConnectorNode();
 		if (null == connectorNode) {
-			return false;
+			return existsEvents;
 		}
-		TapInsertRecordEvent exactlyOnceWriteCache = tapdataEvent.getExactlyOnceWriteCache();
 		TapTable tapTable = dataProcessorContext.getTapTableMap().get(ExactlyOnceUtil.EXACTLY_ONCE_CACHE_TABLE_NAME);
-		Map<String, Object> filter = exactlyOnceWriteCache.getFilter(tapTable.primaryKeys());
-		TapAdvanceFilter tapAdvanceFilter = TapAdvanceFilter.create().match(DataMap.create(filter));
+		Map<String, List<TapdataEvent>> tableEvents = tapdataEvents.stream()
+				.filter(e -> null != e.getExactlyOnceWriteCache())
+				.collect(Collectors.groupingBy(e -> String.valueOf(e.getExactlyOnceWriteCache().getAfter().get(ExactlyOnceUtil.TABLE_NAME_COL_NAME)), LinkedHashMap::new, Collectors.toList()));
+		for (Map.Entry<String, List<TapdataEvent>> entry : tableEvents.entrySet()) {
+			String tableName = entry.getKey();
+			Long watermark = exactlyOnceWriteWatermarks.computeIfAbsent(tableName, k -> queryExactlyOnceWriteWatermark(connectorNode, tapTable, k));
+			// 时间戳大于缓存表中最大时间戳的事件一定没有写过, 不需要查找
+			List<TapdataEvent> lookupEvents = entry.getValue().stream()
+					.filter(e -> ExactlyOnceUtil.getTimestamp(e.getExactlyOnceWriteCache()) <= watermark)
+					.collect(Collectors.toList());
+			if (lookupEvents.isEmpty()) {
+				continue;
+			}
+			long minTimestamp = lookupEvents.stream().mapToLong(e -> ExactlyOnceUtil.getTimestamp(e.getExactlyOnceWriteCache())).min().getAsLong();
+			long maxTimestamp = lookupEvents.stream().mapToLong(e -> ExactlyOnceUtil.getTimestamp(e.getExactlyOnceWriteCache())).max().getAsLong();
+			TapAdvanceFilter tapAdvanceFilter = ExactlyOnceUtil.cacheTableFilter(getNode().getId(), tableName)
+					.op(QueryOperator.gte(ExactlyOnceUtil.TIMESTAMP_COL_NAME, minTimestamp))
+					.op(QueryOperator.lte(ExactlyOnceUtil.TIMESTAMP_COL_NAME, maxTimestamp));
+			Set<Object> existsIds = new HashSet<>();
+			queryExactlyOnceWriteCache(connectorNode, tapTable, tapAdvanceFilter,
+					results -> results.forEach(row -> existsIds.add(row.get(ExactlyOnceUtil.EXACTLY_ONCE_ID_COL_NAME))));
+			for (TapdataEvent lookupEvent : lookupEvents) {
+				if (existsIds.contains(lookupEvent.getExactlyOnceWriteCache().getAfter().get(ExactlyOnceUtil.EXACTLY_ONCE_ID_COL_NAME))) {
+					existsEvents.add(lookupEvent);
+				}
+			}
+		}
+		return existsEvents;
+	}
 
-		ConnectorFunctions connectorFunctions = connectorNode.getConnectorFunctions();
-		QueryByAdvanceFilterFunction queryByAdvanceFilterFunction = connectorFunctions.getQueryByAdvanceFilterFunction();
+	protected Long queryExactlyOnceWriteWatermark(ConnectorNode connectorNode, TapTable tapTable, String tableName) {
+		TapAdvanceFilter tapAdvanceFilter = ExactlyOnceUtil.cacheTableFilter(getNode().getId(), tableName)
+				.sort(new SortOn(ExactlyOnceUtil.TIMESTAMP_COL_NAME, SortOn.DESCENDING))
+				.limit(1);
+		AtomicReference<Long> watermark = new AtomicReference<>(Long.MIN_VALUE);
+		queryExactlyOnceWriteCache(connectorNode, tapTable, tapAdvanceFilter, results -> {
+			if (CollectionUtils.isNotEmpty(results)) {
+				Object timestamp = results.get(0).get(ExactlyOnceUtil.TIMESTAMP_COL_NAME);
+				if (timestamp instanceof Number) {
+					watermark.set(((Number) timestamp).longValue());
+				}
+			}
+		});
+		obsLogger.info("Exactly once write cache of target table {}, latest timestamp: {}", tableName, watermark.get());
+		return watermark.get();
+	}
+
+	private void queryExactlyOnceWriteCache(ConnectorNode connectorNode, TapTable tapTable, TapAdvanceFilter tapAdvanceFilter, Consumer<List<Map<String, Object>>> consumer) {
+		QueryByAdvanceFilterFunction queryByAdvanceFilterFunction = connectorNode.getConnectorFunctions().getQueryByAdvanceFilterFunction();
 		PDKMethodInvoker pdkMethodInvoker = createPdkMethodInvoker();
-		AtomicBoolean result = new AtomicBoolean(false);
 		try {
 			PDKInvocationMonitor.invoke(connectorNode, PDKMethod.SOURCE_QUERY_BY_ADVANCE_FILTER,
 					pdkMethodInvoker.runnable(
@@ -999,13 +1073,14 @@ public class HazelcastTargetPdkDataNode extends HazelcastTargetPdkBaseNode {
 								if (null != rs.getError()) {
 									throw new TapCodeException(TapExactlyOnceWriteExCode_22.CHECK_CACHE_FAILED, "Check cache failed by filter: " + tapAdvanceFilter, rs.getError());
 								}
-								result.set(CollectionUtils.isNotEmpty(rs.getResults()));
+								if (null != rs.getResults()) {
+									consumer.accept(rs.getResults());
+								}
 							})
 					));
 		} finally {
 			removePdkMethodInvoker(pdkMethodInvoker);
 		}
-		return result.get();
 	}
 
 	@Override
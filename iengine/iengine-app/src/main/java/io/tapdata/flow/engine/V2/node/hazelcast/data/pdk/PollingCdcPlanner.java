@@ -0,0 +1,111 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.data.pdk;
+
+import io.tapdata.entity.utils.DataMap;
+import io.tapdata.pdk.apis.entity.QueryOperator;
+import io.tapdata.pdk.apis.entity.SortOn;
+import io.tapdata.pdk.apis.entity.TapAdvanceFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset pagination for polling cdc.
+ * <p>
+ * The offset is the tuple (polling fields..., primary keys...). Since {@link TapAdvanceFilter} only supports AND conditions,
+ * "tuple > offset" is split into one query per tuple position, deepest first:
+ * <pre>
+ *   f1 = o1 AND f2 = o2 AND pk > o3
+ *   f1 = o1 AND f2 > o2
+ *   f1 > o1
+ * </pre>
+ * Rows sharing the same polling field value are then read page by page through the primary key, none is skipped or read twice.
+ */
+public class PollingCdcPlanner {
+
+	private PollingCdcPlanner() {
+	}
+
+	/**
+	 * @param offsetFields polling fields followed by primary keys
+	 * @param offset       field -> last read value, legacy offsets only contain the polling fields
+	 * @param depth        tuple position of the range condition, starting from 1
+	 * @param baseMatch    equal conditions from the table filter, may be null
+	 * @param baseOperators other conditions from the table filter, may be null
+	 */
+	public static TapAdvanceFilter phaseFilter(List<String> offsetFields, Map<String, Object> offset, int depth, int limit,
+											   Map<String, Object> baseMatch, List<QueryOperator> baseOperators) {
+		TapAdvanceFilter filter = TapAdvanceFilter.create();
+		DataMap match = new DataMap();
+		if (null != baseMatch) {
+			match.putAll(baseMatch);
+		}
+		for (int i = 0; i < depth - 1; i++) {
+			String field = offsetFields.get(i);
+			match.put(field, offset.get(field));
+		}
+		if (depth > 0) {
+			String field = offsetFields.get(depth - 1);
+			filter.op(QueryOperator.gt(field, offset.get(field)));
+		}
+		if (null != baseOperators) {
+			baseOperators.forEach(filter::op);
+		}
+		if (!match.isEmpty()) {
+			filter.match(match);
+		}
+		for (String field : offsetFields) {
+			filter.sort(SortOn.ascending(field));
+		}
+		filter.limit(limit);
+		return filter;
+	}
+
+	/**
+	 * Range condition positions to query in one poll, deepest first. Only the leading non-null values of the offset are used,
+	 * an empty offset means reading from the beginning with a single unfiltered query (depth 0).
+	 */
+	public static List<Integer> phaseDepths(List<String> offsetFields, Map<String, Object> offset) {
+		int depth = 0;
+		while (depth < offsetFields.size() && null != offset && null != offset.get(offsetFields.get(depth))) {
+			depth++;
+		}
+		List<Integer> depths = new ArrayList<>(Math.max(depth, 1));
+		if (depth == 0) {
+			depths.add(0);
+			return depths;
+		}
+		for (int i = depth; i >= 1; i--) {
+			depths.add(i);
+		}
+		return depths;
+	}
+
+	/**
+	 * Polling interval which polls back-to-back while batches come back full, and backs off exponentially while the table is idle
+	 */
+	public static class AdaptiveInterval {
+		private final long baseMs;
+		private final long maxIdleMs;
+		private long currentMs;
+
+		public AdaptiveInterval(long baseMs, long maxIdleMs) {
+			this.baseMs = baseMs;
+			this.maxIdleMs = Math.max(baseMs, maxIdleMs);
+			this.currentMs = baseMs;
+		}
+
+		public long next(int rows, boolean full) {
+			if (full) {
+				currentMs = baseMs;
+				return 0L;
+			}
+			if (rows > 0) {
+				currentMs = baseMs;
+			} else {
+				currentMs = Math.min(currentMs * 2, maxIdleMs);
+			}
+			return currentMs;
+		}
+	}
+}
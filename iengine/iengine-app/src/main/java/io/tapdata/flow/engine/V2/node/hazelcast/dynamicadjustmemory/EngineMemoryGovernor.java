@@ -0,0 +1,269 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory;
+
+import io.tapdata.entity.memory.MemoryFetcher;
+import io.tapdata.entity.utils.DataMap;
+import io.tapdata.pdk.core.api.PDKIntegration;
+import io.tapdata.pdk.core.utils.CommonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 引擎级内存调控: 按整个 JVM 的堆使用率和 GC 耗时计算一个 0~1 的系数, 所有源节点的队列上限都按此系数收缩,
+ * 源节点入队时超过上限会被逐步限流
+ * <pre>
+ * 堆使用率 <= {@link #PROP_LOW_WATERMARK}: 系数为 1, 不限制
+ * 堆使用率 >= {@link #PROP_HIGH_WATERMARK}: 系数为 {@link #MIN_FACTOR}
+ * 两者之间线性收缩; GC 耗时占比超过 {@link #GC_TIME_RATIO_THRESHOLD} 时系数再减半
+ * </pre>
+ * 系数下降立即生效, 上升每次采样最多恢复 {@link #MAX_FACTOR_STEP_UP}, 避免内存刚释放又被填满
+ */
+public class EngineMemoryGovernor implements MemoryFetcher {
+	private static final Logger logger = LogManager.getLogger(EngineMemoryGovernor.class);
+	public static final String PROP_LOW_WATERMARK = "MEMORY_GOVERNOR_LOW_WATERMARK_PERCENT";
+	public static final String PROP_HIGH_WATERMARK = "MEMORY_GOVERNOR_HIGH_WATERMARK_PERCENT";
+	public static final int DEFAULT_LOW_WATERMARK = 60;
+	public static final int DEFAULT_HIGH_WATERMARK = 90;
+	public static final double MIN_FACTOR = 0.05D;
+	public static final double MAX_FACTOR_STEP_UP = 0.2D;
+	public static final double GC_TIME_RATIO_THRESHOLD = 0.3D;
+	public static final long SAMPLE_INTERVAL_MS = 1000L;
+	public static final long MAX_THROTTLE_MS = 200L;
+	private static volatile EngineMemoryGovernor instance;
+
+	private final Map<String, MemoryBudget> budgets = new ConcurrentHashMap<>();
+	private final double lowWatermark;
+	private final double highWatermark;
+	private volatile double heapUsage;
+	private volatile double gcTimeRatio;
+	private volatile double factor = 1D;
+	private long lastGcTimeMs = -1L;
+	private long lastSampleTimeMs;
+
+	public static EngineMemoryGovernor getInstance() {
+		if (null == instance) {
+			synchronized (EngineMemoryGovernor.class) {
+				if (null == instance) {
+					instance = new EngineMemoryGovernor(
+							CommonUtils.getPropertyInt(PROP_LOW_WATERMARK, DEFAULT_LOW_WATERMARK) / 100D,
+							CommonUtils.getPropertyInt(PROP_HIGH_WATERMARK, DEFAULT_HIGH_WATERMARK) / 100D
+					);
+					instance.start();
+				}
+			}
+		}
+		return instance;
+	}
+
+	EngineMemoryGovernor(double lowWatermark, double highWatermark) {
+		this.lowWatermark = lowWatermark;
+		this.highWatermark = Math.max(highWatermark, lowWatermark + 0.01D);
+	}
+
+	private void start() {
+		ScheduledExecutorService scheduledExecutorService = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread thread = new Thread(r, "Engine-Memory-Governor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduledExecutorService.scheduleWithFixedDelay(() -> {
+			try {
+				sample();
+			} catch (Throwable e) {
+				logger.warn("Sample engine memory failed: {}", e.getMessage());
+			}
+		}, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+		CommonUtils.ignoreAnyError(() -> PDKIntegration.registerMemoryFetcher("engineMemoryGovernor", this), EngineMemoryGovernor.class.getSimpleName());
+	}
+
+	public MemoryBudget register(String id, String name, int queueCapacity) {
+		MemoryBudget budget = new MemoryBudget(id, name, queueCapacity);
+		budgets.put(id, budget);
+		return budget;
+	}
+
+	public void unregister(MemoryBudget budget) {
+		if (null != budget) {
+			budgets.remove(budget.getId(), budget);
+		}
+	}
+
+	protected void sample() {
+		long now = System.currentTimeMillis();
+		long gcTimeMs = 0L;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcTimeMs += Math.max(0L, gcBean.getCollectionTime());
+		}
+		double ratio = 0D;
+		if (lastGcTimeMs >= 0L && now > lastSampleTimeMs) {
+			ratio = (double) (gcTimeMs - lastGcTimeMs) / (now - lastSampleTimeMs);
+		}
+		lastGcTimeMs = gcTimeMs;
+		lastSampleTimeMs = now;
+		update(currentHeapUsage(), ratio);
+	}
+
+	/**
+	 * 优先使用老年代上次 GC 后的占用, 它反映的是真正存活的数据量; 取不到时使用当前堆占用
+	 */
+	protected static double currentHeapUsage() {
+		double usage = -1D;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) {
+				continue;
+			}
+			MemoryUsage collectionUsage = pool.getCollectionUsage();
+			if (null == collectionUsage || collectionUsage.getMax() <= 0L) {
+				continue;
+			}
+			usage = Math.max(usage, (double) collectionUsage.getUsed() / collectionUsage.getMax());
+		}
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		if (heap.getMax() > 0L) {
+			double current = (double) heap.getUsed() / heap.getMax();
+			// 当前占用已经接近上限时, 不等 GC 结果直接按当前占用处理
+			if (usage < 0D || current > usage && current >= 0.95D) {
+				usage = current;
+			}
+		}
+		return Math.max(usage, 0D);
+	}
+
+	protected void update(double heapUsage, double gcTimeRatio) {
+		this.heapUsage = heapUsage;
+		this.gcTimeRatio = gcTimeRatio;
+		double target;
+		if (heapUsage <= lowWatermark) {
+			target = 1D;
+		} else if (heapUsage >= highWatermark) {
+			target = MIN_FACTOR;
+		} else {
+			target = 1D - (1D - MIN_FACTOR) * (heapUsage - lowWatermark) / (highWatermark - lowWatermark);
+		}
+		if (gcTimeRatio > GC_TIME_RATIO_THRESHOLD) {
+			target = Math.max(MIN_FACTOR, target / 2D);
+		}
+		double old = factor;
+		double newFactor = target < old ? target : Math.min(target, old + MAX_FACTOR_STEP_UP);
+		factor = newFactor;
+		if ((old >= 1D) != (newFactor >= 1D) || Math.abs(old - newFactor) >= 0.25D) {
+			logger.info("Engine memory factor changed from {} to {}, heap usage: {}%, gc time ratio: {}%, budgets: {}",
+					String.format("%.2f", old), String.format("%.2f", newFactor), Math.round(heapUsage * 100), Math.round(gcTimeRatio * 100), budgets.size());
+		}
+	}
+
+	public double getFactor() {
+		return factor;
+	}
+
+	/**
+	 * 未启用调控 (没有源节点运行过) 时返回 1
+	 */
+	public static double currentFactor() {
+		EngineMemoryGovernor governor = instance;
+		return null == governor ? 1D : governor.getFactor();
+	}
+
+	public boolean underPressure() {
+		return factor < 1D;
+	}
+
+	/**
+	 * 源节点当前允许的队列长度
+	 */
+	public int queueLimit(MemoryBudget budget) {
+		if (null == budget) {
+			return Integer.MAX_VALUE;
+		}
+		double f = factor;
+		if (f >= 1D) {
+			return budget.getQueueCapacity();
+		}
+		return Math.max(DynamicAdjustMemoryContext.DEFAULT_MIN_QUEUE_SIZE, (int) (budget.getQueueCapacity() * f));
+	}
+
+	/**
+	 * 队列长度超过上限时返回需要等待的毫秒数, 内存压力越大等待越久, 返回 0 表示可以入队
+	 */
+	public long throttleMs(MemoryBudget budget, int queueSize) {
+		if (null == budget) {
+			return 0L;
+		}
+		if (queueSize < queueLimit(budget)) {
+			return 0L;
+		}
+		budget.throttled();
+		return Math.max(1L, (long) (MAX_THROTTLE_MS * (1D - factor)));
+	}
+
+	public double getHeapUsage() {
+		return heapUsage;
+	}
+
+	@Override
+	public DataMap memory(String keyRegex, String memoryLevel) {
+		DataMap dataMap = DataMap.create()
+				.kv("heap usage", heapUsage)
+				.kv("gc time ratio", gcTimeRatio)
+				.kv("factor", factor)
+				.kv("low watermark", lowWatermark)
+				.kv("high watermark", highWatermark);
+		DataMap budgetMap = DataMap.create();
+		budgets.values().forEach(budget -> budgetMap.kv(budget.getName(), DataMap.create()
+				.kv("queue capacity", budget.getQueueCapacity())
+				.kv("queue limit", queueLimit(budget))
+				.kv("throttled times", budget.getThrottledTimes())));
+		dataMap.kv("budgets", budgetMap);
+		return dataMap;
+	}
+
+	public static class MemoryBudget {
+		private final String id;
+		private final String name;
+		private volatile int queueCapacity;
+		private volatile long throttledTimes;
+
+		MemoryBudget(String id, String name, int queueCapacity) {
+			this.id = id;
+			this.name = name;
+			this.queueCapacity = queueCapacity;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		/**
+		 * 节点自身按事件大小调整队列后同步更新
+		 */
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		void throttled() {
+			throttledTimes++;
+		}
+
+		public long getThrottledTimes() {
+			return throttledTimes;
+		}
+	}
+}
@@ -94,6 +94,11 @@ public class HazelcastMigrateFieldRenameProcessorNode extends HazelcastProcessor
 		applyConfig = new MigrateFieldRenameProcessorNode.ApplyConfig(nodeConfig);
 	}
 
+	@Override
+	protected boolean supportCooperative() {
+		return true;
+	}
+
 	@Override
 	protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
 		TapEvent tapEvent = tapdataEvent.getTapEvent();
@@ -1,5 +1,6 @@
 package io.tapdata.flow.engine.V2.node.hazelcast.processor;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Queues;
 import com.tapdata.entity.SyncStage;
 import com.tapdata.entity.TapdataEvent;
@@ -11,6 +12,7 @@ import io.tapdata.aspect.ProcessorNodeProcessAspect;
 import io.tapdata.aspect.utils.AspectUtils;
 import io.tapdata.entity.codec.TapCodecsRegistry;
 import io.tapdata.entity.codec.filter.TapCodecsFilterManager;
+import io.tapdata.entity.schema.TapTable;
 import io.tapdata.error.TapEventException;
 import io.tapdata.error.TaskProcessorExCode_11;
 import io.tapdata.exception.TapCodeException;
@@ -19,11 +21,15 @@ import io.tapdata.flow.engine.V2.util.DelayHandler;
 import io.tapdata.flow.engine.V2.util.TapCodecUtil;
 import io.tapdata.flow.engine.V2.util.TapEventUtil;
 import io.tapdata.pdk.core.utils.CommonUtils;
+import io.tapdata.schema.TapTableMap;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.*;
@@ -43,6 +49,7 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 	public static final String PROCESSOR_BATCH_TIMEOUT_MS_PROP_KEY = "PROCESSOR_BATCH_TIMEOUT_MS";
 	public static final int DEFAULT_BATCH_SIZE = 1000;
 	public static final long DEFAULT_BATCH_TIMEOUT_MS = 1000L;
+	public static final String PROCESSOR_COOPERATIVE_PROP_KEY = "PROCESSOR_COOPERATIVE";
 
 	/**
 	 * Ignore process
@@ -54,6 +61,15 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 	protected SyncStage syncStage;
 	private boolean enableBatch = false;
 	protected EventBatchProcessor batchProcessor;
+	private Boolean cooperative;
+	/**
+	 * 协作模式下 outbox 已满时未发出的事件; Jet 会在下一次 tryProcess 传入同一个 item, 届时继续发送, 不会重复处理
+	 */
+	private final Deque<TapdataEvent> pendingEvents = new ArrayDeque<>();
+	/**
+	 * 惰性生成的处理结果, 发送时才逐个生成, 见 {@link #tryProcessLazily(TapdataEvent)}
+	 */
+	private LazyEvents pendingIterator;
 
 	public HazelcastProcessorBaseNode(ProcessorBaseContext processorBaseContext) {
 		super(processorBaseContext);
@@ -71,11 +87,18 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 
 	private void initEnableInitialBatch() {
 		Node node = getNode();
-		if (node instanceof MergeTableNode) {
+		if (node instanceof MergeTableNode || supportBatchProcess()) {
 			enableBatch = true;
 		}
 	}
 
+	/**
+	 * 返回 true 时事件先攒批, 再由 {@link #tryProcess(List, Consumer)} 在独立线程中批量处理
+	 */
+	protected boolean supportBatchProcess() {
+		return false;
+	}
+
 	private void initBatchProcessorIfNeed() {
 		if (!this.enableBatch) {
 			return;
@@ -146,7 +169,7 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 				if (null == tapdataEvent) {
 					return;
 				}
-				if (tapdataEvent.isDML()) {
+				if (tapdataEvent.isDML() && mutatesTapEvent()) {
 					if (processResult == null) {
 						processResult = getProcessResult(TapEventUtil.getTableId(tapdataEvent.getTapEvent()));
 					}
@@ -176,15 +199,73 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 		return TapCodecsFilterManager.create(tapCodecsRegistry);
 	}
 
+	/**
+	 * 只做内存计算、不会阻塞的节点返回 true, 由 Jet 以协作模式运行, 多个任务的节点共享协作线程
+	 */
+	protected boolean supportCooperative() {
+		return false;
+	}
+
+	/**
+	 * Jet 在 init 之后读取一次; init 内未预加载完所有表结构时, 读取缺失的表结构会同步请求 TM, 这次运行不使用协作模式
+	 */
+	@Override
+	public boolean isCooperative() {
+		if (null == cooperative) {
+			cooperative = supportCooperative() && CommonUtils.getPropertyBool(PROCESSOR_COOPERATIVE_PROP_KEY, true) && schemaPreloaded();
+		}
+		return cooperative;
+	}
+
+	private boolean schemaPreloaded() {
+		TapTableMap<String, TapTable> tapTableMap = null == processorBaseContext ? null : processorBaseContext.getTapTableMap();
+		return null == tapTableMap || tapTableMap.isPreloaded();
+	}
+
+	private boolean offerPendingEvents() {
+		while (!pendingEvents.isEmpty()) {
+			if (!offer(pendingEvents.peekFirst())) {
+				return false;
+			}
+			pendingEvents.pollFirst();
+		}
+		while (null != pendingIterator) {
+			if (!pendingIterator.hasNext()) {
+				pendingIterator = null;
+				break;
+			}
+			TapdataEvent event = pendingIterator.next();
+			if (!offer(event)) {
+				pendingEvents.addFirst(event);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean hasPendingEvents() {
+		return !pendingEvents.isEmpty() || null != pendingIterator;
+	}
+
 	@Override
 	protected final boolean tryProcess(int ordinal, @NotNull Object item) throws Exception {
 		AtomicBoolean result = new AtomicBoolean(true);
 		try {
 			if (!isRunning()) {
+				pendingEvents.clear();
+				if (null != pendingIterator) {
+					pendingIterator.end(null);
+					pendingIterator = null;
+				}
 				return true;
 			}
+			if (hasPendingEvents()) {
+				return offerPendingEvents();
+			}
 			TapdataEvent tapdataEvent = (TapdataEvent) item;
+			ownTapEventIfNeed(tapdataEvent);
 			List<TapdataEvent> processedEventList = new ArrayList<>();
+			AtomicReference<LazyEvents> lazyEvents = new AtomicReference<>();
 			if (!getNode().disabledNode()) {
 				try {
 					AspectUtils.executeProcessorFuncAspect(ProcessorNodeProcessAspect.class, () -> new ProcessorNodeProcessAspect()
@@ -217,7 +298,8 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 						// Update memory from ddl event info map
 						updateMemoryFromDDLInfoMap(tapdataEvent);
 						AtomicReference<TapValueTransform> tapValueTransform = new AtomicReference<>();
-						if (tapdataEvent.isDML()) {
+						// 不修改 tapEvent 的节点跳过 TapValue 的原地转换, 直接使用上游共享的 tapEvent
+						if (tapdataEvent.isDML() && mutatesTapEvent()) {
 							tapValueTransform.set(transformFromTapValue(tapdataEvent));
 						}
 						if (needBatchProcess()) {
@@ -235,26 +317,20 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 							}
 						} else {
 							handleOriginalValueMapIfNeed(tapValueTransform);
+							Iterator<TapdataEvent> iterator = tryProcessLazily(tapdataEvent);
+							if (null != iterator) {
+								if (null != processorNodeProcessAspect) {
+									processorNodeProcessAspect.deferEnd();
+								}
+								lazyEvents.set(new LazyEvents(Iterators.transform(iterator, event -> completeProcessedEvent(tapdataEvent, event, null, tapValueTransform.get(), processorNodeProcessAspect)), processorNodeProcessAspect));
+								return;
+							}
 							tryProcess(tapdataEvent, (event, processResult) -> {
 								if (null == event) {
 									return;
 								}
-								if (tapdataEvent.isDML()) {
-									if (processResult == null) {
-										processResult = getProcessResult(TapEventUtil.getTableId(tapdataEvent.getTapEvent()));
-									}
-									if (null != processResult.getTableId()) {
-										transformToTapValue(event, processorBaseContext.getTapTableMap(), processResult.getTableId(), tapValueTransform.get());
-									} else {
-										transformToTapValue(event, processorBaseContext.getTapTableMap(), getNode().getId(), tapValueTransform.get());
-									}
-								}
-
 								// consider process is done
-								processedEventList.add(event);
-								if (null != processorNodeProcessAspect) {
-									AspectUtils.accept(processorNodeProcessAspect.state(ProcessorNodeProcessAspect.STATE_PROCESSING).getConsumers(), event);
-								}
+								processedEventList.add(completeProcessedEvent(tapdataEvent, event, processResult, tapValueTransform.get(), processorNodeProcessAspect));
 							});
 						}
 					});
@@ -269,7 +345,27 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 				processedEventList.add(tapdataEvent);
 			}
 
-			if (CollectionUtils.isNotEmpty(processedEventList)) {
+			if (null != lazyEvents.get()) {
+				if (isCooperative()) {
+					pendingIterator = lazyEvents.get();
+					result.set(offerPendingEvents());
+				} else {
+					LazyEvents iterator = lazyEvents.get();
+					while (isRunning() && iterator.hasNext()) {
+						TapdataEvent event = iterator.next();
+						while (isRunning()) {
+							if (delayHandler.process(() -> this.offer(event))) {
+								break;
+							}
+						}
+					}
+					iterator.end(null);
+				}
+			} else if (CollectionUtils.isNotEmpty(processedEventList) && isCooperative()) {
+				// 协作线程不能等待下游, outbox 满时返回 false 让出线程
+				pendingEvents.addAll(processedEventList);
+				result.set(offerPendingEvents());
+			} else if (CollectionUtils.isNotEmpty(processedEventList)) {
 				for (TapdataEvent event : processedEventList) {
 					while (isRunning()) {
 						if (delayHandler.process(() -> this.offer(event))) {
@@ -304,6 +400,7 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 	protected void doClose() throws TapCodeException {
 		try {
 			CommonUtils.ignoreAnyError(() -> Optional.ofNullable(this.batchProcessor).ifPresent(EventBatchProcessor::shutdown), TAG);
+			CommonUtils.ignoreAnyError(() -> Optional.ofNullable(this.pendingIterator).ifPresent(lazy -> lazy.end(null)), TAG);
 		} finally {
 			super.doClose();
 		}
@@ -320,8 +417,84 @@ public abstract class HazelcastProcessorBaseNode extends HazelcastBaseNode {
 		return ProcessResult.create().tableId(tableName);
 	}
 
+	private TapdataEvent completeProcessedEvent(TapdataEvent tapdataEvent, TapdataEvent event, ProcessResult processResult,
+												TapValueTransform tapValueTransform, ProcessorNodeProcessAspect processorNodeProcessAspect) {
+		if (tapdataEvent.isDML() && mutatesTapEvent()) {
+			if (processResult == null) {
+				processResult = getProcessResult(TapEventUtil.getTableId(tapdataEvent.getTapEvent()));
+			}
+			if (null != processResult.getTableId()) {
+				transformToTapValue(event, processorBaseContext.getTapTableMap(), processResult.getTableId(), tapValueTransform);
+			} else {
+				transformToTapValue(event, processorBaseContext.getTapTableMap(), getNode().getId(), tapValueTransform);
+			}
+		}
+		if (null != processorNodeProcessAspect) {
+			AspectUtils.accept(processorNodeProcessAspect.state(ProcessorNodeProcessAspect.STATE_PROCESSING).getConsumers(), event);
+		}
+		return event;
+	}
+
 	protected abstract void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer);
 
+	/**
+	 * 惰性生成的处理结果; 处理切面在结果全部发出 (或生成失败、节点停止) 后才结束,
+	 * 保证每个结果的 STATE_PROCESSING 回调都发生在切面结束之前
+	 */
+	static class LazyEvents implements Iterator<TapdataEvent> {
+		private final Iterator<TapdataEvent> iterator;
+		private final ProcessorNodeProcessAspect aspect;
+		private boolean ended;
+
+		LazyEvents(Iterator<TapdataEvent> iterator, ProcessorNodeProcessAspect aspect) {
+			this.iterator = iterator;
+			this.aspect = aspect;
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean hasNext;
+			try {
+				hasNext = iterator.hasNext();
+			} catch (RuntimeException e) {
+				end(e);
+				throw e;
+			}
+			if (!hasNext) {
+				end(null);
+			}
+			return hasNext;
+		}
+
+		@Override
+		public TapdataEvent next() {
+			try {
+				return iterator.next();
+			} catch (RuntimeException e) {
+				end(e);
+				throw e;
+			}
+		}
+
+		void end(Throwable throwable) {
+			if (ended) {
+				return;
+			}
+			ended = true;
+			if (null != aspect) {
+				AspectUtils.executeAspect(aspect.throwable(throwable).state(ProcessorNodeProcessAspect.STATE_END));
+			}
+		}
+	}
+
+	/**
+	 * 一个事件可能产生大量结果时, 返回惰性迭代器, 结果在发送给下游时才逐个生成, 受下游背压控制;
+	 * 返回 null 时使用 {@link #tryProcess(TapdataEvent, BiConsumer)}
+	 */
+	protected Iterator<TapdataEvent> tryProcessLazily(TapdataEvent tapdataEvent) {
+		return null;
+	}
+
 	protected void tryProcess(List<BatchEventWrapper> tapdataEvents, Consumer<List<BatchProcessResult>> consumer) {
 		if (null == tapdataEvents) {
 			return;
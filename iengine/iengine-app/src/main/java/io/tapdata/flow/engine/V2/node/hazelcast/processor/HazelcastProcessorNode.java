@@ -48,6 +48,7 @@ import static org.springframework.data.mongodb.core.query.Criteria.where;
 public class HazelcastProcessorNode extends HazelcastProcessorBaseNode {
 
 	private DataFlowProcessor dataFlowProcessor;
+	private List<JavaScriptFunctions> javaScriptFunctions;
 
 	public HazelcastProcessorNode(DataProcessorContext dataProcessorContext) throws Exception {
 		super(dataProcessorContext);
@@ -81,7 +82,10 @@ public class HazelcastProcessorNode extends HazelcastProcessorBaseNode {
 		job.setJobErrorNotifier(this::errorHandle);
 		job.setUser_id(subTaskDto.getUserId());
 		job.setStopOnError(true);
-		List<JavaScriptFunctions> javaScriptFunctions = clientMongoOperator.find(new Query(where("type").ne("system")).with(Sort.by(Sort.Order.asc("last_update"))), ConnectorConstant.JAVASCRIPT_FUNCTION_COLLECTION, JavaScriptFunctions.class);
+		if (null == javaScriptFunctions) {
+			// DDL 触发的重新初始化复用启动时加载的函数, 避免在处理线程上请求 TM
+			javaScriptFunctions = clientMongoOperator.find(new Query(where("type").ne("system")).with(Sort.by(Sort.Order.asc("last_update"))), ConnectorConstant.JAVASCRIPT_FUNCTION_COLLECTION, JavaScriptFunctions.class);
+		}
 
 		ProcessorContext processorContext = new ProcessorContext(
 				null,
@@ -99,6 +103,25 @@ public class HazelcastProcessorNode extends HazelcastProcessorBaseNode {
 		}
 	}
 
+	@Override
+	protected boolean supportCooperative() {
+		String type = processorBaseContext.getNode().getType();
+		NodeTypeEnum nodeType = null == type ? null : NodeTypeEnum.get(type);
+		if (null == nodeType) {
+			return false;
+		}
+		switch (nodeType) {
+			case ROW_FILTER_PROCESSOR:
+			case FIELD_RENAME_PROCESSOR:
+			case FIELD_MOD_TYPE_PROCESSOR:
+			case FIELD_ADD_DEL_PROCESSOR:
+				return true;
+			default:
+				// 字段计算等节点会执行用户脚本, 可能阻塞
+				return false;
+		}
+	}
+
 	@Override
 	protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
 		TapEvent tapEvent = tapdataEvent.getTapEvent();
@@ -22,6 +22,7 @@ import io.tapdata.entity.event.dml.TapDeleteRecordEvent;
 import io.tapdata.entity.event.dml.TapInsertRecordEvent;
 import io.tapdata.entity.event.dml.TapRecordEvent;
 import io.tapdata.entity.event.dml.TapUpdateRecordEvent;
+import io.tapdata.entity.schema.TapTable;
 import io.tapdata.entity.script.ScriptFactory;
 import io.tapdata.error.TaskProcessorExCode_11;
 import io.tapdata.exception.TapCodeException;
@@ -29,27 +30,43 @@ import io.tapdata.flow.engine.V2.script.ObsScriptLogger;
 import io.tapdata.flow.engine.V2.script.ScriptExecutorsManager;
 import io.tapdata.flow.engine.V2.util.GraphUtil;
 import io.tapdata.flow.engine.V2.util.TapEventUtil;
+import io.tapdata.metric.impl.PythonEngineLatencyGauge;
 import io.tapdata.pdk.core.utils.CommonUtils;
 import lombok.SneakyThrows;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.python.core.PyObject;
 import org.springframework.data.mongodb.core.query.Query;
 
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
+import javax.script.ScriptException;
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
@@ -65,9 +82,16 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
     private ScriptExecutorsManager scriptExecutorsManager;
     private ScriptExecutorsManager.ScriptExecutor source;
     private ScriptExecutorsManager.ScriptExecutor target;
-    private ThreadLocal<Map<String, Object>> processContextThreadLocal;
+    public static final String ENGINE_POOL_SIZE_PROP_KEY = "PYTHON_PROCESSOR_ENGINE_POOL_SIZE";
+    public static final int DEFAULT_ENGINE_POOL_SIZE = 1;
+    /**
+     * 可选的批量入口: process_batch(records, contexts), 返回与 records 等长的列表, 每个元素与 process 的返回值含义相同
+     */
+    public static final String BATCH_FUNCTION_NAME = "process_batch";
     private Map<String, Object> globalMap;
-    private Invocable engine;
+    private List<PythonEngine> engines;
+    private ExecutorService engineExecutor;
+    private final Map<String, List<String>> primaryKeysMap = new ConcurrentHashMap<>();
 
     @SneakyThrows
     public HazelcastPythonProcessNode(ProcessorBaseContext processorBaseContext) {
@@ -76,7 +100,7 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
 
     @Override
     protected void doInit(@NotNull Context context) throws TapCodeException {
-        super.doInit(context);
+        // 先编译脚本创建引擎, 父类初始化时要根据引擎判断是否攒批
         Node<?> node = getNode();
         String script;
         if (node instanceof PyProcessNode) {
@@ -87,18 +111,7 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
 
         //@todo initPythonBuildInMethod and add python function from mongo db
         ScriptCacheService scriptCacheService = new ScriptCacheService(clientMongoOperator, (DataProcessorContext) processorBaseContext);
-        this.engine = ScriptUtil.getPyEngine(
-                ScriptFactory.TYPE_PYTHON,
-                script,
-                null, //javaScriptFunctions,
-                clientMongoOperator,
-                null,
-                null,
-                scriptCacheService,
-                new ObsScriptLogger(obsLogger, logger),
-                Application.class.getClassLoader());
-        this.processContextThreadLocal = ThreadLocal.withInitial(HashMap::new);
-        this.globalMap = new HashMap<>();
+        this.globalMap = Collections.synchronizedMap(new HashMap<>());
         this.scriptExecutorsManager = new ScriptExecutorsManager(
             new ObsScriptLogger(obsLogger),
             clientMongoOperator,
@@ -111,11 +124,71 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
                     TaskDto.SYNC_TYPE_DEDUCE_SCHEMA
             )
         );
-        ((ScriptEngine) this.engine).put("ScriptExecutorsManager", scriptExecutorsManager);
         this.source = getDefaultScriptExecutor(GraphUtil.predecessors(node, Node::isDataNode), "source");
         this.target = getDefaultScriptExecutor(GraphUtil.successors(node, Node::isDataNode), "target");
-        ((ScriptEngine) this.engine).put("source", source);
-        ((ScriptEngine) this.engine).put("target", target);
+        // 每个引擎独立初始化, 互不共享解释器状态, 只共享 global
+        int poolSize = enginePoolSize();
+        this.engines = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            Invocable invocable = ScriptUtil.getPyEngine(
+                    ScriptFactory.TYPE_PYTHON,
+                    script,
+                    null, //javaScriptFunctions,
+                    clientMongoOperator,
+                    null,
+                    null,
+                    scriptCacheService,
+                    new ObsScriptLogger(obsLogger, logger),
+                    Application.class.getClassLoader());
+            ((ScriptEngine) invocable).put("ScriptExecutorsManager", scriptExecutorsManager);
+            ((ScriptEngine) invocable).put("source", source);
+            ((ScriptEngine) invocable).put("target", target);
+            PythonEngine pythonEngine = new PythonEngine(i, invocable);
+            this.engines.add(pythonEngine);
+            PythonEngineLatencyGauge.register(metricKey(i), pythonEngine::metricValues);
+        }
+        if (poolSize > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.engineExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setName("python-processor-" + node.getId() + "-" + threadIndex.getAndIncrement());
+                return thread;
+            });
+        }
+        obsLogger.info("Python node {} initialized {} engine(s), batch function: {}", node.getName(), poolSize, this.engines.get(0).isSupportBatch());
+        super.doInit(context);
+    }
+
+    private String metricKey(int index) {
+        return PythonEngineLatencyGauge.key(getNode().getTaskId(), getNode().getId(), index);
+    }
+
+    protected int enginePoolSize() {
+        if (isTestRun()) {
+            return 1;
+        }
+        Integer concurrentNum = getNode() instanceof PyProcessNode ? ((PyProcessNode) getNode()).getConcurrentNum() : null;
+        if (null == concurrentNum) {
+            concurrentNum = CommonUtils.getPropertyInt(ENGINE_POOL_SIZE_PROP_KEY, DEFAULT_ENGINE_POOL_SIZE);
+        }
+        return Math.max(1, concurrentNum);
+    }
+
+    /**
+     * 多引擎或脚本中定义了可调用的批量入口时攒批处理
+     */
+    @Override
+    protected boolean supportBatchProcess() {
+        if (isTestRun() || CollectionUtils.isEmpty(engines)) {
+            return false;
+        }
+        return engines.size() > 1 || engines.get(0).isSupportBatch();
+    }
+
+    private boolean isTestRun() {
+        return StringUtils.equalsAnyIgnoreCase(processorBaseContext.getTaskDto().getSyncType(),
+                TaskDto.SYNC_TYPE_TEST_RUN,
+                TaskDto.SYNC_TYPE_DEDUCE_SCHEMA);
     }
 
     @SneakyThrows
@@ -130,11 +203,200 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
             return;
         }
 
+        Map<String, Object> afterMapInRecord = getRecord(tapEvent);
+        Map<String, Object> context = createContext(tapdataEvent);
+        PythonEngine pythonEngine = engines.get(0);
+        AtomicReference<Object> scriptInvokeResult = new AtomicReference<>();
+        if (isTestRun()) {
+            CountDownLatch countDownLatch = new CountDownLatch(1);
+            AtomicReference<Throwable> errorAtomicRef = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                Thread.currentThread().setName("Python-Test-Runner");
+                try {
+                    scriptInvokeResult.set(pythonEngine.invoke(afterMapInRecord, context));
+                } catch (Throwable throwable) {
+                    errorAtomicRef.set(throwable);
+                } finally {
+                    countDownLatch.countDown();
+                }
+            });
+            thread.start();
+            boolean threadFinished = countDownLatch.await(10L, TimeUnit.SECONDS);
+            if (!threadFinished) {
+                thread.interrupt();
+            }
+            if (errorAtomicRef.get() != null) {
+                throw new TapCodeException(TaskProcessorExCode_11.PYTHON_PROCESS_FAILED, errorAtomicRef.get());
+            }
+
+        } else {
+            scriptInvokeResult.set(pythonEngine.invoke(afterMapInRecord, context));
+        }
+        acceptResult(tapdataEvent, context, scriptInvokeResult.get(), processResult, consumer);
+    }
+
+    /**
+     * 按主键把一批事件分给各个引擎并行处理, 同一主键的事件总是落在同一个引擎上; 输出顺序与输入顺序一致
+     */
+    @Override
+    protected void tryProcess(List<BatchEventWrapper> batchEventWrappers, Consumer<List<BatchProcessResult>> consumer) {
+        if (null == batchEventWrappers) {
+            return;
+        }
+        List<List<Integer>> partitions = new ArrayList<>(engines.size());
+        for (int i = 0; i < engines.size(); i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < batchEventWrappers.size(); i++) {
+            TapEvent tapEvent = batchEventWrappers.get(i).getTapdataEvent().getTapEvent();
+            String tableId = TapEventUtil.getTableId(tapEvent);
+            partitions.get(partition(tapEvent, tableId, getPrimaryKeys(tableId), engines.size())).add(i);
+        }
+
+        List<List<BatchProcessResult>> results = new ArrayList<>(Collections.nCopies(batchEventWrappers.size(), null));
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < engines.size(); i++) {
+            List<Integer> indexes = partitions.get(i);
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            PythonEngine pythonEngine = engines.get(i);
+            if (null == engineExecutor) {
+                processPartition(pythonEngine, batchEventWrappers, indexes, results);
+            } else {
+                futures.add(engineExecutor.submit(() -> processPartition(pythonEngine, batchEventWrappers, indexes, results)));
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                return;
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                if (e.getCause() instanceof TapCodeException) {
+                    throw (TapCodeException) e.getCause();
+                }
+                throw new TapCodeException(TaskProcessorExCode_11.PYTHON_PROCESS_FAILED, e.getCause());
+            }
+        }
+
+        List<BatchProcessResult> batchProcessResults = new ArrayList<>(batchEventWrappers.size());
+        for (List<BatchProcessResult> result : results) {
+            if (null != result) {
+                batchProcessResults.addAll(result);
+            }
+        }
+        consumer.accept(batchProcessResults);
+    }
+
+    private void processPartition(PythonEngine pythonEngine, List<BatchEventWrapper> batchEventWrappers, List<Integer> indexes, List<List<BatchProcessResult>> results) {
+        List<Integer> recordIndexes = new ArrayList<>(indexes.size());
+        List<Map<String, Object>> records = new ArrayList<>(indexes.size());
+        List<Map<String, Object>> contexts = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            BatchEventWrapper batchEventWrapper = batchEventWrappers.get(index);
+            TapdataEvent tapdataEvent = batchEventWrapper.getTapdataEvent();
+            TapEvent tapEvent = tapdataEvent.getTapEvent();
+            if (!(tapEvent instanceof TapRecordEvent)) {
+                results.set(index, Collections.singletonList(new BatchProcessResult(batchEventWrapper, getProcessResult(TapEventUtil.getTableId(tapEvent)))));
+                continue;
+            }
+            recordIndexes.add(index);
+            records.add(getRecord(tapEvent));
+            contexts.add(createContext(tapdataEvent));
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            if (pythonEngine.isSupportBatch()) {
+                Object batchResult = pythonEngine.invokeBatch(records, contexts);
+                if (!(batchResult instanceof List) || ((List<?>) batchResult).size() != records.size()) {
+                    throw new TapCodeException(TaskProcessorExCode_11.PYTHON_PROCESS_FAILED,
+                            String.format("%s must return a list with one element per record, input %d records, returned %s",
+                                    BATCH_FUNCTION_NAME, records.size(), batchResult instanceof List ? ((List<?>) batchResult).size() + " elements" : batchResult));
+                }
+                for (int i = 0; i < recordIndexes.size(); i++) {
+                    results.set(recordIndexes.get(i), toBatchProcessResults(batchEventWrappers.get(recordIndexes.get(i)), contexts.get(i), ((List<?>) batchResult).get(i)));
+                }
+            } else {
+                for (int i = 0; i < recordIndexes.size(); i++) {
+                    Object result = pythonEngine.invoke(records.get(i), contexts.get(i));
+                    results.set(recordIndexes.get(i), toBatchProcessResults(batchEventWrappers.get(recordIndexes.get(i)), contexts.get(i), result));
+                }
+            }
+        } catch (TapCodeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TapCodeException(TaskProcessorExCode_11.PYTHON_PROCESS_FAILED, e);
+        }
+    }
+
+    private List<BatchProcessResult> toBatchProcessResults(BatchEventWrapper batchEventWrapper, Map<String, Object> context, Object result) {
+        TapdataEvent tapdataEvent = batchEventWrapper.getTapdataEvent();
+        ProcessResult processResult = getProcessResult(TapEventUtil.getTableId(tapdataEvent.getTapEvent()));
+        List<BatchProcessResult> batchProcessResults = new ArrayList<>();
+        acceptResult(tapdataEvent, context, result, processResult, (event, pr) -> batchProcessResults.add(new BatchProcessResult(
+                new BatchEventWrapper(event, batchEventWrapper.getTapValueTransform(), batchEventWrapper.getProcessAspect()), pr)));
+        return batchProcessResults;
+    }
+
+    private List<String> getPrimaryKeys(String tableId) {
+        if (null == tableId) {
+            return Collections.emptyList();
+        }
+        return primaryKeysMap.computeIfAbsent(tableId, k -> {
+            try {
+                TapTable tapTable = processorBaseContext.getTapTableMap().get(getProcessResult(k).getTableId());
+                if (null != tapTable) {
+                    return new ArrayList<>(tapTable.primaryKeys(true));
+                }
+            } catch (Exception e) {
+                obsLogger.warn("Get primary keys of table {} failed, events of this table will be processed by one python engine: {}", k, e.getMessage());
+            }
+            return Collections.emptyList();
+        });
+    }
+
+    /**
+     * 有主键时按主键值分区, 否则整张表落在同一个分区, 保证同一行的事件顺序
+     */
+    static int partition(TapEvent tapEvent, String tableId, List<String> primaryKeys, int partitions) {
+        if (partitions <= 1) {
+            return 0;
+        }
+        if (CollectionUtils.isEmpty(primaryKeys) || !(tapEvent instanceof TapRecordEvent)) {
+            return Math.floorMod(Objects.hashCode(tableId), partitions);
+        }
+        Map<String, Object> record = tapEvent instanceof TapDeleteRecordEvent ? TapEventUtil.getBefore(tapEvent) : TapEventUtil.getAfter(tapEvent);
+        if (MapUtils.isEmpty(record)) {
+            record = TapEventUtil.getBefore(tapEvent);
+        }
+        if (MapUtils.isEmpty(record)) {
+            return Math.floorMod(Objects.hashCode(tableId), partitions);
+        }
+        int hash = 1;
+        for (String primaryKey : primaryKeys) {
+            hash = 31 * hash + Objects.hashCode(record.get(primaryKey));
+        }
+        return Math.floorMod(hash, partitions);
+    }
+
+    private static Map<String, Object> getRecord(TapEvent tapEvent) {
         Map<String, Object> afterMapInRecord = TapEventUtil.getAfter(tapEvent);
         if (MapUtils.isEmpty(afterMapInRecord) && MapUtils.isNotEmpty(TapEventUtil.getBefore(tapEvent))) {
             afterMapInRecord = TapEventUtil.getBefore(tapEvent);
         }
+        return afterMapInRecord;
+    }
 
+    @SneakyThrows
+    private Map<String, Object> createContext(TapdataEvent tapdataEvent) {
+        TapEvent tapEvent = tapdataEvent.getTapEvent();
+        String tableName = TapEventUtil.getTableId(tapEvent);
         String op = TapEventUtil.getOp(tapEvent);
         ProcessContext processContext = new ProcessContext(op, tableName, null, null, null, tapdataEvent.getOffset());
 
@@ -161,45 +423,16 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
         contextMap.put("before", before);
         contextMap.put("info", tapEvent.getInfo());
         contextMap.put("global", this.globalMap);
-        Map<String, Object> context = this.processContextThreadLocal.get();
-        context.putAll(contextMap);
-        AtomicReference<Object> scriptInvokeResult = new AtomicReference<>();
-        if (StringUtils.equalsAnyIgnoreCase(processorBaseContext.getTaskDto().getSyncType(),
-                TaskDto.SYNC_TYPE_TEST_RUN,
-                TaskDto.SYNC_TYPE_DEDUCE_SCHEMA)) {
-            Map<String, Object> finalRecord = afterMapInRecord;
-            CountDownLatch countDownLatch = new CountDownLatch(1);
-            AtomicReference<Throwable> errorAtomicRef = new AtomicReference<>();
-            Thread thread = new Thread(() -> {
-                Thread.currentThread().setName("Python-Test-Runner");
-                try {
-                    scriptInvokeResult.set(engine.invokeFunction(ScriptUtil.FUNCTION_NAME, finalRecord, context));
-                } catch (Throwable throwable) {
-                    errorAtomicRef.set(throwable);
-                } finally {
-                    countDownLatch.countDown();
-                }
-            });
-            thread.start();
-            boolean threadFinished = countDownLatch.await(10L, TimeUnit.SECONDS);
-            if (!threadFinished) {
-                thread.interrupt();
-            }
-            if (errorAtomicRef.get() != null) {
-                throw new TapCodeException(TaskProcessorExCode_11.PYTHON_PROCESS_FAILED, errorAtomicRef.get());
-            }
-
-        } else {
-            scriptInvokeResult.set(engine.invokeFunction(ScriptUtil.FUNCTION_NAME, afterMapInRecord, context));
-        }
+        return contextMap;
+    }
 
+    private void acceptResult(TapdataEvent tapdataEvent, Map<String, Object> context, Object result, ProcessResult processResult, BiConsumer<TapdataEvent, ProcessResult> consumer) {
+        TapEvent tapEvent = tapdataEvent.getTapEvent();
+        String op = TapEventUtil.getOp(tapEvent);
         if (StringUtils.isNotEmpty((CharSequence) context.get("op"))) {
             op = (String) context.get("op");
         }
-
-        context.clear();
         final String finalOp = op;
-        Object result = scriptInvokeResult.get();
         if (null == result) {
             if (logger.isDebugEnabled()) {
                 logger.debug("The event does not need to continue to be processed {}", tapdataEvent);
@@ -232,11 +465,16 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
             CommonUtils.ignoreAnyError(() -> Optional.ofNullable(this.source).ifPresent(ScriptExecutorsManager.ScriptExecutor::close), TAG);
             CommonUtils.ignoreAnyError(() -> Optional.ofNullable(this.target).ifPresent(ScriptExecutorsManager.ScriptExecutor::close), TAG);
             CommonUtils.ignoreAnyError(() -> Optional.ofNullable(this.scriptExecutorsManager).ifPresent(ScriptExecutorsManager::close), TAG);
-            CommonUtils.ignoreAnyError(() -> {
-                if (this.engine instanceof Closeable) {
-                    ((Closeable)this.engine).close();
-                }
-            }, TAG);
+            CommonUtils.ignoreAnyError(() -> Optional.ofNullable(this.engineExecutor).ifPresent(ExecutorService::shutdownNow), TAG);
+            Optional.ofNullable(this.engines).ifPresent(es -> es.forEach(e -> {
+                obsLogger.info("Python node {} {}", getNode().getName(), e.metrics());
+                CommonUtils.ignoreAnyError(() -> PythonEngineLatencyGauge.unregister(metricKey(e.getIndex())), TAG);
+                CommonUtils.ignoreAnyError(() -> {
+                    if (e.getInvocable() instanceof Closeable) {
+                        ((Closeable) e.getInvocable()).close();
+                    }
+                }, TAG);
+            }));
         } finally {
             super.doClose();
         }
@@ -292,4 +530,98 @@ public class HazelcastPythonProcessNode extends HazelcastProcessorBaseNode {
             TapEventUtil.setAfter(tapEvent, recordMap);
         }
     }
+
+    /**
+     * 单个 python 引擎, 同一时刻只被一个线程使用, 记录调用次数和耗时
+     */
+    protected static class PythonEngine {
+        private final int index;
+        private final Invocable invocable;
+        private final boolean supportBatch;
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong records = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public PythonEngine(int index, Invocable invocable) {
+            this.index = index;
+            this.invocable = invocable;
+            this.supportBatch = invocable instanceof ScriptEngine && isCallable(((ScriptEngine) invocable).get(BATCH_FUNCTION_NAME));
+        }
+
+        /**
+         * 只认脚本中编译出的可调用对象, 同名的变量或字符串不算批量入口
+         */
+        static boolean isCallable(Object function) {
+            return function instanceof PyObject && ((PyObject) function).isCallable();
+        }
+
+        public Object invoke(Map<String, Object> record, Map<String, Object> context) throws ScriptException, NoSuchMethodException {
+            long start = System.nanoTime();
+            try {
+                return invocable.invokeFunction(ScriptUtil.FUNCTION_NAME, record, context);
+            } finally {
+                recordInvocation(1, System.nanoTime() - start);
+            }
+        }
+
+        public Object invokeBatch(List<Map<String, Object>> records, List<Map<String, Object>> contexts) throws ScriptException, NoSuchMethodException {
+            long start = System.nanoTime();
+            try {
+                return invocable.invokeFunction(BATCH_FUNCTION_NAME, records, contexts);
+            } finally {
+                recordInvocation(records.size(), System.nanoTime() - start);
+            }
+        }
+
+        private void recordInvocation(int recordCount, long nanos) {
+            invocations.incrementAndGet();
+            records.addAndGet(recordCount);
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Invocable getInvocable() {
+            return invocable;
+        }
+
+        public boolean isSupportBatch() {
+            return supportBatch;
+        }
+
+        public long getInvocations() {
+            return invocations.get();
+        }
+
+        public long getRecords() {
+            return records.get();
+        }
+
+        public double getAvgInvokeMs() {
+            long count = invocations.get();
+            return count == 0 ? 0D : totalNanos.get() / 1_000_000D / count;
+        }
+
+        public double getMaxInvokeMs() {
+            return maxNanos.get() / 1_000_000D;
+        }
+
+        public Map<String, Object> metricValues() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("invocations", getInvocations());
+            values.put("records", getRecords());
+            values.put("avgInvokeMs", getAvgInvokeMs());
+            values.put("maxInvokeMs", getMaxInvokeMs());
+            return values;
+        }
+
+        public String metrics() {
+            return String.format("engine %d: invocations %d, records %d, avg %.3f ms, max %.3f ms",
+                    index, getInvocations(), getRecords(), getAvgInvokeMs(), getMaxInvokeMs());
+        }
+    }
 }
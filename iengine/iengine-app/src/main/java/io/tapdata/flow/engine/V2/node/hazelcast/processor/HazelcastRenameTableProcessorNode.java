@@ -32,6 +32,11 @@ public class HazelcastRenameTableProcessorNode extends HazelcastProcessorBaseNod
         this.tableNameMappingMap = tableRenameProcessNode.previousMap();
     }
 
+    @Override
+    protected boolean supportCooperative() {
+        return true;
+    }
+
     @Override
     protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
         TapEvent tapEvent = tapdataEvent.getTapEvent();
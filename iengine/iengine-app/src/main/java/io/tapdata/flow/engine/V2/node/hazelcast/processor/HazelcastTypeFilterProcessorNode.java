@@ -53,6 +53,11 @@ public class HazelcastTypeFilterProcessorNode extends HazelcastProcessorBaseNode
         }
     }
 
+    @Override
+    protected boolean supportCooperative() {
+        return true;
+    }
+
     @Override
     protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
 
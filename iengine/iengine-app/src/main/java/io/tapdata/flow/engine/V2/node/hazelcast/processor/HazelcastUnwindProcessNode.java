@@ -1,9 +1,11 @@
 package io.tapdata.flow.engine.V2.node.hazelcast.processor;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 
+import com.google.common.collect.Iterators;
 import com.tapdata.entity.TapdataEvent;
 import com.tapdata.entity.task.context.ProcessorBaseContext;
 import com.tapdata.tm.commons.dag.ArrayModel;
@@ -49,6 +51,11 @@ public class HazelcastUnwindProcessNode extends HazelcastProcessorBaseNode {
     }
 
 
+    @Override
+    protected boolean supportCooperative() {
+        return true;
+    }
+
     @SneakyThrows
     @Override
     protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
@@ -64,13 +71,23 @@ public class HazelcastUnwindProcessNode extends HazelcastProcessorBaseNode {
         List<TapEvent> eventList = EventHandel.getHandelResult(node, tapdataEvent.getTapEvent());
         if (CollectionUtils.isNotEmpty(eventList)) {
             for (TapEvent e : eventList) {
-                TapdataEvent cloneTapdataEvent = (TapdataEvent) tapdataEvent.clone();
-                cloneTapdataEvent.setTapEvent(e);
-                consumer.accept(cloneTapdataEvent, processResult);
+                consumer.accept(tapdataEvent.cloneWithTapEvent(e), processResult);
             }
         }
     }
 
+    /**
+     * 数组元素在下游有空间时才逐个展开, 大数组不会一次性生成全部事件
+     */
+    @Override
+    protected Iterator<TapdataEvent> tryProcessLazily(TapdataEvent tapdataEvent) {
+        TapEvent tapEvent = tapdataEvent.getTapEvent();
+        if (!(tapEvent instanceof TapRecordEvent)) {
+            return null;
+        }
+        return Iterators.transform(EventHandel.getLazyHandelResult(node, tapEvent), tapdataEvent::cloneWithTapEvent);
+    }
+
     @Override
     protected void doClose() throws TapCodeException {
         super.doClose();
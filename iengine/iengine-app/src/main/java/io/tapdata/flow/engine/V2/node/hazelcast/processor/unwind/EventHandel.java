@@ -1,5 +1,6 @@
 package io.tapdata.flow.engine.V2.node.hazelcast.processor.unwind;
 
+import com.google.common.collect.Iterators;
 import com.tapdata.tm.commons.dag.process.UnwindProcessNode;
 import io.tapdata.entity.event.TapEvent;
 import io.tapdata.entity.event.dml.TapDeleteRecordEvent;
@@ -7,6 +8,7 @@ import io.tapdata.entity.event.dml.TapInsertRecordEvent;
 import io.tapdata.entity.event.dml.TapUpdateRecordEvent;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,6 +55,30 @@ public interface EventHandel {
         return new ArrayList<>();
     }
 
+    /**
+     * 与{@link #getHandelResult}结果相同，数组展开后的事件在迭代时才逐个生成
+     * */
+    static Iterator<TapEvent> getLazyHandelResult(UnwindProcessNode node, TapEvent event) {
+        List<TapEvent> events = UnWindNodeUtil.initHandel(node, event);
+        if (!events.isEmpty()) return events.iterator();
+        Iterator<TapEvent> iterator = null;
+        if (event instanceof TapUpdateRecordEvent) {
+            List<TapEvent> diff = UnWindNodeUtil.diffUpdate(node, (TapUpdateRecordEvent) event);
+            if (null != diff) return diff.iterator();
+            TapInsertRecordEvent insert = TapInsertRecordEvent.create();
+            insert.after(UnWindNodeUtil.getAfter(event));
+            insert.referenceTime(((TapUpdateRecordEvent) event).getReferenceTime());
+            return Iterators.concat(
+                    getLazyHandelResult(node, UnWindNodeUtil.genericDeleteEvent(event)),
+                    getLazyHandelResult(node, insert));
+        } else if (event instanceof TapInsertRecordEvent) {
+            iterator = UnWindNodeUtil.lazyHandelList(node, event, UnWindNodeUtil.getAfter(event), new InsertHandel());
+        } else if (event instanceof TapDeleteRecordEvent) {
+            iterator = UnWindNodeUtil.lazyHandelList(node, event, UnWindNodeUtil.getBefore(event), new DeleteHandel());
+        }
+        return null != iterator ? iterator : getHandelResult(node, event).iterator();
+    }
+
     static void close() {
         handelMap.clear();
     }
@@ -107,6 +133,10 @@ class UpdateHandel implements EventHandel {
 
     @Override
     public List<TapEvent> handel(UnwindProcessNode node, TapEvent event){
+        List<TapEvent> diff = UnWindNodeUtil.diffUpdate(node, (TapUpdateRecordEvent) event);
+        if (null != diff) {
+            return diff;
+        }
         List<TapEvent> events = new ArrayList<>();
         Map<String, Object> after = UnWindNodeUtil.getAfter(event);
         Long referenceTime = ((TapUpdateRecordEvent) event).getReferenceTime();
@@ -1,6 +1,5 @@
 package io.tapdata.flow.engine.V2.node.hazelcast.processor.unwind;
 
-import com.tapdata.constant.MapUtil;
 import com.tapdata.tm.commons.dag.process.UnwindProcessNode;
 import io.tapdata.entity.event.TapEvent;
 import io.tapdata.entity.event.dml.TapDeleteRecordEvent;
@@ -13,8 +12,12 @@ import org.apache.commons.lang3.StringUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -105,8 +108,7 @@ public class UnWindNodeUtil {
      * record 中存在path路径的kv键值对时，更具unwind节点配置来做对应的操作
      * */
     public static  Map<String, Object> containsPathAndSetValue(String path, Map<String, Object> map, Object value, String includeArrayIndex, long arrayIndexValue,Boolean flatten,String joiner){
-        Map<String, Object> copyMap = new HashMap<>();
-        MapUtil.copyToNewMap(map, copyMap);
+        Map<String, Object> copyMap = copyAlongPath(path, map);
         serializationFlattenFields(path,copyMap,value,flatten,joiner);
         if (copyMap.containsKey(path)) {
             copyMap.put(path, value);
@@ -130,6 +132,32 @@ public class UnWindNodeUtil {
         return copyMap;
     }
 
+    /**
+     * 只复制path路径上的各级map，其余字段与原记录共享，避免每个数组元素都深拷贝一次整条记录
+     * */
+    public static Map<String, Object> copyAlongPath(String path, Map<String, Object> map) {
+        Map<String, Object> copyMap = shallowCopy(map);
+        if (copyMap.containsKey(path)) {
+            return copyMap;
+        }
+        String[] keys = path.split("\\.");
+        Map<String, Object> parent = copyMap;
+        for (int index = 0; index < keys.length - 1; index++) {
+            Object child = parent.get(keys[index]);
+            if (!(child instanceof Map)) {
+                break;
+            }
+            Map<String, Object> copyChild = shallowCopy((Map<String, Object>) child);
+            parent.put(keys[index], copyChild);
+            parent = copyChild;
+        }
+        return copyMap;
+    }
+
+    private static Map<String, Object> shallowCopy(Map<String, Object> map) {
+        return map instanceof LinkedHashMap ? new LinkedHashMap<>(map) : new HashMap<>(map);
+    }
+
     /**
      * includeArrayIndex 存在时， 在map中添加索引字段
      * */
@@ -263,6 +291,134 @@ public class UnWindNodeUtil {
         return events;
     }
 
+    /**
+     * path对应非空数组时，返回按需逐个生成事件的迭代器，否则返回null，由{@link #handelList}处理
+     * */
+    public static Iterator<TapEvent> lazyHandelList(UnwindProcessNode node, TapEvent event, Map<String, Object> map, EventHandel handel) {
+        Object[] items = unwindItems(node, map);
+        if (null == items) {
+            return null;
+        }
+        final String path = node.getPath();
+        final String includeArrayIndex = node.getIncludeArrayIndex();
+        final Boolean flatten = node.whetherFlatten();
+        final String joiner = node.getJoiner();
+        final List<TapEvent> holder = new ArrayList<>(1);
+        return new Iterator<TapEvent>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < items.length;
+            }
+
+            @Override
+            public TapEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                holder.clear();
+                handel.copyEvent(holder, containsPathAndSetValue(path, map, items[index], includeArrayIndex, index, flatten, joiner), event);
+                index++;
+                return holder.get(0);
+            }
+        };
+    }
+
+    /**
+     * path对应非空数组或集合时返回其元素，否则返回null
+     * */
+    public static Object[] unwindItems(UnwindProcessNode node, Map<String, Object> map) {
+        if (null == node || null == map || StringUtils.isBlank(node.getPath())) {
+            return null;
+        }
+        final String path = node.getPath();
+        final AtomicBoolean containsKey = new AtomicBoolean(false);
+        Map<String, Object> parentMap = containsParentFromPath(path, map, containsKey);
+        if (null == parentMap || !containsKey.get()) {
+            return null;
+        }
+        Object result = containsPath(path, map, containsKey);
+        Object[] items = null;
+        if (result instanceof Collection) {
+            items = ((Collection<?>) result).toArray();
+        } else if (result instanceof Object[]) {
+            items = (Object[]) result;
+        }
+        return null == items || items.length < 1 ? null : items;
+    }
+
+    /**
+     * 配置了includeArrayIndex且修改前后除path对应数组外的字段都相同时，按数组下标比较元素，只为变化的元素生成删除和插入事件，
+     * 未变化的元素不产生事件；不满足条件时返回null，按删除全部再插入全部处理。
+     * 目标按整行匹配删除，没有下标字段时相同元素展开的行无法区分，只删除变化的元素会误删其他行
+     * */
+    public static List<TapEvent> diffUpdate(UnwindProcessNode node, TapUpdateRecordEvent event) {
+        if (StringUtils.isBlank(node.getIncludeArrayIndex())) {
+            return null;
+        }
+        Map<String, Object> before = event.getBefore();
+        Map<String, Object> after = event.getAfter();
+        if (null == before || before.isEmpty() || null == after) {
+            return null;
+        }
+        Object[] beforeItems = unwindItems(node, before);
+        Object[] afterItems = unwindItems(node, after);
+        if (null == beforeItems || null == afterItems) {
+            return null;
+        }
+        final String path = node.getPath();
+        if (!Objects.equals(withoutPath(path, before), withoutPath(path, after))) {
+            return null;
+        }
+        final String includeArrayIndex = node.getIncludeArrayIndex();
+        final Boolean flatten = node.whetherFlatten();
+        final String joiner = node.getJoiner();
+        List<TapEvent> events = new ArrayList<>();
+        int length = Math.max(beforeItems.length, afterItems.length);
+        for (int index = 0; index < length; index++) {
+            boolean inBefore = index < beforeItems.length;
+            boolean inAfter = index < afterItems.length;
+            if (inBefore && inAfter && Objects.equals(beforeItems[index], afterItems[index])) {
+                continue;
+            }
+            if (inBefore) {
+                TapDeleteRecordEvent delete = TapDeleteRecordEvent.create();
+                delete.before(containsPathAndSetValue(path, before, beforeItems[index], includeArrayIndex, index, flatten, joiner));
+                delete.referenceTime(event.getReferenceTime());
+                delete.setTableId(event.getTableId());
+                events.add(delete);
+            }
+            if (inAfter) {
+                TapInsertRecordEvent insert = TapInsertRecordEvent.create();
+                insert.after(containsPathAndSetValue(path, after, afterItems[index], includeArrayIndex, index, flatten, joiner));
+                insert.referenceTime(event.getReferenceTime());
+                insert.setTableId(event.getTableId());
+                events.add(insert);
+            }
+        }
+        return events;
+    }
+
+    private static Map<String, Object> withoutPath(String path, Map<String, Object> map) {
+        Map<String, Object> copyMap = copyAlongPath(path, map);
+        if (copyMap.containsKey(path)) {
+            copyMap.remove(path);
+            return copyMap;
+        }
+        Map<String, Object> parent = copyMap;
+        String[] keys = path.split("\\.");
+        for (int index = 0; index < keys.length - 1; index++) {
+            Object child = parent.get(keys[index]);
+            if (!(child instanceof Map)) {
+                return copyMap;
+            }
+            parent = (Map<String, Object>) child;
+        }
+        parent.remove(keys[keys.length - 1]);
+        return copyMap;
+    }
+
     public static void serializationFlattenFields(String path,Map<String, Object> map, Object value,Boolean flatten,String joiner){
         if (null == value || null == map)return;
         if(value instanceof Map && flatten){
@@ -28,6 +28,7 @@ import io.tapdata.flow.engine.V2.task.operation.TaskOperation;
 import io.tapdata.flow.engine.V2.task.retry.task.TaskRetryFactory;
 import io.tapdata.flow.engine.V2.task.retry.task.TaskRetryService;
 import io.tapdata.flow.engine.V2.util.SingleLockWithKey;
+import io.tapdata.metric.impl.ColdStartCostGauge;
 import io.tapdata.observable.logging.ObsLogger;
 import io.tapdata.observable.logging.ObsLoggerFactory;
 import io.tapdata.pdk.core.api.PDKIntegration;
@@ -38,7 +39,6 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.DependsOn;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -49,11 +49,16 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static org.springframework.data.mongodb.core.query.Criteria.where;
@@ -95,6 +100,12 @@ public class TapdataTaskScheduler implements MemoryFetcher {
 	public final static String SCHEDULE_STOP_TASK_NAME = "scheduleStopTask";
 	private static final SingleLockWithKey taskLock = new SingleLockWithKey();
 	private static final Map<String, Long> taskRetryTimeMap = new ConcurrentHashMap<>();
+	private final long engineStartAt = System.currentTimeMillis();
+	/**
+	 * 引擎启动后第一次调度认领的任务, null 表示还没有调度过
+	 */
+	private final AtomicReference<Set<String>> coldStartTaskIds = new AtomicReference<>();
+	private final AtomicLong coldStartCostMs = new AtomicLong(-1L);
 	private static final ScheduledExecutorService taskResetRetryServiceScheduledThreadPool = new ScheduledThreadPoolExecutor(1, r -> new Thread(r, "Task-Reset-Retry-Service-Scheduled-Runner"));
 	//private ThreadPoolExecutorEx threadPoolExecutorEx;
 
@@ -150,6 +161,7 @@ public class TapdataTaskScheduler implements MemoryFetcher {
 		initScheduleTask();
 		taskResetRetryServiceScheduledThreadPool.scheduleWithFixedDelay(this::resetTaskRetryServiceIfNeed, 1L, 1L, TimeUnit.MINUTES);
 		PDKIntegration.registerMemoryFetcher("taskScheduler", this);
+		ColdStartCostGauge.register(this::getColdStartCostMs);
 	}
 
 	private void initScheduleTask() {
@@ -198,8 +210,12 @@ public class TapdataTaskScheduler implements MemoryFetcher {
 					Thread.currentThread().setName(String.format("Start-Task-Operation-Handler-%s[%s]", startTaskOperation.getTaskDto().getName(), startTaskOperation.getTaskDto().getId()));
 					taskId = startTaskOperation.getTaskDto().getId().toHexString();
 					TaskDto taskDto = startTaskOperation.getTaskDto();
-					if (!taskLock.tryRun(taskId, ()-> startTask(taskDto), 1L, TimeUnit.SECONDS)) {
-						logger.warn("Start task {} failed because of task lock, will ignored", taskDto.getName());
+					try {
+						if (!taskLock.tryRun(taskId, ()-> startTask(taskDto), 1L, TimeUnit.SECONDS)) {
+							logger.warn("Start task {} failed because of task lock, will ignored", taskDto.getName());
+						}
+					} finally {
+						coldStartTaskFinished(taskId);
 					}
 				} else if (taskOperation instanceof StopTaskOperation) {
 					StopTaskOperation stopTaskOperation = (StopTaskOperation) taskOperation;
@@ -276,26 +292,56 @@ public class TapdataTaskScheduler implements MemoryFetcher {
 					new Criteria("agentId").is(instanceNo)
 							.and(DataFlow.STATUS_FIELD).is(TaskDto.STATUS_WAIT_RUN)
 			);
-			query.with(Sort.by(DataFlow.PING_TIME_FIELD).ascending());
-			query.fields().include("_id").include("name");
+			Update update = new Update();
+			update.set(DataFlow.PING_TIME_FIELD, System.currentTimeMillis());
+			addAgentIdUpdate(update);
+			// 一次性认领所有待运行任务, 而不是逐个 findAndModify
+			clientMongoOperator.update(query, update, ConnectorConstant.TASK_COLLECTION);
 			List<TaskDto> allWaitRunTasks = clientMongoOperator.find(query, ConnectorConstant.TASK_COLLECTION, TaskDto.class);
-			for (TaskDto waitRunTask : allWaitRunTasks) {
-				logger.info("Staring task from http query: {}[{}]", waitRunTask.getName(), waitRunTask.getId());
-				query = new Query(Criteria.where("id").is(waitRunTask.getId()));
-				Update update = new Update();
-				update.set(DataFlow.PING_TIME_FIELD, System.currentTimeMillis());
-				addAgentIdUpdate(update);
-
-				TaskDto taskDto = clientMongoOperator.findAndModify(query, update, TaskDto.class, ConnectorConstant.TASK_COLLECTION, true);
-				if (taskDto != null) {
-					sendStartTask(taskDto);
-				}
+			if (CollectionUtils.isEmpty(allWaitRunTasks)) {
+				coldStartTaskIds.compareAndSet(null, Collections.emptySet());
+				return;
+			}
+			List<TaskDto> sortedTasks = sortByCdcDelay(allWaitRunTasks);
+			if (coldStartTaskIds.compareAndSet(null, ConcurrentHashMap.newKeySet())) {
+				sortedTasks.forEach(t -> coldStartTaskIds.get().add(t.getId().toHexString()));
+				logger.info("Cold start {} task(s) after engine started", sortedTasks.size());
+			}
+			for (TaskDto taskDto : sortedTasks) {
+				logger.info("Staring task from http query: {}[{}]", taskDto.getName(), taskDto.getId());
+				sendStartTask(taskDto);
 			}
 		} catch (Exception e) {
 			logger.error("Schedule start task failed {}", e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * 增量延迟大的任务优先启动
+	 */
+	protected static List<TaskDto> sortByCdcDelay(List<TaskDto> tasks) {
+		return tasks.stream()
+				.sorted(Comparator.comparingLong(TaskDto::getDelayTime).reversed())
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * 引擎启动后第一批任务全部启动完成(成功或失败), 记录从引擎启动到全部运行的耗时
+	 */
+	private void coldStartTaskFinished(String taskId) {
+		Set<String> taskIds = coldStartTaskIds.get();
+		if (null == taskIds || !taskIds.remove(taskId) || !taskIds.isEmpty()) {
+			return;
+		}
+		if (coldStartCostMs.compareAndSet(-1L, System.currentTimeMillis() - engineStartAt)) {
+			logger.info("All task(s) started after engine started, cost {} ms", coldStartCostMs.get());
+		}
+	}
+
+	public long getColdStartCostMs() {
+		return coldStartCostMs.get();
+	}
+
 	/**
 	 * Will run when engine start in cloud mode
 	 * Run task(s) already started, find clause: status=running and agentID={@link TapdataTaskScheduler#instanceNo}
@@ -309,7 +355,7 @@ public class TapdataTaskScheduler implements MemoryFetcher {
 		List<TaskDto> tasks = clientMongoOperator.find(query, ConnectorConstant.TASK_COLLECTION, TaskDto.class);
 		if (CollectionUtils.isNotEmpty(tasks)) {
 			logger.info("Found task(s) already running before engine start, will run these task(s) immediately\n  {}", tasks.stream().map(TaskDto::getName).collect(Collectors.joining("\n  ")));
-			tasks.forEach(this::sendStartTask);
+			sortByCdcDelay(tasks).forEach(this::sendStartTask);
 		}
 	}
 
@@ -683,9 +729,19 @@ public class TapdataTaskScheduler implements MemoryFetcher {
 			taskMap.kv(v.getTask().getName(), task);
 		});
 		dataMap.kv("task client map", taskMap);
+		coldStartMemory(dataMap);
 		return dataMap;
 	}
 
+	protected void coldStartMemory(DataMap dataMap) {
+		Set<String> taskIds = coldStartTaskIds.get();
+		if (null == taskIds) {
+			return;
+		}
+		dataMap.kv("cold start pending tasks", taskIds.size());
+		dataMap.kv("cold start cost ms", coldStartCostMs.get());
+	}
+
 	private enum StopTaskResource {
 		STOPPED("stopped"),
 		RUN_ERROR("runError"),
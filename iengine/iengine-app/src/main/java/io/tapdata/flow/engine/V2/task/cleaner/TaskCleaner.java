@@ -30,6 +30,7 @@ import io.tapdata.flow.engine.V2.node.hazelcast.processor.HazelcastCustomProcess
 import io.tapdata.flow.engine.V2.node.hazelcast.processor.HazelcastMergeNode;
 import io.tapdata.flow.engine.V2.node.hazelcast.processor.join.HazelcastJoinProcessor;
 import io.tapdata.flow.engine.V2.task.impl.HazelcastTaskService;
+import io.tapdata.flow.engine.V2.util.DeducedSchemaCache;
 import io.tapdata.flow.engine.V2.util.PdkUtil;
 import io.tapdata.pdk.apis.context.TapConnectorContext;
 import io.tapdata.pdk.apis.functions.PDKMethod;
@@ -82,6 +83,7 @@ public abstract class TaskCleaner {
 		// Find task dto by task id
 		taskDto = findTaskDto();
 		startClean();
+		CommonUtils.ignoreAnyError(() -> DeducedSchemaCache.clear(taskDto.getId().toHexString()), TAG);
 		if (null == taskDto.getDag()) {
 			logger.warn("Task[{}]'s dag is empty, will not do any clean operation", taskDto.getName());
 			return;
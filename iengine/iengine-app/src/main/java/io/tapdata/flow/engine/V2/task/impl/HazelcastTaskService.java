@@ -93,6 +93,7 @@ import io.tapdata.flow.engine.V2.node.hazelcast.processor.*;
 import io.tapdata.flow.engine.V2.node.hazelcast.processor.join.HazelcastJoinProcessor;
 import io.tapdata.flow.engine.V2.task.TaskClient;
 import io.tapdata.flow.engine.V2.task.TaskService;
+import io.tapdata.flow.engine.V2.util.DeducedSchemaCache;
 import io.tapdata.flow.engine.V2.util.*;
 import io.tapdata.flow.engine.util.TaskDtoUtil;
 import io.tapdata.observable.logging.ObsLogger;
@@ -965,11 +966,23 @@ public class HazelcastTaskService implements TaskService<TaskDto> {
 					ConnectorConstant.TASK_COLLECTION + "/transformAllParam/" + taskDto.getId().toHexString(),
 					TransformerWsMessageDto.class);
 			transformerWsMessageDto.getTaskDto().setDag(dag);
+			DeducedSchemaCache deducedSchemaCache = isHistoryTask(taskDto) ? null : DeducedSchemaCache.create(taskDto.getId().toHexString());
+			String fingerprint = null;
+			if (null != deducedSchemaCache) {
+				fingerprint = DeducedSchemaCache.fingerprint(transformerWsMessageDto);
+				if (loadDeducedSchema(taskDto, deducedSchemaCache, fingerprint, tapTableMapHashMap)) {
+					AspectUtils.executeAspect(new EngineDeductionAspect().end());
+					return tapTableMapHashMap;
+				}
+			}
 			DAGDataServiceImpl dagDataService = new DAGDataEngineServiceImpl(transformerWsMessageDto,taskService,tapTableMapHashMap,clientMongoOperator);
 			dag.transformSchema(null, dagDataService, transformerWsMessageDto.getOptions(),(e)->{
 				throw new RuntimeException(e);
             });
 			dagDataService.initializeModel((StringUtils.equalsAnyIgnoreCase(taskDto.getSyncType(), TaskDto.SYNC_TYPE_SYNC)));
+			if (null != deducedSchemaCache) {
+				deducedSchemaCache.save(fingerprint, tapTableMapHashMap);
+			}
 			AspectUtils.executeAspect(new EngineDeductionAspect().end());
 		}catch (Exception e){
 			AspectUtils.executeAspect(new EngineDeductionAspect().error(e));
@@ -978,4 +991,26 @@ public class HazelcastTaskService implements TaskService<TaskDto> {
 		return tapTableMapHashMap;
 	}
 
+	private static boolean isHistoryTask(TaskDto taskDto) {
+		return null != taskDto.getTmCurrentTime() && taskDto.getTmCurrentTime().compareTo(0L) > 0;
+	}
+
+	/**
+	 * 推演输入与上次成功推演时相同, 直接用缓存的表结构创建 TapTableMap
+	 */
+	protected boolean loadDeducedSchema(TaskDto taskDto, DeducedSchemaCache deducedSchemaCache, String fingerprint,
+										Map<String, TapTableMap<String, TapTable>> tapTableMapHashMap) {
+		Map<String, List<DeducedSchemaCache.Table>> tables = deducedSchemaCache.load(fingerprint);
+		if (null == tables) {
+			return false;
+		}
+		tables.forEach((nodeId, nodeTables) -> {
+			TapTableMap<String, TapTable> tapTableMap = TapTableMap.create(null, nodeId, new HashMap<>(), taskDto.getTmCurrentTime());
+			nodeTables.forEach(table -> tapTableMap.putNew(table.getName(), table.getSchema(), table.getQualifiedName()));
+			tapTableMapHashMap.put(nodeId, tapTableMap);
+		});
+		ObsLoggerFactory.getInstance().getObsLogger(taskDto).info("Schema of task {} has not changed since the last deduction, reuse the deduced schema of {} node(s)", taskDto.getName(), tables.size());
+		return true;
+	}
+
 }
@@ -0,0 +1,245 @@
+package io.tapdata.flow.engine.V2.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.constant.MD5Util;
+import com.tapdata.tm.commons.schema.TransformerWsMessageDto;
+import com.tapdata.tm.commons.util.JsonUtil;
+import io.tapdata.entity.schema.TapTable;
+import io.tapdata.schema.TapTableMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 引擎推演结果的本地缓存, 任务启动时推演的输入没有变化就直接复用上次成功的推演结果
+ * <pre>
+ * 文件位置: $TAPDATA_WORK_DIR/deducedSchema/{taskId}.json
+ * 内容: 推演输入的摘要, 每个节点推演出的表 (表名、qualifiedName、表结构)
+ * </pre>
+ * 引擎推演的结果不会上报 TM, 所以表结构必须随缓存一起落盘; 任务重置、删除时清理
+ */
+public class DeducedSchemaCache {
+	private static final Logger logger = LogManager.getLogger(DeducedSchemaCache.class);
+	private static final String DIR = "deducedSchema";
+	private static final String SUFFIX = ".json";
+	/**
+	 * 每次请求都会变化、但不影响推演结果的字段, 计算摘要时只在连接、数据源定义、模型的第一层忽略
+	 */
+	private static final Set<String> VOLATILE_KEYS = new HashSet<>(Arrays.asList(
+			"uuid", "tmCurrentTime", "last_updated", "lastUpdate", "createTime", "createAt", "updateTime",
+			"ping_time", "pingTime", "testTime", "loadSchemaTime", "status"
+	));
+
+	private final Path file;
+
+	public DeducedSchemaCache(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * 没有配置工作目录时返回 null, 即不使用缓存
+	 */
+	public static DeducedSchemaCache create(String taskId) {
+		if (StringUtils.isBlank(ConnectorConstant.TAPDATA_WORKER_DIR) || StringUtils.isBlank(taskId)) {
+			return null;
+		}
+		return new DeducedSchemaCache(Paths.get(ConnectorConstant.TAPDATA_WORKER_DIR, DIR, taskId + SUFFIX));
+	}
+
+	/**
+	 * 任务重置、删除后推演输入可能不变, 但不能再复用旧的推演结果
+	 */
+	public static void clear(String taskId) {
+		DeducedSchemaCache deducedSchemaCache = create(taskId);
+		if (null != deducedSchemaCache) {
+			deducedSchemaCache.clear();
+		}
+	}
+
+	/**
+	 * 推演输入的摘要: dag、模型、连接和数据源定义, 不包括上次推演生成的 transformer
+	 */
+	public static String fingerprint(TransformerWsMessageDto transformerWsMessageDto) {
+		Map<String, Object> input = new LinkedHashMap<>();
+		input.put("dag", null == transformerWsMessageDto.getTaskDto() ? null : transformerWsMessageDto.getTaskDto().getDag());
+		input.put("syncType", null == transformerWsMessageDto.getTaskDto() ? null : transformerWsMessageDto.getTaskDto().getSyncType());
+		input.put("options", transformerWsMessageDto.getOptions());
+		input.put("metadata", transformerWsMessageDto.getMetadataInstancesDtoList());
+		input.put("dataSource", transformerWsMessageDto.getDataSourceMap());
+		input.put("definition", transformerWsMessageDto.getDefinitionDtoMap());
+		Map<String, Object> map = JsonUtil.parseJsonUseJackson(JsonUtil.toJsonUseJackson(input), new TypeReference<Map<String, Object>>() {
+		});
+		removeVolatileKeys(map.get("metadata"));
+		if (map.get("dataSource") instanceof Map) {
+			removeVolatileKeys(((Map<?, ?>) map.get("dataSource")).values());
+		}
+		if (map.get("definition") instanceof Map) {
+			removeVolatileKeys(((Map<?, ?>) map.get("definition")).values());
+		}
+		return MD5Util.crypt(JsonUtil.toJsonUseJackson(canonical(map)), false);
+	}
+
+	private static void removeVolatileKeys(Object values) {
+		if (values instanceof Collection) {
+			for (Object value : (Collection<?>) values) {
+				if (value instanceof Map) {
+					((Map<?, ?>) value).keySet().removeAll(VOLATILE_KEYS);
+				}
+			}
+		}
+	}
+
+	private static Object canonical(Object value) {
+		if (value instanceof Map) {
+			Map<String, Object> sorted = new TreeMap<>();
+			((Map<?, ?>) value).forEach((k, v) -> sorted.put(String.valueOf(k), canonical(v)));
+			return sorted;
+		} else if (value instanceof List) {
+			List<Object> list = new ArrayList<>(((List<?>) value).size());
+			((List<?>) value).forEach(v -> list.add(canonical(v)));
+			return list;
+		}
+		return value;
+	}
+
+	/**
+	 * @return 节点 id -> 推演出的表, 摘要不一致或没有缓存时返回 null
+	 */
+	public synchronized Map<String, List<Table>> load(String fingerprint) {
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try {
+			Entry entry = JSONUtil.json2POJO(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), Entry.class);
+			if (null != entry && fingerprint.equals(entry.getFingerprint()) && null != entry.getTables()) {
+				return entry.getTables();
+			}
+		} catch (Exception e) {
+			logger.warn("Read deduced schema cache {} failed, ignore it: {}", file, e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * 推演结果都在内存中, 有表结构缺失时不缓存, 避免命中后再从 TM 加载
+	 */
+	public synchronized void save(String fingerprint, Map<String, TapTableMap<String, TapTable>> tapTableMapHashMap) {
+		Map<String, List<Table>> tables = new HashMap<>();
+		for (Map.Entry<String, TapTableMap<String, TapTable>> nodeEntry : tapTableMapHashMap.entrySet()) {
+			TapTableMap<String, TapTable> tapTableMap = nodeEntry.getValue();
+			List<Table> nodeTables = new ArrayList<>(tapTableMap.size());
+			for (String tableName : tapTableMap.keySet()) {
+				TapTable tapTable = tapTableMap.get(tableName);
+				if (null == tapTable) {
+					logger.warn("Schema of table {} in node {} is missing, skip caching the deduced schema", tableName, nodeEntry.getKey());
+					return;
+				}
+				nodeTables.add(new Table(tableName, tapTableMap.getQualifiedName(tableName), tapTable));
+			}
+			tables.put(nodeEntry.getKey(), nodeTables);
+		}
+		Entry entry = new Entry();
+		entry.setFingerprint(fingerprint);
+		entry.setTables(tables);
+		try {
+			Files.createDirectories(file.getParent());
+			Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+			Files.write(tmp, JSONUtil.obj2Json(entry).getBytes(StandardCharsets.UTF_8));
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			logger.warn("Write deduced schema cache {} failed: {}", file, e.getMessage());
+		}
+	}
+
+	public synchronized void clear() {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.warn("Delete deduced schema cache {} failed: {}", file, e.getMessage());
+		}
+	}
+
+	public static class Entry {
+		private String fingerprint;
+		private Map<String, List<Table>> tables;
+
+		public String getFingerprint() {
+			return fingerprint;
+		}
+
+		public void setFingerprint(String fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+
+		public Map<String, List<Table>> getTables() {
+			return tables;
+		}
+
+		public void setTables(Map<String, List<Table>> tables) {
+			this.tables = tables;
+		}
+	}
+
+	public static class Table {
+		private String name;
+		private String qualifiedName;
+		private TapTable schema;
+
+		public Table() {
+		}
+
+		public Table(String name, String qualifiedName, TapTable schema) {
+			this.name = name;
+			this.qualifiedName = qualifiedName;
+			this.schema = schema;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getQualifiedName() {
+			return qualifiedName;
+		}
+
+		public void setQualifiedName(String qualifiedName) {
+			this.qualifiedName = qualifiedName;
+		}
+
+		public TapTable getSchema() {
+			return schema;
+		}
+
+		public void setSchema(TapTable schema) {
+			this.schema = schema;
+		}
+	}
+}
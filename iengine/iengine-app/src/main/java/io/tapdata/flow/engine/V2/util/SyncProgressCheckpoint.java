@@ -0,0 +1,139 @@
+package io.tapdata.flow.engine.V2.util;
+
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.constant.StringCompression;
+import com.tapdata.entity.SyncStage;
+import com.tapdata.entity.dataflow.SyncProgress;
+import io.tapdata.flow.engine.V2.node.hazelcast.data.HazelcastDataBaseNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 目标节点的增量断点: 只编码并上报有变化的 SyncProgress
+ * <pre>
+ * - 记录被更新过的 key, 每次只取出这些 key 编码, TM 按 key 合并到 attrs.syncProgress
+ * - 进入增量阶段后全量断点不再变化, 同一个 batch offset 对象只编码一次
+ * - 上报失败时把这批 key 重新标记, 并写入本地日志, 重启时即使 TM 没有收到也能恢复到最新的断点
+ * </pre>
+ */
+public class SyncProgressCheckpoint {
+	private static final Logger logger = LogManager.getLogger(SyncProgressCheckpoint.class);
+	public static final int COMPRESS_STREAM_OFFSET_STRING_LENGTH_THRESHOLD = 100;
+
+	private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+	private final Map<String, EncodedOffset> encodedBatchOffsets = new ConcurrentHashMap<>();
+	private final SyncProgressJournal journal;
+
+	public SyncProgressCheckpoint(SyncProgressJournal journal) {
+		this.journal = journal;
+	}
+
+	public void markDirty(String key) {
+		dirtyKeys.add(key);
+	}
+
+	public boolean hasDirty() {
+		return !dirtyKeys.isEmpty();
+	}
+
+	/**
+	 * 取出所有有变化的 key 并编码, key 为 TM 上 syncProgress 的 key (节点 id 列表的 json)
+	 */
+	public Map<String, String> takeDelta(Map<String, SyncProgress> syncProgressMap) {
+		Map<String, String> delta = new HashMap<>();
+		Iterator<String> iterator = dirtyKeys.iterator();
+		while (iterator.hasNext()) {
+			String key = iterator.next();
+			iterator.remove();
+			SyncProgress syncProgress = syncProgressMap.get(key);
+			if (null == syncProgress) {
+				continue;
+			}
+			try {
+				delta.put(JSONUtil.obj2Json(Arrays.asList(key.split(","))), encode(key, syncProgress));
+			} catch (RuntimeException | IOException e) {
+				dirtyKeys.add(key);
+				throw new RuntimeException("Convert offset to json failed, errors: " + e.getMessage(), e);
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * 上报成功, 本地日志中的内容都已经在 TM 上了
+	 */
+	public void succeeded() {
+		if (null != journal) {
+			journal.clear();
+		}
+	}
+
+	/**
+	 * 上报失败, 下次重新上报这些 key, 同时落盘
+	 */
+	public void failed(Map<String, String> delta) {
+		try {
+			for (String jsonKey : delta.keySet()) {
+				Collection<String> nodeIds = JSONUtil.json2List(jsonKey, String.class);
+				dirtyKeys.add(String.join(",", nodeIds));
+			}
+			if (null != journal) {
+				journal.write(delta);
+			}
+		} catch (IOException e) {
+			logger.warn("Write sync progress journal failed: {}", e.getMessage());
+		}
+	}
+
+	protected String encode(String key, SyncProgress syncProgress) throws IOException {
+		Object batchOffsetObj = syncProgress.getBatchOffsetObj();
+		if (null != batchOffsetObj) {
+			syncProgress.setBatchOffset(encodeBatchOffset(key, syncProgress, batchOffsetObj));
+		}
+		if (null != syncProgress.getStreamOffsetObj()) {
+			syncProgress.setStreamOffset(encodeStreamOffset(syncProgress.getStreamOffsetObj()));
+		}
+		return JSONUtil.obj2Json(syncProgress);
+	}
+
+	private String encodeBatchOffset(String key, SyncProgress syncProgress, Object batchOffsetObj) {
+		// 全量阶段 batch offset 可能被原地修改, 只有增量阶段才复用上次的编码
+		if (!SyncStage.CDC.name().equals(syncProgress.getSyncStage())) {
+			encodedBatchOffsets.remove(key);
+			return PdkUtil.encodeOffset(batchOffsetObj);
+		}
+		EncodedOffset encoded = encodedBatchOffsets.get(key);
+		if (null == encoded || encoded.offset != batchOffsetObj) {
+			encoded = new EncodedOffset(batchOffsetObj, PdkUtil.encodeOffset(batchOffsetObj));
+			encodedBatchOffsets.put(key, encoded);
+		}
+		return encoded.encoded;
+	}
+
+	public static String encodeStreamOffset(Object streamOffsetObj) throws IOException {
+		String streamOffset = PdkUtil.encodeOffset(streamOffsetObj);
+		if (streamOffset.length() > COMPRESS_STREAM_OFFSET_STRING_LENGTH_THRESHOLD) {
+			streamOffset = HazelcastDataBaseNode.STREAM_OFFSET_COMPRESS_PREFIX + StringCompression.compress(streamOffset);
+		}
+		return streamOffset;
+	}
+
+	private static class EncodedOffset {
+		private final Object offset;
+		private final String encoded;
+
+		private EncodedOffset(Object offset, String encoded) {
+			this.offset = offset;
+			this.encoded = encoded;
+		}
+	}
+}
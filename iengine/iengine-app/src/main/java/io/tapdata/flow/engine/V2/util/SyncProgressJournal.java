@@ -0,0 +1,118 @@
+package io.tapdata.flow.engine.V2.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.entity.dataflow.SyncProgress;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 断点的本地日志, 保存还没有成功上报到 TM 的 syncProgress, 与 TM 上的格式相同
+ * <pre>
+ * 文件位置: $TAPDATA_WORK_DIR/syncProgress/{taskId}/{nodeId}.json
+ * </pre>
+ * 每次上报失败时整体覆盖写入, 上报成功后删除
+ */
+public class SyncProgressJournal {
+	private static final Logger logger = LogManager.getLogger(SyncProgressJournal.class);
+	private static final String DIR = "syncProgress";
+	private static final String SUFFIX = ".json";
+
+	private final Path file;
+
+	public SyncProgressJournal(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * 没有配置工作目录时返回 null, 即不记录本地日志
+	 */
+	public static SyncProgressJournal create(String taskId, String nodeId) {
+		Path taskDir = taskDir(taskId);
+		return null == taskDir ? null : new SyncProgressJournal(taskDir.resolve(nodeId + SUFFIX));
+	}
+
+	public synchronized void write(Map<String, String> syncProgressJsonMap) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(tmp, JSONUtil.obj2Json(syncProgressJsonMap).getBytes(StandardCharsets.UTF_8));
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	public synchronized void clear() {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.warn("Delete sync progress journal {} failed: {}", file, e.getMessage());
+		}
+	}
+
+	/**
+	 * 用本地日志中更新的断点覆盖 TM 上的断点, 只覆盖 TM 上已经存在且 eventSerialNo 更小的 key;
+	 * TM 上不存在的 key 说明任务已被重置, 对应的日志不会被使用
+	 *
+	 * @return 合并后的 syncProgress, 没有本地日志时返回原对象
+	 */
+	public static Map<?, ?> merge(String taskId, Map<?, ?> syncProgressMap) {
+		Path taskDir = taskDir(taskId);
+		if (null == taskDir || null == syncProgressMap || !Files.isDirectory(taskDir)) {
+			return syncProgressMap;
+		}
+		Map<Object, Object> merged = new HashMap<>(syncProgressMap);
+		try (Stream<Path> files = Files.list(taskDir)) {
+			files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).forEach(f -> {
+				try {
+					Map<String, String> journal = JSONUtil.json2POJO(new String(Files.readAllBytes(f), StandardCharsets.UTF_8),
+							new TypeReference<Map<String, String>>() {
+							});
+					journal.forEach((key, value) -> {
+						Object current = merged.get(key);
+						if (current instanceof String && newer(value, (String) current)) {
+							logger.info("Recover sync progress {} from local journal {}", key, f);
+							merged.put(key, value);
+						}
+					});
+				} catch (Exception e) {
+					logger.warn("Read sync progress journal {} failed, ignore it: {}", f, e.getMessage());
+				}
+			});
+		} catch (IOException e) {
+			logger.warn("List sync progress journals in {} failed: {}", taskDir, e.getMessage());
+		}
+		return merged;
+	}
+
+	private static boolean newer(String journalJson, String tmJson) {
+		try {
+			SyncProgress journal = JSONUtil.json2POJO(journalJson, SyncProgress.class);
+			SyncProgress tm = JSONUtil.json2POJO(tmJson, SyncProgress.class);
+			return journal.compareTo(tm) > 0;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static Path taskDir(String taskId) {
+		if (StringUtils.isBlank(ConnectorConstant.TAPDATA_WORKER_DIR) || StringUtils.isBlank(taskId)) {
+			return null;
+		}
+		return Paths.get(ConnectorConstant.TAPDATA_WORKER_DIR, DIR, taskId);
+	}
+}
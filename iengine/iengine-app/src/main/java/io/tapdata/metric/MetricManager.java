@@ -1,9 +1,14 @@
 package io.tapdata.metric;
 
 import io.tapdata.common.SettingService;
+import io.tapdata.metric.impl.ColdStartCostGauge;
 import io.tapdata.metric.impl.CpuUsageGauge;
+import io.tapdata.metric.impl.EventRateGauge;
 import io.tapdata.metric.impl.HeapMemoryUsageGauge;
+import io.tapdata.metric.impl.MemoryThrottleGauge;
 import io.tapdata.metric.impl.MetricTask;
+import io.tapdata.metric.impl.PythonEngineLatencyGauge;
+import io.tapdata.metric.impl.SourceQueueUsageGauge;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -38,6 +43,11 @@ public class MetricManager {
 
 		gaugeSet.add(cpuUsageGauge);
 		gaugeSet.add(heapMemoryUsageGauge);
+		gaugeSet.add(new EventRateGauge());
+		gaugeSet.add(new SourceQueueUsageGauge());
+		gaugeSet.add(new MemoryThrottleGauge());
+		gaugeSet.add(new PythonEngineLatencyGauge());
+		gaugeSet.add(new ColdStartCostGauge());
 
 		for (Gauge<?> gauge : gaugeSet) {
 			if (gauge instanceof DurationGauge) {
@@ -0,0 +1,30 @@
+package io.tapdata.metric.impl;
+
+import io.tapdata.metric.Gauge;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 引擎启动后第一批任务全部启动完成的耗时 (毫秒), -1 表示还没有全部启动
+ */
+public class ColdStartCostGauge implements Gauge<Long> {
+
+	private static final String NAME = "ColdStartCostMs";
+	private static volatile LongSupplier costMs = () -> -1L;
+
+	public static void register(LongSupplier supplier) {
+		if (null != supplier) {
+			costMs = supplier;
+		}
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public Long getValue() {
+		return costMs.getAsLong();
+	}
+}
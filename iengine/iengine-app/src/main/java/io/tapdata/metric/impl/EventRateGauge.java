@@ -0,0 +1,49 @@
+package io.tapdata.metric.impl;
+
+import io.tapdata.metric.DurationGauge;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 引擎上所有源节点每秒进入队列的事件数, 随心跳上报给 TM 用于任务调度
+ */
+public class EventRateGauge implements DurationGauge<Double> {
+
+	private static final String NAME = "EventRate";
+	private static final Duration DURATION = Duration.ofSeconds(10L);
+	private static final LongAdder EVENTS = new LongAdder();
+
+	private volatile Double value = .0;
+	private long lastTimeNs = System.nanoTime();
+
+	public static void record(long events) {
+		EVENTS.add(events);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public Double getValue() {
+		return this.value;
+	}
+
+	@Override
+	public synchronized void run() {
+		long now = System.nanoTime();
+		long events = EVENTS.sumThenReset();
+		long duration = now - lastTimeNs;
+		lastTimeNs = now;
+		if (duration > 0) {
+			this.value = events * 1e9 / duration;
+		}
+	}
+
+	@Override
+	public Duration getDuration() {
+		return DURATION;
+	}
+}
@@ -0,0 +1,22 @@
+package io.tapdata.metric.impl;
+
+import io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory.EngineMemoryGovernor;
+import io.tapdata.metric.Gauge;
+
+/**
+ * 引擎内存调控对源节点的限流程度 (0~1), 0 表示不限流, 越接近 1 源节点队列被压缩得越小
+ */
+public class MemoryThrottleGauge implements Gauge<Double> {
+
+	private static final String NAME = "MemoryThrottle";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public Double getValue() {
+		return 1D - EngineMemoryGovernor.currentFactor();
+	}
+}
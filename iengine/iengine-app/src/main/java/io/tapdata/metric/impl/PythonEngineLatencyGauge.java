@@ -0,0 +1,45 @@
+package io.tapdata.metric.impl;
+
+import io.tapdata.metric.Gauge;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 运行中的 python 节点每个引擎的调用次数和耗时, key 为 任务id/节点id/引擎序号, 随心跳上报给 TM
+ */
+public class PythonEngineLatencyGauge implements Gauge<Map<String, Map<String, Object>>> {
+
+	private static final String NAME = "PythonEngineLatency";
+	private static final Map<String, Supplier<Map<String, Object>>> ENGINES = new ConcurrentHashMap<>();
+
+	public static String key(String taskId, String nodeId, int index) {
+		return taskId + "/" + nodeId + "/" + index;
+	}
+
+	public static void register(String key, Supplier<Map<String, Object>> metrics) {
+		if (null != key && null != metrics) {
+			ENGINES.put(key, metrics);
+		}
+	}
+
+	public static void unregister(String key) {
+		if (null != key) {
+			ENGINES.remove(key);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public Map<String, Map<String, Object>> getValue() {
+		Map<String, Map<String, Object>> values = new TreeMap<>();
+		ENGINES.forEach((key, metrics) -> values.put(key, metrics.get()));
+		return values;
+	}
+}
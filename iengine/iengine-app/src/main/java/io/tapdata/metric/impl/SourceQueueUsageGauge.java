@@ -0,0 +1,51 @@
+package io.tapdata.metric.impl;
+
+import io.tapdata.metric.Gauge;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 引擎上所有源节点事件队列的平均占用率 (0~1), 随心跳上报给 TM 用于任务调度
+ */
+public class SourceQueueUsageGauge implements Gauge<Double> {
+
+	private static final String NAME = "QueueUsage";
+	private static final Set<BlockingQueue<?>> QUEUES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+	public static void register(BlockingQueue<?> queue) {
+		if (null != queue) {
+			QUEUES.add(queue);
+		}
+	}
+
+	public static void unregister(BlockingQueue<?> queue) {
+		if (null != queue) {
+			QUEUES.remove(queue);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public Double getValue() {
+		double usage = 0;
+		int count = 0;
+		synchronized (QUEUES) {
+			for (BlockingQueue<?> queue : QUEUES) {
+				int size = queue.size();
+				int capacity = size + queue.remainingCapacity();
+				if (capacity > 0) {
+					usage += 1. * size / capacity;
+					count++;
+				}
+			}
+		}
+		return count == 0 ? .0 : usage / count;
+	}
+}
@@ -0,0 +1,68 @@
+package io.tapdata.services;
+
+import com.tapdata.constant.HazelcastUtil;
+import io.tapdata.entity.event.dml.TapRecordEvent;
+import io.tapdata.flow.engine.V2.util.ExternalStorageUtil;
+import io.tapdata.flow.engine.V2.util.TapEventUtil;
+import io.tapdata.service.skeleton.annotation.RemoteService;
+import io.tapdata.task.skiperrorevent.SkipErrorEventStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 跳过的错误事件检索和重放, 通过 /api/proxy/call 调用
+ * <p>
+ * 检索在任务停止后也可用; 重放需要任务在本引擎运行中, 写入与目标节点的写入串行执行
+ */
+@RemoteService
+public class SkipErrorEventService {
+	private static final int DEFAULT_LIMIT = 100;
+
+	public List<Map<String, Object>> search(String taskId, String nodeId, String table, String errorCode, Long fromTime, Long toTime, Integer limit) {
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (SkipErrorEventStore.Entry entry : store(taskId, nodeId).search(table, errorCode, fromTime, toTime, null == limit ? DEFAULT_LIMIT : limit)) {
+			Map<String, Object> item = new HashMap<>();
+			item.put("key", entry.getKey());
+			item.put("table", entry.getTable());
+			item.put("errorCode", entry.getErrorCode());
+			item.put("referenceTime", entry.getReferenceTime());
+			item.put("skipTime", entry.getSkipTime());
+			result.add(item);
+		}
+		return result;
+	}
+
+	public Map<String, Object> event(String taskId, String nodeId, String key) throws Exception {
+		TapRecordEvent tapRecordEvent = store(taskId, nodeId).findEvent(key);
+		Map<String, Object> result = new HashMap<>();
+		if (null != tapRecordEvent) {
+			result.put("op", TapEventUtil.getOp(tapRecordEvent));
+			result.put("before", TapEventUtil.getBefore(tapRecordEvent));
+			result.put("after", TapEventUtil.getAfter(tapRecordEvent));
+			result.put("referenceTime", tapRecordEvent.getReferenceTime());
+		}
+		return result;
+	}
+
+	public Map<String, Object> replay(String taskId, String nodeId, String table, String errorCode, Long fromTime, Long toTime, Integer limit) throws Throwable {
+		SkipErrorEventStore store = SkipErrorEventStore.get(taskId, nodeId);
+		if (null == store) {
+			throw new IllegalStateException("Task " + taskId + " has not written to node " + nodeId + " on this engine since it started, the task must be running to replay skipped events");
+		}
+		Map<String, Object> result = new HashMap<>();
+		result.put("replayed", store.replay(table, errorCode, fromTime, toTime, null == limit ? DEFAULT_LIMIT : limit));
+		result.put("remaining", store.size());
+		return result;
+	}
+
+	private static SkipErrorEventStore store(String taskId, String nodeId) {
+		SkipErrorEventStore store = SkipErrorEventStore.get(taskId, nodeId);
+		if (null == store) {
+			store = SkipErrorEventStore.open(HazelcastUtil.getInstance(), ExternalStorageUtil.getTapdataOrDefaultExternalStorage(), taskId, nodeId);
+		}
+		return store;
+	}
+}
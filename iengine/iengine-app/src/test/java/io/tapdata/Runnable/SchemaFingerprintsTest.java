@@ -0,0 +1,49 @@
+package io.tapdata.Runnable;
+
+import io.tapdata.entity.schema.TapField;
+import io.tapdata.entity.schema.TapTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class SchemaFingerprintsTest {
+
+	private static TapTable table(String dataType) {
+		return new TapTable("t1")
+				.add(new TapField("id", "int"))
+				.add(new TapField("name", dataType));
+	}
+
+	@Test
+	@DisplayName("test fingerprint only changes with table definition")
+	void testFingerprint() {
+		String fingerprint = SchemaFingerprints.fingerprint(table("varchar(10)"));
+		Assertions.assertEquals(fingerprint, SchemaFingerprints.fingerprint(table("varchar(10)")));
+		Assertions.assertNotEquals(fingerprint, SchemaFingerprints.fingerprint(table("varchar(20)")));
+
+		TapTable reloaded = table("varchar(10)");
+		reloaded.setLastUpdate(System.currentTimeMillis());
+		Assertions.assertEquals(fingerprint, SchemaFingerprints.fingerprint(reloaded));
+	}
+
+	@Test
+	@DisplayName("test cached fingerprints are only trusted with the same schema version")
+	void testSaveAndLoad() {
+		String connectionId = "test-" + UUID.randomUUID();
+		Map<String, String> fingerprints = new HashMap<>();
+		fingerprints.put("t1", "fp1");
+		try {
+			SchemaFingerprints.save(connectionId, "v1", fingerprints);
+			Assertions.assertEquals(fingerprints, SchemaFingerprints.load(connectionId, "v1"));
+			Assertions.assertTrue(SchemaFingerprints.load(connectionId, "v2").isEmpty());
+			Assertions.assertTrue(SchemaFingerprints.load(connectionId, null).isEmpty());
+		} finally {
+			SchemaFingerprints.remove(connectionId);
+		}
+		Assertions.assertTrue(SchemaFingerprints.load(connectionId, "v1").isEmpty());
+	}
+}
@@ -0,0 +1,38 @@
+package io.tapdata.flow.engine.V2.exactlyonce;
+
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import io.tapdata.exception.TapCodeException;
+import io.tapdata.pdk.apis.entity.TapAdvanceFilter;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExactlyOnceUtilTest {
+
+	@Test
+	void testCacheTableFilter() {
+		TapAdvanceFilter filter = ExactlyOnceUtil.cacheTableFilter("node1", "table1");
+		assertEquals("node1", filter.getMatch().get(ExactlyOnceUtil.NODE_ID_COL_NAME));
+		assertEquals("table1", filter.getMatch().get(ExactlyOnceUtil.TABLE_NAME_COL_NAME));
+	}
+
+	@Nested
+	class GetTimestampTest {
+		@Test
+		void testNumber() {
+			Map<String, Object> after = new HashMap<>();
+			after.put(ExactlyOnceUtil.TIMESTAMP_COL_NAME, 1700000000000L);
+			assertEquals(1700000000000L, ExactlyOnceUtil.getTimestamp(TapInsertRecordEvent.create().after(after)));
+		}
+
+		@Test
+		void testNull() {
+			TapInsertRecordEvent event = TapInsertRecordEvent.create().after(new HashMap<>());
+			assertThrows(TapCodeException.class, () -> ExactlyOnceUtil.getTimestamp(event));
+		}
+	}
+}
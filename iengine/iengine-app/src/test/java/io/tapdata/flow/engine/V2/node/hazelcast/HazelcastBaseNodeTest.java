@@ -1214,13 +1214,44 @@ class HazelcastBaseNodeTest extends BaseHazelcastNodeTest {
 		@Test
 		void testTryEmitTwoBucketOneFail() {
 			TapdataEvent spyTapdataEvent = spy(tapdataEvent);
-			when(spyTapdataEvent.clone()).thenReturn(tapdataEvent);
+			when(spyTapdataEvent.shareClone()).thenReturn(tapdataEvent);
 			when(mockOutBox.offer(0, tapdataEvent)).thenReturn(true);
 			when(mockOutBox.offer(1, tapdataEvent)).thenReturn(false);
 			boolean actual = hazelcastBaseNode.tryEmit(spyTapdataEvent, 2);
 			assertFalse(actual);
 		}
 
+		@Test
+		void testTryEmitTwoBucketShareTapEvent() {
+			TapInsertRecordEvent tapInsertRecordEvent = TapInsertRecordEvent.create().after(new HashMap<>());
+			tapdataEvent.setTapEvent(tapInsertRecordEvent);
+			List<TapdataEvent> emitted = new ArrayList<>();
+			when(mockOutBox.offer(anyInt(), any(TapdataEvent.class))).thenAnswer(invocation -> emitted.add(invocation.getArgument(1)));
+			assertTrue(hazelcastBaseNode.tryEmit(tapdataEvent, 2));
+			assertEquals(2, emitted.size());
+			assertSame(tapInsertRecordEvent, emitted.get(0).getTapEvent());
+			assertSame(tapInsertRecordEvent, emitted.get(1).getTapEvent());
+			assertFalse(tapdataEvent.isTapEventShared());
+
+			emitted.get(0).ownTapEvent();
+			assertNotSame(tapInsertRecordEvent, emitted.get(0).getTapEvent());
+			emitted.get(1).ownTapEvent();
+			assertSame(tapInsertRecordEvent, emitted.get(1).getTapEvent());
+		}
+
+		@Test
+		void testTryEmitTwoBucketRetryNotShareTwice() {
+			tapdataEvent.setTapEvent(TapInsertRecordEvent.create().after(new HashMap<>()));
+			List<TapdataEvent> emitted = new ArrayList<>();
+			when(mockOutBox.offer(anyInt(), any(TapdataEvent.class))).thenReturn(false);
+			assertFalse(hazelcastBaseNode.tryEmit(tapdataEvent, 2));
+			when(mockOutBox.offer(anyInt(), any(TapdataEvent.class))).thenAnswer(invocation -> emitted.add(invocation.getArgument(1)));
+			assertTrue(hazelcastBaseNode.tryEmit(tapdataEvent, 2));
+			emitted.get(0).ownTapEvent();
+			emitted.get(1).ownTapEvent();
+			assertSame(tapdataEvent.getTapEvent(), emitted.get(1).getTapEvent());
+		}
+
 		@Test
 		void testTryEmitEventIsNull() {
 			boolean actual = hazelcastBaseNode.tryEmit(null, 1);
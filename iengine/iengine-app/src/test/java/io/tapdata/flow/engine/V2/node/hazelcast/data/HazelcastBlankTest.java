@@ -0,0 +1,82 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.data;
+
+import com.tapdata.entity.TapdataEvent;
+import com.tapdata.entity.task.context.ProcessorBaseContext;
+import com.tapdata.tm.commons.dag.Node;
+import com.tapdata.tm.commons.task.dto.TaskDto;
+import io.tapdata.entity.event.TapEvent;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Class HazelcastBlank Test")
+class HazelcastBlankTest {
+
+	class BlankNode extends HazelcastBlank {
+		private final List<TapdataEvent> offered = new ArrayList<>();
+
+		BlankNode(ProcessorBaseContext processorBaseContext) {
+			super(processorBaseContext);
+		}
+
+		@Override
+		protected boolean isRunning() {
+			return true;
+		}
+
+		@Override
+		protected boolean offer(TapdataEvent dataEvent) {
+			offered.add(dataEvent);
+			return true;
+		}
+	}
+
+	private BlankNode blankNode;
+
+	@BeforeEach
+	void setUp() {
+		ProcessorBaseContext processorBaseContext = mock(ProcessorBaseContext.class);
+		Node node = mock(Node.class);
+		when(node.getId()).thenReturn("node1");
+		when(processorBaseContext.getNode()).thenReturn(node);
+		when(processorBaseContext.getTaskDto()).thenReturn(new TaskDto());
+		blankNode = new BlankNode(processorBaseContext);
+		ReflectionTestUtils.setField(blankNode, "cooperative", true);
+	}
+
+	@Test
+	@DisplayName("test shared tap event is passed through without clone or TapValue conversion")
+	void testPassThroughSharedTapEvent() throws Exception {
+		Map<String, Object> after = new HashMap<>();
+		after.put("id", 1);
+		TapEvent tapEvent = TapInsertRecordEvent.create().table("t1").after(after);
+		TapdataEvent upstream = new TapdataEvent();
+		upstream.setTapEvent(tapEvent);
+		upstream.beginShareTapEvent(2);
+		TapdataEvent first = upstream.shareClone();
+		TapdataEvent second = upstream.shareClone();
+		upstream.releaseTapEvent();
+
+		assertFalse(blankNode.mutatesTapEvent());
+		assertTrue(blankNode.tryProcess(0, first));
+		assertEquals(1, blankNode.offered.size());
+		assertSame(tapEvent, blankNode.offered.get(0).getTapEvent());
+		assertTrue(blankNode.offered.get(0).isTapEventShared());
+		assertSame(after, ((TapInsertRecordEvent) blankNode.offered.get(0).getTapEvent()).getAfter());
+
+		// 另一个下游如需修改, 仍然拿到自己的副本
+		second.ownTapEvent();
+		assertNotSame(tapEvent, second.getTapEvent());
+	}
+}
@@ -28,6 +28,8 @@ import io.tapdata.entity.aspect.AspectObserver;
 import io.tapdata.entity.event.TapEvent;
 import io.tapdata.entity.event.ddl.TapDDLEvent;
 import io.tapdata.entity.event.ddl.TapDDLUnknownEvent;
+import io.tapdata.entity.event.ddl.table.TapNewFieldEvent;
+import io.tapdata.entity.event.ddl.table.TapRenameTableEvent;
 import io.tapdata.entity.event.dml.TapInsertRecordEvent;
 import io.tapdata.entity.mapping.DefaultExpressionMatchingMap;
 import io.tapdata.entity.schema.TapField;
@@ -332,6 +334,7 @@ class HazelcastSourcePdkBaseNodeTest extends BaseHazelcastNodeTest {
 			TapEvent tapEvent = mock(TapDDLEvent.class);
 			when(((TapDDLEvent) tapEvent).getTableId()).thenReturn("111");
 			doCallRealMethod().when(mockInstance).handleSchemaChange(tapEvent);
+			doCallRealMethod().when(mockInstance).handleSchemaChange(anyList());
 			when(processorBaseContext.getTapTableMap()).thenReturn(mock(TapTableMap.class));
 			DDLSchemaHandler handler = mock(DDLSchemaHandler.class);
 			when(mockInstance.ddlSchemaHandler()).thenReturn(handler);
@@ -367,6 +370,120 @@ class HazelcastSourcePdkBaseNodeTest extends BaseHazelcastNodeTest {
 			mockInstance.handleSchemaChange(tapEvent);
 			assertEquals(attr, metadata.getTableAttr());
 		}
+
+		@Test
+		@DisplayName("Consecutive ddl events share one schema transform")
+		void testCoalesceSchemaChange() throws Exception {
+			doCallRealMethod().when(mockInstance).handleSchemaChange(anyList());
+			TapTableMap tapTableMap = mock(TapTableMap.class);
+			when(processorBaseContext.getTapTableMap()).thenReturn(tapTableMap);
+			when(dataProcessorContext.getTapTableMap()).thenReturn(tapTableMap);
+			when(tapTableMap.get(anyString())).thenReturn(mock(TapTable.class));
+			when(tapTableMap.getQualifiedName(anyString())).thenAnswer(invocation -> "qn_" + invocation.getArgument(0));
+			when(mockInstance.ddlSchemaHandler()).thenReturn(mock(DDLSchemaHandler.class));
+			ConnectorNode connectorNode = mock(ConnectorNode.class);
+			when(mockInstance.getConnectorNode()).thenReturn(connectorNode);
+			TapConnectorContext context = mock(TapConnectorContext.class);
+			when(connectorNode.getConnectorContext()).thenReturn(context);
+			TapNodeSpecification specification = mock(TapNodeSpecification.class);
+			when(context.getSpecification()).thenReturn(specification);
+			when(specification.getDataTypesMap()).thenReturn(mock(DefaultExpressionMatchingMap.class));
+			DAG dag = mock(DAG.class);
+			DAG cloneDag = mock(DAG.class);
+			when(dag.clone()).thenReturn(cloneDag);
+			TaskDto dto = mock(TaskDto.class);
+			when(processorBaseContext.getTaskDto()).thenReturn(dto);
+			when(dto.getDag()).thenReturn(dag);
+			when(processorBaseContext.getNode()).thenReturn((Node) tableNode);
+			TransformerWsMessageDto transformerWsMessageDto = new TransformerWsMessageDto();
+			transformerWsMessageDto.setMetadataInstancesDtoList(new ArrayList<>());
+			DAG.Options options = new DAG.Options();
+			transformerWsMessageDto.setOptions(options);
+			ReflectionTestUtils.setField(mockInstance, "transformerWsMessageDto", transformerWsMessageDto);
+			DAGDataServiceImpl dagDataService = mock(DAGDataServiceImpl.class);
+			when(mockInstance.initDagDataService(transformerWsMessageDto)).thenReturn(dagDataService);
+			when(dagDataService.getMetadata(anyString())).thenAnswer(invocation -> {
+				MetadataInstancesDto metadata = new MetadataInstancesDto();
+				metadata.setQualifiedName(invocation.getArgument(0));
+				metadata.setId(new ObjectId());
+				return metadata;
+			});
+			AtomicReference<List<String>> ddlTables = new AtomicReference<>();
+			when(dag.transformSchema(any(), any(), any())).thenAnswer(invocation -> {
+				ddlTables.set(new ArrayList<>(((DAG.Options) invocation.getArgument(2)).getDdlTables()));
+				return new HashMap<>();
+			});
+			List<TapEvent> tapEvents = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				TapNewFieldEvent tapNewFieldEvent = new TapNewFieldEvent();
+				tapNewFieldEvent.setTableId("t" + i);
+				tapEvents.add(tapNewFieldEvent);
+			}
+
+			mockInstance.handleSchemaChange(tapEvents);
+			verify(dag, times(3)).filedDdlEvent(anyString(), any(TapDDLEvent.class));
+			verify(dag, times(1)).clone();
+			verify(dag, times(1)).transformSchema(any(), any(), any());
+			assertEquals(3, ddlTables.get().size());
+			assertNull(options.getDdlTables());
+			for (int i = 0; i < 3; i++) {
+				TapEvent tapEvent = tapEvents.get(i);
+				assertSame(cloneDag, tapEvent.getInfo("NEW_DAG"));
+				assertSame(dagDataService, tapEvent.getInfo("DAG_DATA_SERVICE"));
+				Map<String, MetadataInstancesDto> updateMetadata = (Map<String, MetadataInstancesDto>) tapEvent.getInfo("UPDATE_METADATA");
+				assertEquals(1, updateMetadata.size());
+				assertEquals("qn_t" + i, updateMetadata.values().iterator().next().getQualifiedName());
+			}
+		}
+	}
+
+	@Nested
+	@DisplayName("DDLCoalescer class test")
+	class DDLCoalescerTest {
+		private HazelcastSourcePdkBaseNode.DDLCoalescer ddlCoalescer;
+
+		@BeforeEach
+		void setUp() {
+			ddlCoalescer = mockInstance.new DDLCoalescer();
+		}
+
+		private TapDDLEvent ddl(String tableId) {
+			TapNewFieldEvent tapNewFieldEvent = new TapNewFieldEvent();
+			tapNewFieldEvent.setTableId(tableId);
+			return tapNewFieldEvent;
+		}
+
+		@Test
+		@DisplayName("DML of other tables does not break the run")
+		void testOtherTableDml() {
+			ddlCoalescer.add(ddl("t1"));
+			ddlCoalescer.before(TapInsertRecordEvent.create().table("t2"));
+			ddlCoalescer.add(ddl("t3"));
+			ddlCoalescer.flush();
+			verify(mockInstance, times(1)).handleSchemaChange(argThat((List<TapEvent> events) -> events.size() == 2));
+		}
+
+		@Test
+		@DisplayName("DML of a changed table flushes the run first")
+		void testSameTableDml() {
+			ddlCoalescer.add(ddl("t1"));
+			ddlCoalescer.before(TapInsertRecordEvent.create().table("t1"));
+			ddlCoalescer.add(ddl("t1"));
+			ddlCoalescer.flush();
+			verify(mockInstance, times(2)).handleSchemaChange(argThat((List<TapEvent> events) -> events.size() == 1));
+		}
+
+		@Test
+		@DisplayName("Rename table is handled alone")
+		void testRenameTable() {
+			ddlCoalescer.add(ddl("t1"));
+			TapRenameTableEvent tapRenameTableEvent = new TapRenameTableEvent();
+			tapRenameTableEvent.setTableId("t2");
+			ddlCoalescer.before(tapRenameTableEvent);
+			ddlCoalescer.add(tapRenameTableEvent);
+			ddlCoalescer.flush();
+			verify(mockInstance, times(2)).handleSchemaChange(argThat((List<TapEvent> events) -> events.size() == 1));
+		}
 	}
 
 	@Nested
@@ -528,6 +645,32 @@ class HazelcastSourcePdkBaseNodeTest extends BaseHazelcastNodeTest {
 			assertEquals(1, ((Map) syncProgress.getStreamOffsetObj()).get("test"));
 		}
 
+		@Test
+		@SneakyThrows
+		@DisplayName("test share cdc offset without source offset switch to normal task from stream offset time")
+		void testShareCDCOffsetWithStreamOffsetTime() {
+			syncProgress.setEventTime(2L);
+			ShareCDCOffset shareCDCOffset = new ShareCDCOffset(null, null, 1L);
+			syncProgress.setStreamOffset(PdkUtil.encodeOffset(shareCDCOffset));
+			Object fakeStreamOffset = new Object();
+			TapConnectorContext tapConnectorContext = mock(TapConnectorContext.class);
+			TimestampToStreamOffsetFunction timestampToStreamOffsetFunction = mock(TimestampToStreamOffsetFunction.class);
+			when(timestampToStreamOffsetFunction.timestampToStreamOffset(eq(tapConnectorContext), any(Long.class))).thenReturn(fakeStreamOffset);
+			ConnectorFunctions connectorFunctions = mock(ConnectorFunctions.class);
+			when(connectorFunctions.getTimestampToStreamOffsetFunction()).thenReturn(timestampToStreamOffsetFunction);
+			ConnectorNode connectorNode = mock(ConnectorNode.class);
+			when(connectorNode.getConnectorFunctions()).thenReturn(connectorFunctions);
+			when(connectorNode.getConnectorContext()).thenReturn(tapConnectorContext);
+			doReturn(connectorNode).when(instance).getConnectorNode();
+			doCallRealMethod().when(connectorNode).applyClassLoaderContext(any(Runnable.class));
+
+			instance.readShareCDCStreamOffsetSwitchNormalTask(syncProgress.getStreamOffset());
+
+			verify(instance, times(1)).initStreamOffsetFromTime(1L);
+			verify(instance, never()).initStreamOffsetFromTime(2L);
+			assertEquals(fakeStreamOffset, syncProgress.getStreamOffsetObj());
+		}
+
 		@Test
 		@DisplayName("test stream offset is null and sourceTime, eventTime is null")
 		void testStreamOffsetIsNullAndSourceTimeEventTimeIsNull() {
@@ -637,9 +780,10 @@ class HazelcastSourcePdkBaseNodeTest extends BaseHazelcastNodeTest {
 			ShareCDCOffset shareCDCOffset = new ShareCDCOffset(fakeSequenceMap, null);
 			instance.readShareCDCStreamOffsetContinueShareCDC(PdkUtil.encodeOffset(shareCDCOffset));
 
-			assertNotNull(syncProgress.getStreamOffsetObj());
-			assertEquals(1, ((Map) syncProgress.getStreamOffsetObj()).size());
-			assertEquals(1L, ((Map) syncProgress.getStreamOffsetObj()).get("test"));
+			assertInstanceOf(ShareCDCOffset.class, syncProgress.getStreamOffsetObj());
+			Map<String, Long> sequenceMap = ((ShareCDCOffset) syncProgress.getStreamOffsetObj()).getSequenceMap();
+			assertEquals(1, sequenceMap.size());
+			assertEquals(1L, sequenceMap.get("test"));
 		}
 
 		@Test
@@ -4,6 +4,7 @@ import base.hazelcast.BaseHazelcastNodeTest;
 import com.google.common.collect.Lists;
 import com.hazelcast.jet.core.Processor;
 import com.tapdata.entity.Connections;
+import com.tapdata.entity.SyncStage;
 import com.tapdata.entity.TapdataEvent;
 import com.tapdata.entity.TapdataShareLogEvent;
 import com.tapdata.entity.task.context.DataProcessorContext;
@@ -804,4 +805,77 @@ class HazelcastTargetPdkBaseNodeTest extends BaseHazelcastNodeTest {
 			}
 		}
 	}
+
+	@Nested
+	@DisplayName("Method removeExactlyOnceWriteExists test")
+	class RemoveExactlyOnceWriteExistsTest {
+		private List<String> lookupTables;
+
+		@BeforeEach
+		void beforeEach() {
+			lookupTables = new ArrayList<>(Collections.singletonList("t1"));
+			ConcurrentHashMap<String, List<String>> exactlyOnceWriteNeedLookupTables = new ConcurrentHashMap<>();
+			exactlyOnceWriteNeedLookupTables.put(Thread.currentThread().getName(), lookupTables);
+			ReflectionTestUtils.setField(hazelcastTargetPdkBaseNode, "exactlyOnceWriteNeedLookupTables", exactlyOnceWriteNeedLookupTables);
+			ReflectionTestUtils.setField(hazelcastTargetPdkBaseNode, "obsLogger", mockObsLogger);
+			when(hazelcastTargetPdkBaseNode.getTgtTableNameFromTapEvent(any(TapEvent.class))).thenReturn("t1");
+		}
+
+		private TapdataEvent tapdataEvent() {
+			TapdataEvent tapdataEvent = new TapdataEvent();
+			tapdataEvent.setTapEvent(TapInsertRecordEvent.create().table("t1").after(new HashMap<>()));
+			return tapdataEvent;
+		}
+
+		@Test
+		@DisplayName("test written events are removed from the batch and the table stops looking up")
+		void testRemoveWritten() {
+			TapdataEvent written = tapdataEvent();
+			TapdataEvent notWritten = tapdataEvent();
+			TapEvent other = TapInsertRecordEvent.create().table("t2").after(new HashMap<>());
+			List<TapEvent> tapEvents = new ArrayList<>(Arrays.asList(written.getTapEvent(), notWritten.getTapEvent(), other));
+			List<TapdataEvent> lookupEvents = Arrays.asList(written, notWritten);
+			when(hazelcastTargetPdkBaseNode.eventsExactlyOnceWriteCheckExists(lookupEvents)).thenReturn(new HashSet<>(Collections.singletonList(written)));
+
+			ReflectionTestUtils.invokeMethod(hazelcastTargetPdkBaseNode, "removeExactlyOnceWriteExists", lookupEvents, tapEvents);
+			assertEquals(2, tapEvents.size());
+			assertSame(notWritten.getTapEvent(), tapEvents.get(0));
+			assertSame(other, tapEvents.get(1));
+			assertTrue(lookupTables.isEmpty());
+			verify(hazelcastTargetPdkBaseNode, times(1)).eventsExactlyOnceWriteCheckExists(lookupEvents);
+		}
+
+		@Test
+		@DisplayName("test the table keeps looking up while every event was written")
+		void testAllWritten() {
+			TapdataEvent written = tapdataEvent();
+			List<TapEvent> tapEvents = new ArrayList<>(Collections.singletonList(written.getTapEvent()));
+			List<TapdataEvent> lookupEvents = Collections.singletonList(written);
+			when(hazelcastTargetPdkBaseNode.eventsExactlyOnceWriteCheckExists(lookupEvents)).thenReturn(new HashSet<>(lookupEvents));
+
+			ReflectionTestUtils.invokeMethod(hazelcastTargetPdkBaseNode, "removeExactlyOnceWriteExists", lookupEvents, tapEvents);
+			assertTrue(tapEvents.isEmpty());
+			assertEquals(Collections.singletonList("t1"), lookupTables);
+		}
+
+		@Test
+		@DisplayName("test no lookup without candidate events")
+		void testNoLookupEvents() {
+			List<TapEvent> tapEvents = new ArrayList<>(Collections.singletonList(tapdataEvent().getTapEvent()));
+			ReflectionTestUtils.invokeMethod(hazelcastTargetPdkBaseNode, "removeExactlyOnceWriteExists", new ArrayList<TapdataEvent>(), tapEvents);
+			assertEquals(1, tapEvents.size());
+			verify(hazelcastTargetPdkBaseNode, never()).eventsExactlyOnceWriteCheckExists(anyList());
+		}
+
+		@Test
+		@DisplayName("test events out of CDC are not candidates for the lookup")
+		void testNotCdcBypass() {
+			ReflectionTestUtils.setField(hazelcastTargetPdkBaseNode, "exactlyOnceWriteTables", new ArrayList<>(Collections.singletonList("t1")));
+			TapdataEvent tapdataEvent = tapdataEvent();
+			tapdataEvent.setSyncStage(SyncStage.INITIAL_SYNC);
+			Boolean result = ReflectionTestUtils.invokeMethod(hazelcastTargetPdkBaseNode, "handleExactlyOnceWriteCacheIfNeed", tapdataEvent, new ArrayList<TapRecordEvent>());
+			assertFalse(result);
+			assertNull(tapdataEvent.getExactlyOnceWriteCache());
+		}
+	}
 }
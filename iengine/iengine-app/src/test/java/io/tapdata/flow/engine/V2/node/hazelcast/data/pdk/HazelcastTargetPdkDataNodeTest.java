@@ -24,25 +24,33 @@ import io.tapdata.entity.schema.TapTable;
 import io.tapdata.error.TapEventException;
 import io.tapdata.error.TaskTargetProcessorExCode_15;
 import io.tapdata.exception.TapCodeException;
+import io.tapdata.flow.engine.V2.exactlyonce.ExactlyOnceUtil;
 import io.tapdata.flow.engine.V2.util.SyncTypeEnum;
 import io.tapdata.observable.logging.ObsLogger;
 import io.tapdata.pdk.apis.context.TapConnectorContext;
+import io.tapdata.pdk.apis.entity.FilterResults;
+import io.tapdata.pdk.apis.entity.TapAdvanceFilter;
 import io.tapdata.pdk.apis.functions.ConnectorFunctions;
+import io.tapdata.pdk.apis.functions.PDKMethod;
 import io.tapdata.pdk.apis.functions.connection.GetTableInfoFunction;
 import io.tapdata.pdk.apis.functions.connection.TableInfo;
 import io.tapdata.pdk.apis.functions.connector.target.*;
 import io.tapdata.pdk.core.api.ConnectorNode;
+import io.tapdata.pdk.core.entity.params.PDKMethodInvoker;
+import io.tapdata.pdk.core.monitor.PDKInvocationMonitor;
 import io.tapdata.pdk.core.utils.CommonUtils;
 import io.tapdata.schema.TapTableMap;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
 import org.mockito.internal.verification.Times;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.sql.Ref;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
@@ -807,4 +815,130 @@ class HazelcastTargetPdkDataNodeTest extends BaseTaskTest {
 			assertEquals(node.getConcurrentWritePartitionMap().size(),concurrentWritePartitionMap.size());
 		}
 	}
+
+	@Nested
+	@DisplayName("Method eventsExactlyOnceWriteCheckExists and queryExactlyOnceWriteWatermark test")
+	class ExactlyOnceWriteCheckExistsTest {
+		private ConnectorNode connectorNode;
+		private TapTable cacheTable;
+		private QueryByAdvanceFilterFunction queryByAdvanceFilterFunction;
+		private List<Map<String, Object>> queryResults;
+
+		@BeforeEach
+		@SuppressWarnings("unchecked")
+		void beforeEach() {
+			ReflectionTestUtils.setField(hazelcastTargetPdkDataNode, "obsLogger", mockObsLogger);
+			ReflectionTestUtils.setField(hazelcastTargetPdkDataNode, "exactlyOnceWriteWatermarks", new ConcurrentHashMap<>());
+			DataProcessorContext dataProcessorContext = mock(DataProcessorContext.class);
+			TapTableMap<String, TapTable> tapTableMap = mock(TapTableMap.class);
+			cacheTable = new TapTable(ExactlyOnceUtil.EXACTLY_ONCE_CACHE_TABLE_NAME);
+			when(tapTableMap.get(ExactlyOnceUtil.EXACTLY_ONCE_CACHE_TABLE_NAME)).thenReturn(cacheTable);
+			when(dataProcessorContext.getTapTableMap()).thenReturn(tapTableMap);
+			ReflectionTestUtils.setField(hazelcastTargetPdkDataNode, "dataProcessorContext", dataProcessorContext);
+			Node node = mock(TableNode.class);
+			when(node.getId()).thenReturn("node1");
+			when(hazelcastTargetPdkDataNode.getNode()).thenReturn(node);
+
+			connectorNode = mock(ConnectorNode.class);
+			ConnectorFunctions connectorFunctions = mock(ConnectorFunctions.class);
+			queryByAdvanceFilterFunction = mock(QueryByAdvanceFilterFunction.class);
+			when(connectorFunctions.getQueryByAdvanceFilterFunction()).thenReturn(queryByAdvanceFilterFunction);
+			when(connectorNode.getConnectorFunctions()).thenReturn(connectorFunctions);
+			when(hazelcastTargetPdkDataNode.getConnectorNode()).thenReturn(connectorNode);
+			PDKMethodInvoker pdkMethodInvoker = mock(PDKMethodInvoker.class);
+			when(hazelcastTargetPdkDataNode.createPdkMethodInvoker()).thenReturn(pdkMethodInvoker);
+			when(pdkMethodInvoker.runnable(any(CommonUtils.AnyError.class))).thenAnswer(a -> {
+				a.getArgument(0, CommonUtils.AnyError.class).run();
+				return pdkMethodInvoker;
+			});
+			queryResults = new ArrayList<>();
+			FilterResults filterResults = mock(FilterResults.class);
+			when(filterResults.getResults()).thenReturn(queryResults);
+			doAnswer(a -> {
+				a.getArgument(3, Consumer.class).accept(filterResults);
+				return null;
+			}).when(queryByAdvanceFilterFunction).query(any(), any(TapAdvanceFilter.class), any(TapTable.class), any(Consumer.class));
+			doCallRealMethod().when(hazelcastTargetPdkDataNode).eventsExactlyOnceWriteCheckExists(anyList());
+		}
+
+		private TapdataEvent cachedEvent(String tableName, String exactlyOnceId, long timestamp) {
+			Map<String, Object> cacheRow = new HashMap<>();
+			cacheRow.put(ExactlyOnceUtil.TABLE_NAME_COL_NAME, tableName);
+			cacheRow.put(ExactlyOnceUtil.EXACTLY_ONCE_ID_COL_NAME, exactlyOnceId);
+			cacheRow.put(ExactlyOnceUtil.TIMESTAMP_COL_NAME, timestamp);
+			TapdataEvent tapdataEvent = new TapdataEvent();
+			tapdataEvent.setExactlyOnceWriteCache(TapInsertRecordEvent.create().after(cacheRow));
+			return tapdataEvent;
+		}
+
+		private Map<String, Object> cacheRow(String exactlyOnceId, long timestamp) {
+			Map<String, Object> row = new HashMap<>();
+			row.put(ExactlyOnceUtil.EXACTLY_ONCE_ID_COL_NAME, exactlyOnceId);
+			row.put(ExactlyOnceUtil.TIMESTAMP_COL_NAME, timestamp);
+			return row;
+		}
+
+		@Test
+		@DisplayName("test one query per table and batch, written events are returned")
+		void testBatchLookup() {
+			try (MockedStatic<PDKInvocationMonitor> pdkInvocationMonitor = mockStatic(PDKInvocationMonitor.class)) {
+				doReturn(200L).when(hazelcastTargetPdkDataNode).queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1");
+				queryResults.add(cacheRow("a", 100L));
+				TapdataEvent written = cachedEvent("t1", "a", 100L);
+				TapdataEvent notWritten = cachedEvent("t1", "b", 150L);
+				TapdataEvent newer = cachedEvent("t1", "a", 300L);
+
+				Set<TapdataEvent> existsEvents = hazelcastTargetPdkDataNode.eventsExactlyOnceWriteCheckExists(Arrays.asList(written, notWritten, newer));
+				assertEquals(1, existsEvents.size());
+				assertTrue(existsEvents.contains(written));
+				verify(queryByAdvanceFilterFunction, times(1)).query(any(), any(TapAdvanceFilter.class), any(TapTable.class), any(Consumer.class));
+				pdkInvocationMonitor.verify(() -> PDKInvocationMonitor.invoke(eq(connectorNode), eq(PDKMethod.SOURCE_QUERY_BY_ADVANCE_FILTER), any(PDKMethodInvoker.class)), times(1));
+
+				// 水位线只在第一次查询
+				hazelcastTargetPdkDataNode.eventsExactlyOnceWriteCheckExists(Collections.singletonList(cachedEvent("t1", "c", 120L)));
+				verify(hazelcastTargetPdkDataNode, times(1)).queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1");
+				verify(queryByAdvanceFilterFunction, times(2)).query(any(), any(TapAdvanceFilter.class), any(TapTable.class), any(Consumer.class));
+			}
+		}
+
+		@Test
+		@DisplayName("test events newer than the watermark skip the lookup")
+		void testNewerThanWatermark() {
+			try (MockedStatic<PDKInvocationMonitor> pdkInvocationMonitor = mockStatic(PDKInvocationMonitor.class)) {
+				doReturn(50L).when(hazelcastTargetPdkDataNode).queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1");
+				Set<TapdataEvent> existsEvents = hazelcastTargetPdkDataNode.eventsExactlyOnceWriteCheckExists(
+						Arrays.asList(cachedEvent("t1", "a", 100L), cachedEvent("t1", "b", 150L)));
+				assertTrue(existsEvents.isEmpty());
+				verify(queryByAdvanceFilterFunction, never()).query(any(), any(TapAdvanceFilter.class), any(TapTable.class), any(Consumer.class));
+			}
+		}
+
+		@Test
+		@DisplayName("test events without exactly once cache row (not CDC) are not looked up")
+		void testWithoutCacheRow() {
+			Set<TapdataEvent> existsEvents = hazelcastTargetPdkDataNode.eventsExactlyOnceWriteCheckExists(Collections.singletonList(new TapdataEvent()));
+			assertTrue(existsEvents.isEmpty());
+			verify(hazelcastTargetPdkDataNode, never()).queryExactlyOnceWriteWatermark(any(), any(), anyString());
+			verify(queryByAdvanceFilterFunction, never()).query(any(), any(TapAdvanceFilter.class), any(TapTable.class), any(Consumer.class));
+		}
+
+		@Test
+		@DisplayName("test watermark is the latest cached timestamp")
+		void testQueryWatermark() {
+			try (MockedStatic<PDKInvocationMonitor> pdkInvocationMonitor = mockStatic(PDKInvocationMonitor.class)) {
+				doCallRealMethod().when(hazelcastTargetPdkDataNode).queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1");
+				queryResults.add(cacheRow("a", 123L));
+				assertEquals(123L, hazelcastTargetPdkDataNode.queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1"));
+			}
+		}
+
+		@Test
+		@DisplayName("test watermark of an empty cache table")
+		void testQueryWatermarkEmpty() {
+			try (MockedStatic<PDKInvocationMonitor> pdkInvocationMonitor = mockStatic(PDKInvocationMonitor.class)) {
+				doCallRealMethod().when(hazelcastTargetPdkDataNode).queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1");
+				assertEquals(Long.MIN_VALUE, hazelcastTargetPdkDataNode.queryExactlyOnceWriteWatermark(connectorNode, cacheTable, "t1"));
+			}
+		}
+	}
 }
@@ -0,0 +1,138 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.data.pdk;
+
+import io.tapdata.pdk.apis.entity.QueryOperator;
+import io.tapdata.pdk.apis.entity.TapAdvanceFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class PollingCdcPlannerTest {
+
+	private static final int GT = QueryOperator.gt("k", 1).getOperator();
+
+	/**
+	 * 内存中模拟 queryByAdvanceFilter: match 相等、gt 范围、按排序字段升序、limit
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static List<Map<String, Object>> query(List<Map<String, Object>> rows, TapAdvanceFilter filter) {
+		return rows.stream()
+				.filter(row -> null == filter.getMatch() || filter.getMatch().entrySet().stream().allMatch(e -> e.getValue().equals(row.get(e.getKey()))))
+				.filter(row -> null == filter.getOperators() || filter.getOperators().stream().allMatch(op -> {
+					Assertions.assertEquals(GT, op.getOperator());
+					return ((Comparable) row.get(op.getKey())).compareTo(op.getValue()) > 0;
+				}))
+				.sorted((a, b) -> {
+					for (int i = 0; i < filter.getSortOnList().size(); i++) {
+						String key = filter.getSortOnList().get(i).getKey();
+						int c = ((Comparable) a.get(key)).compareTo(b.get(key));
+						if (c != 0) {
+							return c;
+						}
+					}
+					return 0;
+				})
+				.limit(filter.getLimit())
+				.collect(Collectors.toList());
+	}
+
+	private static Map<String, Object> row(long ts, int id) {
+		Map<String, Object> row = new HashMap<>();
+		row.put("ts", ts);
+		row.put("id", id);
+		return row;
+	}
+
+	/**
+	 * 与 HazelcastSourcePdkDataNode#doPollingCDC 相同的轮询流程, 返回读到的所有行
+	 */
+	private static List<Map<String, Object>> poll(List<Map<String, Object>> rows, List<String> offsetFields, Map<String, Object> offset, int batchSize) {
+		List<Map<String, Object>> read = new ArrayList<>();
+		while (true) {
+			int total = 0;
+			boolean full = false;
+			for (Integer depth : PollingCdcPlanner.phaseDepths(offsetFields, offset)) {
+				List<Map<String, Object>> results = query(rows, PollingCdcPlanner.phaseFilter(offsetFields, offset, depth, batchSize, null, null));
+				for (Map<String, Object> result : results) {
+					read.add(result);
+					offsetFields.forEach(f -> offset.put(f, result.get(f)));
+				}
+				total += results.size();
+				if (results.size() >= batchSize) {
+					full = true;
+					break;
+				}
+			}
+			if (!full && total == 0) {
+				return read;
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("test rows sharing one polling field value across batch boundaries are neither lost nor duplicated")
+	void testTieSafeOffset() {
+		List<Map<String, Object>> rows = new ArrayList<>();
+		int id = 0;
+		for (; id < 5000; id++) {
+			rows.add(row(100L, id));
+		}
+		for (; id < 5500; id++) {
+			rows.add(row(100L + id % 7, id));
+		}
+		Collections.shuffle(rows);
+
+		List<Map<String, Object>> read = poll(rows, Arrays.asList("ts", "id"), new HashMap<>(), 1000);
+		Set<Object> ids = read.stream().map(r -> r.get("id")).collect(Collectors.toSet());
+		Assertions.assertEquals(rows.size(), read.size());
+		Assertions.assertEquals(rows.size(), ids.size());
+	}
+
+	@Test
+	@DisplayName("test new rows with an already read polling field value are picked up")
+	void testLateRowsWithSameValue() {
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (int id = 0; id < 1500; id++) {
+			rows.add(row(100L, id));
+		}
+		Map<String, Object> offset = new HashMap<>();
+		List<String> offsetFields = Arrays.asList("ts", "id");
+		Assertions.assertEquals(1500, poll(rows, offsetFields, offset, 1000).size());
+
+		rows.add(row(100L, 1500));
+		rows.add(row(101L, 1501));
+		List<Map<String, Object>> read = poll(rows, offsetFields, offset, 1000);
+		Assertions.assertEquals(new HashSet<>(Arrays.asList(1500, 1501)), read.stream().map(r -> r.get("id")).collect(Collectors.toSet()));
+	}
+
+	@Test
+	@DisplayName("test legacy offset without primary key values")
+	void testPhaseDepths() {
+		List<String> offsetFields = Arrays.asList("ts", "id");
+		Assertions.assertEquals(Collections.singletonList(0), PollingCdcPlanner.phaseDepths(offsetFields, new HashMap<>()));
+		Assertions.assertEquals(Collections.singletonList(1), PollingCdcPlanner.phaseDepths(offsetFields, Collections.singletonMap("ts", 1L)));
+		Assertions.assertEquals(Arrays.asList(2, 1), PollingCdcPlanner.phaseDepths(offsetFields, row(1L, 1)));
+	}
+
+	@Test
+	@DisplayName("test adaptive interval")
+	void testAdaptiveInterval() {
+		PollingCdcPlanner.AdaptiveInterval interval = new PollingCdcPlanner.AdaptiveInterval(500L, 3000L);
+		Assertions.assertEquals(0L, interval.next(1000, true));
+		Assertions.assertEquals(500L, interval.next(10, false));
+		Assertions.assertEquals(1000L, interval.next(0, false));
+		Assertions.assertEquals(2000L, interval.next(0, false));
+		Assertions.assertEquals(3000L, interval.next(0, false));
+		Assertions.assertEquals(3000L, interval.next(0, false));
+		Assertions.assertEquals(500L, interval.next(1, false));
+	}
+}
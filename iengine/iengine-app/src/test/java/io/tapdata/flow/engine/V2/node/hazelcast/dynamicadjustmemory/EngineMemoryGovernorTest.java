@@ -0,0 +1,78 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.dynamicadjustmemory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineMemoryGovernorTest {
+	private EngineMemoryGovernor governor;
+	private EngineMemoryGovernor.MemoryBudget budget;
+
+	@BeforeEach
+	void setUp() {
+		governor = new EngineMemoryGovernor(0.6D, 0.9D);
+		budget = governor.register("node1", "node1", 1000);
+	}
+
+	@Nested
+	class UpdateTest {
+		@Test
+		void testLowUsage() {
+			governor.update(0.5D, 0D);
+			assertEquals(1D, governor.getFactor());
+			assertEquals(1000, governor.queueLimit(budget));
+		}
+
+		@Test
+		void testHighUsage() {
+			governor.update(0.95D, 0D);
+			assertEquals(EngineMemoryGovernor.MIN_FACTOR, governor.getFactor());
+			assertEquals(50, governor.queueLimit(budget));
+		}
+
+		@Test
+		void testLinearAndGcPressure() {
+			governor.update(0.75D, 0D);
+			assertEquals(0.525D, governor.getFactor(), 0.0001D);
+			governor.update(0.75D, 0.5D);
+			assertEquals(0.2625D, governor.getFactor(), 0.0001D);
+		}
+
+		@Test
+		void testRecoverGradually() {
+			governor.update(0.95D, 0D);
+			governor.update(0.1D, 0D);
+			assertEquals(EngineMemoryGovernor.MIN_FACTOR + EngineMemoryGovernor.MAX_FACTOR_STEP_UP, governor.getFactor(), 0.0001D);
+			for (int i = 0; i < 10; i++) {
+				governor.update(0.1D, 0D);
+			}
+			assertEquals(1D, governor.getFactor());
+		}
+	}
+
+	@Nested
+	class ThrottleTest {
+		@Test
+		void testNoPressure() {
+			assertEquals(0L, governor.throttleMs(budget, 999));
+			assertEquals(0L, governor.throttleMs(null, 999));
+		}
+
+		@Test
+		void testUnderPressure() {
+			governor.update(0.95D, 0D);
+			assertEquals(0L, governor.throttleMs(budget, 10));
+			assertTrue(governor.throttleMs(budget, 50) > 0L);
+			assertEquals(1L, budget.getThrottledTimes());
+		}
+
+		@Test
+		void testMinQueueSize() {
+			EngineMemoryGovernor.MemoryBudget small = governor.register("node2", "node2", 20);
+			governor.update(0.95D, 0D);
+			assertEquals(DynamicAdjustMemoryContext.DEFAULT_MIN_QUEUE_SIZE, governor.queueLimit(small));
+		}
+	}
+}
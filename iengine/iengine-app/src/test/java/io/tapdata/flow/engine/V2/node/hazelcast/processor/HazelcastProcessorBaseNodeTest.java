@@ -1,18 +1,32 @@
 package io.tapdata.flow.engine.V2.node.hazelcast.processor;
 
+import com.tapdata.entity.TapdataEvent;
+import com.tapdata.entity.task.context.ProcessorBaseContext;
+import io.tapdata.aspect.ProcessorNodeProcessAspect;
 import io.tapdata.entity.codec.TapCodecsRegistry;
 import io.tapdata.entity.codec.ToTapValueCodec;
 import io.tapdata.entity.codec.filter.TapCodecsFilterManager;
+import io.tapdata.entity.schema.TapTable;
+import io.tapdata.schema.TapTableMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -53,4 +67,193 @@ class HazelcastProcessorBaseNodeTest {
 		}
 	}
 
-}
\ No newline at end of file
+	@Nested
+	@DisplayName("Method isCooperative test")
+	class isCooperativeTest {
+		@BeforeEach
+		void setUp() {
+			when(hazelcastProcessorBaseNode.isCooperative()).thenCallRealMethod();
+		}
+
+		@Test
+		@DisplayName("test node not support cooperative")
+		void testNotSupport() {
+			when(hazelcastProcessorBaseNode.supportCooperative()).thenReturn(false);
+			assertFalse(hazelcastProcessorBaseNode.isCooperative());
+		}
+
+		@Test
+		@DisplayName("test node support cooperative")
+		void testSupport() {
+			when(hazelcastProcessorBaseNode.supportCooperative()).thenReturn(true);
+			assertTrue(hazelcastProcessorBaseNode.isCooperative());
+			verify(hazelcastProcessorBaseNode, times(1)).supportCooperative();
+			assertTrue(hazelcastProcessorBaseNode.isCooperative());
+			verify(hazelcastProcessorBaseNode, times(1)).supportCooperative();
+		}
+
+		@Test
+		@DisplayName("test schema not preloaded in init, stay on a dedicated thread")
+		@SuppressWarnings("unchecked")
+		void testSchemaNotPreloaded() {
+			when(hazelcastProcessorBaseNode.supportCooperative()).thenReturn(true);
+			ProcessorBaseContext processorBaseContext = mock(ProcessorBaseContext.class);
+			TapTableMap<String, TapTable> tapTableMap = mock(TapTableMap.class);
+			when(processorBaseContext.getTapTableMap()).thenReturn(tapTableMap);
+			ReflectionTestUtils.setField(hazelcastProcessorBaseNode, "processorBaseContext", processorBaseContext);
+			when(tapTableMap.isPreloaded()).thenReturn(false);
+			assertFalse(hazelcastProcessorBaseNode.isCooperative());
+		}
+	}
+
+	@Nested
+	@DisplayName("Method tryProcess pending events test")
+	class PendingEventsTest {
+		class PendingNode extends HazelcastProcessorBaseNode {
+			private final List<TapdataEvent> offered = new ArrayList<>();
+			private Iterator<Boolean> accepts;
+			private boolean running = true;
+			private int processed;
+
+			PendingNode() {
+				super(mock(ProcessorBaseContext.class));
+			}
+
+			@Override
+			protected boolean isRunning() {
+				return running;
+			}
+
+			@Override
+			protected boolean offer(TapdataEvent dataEvent) {
+				boolean accept = accepts.next();
+				if (accept) {
+					offered.add(dataEvent);
+				}
+				return accept;
+			}
+
+			@Override
+			protected void tryProcess(TapdataEvent tapdataEvent, BiConsumer<TapdataEvent, ProcessResult> consumer) {
+				processed++;
+			}
+		}
+
+		private PendingNode node;
+		private Deque<TapdataEvent> pendingEvents;
+
+		@BeforeEach
+		@SuppressWarnings("unchecked")
+		void setUp() {
+			node = new PendingNode();
+			pendingEvents = (Deque<TapdataEvent>) ReflectionTestUtils.getField(node, "pendingEvents");
+		}
+
+		@Test
+		@DisplayName("test pending events are drained in order without processing the item again")
+		void testDrainPendingEvents() throws Exception {
+			TapdataEvent first = new TapdataEvent();
+			TapdataEvent second = new TapdataEvent();
+			pendingEvents.add(first);
+			pendingEvents.add(second);
+			node.accepts = Arrays.asList(false, true, true).iterator();
+
+			assertFalse(node.tryProcess(0, new TapdataEvent()));
+			assertEquals(2, pendingEvents.size());
+			assertTrue(node.tryProcess(0, new TapdataEvent()));
+			assertEquals(Arrays.asList(first, second), node.offered);
+			assertTrue(pendingEvents.isEmpty());
+			assertEquals(0, node.processed);
+		}
+
+		@Test
+		@DisplayName("test lazy events are resumed where the outbox was full")
+		void testResumeLazyEvents() throws Exception {
+			TapdataEvent first = new TapdataEvent();
+			TapdataEvent second = new TapdataEvent();
+			TapdataEvent third = new TapdataEvent();
+			ProcessorNodeProcessAspect aspect = new ProcessorNodeProcessAspect().start();
+			aspect.deferEnd();
+			ReflectionTestUtils.setField(node, "pendingIterator",
+					new HazelcastProcessorBaseNode.LazyEvents(Arrays.asList(first, second, third).iterator(), aspect));
+			node.accepts = Arrays.asList(true, false, true, true).iterator();
+
+			assertFalse(node.tryProcess(0, new TapdataEvent()));
+			assertEquals(Collections.singletonList(first), node.offered);
+			assertSame(second, pendingEvents.peekFirst());
+			assertNotEquals(ProcessorNodeProcessAspect.STATE_END, aspect.getState());
+			assertTrue(node.tryProcess(0, new TapdataEvent()));
+			assertEquals(Arrays.asList(first, second, third), node.offered);
+			assertNull(ReflectionTestUtils.getField(node, "pendingIterator"));
+			assertEquals(ProcessorNodeProcessAspect.STATE_END, aspect.getState());
+			assertEquals(0, node.processed);
+		}
+
+		@Test
+		@DisplayName("test pending events are dropped when the node stops")
+		void testClearWhenStopped() throws Exception {
+			pendingEvents.add(new TapdataEvent());
+			node.running = false;
+			node.accepts = Collections.<Boolean>emptyList().iterator();
+			assertTrue(node.tryProcess(0, new TapdataEvent()));
+			assertTrue(pendingEvents.isEmpty());
+			assertTrue(node.offered.isEmpty());
+		}
+	}
+
+	@Nested
+	@DisplayName("Class LazyEvents test")
+	class LazyEventsTest {
+		@Test
+		@DisplayName("test aspect ends after all lazy events are emitted")
+		void testEndAfterExhausted() {
+			ProcessorNodeProcessAspect aspect = new ProcessorNodeProcessAspect().start();
+			aspect.deferEnd();
+			HazelcastProcessorBaseNode.LazyEvents lazyEvents = new HazelcastProcessorBaseNode.LazyEvents(
+					Arrays.asList(new TapdataEvent(), new TapdataEvent()).iterator(), aspect);
+			assertTrue(lazyEvents.hasNext());
+			lazyEvents.next();
+			assertTrue(lazyEvents.hasNext());
+			lazyEvents.next();
+			assertNotEquals(ProcessorNodeProcessAspect.STATE_END, aspect.getState());
+			assertFalse(lazyEvents.hasNext());
+			assertEquals(ProcessorNodeProcessAspect.STATE_END, aspect.getState());
+			assertNotNull(aspect.getEndTime());
+		}
+
+		@Test
+		@DisplayName("test aspect ends with the error of lazy generation")
+		void testEndWithError() {
+			ProcessorNodeProcessAspect aspect = new ProcessorNodeProcessAspect().start();
+			RuntimeException error = new RuntimeException("generate failed");
+			Iterator<TapdataEvent> iterator = new Iterator<TapdataEvent>() {
+				@Override
+				public boolean hasNext() {
+					return true;
+				}
+
+				@Override
+				public TapdataEvent next() {
+					throw error;
+				}
+			};
+			HazelcastProcessorBaseNode.LazyEvents lazyEvents = new HazelcastProcessorBaseNode.LazyEvents(iterator, aspect);
+			assertThrows(RuntimeException.class, lazyEvents::next);
+			assertEquals(ProcessorNodeProcessAspect.STATE_END, aspect.getState());
+			assertSame(error, aspect.getThrowable());
+		}
+
+		@Test
+		@DisplayName("test end only once")
+		void testEndOnce() {
+			ProcessorNodeProcessAspect aspect = new ProcessorNodeProcessAspect().start();
+			HazelcastProcessorBaseNode.LazyEvents lazyEvents = new HazelcastProcessorBaseNode.LazyEvents(
+					Arrays.<TapdataEvent>asList().iterator(), aspect);
+			assertFalse(lazyEvents.hasNext());
+			Long endTime = aspect.getEndTime();
+			lazyEvents.end(new RuntimeException());
+			assertNull(aspect.getThrowable());
+			assertEquals(endTime, aspect.getEndTime());
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.processor;
+
+import io.tapdata.entity.event.ddl.table.TapCreateTableEvent;
+import io.tapdata.entity.event.dml.TapDeleteRecordEvent;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import io.tapdata.entity.event.dml.TapUpdateRecordEvent;
+import io.tapdata.metric.impl.PythonEngineLatencyGauge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.python.util.PythonInterpreter;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@DisplayName("HazelcastPythonProcessNode Class Test")
+class HazelcastPythonProcessNodeTest {
+
+	private static Map<String, Object> record(Object id, Object name) {
+		Map<String, Object> record = new HashMap<>();
+		record.put("id", id);
+		record.put("name", name);
+		return record;
+	}
+
+	@Nested
+	@DisplayName("Partition test")
+	class PartitionTest {
+		private final List<String> primaryKeys = Collections.singletonList("id");
+
+		@Test
+		@DisplayName("Events of the same primary key go to the same partition")
+		void testSamePrimaryKey() {
+			TapInsertRecordEvent insert = TapInsertRecordEvent.create().after(record(1, "a"));
+			TapUpdateRecordEvent update = TapUpdateRecordEvent.create().before(record(1, "a")).after(record(1, "b"));
+			TapDeleteRecordEvent delete = TapDeleteRecordEvent.create().before(record(1, "b"));
+			int partition = HazelcastPythonProcessNode.partition(insert, "t", primaryKeys, 4);
+			assertEquals(partition, HazelcastPythonProcessNode.partition(update, "t", primaryKeys, 4));
+			assertEquals(partition, HazelcastPythonProcessNode.partition(delete, "t", primaryKeys, 4));
+		}
+
+		@Test
+		@DisplayName("Different primary keys spread over partitions")
+		void testSpread() {
+			Set<Integer> partitions = new HashSet<>();
+			for (int i = 0; i < 100; i++) {
+				int partition = HazelcastPythonProcessNode.partition(TapInsertRecordEvent.create().after(record(i, "a")), "t", primaryKeys, 4);
+				assertTrue(partition >= 0 && partition < 4);
+				partitions.add(partition);
+			}
+			assertEquals(4, partitions.size());
+		}
+
+		@Test
+		@DisplayName("Without primary keys the whole table goes to one partition")
+		void testNoPrimaryKey() {
+			int partition = HazelcastPythonProcessNode.partition(TapInsertRecordEvent.create().after(record(1, "a")), "t", Collections.emptyList(), 4);
+			assertEquals(partition, HazelcastPythonProcessNode.partition(TapInsertRecordEvent.create().after(record(2, "b")), "t", Collections.emptyList(), 4));
+			assertEquals(partition, HazelcastPythonProcessNode.partition(new TapCreateTableEvent(), "t", primaryKeys, 4));
+		}
+
+		@Test
+		@DisplayName("Single partition")
+		void testSinglePartition() {
+			assertEquals(0, HazelcastPythonProcessNode.partition(TapInsertRecordEvent.create().after(record(1, "a")), "t", primaryKeys, 1));
+		}
+	}
+
+	@Nested
+	@DisplayName("Python engine metrics test")
+	class PythonEngineTest {
+		@Test
+		void testInvokeMetrics() throws Exception {
+			Invocable invocable = mock(Invocable.class);
+			Map<String, Object> result = record(1, "a");
+			when(invocable.invokeFunction(eq("process"), any(), any())).thenReturn(result);
+			when(invocable.invokeFunction(eq(HazelcastPythonProcessNode.BATCH_FUNCTION_NAME), any(), any())).thenReturn(Arrays.asList(result, result));
+			HazelcastPythonProcessNode.PythonEngine pythonEngine = new HazelcastPythonProcessNode.PythonEngine(0, invocable);
+			assertFalse(pythonEngine.isSupportBatch());
+
+			assertSame(result, pythonEngine.invoke(record(1, "a"), new HashMap<>()));
+			pythonEngine.invokeBatch(Arrays.asList(record(1, "a"), record(2, "b")), Arrays.asList(new HashMap<>(), new HashMap<>()));
+			assertEquals(2, pythonEngine.getInvocations());
+			assertEquals(3, pythonEngine.getRecords());
+			assertTrue(pythonEngine.getMaxInvokeMs() >= pythonEngine.getAvgInvokeMs());
+
+			Map<String, Object> metricValues = pythonEngine.metricValues();
+			assertEquals(2L, metricValues.get("invocations"));
+			assertEquals(3L, metricValues.get("records"));
+		}
+
+		@Test
+		@DisplayName("Metrics are published through the gauge while the engine is registered")
+		void testPublishMetrics() throws Exception {
+			Invocable invocable = mock(Invocable.class);
+			HazelcastPythonProcessNode.PythonEngine pythonEngine = new HazelcastPythonProcessNode.PythonEngine(1, invocable);
+			String key = PythonEngineLatencyGauge.key("task", "node", 1);
+			PythonEngineLatencyGauge gauge = new PythonEngineLatencyGauge();
+			PythonEngineLatencyGauge.register(key, pythonEngine::metricValues);
+			try {
+				pythonEngine.invoke(record(1, "a"), new HashMap<>());
+				assertEquals(1L, gauge.getValue().get(key).get("invocations"));
+			} finally {
+				PythonEngineLatencyGauge.unregister(key);
+			}
+			assertFalse(gauge.getValue().containsKey(key));
+		}
+	}
+
+	@Nested
+	@DisplayName("Batch function detection test")
+	class BatchFunctionTest {
+		private ScriptEngine engine(String script) {
+			PythonInterpreter interpreter = new PythonInterpreter();
+			interpreter.exec(script);
+			ScriptEngine scriptEngine = mock(ScriptEngine.class, withSettings().extraInterfaces(Invocable.class));
+			when(scriptEngine.get(HazelcastPythonProcessNode.BATCH_FUNCTION_NAME)).thenReturn(interpreter.get(HazelcastPythonProcessNode.BATCH_FUNCTION_NAME));
+			return scriptEngine;
+		}
+
+		@Test
+		@DisplayName("A compiled process_batch function enables batch")
+		void testCallable() {
+			ScriptEngine scriptEngine = engine("def process_batch(records, contexts):\n    return records\n");
+			assertTrue(new HazelcastPythonProcessNode.PythonEngine(0, (Invocable) scriptEngine).isSupportBatch());
+		}
+
+		@Test
+		@DisplayName("process_batch only in comments or strings does not enable batch")
+		void testNotCallable() {
+			ScriptEngine scriptEngine = engine("# def process_batch(records, contexts)\nprocess_batch = 'def process_batch'\n");
+			assertFalse(new HazelcastPythonProcessNode.PythonEngine(0, (Invocable) scriptEngine).isSupportBatch());
+			assertFalse(new HazelcastPythonProcessNode.PythonEngine(0, (Invocable) engine("# def process_batch(records, contexts)\n")).isSupportBatch());
+		}
+	}
+}
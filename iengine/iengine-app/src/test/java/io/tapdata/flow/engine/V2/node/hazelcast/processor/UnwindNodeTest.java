@@ -1077,4 +1077,102 @@ public class UnwindNodeTest extends BaseTest {
         UnWindNodeUtil.addEvent(event, objects);
         Assertions.assertEquals(1, objects.size());
     }
+
+    @Test
+    public void testCopyAlongPathSharesOtherFields() {
+        Map<String, Object> other = new HashMap<>();
+        other.put("name", "test");
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("items", Arrays.asList(1, 2));
+        Map<String, Object> record = new HashMap<>();
+        record.put("other", other);
+        record.put("nested", nested);
+        Map<String, Object> copy = UnWindNodeUtil.copyAlongPath("nested.items", record);
+        Assert.assertSame(other, copy.get("other"));
+        Assert.assertNotSame(nested, copy.get("nested"));
+        ((Map<String, Object>) copy.get("nested")).put("items", 1);
+        Assert.assertEquals(Arrays.asList(1, 2), nested.get("items"));
+    }
+
+    @Test
+    public void testLazyHandelResultSameAsHandelResult() {
+        Map<String, Object> after = new HashMap<>();
+        after.put("id", 1);
+        after.put("field", Arrays.asList(1, 2, 3));
+        TapInsertRecordEvent event = TapInsertRecordEvent.create();
+        event.after(after);
+        event.setReferenceTime(System.currentTimeMillis());
+        UnwindProcessNode node = new UnwindProcessNode();
+        node.setUnwindModel(UnwindModel.EMBEDDED);
+        node.setPath("field");
+        node.setIncludeArrayIndex("index");
+        List<TapEvent> expected = EventHandel.getHandelResult(node, event);
+        Iterator<TapEvent> iterator = EventHandel.getLazyHandelResult(node, event);
+        for (TapEvent tapEvent : expected) {
+            Assert.assertTrue(iterator.hasNext());
+            Assert.assertEquals(((TapInsertRecordEvent) tapEvent).getAfter(), ((TapInsertRecordEvent) iterator.next()).getAfter());
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testUpdateOnlyChangedItems() {
+        Map<String, Object> before = new HashMap<>();
+        before.put("id", 1);
+        before.put("field", Arrays.asList(1, 2, 3));
+        Map<String, Object> after = new HashMap<>();
+        after.put("id", 1);
+        after.put("field", Arrays.asList(1, 5, 3, 4));
+        TapUpdateRecordEvent event = TapUpdateRecordEvent.create();
+        event.before(before);
+        event.after(after);
+        event.setReferenceTime(System.currentTimeMillis());
+        UnwindProcessNode node = new UnwindProcessNode();
+        node.setUnwindModel(UnwindModel.EMBEDDED);
+        node.setPath("field");
+        node.setIncludeArrayIndex("index");
+
+        List<TapEvent> handelResult = EventHandel.getHandelResult(node, event);
+        Assert.assertEquals(3, handelResult.size());
+        Map<String, Object> delete = ((TapDeleteRecordEvent) handelResult.get(0)).getBefore();
+        Assert.assertEquals(2, delete.get("field"));
+        Assert.assertEquals(1L, delete.get("index"));
+        Map<String, Object> insert = ((TapInsertRecordEvent) handelResult.get(1)).getAfter();
+        Assert.assertEquals(5, insert.get("field"));
+        Assert.assertEquals(1L, insert.get("index"));
+        Map<String, Object> append = ((TapInsertRecordEvent) handelResult.get(2)).getAfter();
+        Assert.assertEquals(4, append.get("field"));
+        Assert.assertEquals(3L, append.get("index"));
+
+        after.put("id", 2);
+        Assert.assertNull(UnWindNodeUtil.diffUpdate(node, event));
+    }
+
+    @Test
+    public void testUpdateWithoutArrayIndexDeletesAll() {
+        Map<String, Object> before = new HashMap<>();
+        before.put("id", 1);
+        before.put("field", Arrays.asList(1, 1, 2));
+        Map<String, Object> after = new HashMap<>();
+        after.put("id", 1);
+        after.put("field", Arrays.asList(1, 3, 2));
+        TapUpdateRecordEvent event = TapUpdateRecordEvent.create();
+        event.before(before);
+        event.after(after);
+        event.setReferenceTime(System.currentTimeMillis());
+        UnwindProcessNode node = new UnwindProcessNode();
+        node.setUnwindModel(UnwindModel.EMBEDDED);
+        node.setPath("field");
+
+        Assert.assertNull(UnWindNodeUtil.diffUpdate(node, event));
+        List<TapEvent> handelResult = EventHandel.getHandelResult(node, event);
+        Assert.assertEquals(6, handelResult.size());
+        int deletes = 0;
+        for (TapEvent tapEvent : handelResult) {
+            if (tapEvent instanceof TapDeleteRecordEvent) {
+                deletes++;
+            }
+        }
+        Assert.assertEquals(3, deletes);
+    }
 }
@@ -17,6 +17,7 @@ import io.tapdata.flow.engine.V2.task.operation.StopTaskOperation;
 import io.tapdata.flow.engine.V2.task.operation.TaskOperation;
 import io.tapdata.flow.engine.V2.task.retry.task.TaskRetryFactory;
 import io.tapdata.flow.engine.V2.task.retry.task.TaskRetryService;
+import io.tapdata.metric.impl.ColdStartCostGauge;
 import io.tapdata.observable.logging.ObsLogger;
 import io.tapdata.observable.logging.ObsLoggerFactory;
 import io.tapdata.utils.AppType;
@@ -426,6 +427,66 @@ public class TapdataTaskSchedulerTest {
 		}
 	}
 
+	@Nested
+	class ColdStartTest {
+		@Test
+		void testSortByCdcDelay() {
+			TaskDto task1 = new TaskDto();
+			task1.setName("task 1");
+			task1.setDelayTime(10L);
+			TaskDto task2 = new TaskDto();
+			task2.setName("task 2");
+			task2.setDelayTime(3000L);
+			TaskDto task3 = new TaskDto();
+			task3.setName("task 3");
+			List<TaskDto> tasks = new ArrayList<>();
+			tasks.add(task1);
+			tasks.add(task2);
+			tasks.add(task3);
+			List<TaskDto> sorted = TapdataTaskScheduler.sortByCdcDelay(tasks);
+			assertEquals("task 2", sorted.get(0).getName());
+			assertEquals("task 1", sorted.get(1).getName());
+			assertEquals("task 3", sorted.get(2).getName());
+		}
+
+		@Test
+		void testColdStartCost() {
+			TaskDto task1 = new TaskDto();
+			task1.setId(ObjectId.get());
+			task1.setName("task 1");
+			TaskDto task2 = new TaskDto();
+			task2.setId(ObjectId.get());
+			task2.setName("task 2");
+			List<TaskDto> tasks = new ArrayList<>();
+			tasks.add(task1);
+			tasks.add(task2);
+			ClientMongoOperator clientMongoOperator = mock(ClientMongoOperator.class);
+			when(clientMongoOperator.find(any(org.springframework.data.mongodb.core.query.Query.class), eq(ConnectorConstant.TASK_COLLECTION), eq(TaskDto.class))).thenReturn(tasks);
+			TapdataTaskScheduler instance = new TapdataTaskScheduler() {
+				@Override
+				protected void startTask(TaskDto taskDto) {
+				}
+
+				@Override
+				public void sendStartTask(TaskDto taskDto) {
+					getHandleTaskOperationRunnable(StartTaskOperation.create().taskDto(taskDto)).run();
+				}
+			};
+			ReflectionTestUtils.setField(instance, "clientMongoOperator", clientMongoOperator);
+			ColdStartCostGauge.register(instance::getColdStartCostMs);
+			ColdStartCostGauge gauge = new ColdStartCostGauge();
+
+			assertEquals(-1L, instance.getColdStartCostMs());
+			assertEquals(-1L, gauge.getValue().longValue());
+			instance.scheduledTask();
+			verify(clientMongoOperator, times(1)).update(any(org.springframework.data.mongodb.core.query.Query.class), any(Update.class), eq(ConnectorConstant.TASK_COLLECTION));
+			assertTrue(instance.getColdStartCostMs() >= 0L);
+			assertEquals(instance.getColdStartCostMs(), gauge.getValue().longValue());
+			DataMap dataMap = instance.memory(null, null);
+			assertEquals(0, dataMap.get("cold start pending tasks"));
+		}
+	}
+
 	@Test
 	void testHandleTaskOperation() {
 		TaskOperation taskOperation = mock(TaskOperation.class);
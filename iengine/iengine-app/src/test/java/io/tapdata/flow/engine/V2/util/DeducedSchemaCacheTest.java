@@ -0,0 +1,104 @@
+package io.tapdata.flow.engine.V2.util;
+
+import com.tapdata.tm.commons.schema.DataSourceConnectionDto;
+import com.tapdata.tm.commons.schema.TransformerWsMessageDto;
+import io.tapdata.entity.schema.TapField;
+import io.tapdata.entity.schema.TapTable;
+import io.tapdata.entity.schema.type.TapString;
+import io.tapdata.schema.TapTableMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DeducedSchemaCacheTest {
+
+	private static TransformerWsMessageDto transformerWsMessageDto(String status, Object nestedStatus) {
+		DataSourceConnectionDto connectionDto = new DataSourceConnectionDto();
+		connectionDto.setStatus(status);
+		Map<String, Object> config = new HashMap<>();
+		config.put("status", nestedStatus);
+		connectionDto.setConfig(config);
+		Map<String, DataSourceConnectionDto> dataSourceMap = new HashMap<>();
+		dataSourceMap.put("conn1", connectionDto);
+		TransformerWsMessageDto transformerWsMessageDto = new TransformerWsMessageDto();
+		transformerWsMessageDto.setDataSourceMap(dataSourceMap);
+		return transformerWsMessageDto;
+	}
+
+	@Nested
+	class FingerprintTest {
+		@Test
+		@DisplayName("test top level volatile keys of connection are ignored")
+		void testTopLevelVolatileKeyIgnored() {
+			Assertions.assertEquals(DeducedSchemaCache.fingerprint(transformerWsMessageDto("ready", "a")),
+					DeducedSchemaCache.fingerprint(transformerWsMessageDto("invalid", "a")));
+		}
+
+		@Test
+		@DisplayName("test nested key with volatile name is part of the fingerprint")
+		void testNestedKeyNotIgnored() {
+			Assertions.assertNotEquals(DeducedSchemaCache.fingerprint(transformerWsMessageDto("ready", "a")),
+					DeducedSchemaCache.fingerprint(transformerWsMessageDto("ready", "b")));
+		}
+	}
+
+	@Nested
+	class LoadAndSaveTest {
+		@TempDir
+		Path dir;
+		private DeducedSchemaCache deducedSchemaCache;
+		private Map<String, TapTableMap<String, TapTable>> tapTableMapHashMap;
+
+		@BeforeEach
+		void beforeEach() {
+			deducedSchemaCache = new DeducedSchemaCache(dir.resolve("task.json"));
+			TapTable tapTable = new TapTable("t1");
+			tapTable.add(new TapField("id", "varchar(32)").tapType(new TapString().bytes(32L)).primaryKeyPos(1));
+			TapTableMap<String, TapTable> tapTableMap = TapTableMap.create(null, "node1", new HashMap<>(), null);
+			tapTableMap.putNew("t1", tapTable, "T_t1");
+			tapTableMapHashMap = new HashMap<>();
+			tapTableMapHashMap.put("node1", tapTableMap);
+		}
+
+		@Test
+		@DisplayName("test cached table schema is restored without loading from TM")
+		void testRestoreSchema() {
+			deducedSchemaCache.save("fp", tapTableMapHashMap);
+			Map<String, List<DeducedSchemaCache.Table>> tables = deducedSchemaCache.load("fp");
+			Assertions.assertNotNull(tables);
+			DeducedSchemaCache.Table table = tables.get("node1").get(0);
+			Assertions.assertEquals("t1", table.getName());
+			Assertions.assertEquals("T_t1", table.getQualifiedName());
+			TapField field = table.getSchema().getNameFieldMap().get("id");
+			Assertions.assertEquals("varchar(32)", field.getDataType());
+			Assertions.assertInstanceOf(TapString.class, field.getTapType());
+			Assertions.assertEquals(32L, ((TapString) field.getTapType()).getBytes());
+			Assertions.assertEquals(1, field.getPrimaryKeyPos());
+		}
+
+		@Test
+		@DisplayName("test fingerprint mismatch returns null")
+		void testFingerprintMismatch() {
+			deducedSchemaCache.save("fp", tapTableMapHashMap);
+			Assertions.assertNull(deducedSchemaCache.load("other"));
+		}
+
+		@Test
+		@DisplayName("test clear removes the cache file")
+		void testClear() {
+			deducedSchemaCache.save("fp", tapTableMapHashMap);
+			Assertions.assertTrue(Files.exists(dir.resolve("task.json")));
+			deducedSchemaCache.clear();
+			Assertions.assertNull(deducedSchemaCache.load("fp"));
+		}
+	}
+}
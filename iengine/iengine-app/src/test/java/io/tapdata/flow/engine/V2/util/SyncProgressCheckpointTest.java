@@ -0,0 +1,127 @@
+package io.tapdata.flow.engine.V2.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.entity.SyncStage;
+import com.tapdata.entity.dataflow.SyncProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SyncProgressCheckpoint Class Test")
+class SyncProgressCheckpointTest {
+	private Map<String, SyncProgress> syncProgressMap;
+
+	@BeforeEach
+	void setUp() {
+		syncProgressMap = new HashMap<>();
+		syncProgressMap.put("s1,t", syncProgress(SyncStage.CDC.name(), 1L));
+		syncProgressMap.put("s2,t", syncProgress(SyncStage.CDC.name(), 2L));
+	}
+
+	private static SyncProgress syncProgress(String syncStage, long position) {
+		SyncProgress syncProgress = new SyncProgress();
+		syncProgress.setSyncStage(syncStage);
+		syncProgress.setBatchOffsetObj(new HashMap<>(Collections.singletonMap("table", "over")));
+		syncProgress.setStreamOffsetObj(Collections.singletonMap("position", position));
+		return syncProgress;
+	}
+
+	private static String jsonKey(String key) throws Exception {
+		return JSONUtil.obj2Json(Arrays.asList(key.split(",")));
+	}
+
+	@Nested
+	@DisplayName("Delta test")
+	class DeltaTest {
+		@Test
+		@DisplayName("Only dirty keys are encoded")
+		void testOnlyDirty() throws Exception {
+			SyncProgressCheckpoint checkpoint = new SyncProgressCheckpoint(null);
+			assertFalse(checkpoint.hasDirty());
+			checkpoint.markDirty("s1,t");
+			assertTrue(checkpoint.hasDirty());
+
+			Map<String, String> delta = checkpoint.takeDelta(syncProgressMap);
+			assertEquals(Collections.singleton(jsonKey("s1,t")), delta.keySet());
+			SyncProgress decoded = JSONUtil.json2POJO(delta.get(jsonKey("s1,t")), SyncProgress.class);
+			assertEquals(syncProgressMap.get("s1,t").getStreamOffset(), decoded.getStreamOffset());
+			assertFalse(checkpoint.hasDirty());
+			assertTrue(checkpoint.takeDelta(syncProgressMap).isEmpty());
+		}
+
+		@Test
+		@DisplayName("Batch offset is encoded once in cdc stage")
+		void testReuseBatchOffset() {
+			SyncProgressCheckpoint checkpoint = new SyncProgressCheckpoint(null);
+			checkpoint.markDirty("s1,t");
+			checkpoint.takeDelta(syncProgressMap);
+			String batchOffset = syncProgressMap.get("s1,t").getBatchOffset();
+			checkpoint.markDirty("s1,t");
+			checkpoint.takeDelta(syncProgressMap);
+			assertSame(batchOffset, syncProgressMap.get("s1,t").getBatchOffset());
+		}
+
+		@Test
+		@DisplayName("Batch offset is re-encoded in initial sync stage")
+		void testInitialSyncBatchOffset() {
+			SyncProgress syncProgress = syncProgress(SyncStage.INITIAL_SYNC.name(), 1L);
+			syncProgressMap.put("s1,t", syncProgress);
+			SyncProgressCheckpoint checkpoint = new SyncProgressCheckpoint(null);
+			checkpoint.markDirty("s1,t");
+			checkpoint.takeDelta(syncProgressMap);
+			String batchOffset = syncProgress.getBatchOffset();
+			((Map<String, Object>) syncProgress.getBatchOffsetObj()).put("table", "running");
+			checkpoint.markDirty("s1,t");
+			checkpoint.takeDelta(syncProgressMap);
+			assertNotEquals(batchOffset, syncProgress.getBatchOffset());
+		}
+	}
+
+	@Nested
+	@DisplayName("Journal test")
+	class JournalTest {
+		@TempDir
+		Path dir;
+
+		@Test
+		@DisplayName("Failed delta is marked dirty again and written to journal")
+		void testFailed() throws Exception {
+			Path file = dir.resolve("t.json");
+			SyncProgressCheckpoint checkpoint = new SyncProgressCheckpoint(new SyncProgressJournal(file));
+			checkpoint.markDirty("s1,t");
+			checkpoint.markDirty("s2,t");
+			Map<String, String> delta = checkpoint.takeDelta(syncProgressMap);
+
+			checkpoint.failed(delta);
+			assertTrue(checkpoint.hasDirty());
+			Map<String, String> journal = JSONUtil.json2POJO(new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+					new TypeReference<Map<String, String>>() {
+					});
+			assertEquals(delta, journal);
+
+			assertEquals(delta.keySet(), checkpoint.takeDelta(syncProgressMap).keySet());
+			checkpoint.succeeded();
+			assertFalse(Files.exists(file));
+		}
+
+		@Test
+		@DisplayName("Merge returns the original map without work dir")
+		void testMergeWithoutWorkDir() {
+			Map<String, Object> tm = Collections.singletonMap("k", "v");
+			assertSame(tm, SyncProgressJournal.merge(null, tm));
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package io.tapdata.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两次 JMH 运行的 JSON 结果 (-rf json), 用于发现提交之间的性能回退
+ * <pre>
+ *   java -cp benchmarks.jar io.tapdata.benchmark.BenchmarkCompare base.json current.json [thresholdPercent]
+ * </pre>
+ * 任一基准测试回退超过阈值 (默认 10%) 且超出两次误差之和时, 以退出码 1 结束
+ */
+public class BenchmarkCompare {
+	private static final double DEFAULT_THRESHOLD_PERCENT = 10D;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BenchmarkCompare <base.json> <current.json> [thresholdPercent]");
+			System.exit(2);
+		}
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+		Map<String, Result> base = load(new File(args[0]));
+		Map<String, Result> current = load(new File(args[1]));
+
+		int regressions = 0;
+		System.out.printf("%-100s %15s %15s %9s%n", "benchmark", "base", "current", "change");
+		for (Map.Entry<String, Result> entry : current.entrySet()) {
+			Result before = base.get(entry.getKey());
+			Result after = entry.getValue();
+			if (null == before) {
+				System.out.printf("%-100s %15s %15.3f %9s%n", entry.getKey(), "-", after.score, "new");
+				continue;
+			}
+			// 吞吐量越大越好, 其余模式 (耗时) 越小越好, 统一换算成 "变好" 的百分比
+			double change = (after.score - before.score) / before.score * 100D;
+			double improvement = after.higherIsBetter() ? change : -change;
+			boolean regression = improvement < -threshold
+					&& Math.abs(after.score - before.score) > before.error + after.error;
+			if (regression) {
+				regressions++;
+			}
+			System.out.printf("%-100s %15.3f %15.3f %+8.2f%% %s%s%n", entry.getKey(), before.score, after.score, change,
+					after.unit, regression ? "  REGRESSION" : "");
+		}
+		for (String name : base.keySet()) {
+			if (!current.containsKey(name)) {
+				System.out.printf("%-100s %15.3f %15s %9s%n", name, base.get(name).score, "-", "removed");
+			}
+		}
+		if (regressions > 0) {
+			System.out.printf("%d benchmark(s) regressed more than %.1f%%%n", regressions, threshold);
+			System.exit(1);
+		}
+	}
+
+	private static Map<String, Result> load(File file) throws IOException {
+		JsonNode root = new ObjectMapper().readTree(file);
+		Map<String, Result> results = new LinkedHashMap<>();
+		for (JsonNode node : root) {
+			StringBuilder name = new StringBuilder(node.path("benchmark").asText()).append(':').append(node.path("mode").asText());
+			JsonNode params = node.path("params");
+			if (params.isObject()) {
+				Map<String, String> sorted = new TreeMap<>();
+				Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+				while (fields.hasNext()) {
+					Map.Entry<String, JsonNode> field = fields.next();
+					sorted.put(field.getKey(), field.getValue().asText());
+				}
+				name.append(sorted);
+			}
+			JsonNode metric = node.path("primaryMetric");
+			double error = metric.path("scoreError").asDouble(0D);
+			results.put(name.toString(), new Result(node.path("mode").asText(), metric.path("score").asDouble(),
+					Double.isNaN(error) ? 0D : error, metric.path("scoreUnit").asText()));
+		}
+		return results;
+	}
+
+	private static class Result {
+		private final String mode;
+		private final double score;
+		private final double error;
+		private final String unit;
+
+		private Result(String mode, double score, double error, String unit) {
+			this.mode = mode;
+			this.score = score;
+			this.error = error;
+			this.unit = unit;
+		}
+
+		private boolean higherIsBetter() {
+			return "thrpt".equals(mode);
+		}
+	}
+}
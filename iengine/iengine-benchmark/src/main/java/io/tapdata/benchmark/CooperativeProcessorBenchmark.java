@@ -0,0 +1,172 @@
+package io.tapdata.benchmark;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.jet.Job;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.Edge;
+import com.hazelcast.jet.core.Vertex;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同时运行多个 "源 -> 若干处理节点 -> 目标" 的 Jet 作业, 对比处理节点以协作模式和独占线程模式运行时的线程数、CPU 时间和耗时;
+ * 处理节点与 HazelcastProcessorBaseNode 一致: 非协作模式下 outbox 满时原地重试, 协作模式下返回 false 让出线程
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CooperativeProcessorBenchmark {
+
+	@Param({"false", "true"})
+	public boolean cooperative;
+
+	@Param({"50", "200"})
+	public int tasks;
+
+	@Param({"4"})
+	public int processorsPerTask;
+
+	@Param({"20000"})
+	public int eventsPerTask;
+
+	private HazelcastInstance hazelcastInstance;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class ResourceCounters {
+		public long peakThreads;
+		public long cpuMillis;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Config config = new Config();
+		config.setClusterName("benchmark-" + System.nanoTime());
+		config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+		config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+		config.getJetConfig().setEnabled(true);
+		hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		hazelcastInstance.shutdown();
+	}
+
+	@Benchmark
+	public void runTasks(ResourceCounters counters) {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		threadMXBean.resetPeakThreadCount();
+		long cpuStart = processCpuNanos();
+
+		List<Job> jobs = new ArrayList<>(tasks);
+		for (int i = 0; i < tasks; i++) {
+			jobs.add(hazelcastInstance.getJet().newJob(dag()));
+		}
+		for (Job job : jobs) {
+			job.join();
+		}
+
+		counters.peakThreads = threadMXBean.getPeakThreadCount();
+		counters.cpuMillis = TimeUnit.NANOSECONDS.toMillis(processCpuNanos() - cpuStart);
+	}
+
+	private DAG dag() {
+		DAG dag = new DAG();
+		int events = eventsPerTask;
+		Vertex previous = dag.newVertex("source", () -> new SourceProcessor(events)).localParallelism(1);
+		for (int i = 0; i < processorsPerTask; i++) {
+			boolean isCooperative = cooperative;
+			Vertex processor = dag.newVertex("processor-" + i, () -> new PassThroughProcessor(isCooperative)).localParallelism(1);
+			dag.edge(Edge.between(previous, processor));
+			previous = processor;
+		}
+		Vertex sink = dag.newVertex("sink", SinkProcessor::new).localParallelism(1);
+		dag.edge(Edge.between(previous, sink));
+		return dag;
+	}
+
+	private static long processCpuNanos() {
+		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
+		if (osMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) osMXBean).getProcessCpuTime();
+		}
+		return 0L;
+	}
+
+	private static class SourceProcessor extends AbstractProcessor {
+		private final int total;
+		private int emitted;
+
+		private SourceProcessor(int total) {
+			this.total = total;
+		}
+
+		@Override
+		public boolean complete() {
+			while (emitted < total) {
+				if (!tryEmit(emitted)) {
+					return false;
+				}
+				emitted++;
+			}
+			return true;
+		}
+	}
+
+	private static class PassThroughProcessor extends AbstractProcessor {
+		private final boolean cooperative;
+
+		private PassThroughProcessor(boolean cooperative) {
+			this.cooperative = cooperative;
+		}
+
+		@Override
+		public boolean isCooperative() {
+			return cooperative;
+		}
+
+		@Override
+		protected boolean tryProcess(int ordinal, Object item) {
+			if (cooperative) {
+				return tryEmit(item);
+			}
+			while (!tryEmit(item)) {
+				Thread.yield();
+			}
+			return true;
+		}
+	}
+
+	private static class SinkProcessor extends AbstractProcessor {
+		@Override
+		protected boolean tryProcess(int ordinal, Object item) {
+			return true;
+		}
+	}
+}
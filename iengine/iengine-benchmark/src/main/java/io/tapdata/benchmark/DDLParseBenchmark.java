@@ -0,0 +1,91 @@
+package io.tapdata.benchmark;
+
+import io.tapdata.ddlp.sql.DDLStatement;
+import io.tapdata.ddlp.sql.DDLStatementParser;
+import io.tapdata.ddlp.sql.SqlDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 增量 DDL 解析耗时: 普通多子句修改表语句和几百列的宽表语句, 分别测量不走缓存和命中缓存
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DDLParseBenchmark {
+
+	@Param({"ALTER", "MSSQL_ALTER", "WIDE_CREATE", "WIDE_ALTER"})
+	public String statement;
+
+	private String ddl;
+	private SqlDialect dialect;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		dialect = SqlDialect.MYSQL;
+		switch (statement) {
+			case "ALTER":
+				ddl = "ALTER TABLE `shop`.`orders`\n" +
+						"  ADD COLUMN `c1` enum('a','b,c') DEFAULT 'a',\n" +
+						"  ADD `c2` int(11) unsigned NOT NULL COMMENT 'x, y',\n" +
+						"  DROP COLUMN `c3`,\n" +
+						"  MODIFY `c4` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin,\n" +
+						"  ALGORITHM=INPLACE, LOCK=NONE";
+				break;
+			case "MSSQL_ALTER":
+				dialect = SqlDialect.MSSQL;
+				ddl = "alter table [dbo].[orders] add default '[ '' \"\" 1_23 ]' for \"name\"";
+				break;
+			case "WIDE_CREATE":
+				ddl = wideCreateTable(500);
+				break;
+			case "WIDE_ALTER":
+				ddl = wideAlterTable(300);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown statement " + statement);
+		}
+		DDLStatementParser.parse(ddl, dialect);
+	}
+
+	@Benchmark
+	public DDLStatement parseNoCache() {
+		return DDLStatementParser.parseNoCache(ddl, dialect);
+	}
+
+	@Benchmark
+	public DDLStatement parseCached() {
+		return DDLStatementParser.parse(ddl, dialect);
+	}
+
+	private static String wideCreateTable(int columns) {
+		StringBuilder sb = new StringBuilder("CREATE TABLE `db`.`wide_table` (\n");
+		for (int i = 0; i < columns; i++) {
+			sb.append("  `col_").append(i).append("` decimal(18,4) NOT NULL DEFAULT '0.0000' COMMENT 'column ").append(i).append(", (test)',\n");
+		}
+		return sb.append("  PRIMARY KEY (`col_0`)\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4").toString();
+	}
+
+	private static String wideAlterTable(int clauses) {
+		StringBuilder sb = new StringBuilder("ALTER TABLE `db`.`wide_table`");
+		for (int i = 0; i < clauses; i++) {
+			sb.append(i == 0 ? "\n" : ",\n").append("  ADD COLUMN `new_").append(i).append("` varchar(64) DEFAULT 'a,b' AFTER `col_").append(i).append('`');
+		}
+		return sb.toString();
+	}
+}
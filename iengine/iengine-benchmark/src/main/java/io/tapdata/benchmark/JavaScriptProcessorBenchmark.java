@@ -0,0 +1,78 @@
+package io.tapdata.benchmark;
+
+import com.tapdata.processor.ScriptUtil;
+import com.tapdata.processor.constant.JSEngineEnum;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JS 处理节点的单条记录开销: 设置 context 后调用 process 函数, 与 HazelcastJavaScriptProcessorNode 的调用方式一致
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaScriptProcessorBenchmark {
+	private static final int EVENTS = 1024;
+	private static final Map<String, String> SCRIPTS = new HashMap<>();
+
+	static {
+		SCRIPTS.put("identity", "function process(record){\n\treturn record;\n}");
+		SCRIPTS.put("transform", "function process(record){\n" +
+				"\trecord.id_str = 'k-' + record.id;\n" +
+				"\tdelete record.f1;\n" +
+				"\tif (context.op == 'i') record.created = true;\n" +
+				"\treturn record;\n" +
+				"}");
+	}
+
+	@Param({"identity", "transform"})
+	public String script;
+
+	@Param({"8", "32"})
+	public int width;
+
+	private Invocable engine;
+	private List<TapInsertRecordEvent> events;
+	private final Map<String, Object> context = new HashMap<>();
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		engine = ScriptUtil.getScriptEngine(JSEngineEnum.GRAALVM_JS.getEngineName(), SCRIPTS.get(script),
+				null, null, null, null, null, null, true);
+		events = SyntheticEvents.insertEvents(EVENTS, width, SyntheticEvents.KeyDistribution.SEQUENTIAL, EVENTS);
+	}
+
+	@Benchmark
+	public Object process() throws Exception {
+		index = (index + 1) & (EVENTS - 1);
+		TapInsertRecordEvent event = events.get(index);
+		context.put("op", "i");
+		context.put("tableName", event.getTableId());
+		((ScriptEngine) engine).put("context", context);
+		Object result = engine.invokeFunction(ScriptUtil.FUNCTION_NAME, new HashMap<>(event.getAfter()));
+		context.clear();
+		return result;
+	}
+}
@@ -0,0 +1,64 @@
+package io.tapdata.benchmark;
+
+import com.tapdata.entity.TapdataEvent;
+import io.tapdata.entity.utils.InstanceFactory;
+import io.tapdata.entity.utils.ObjectSerializable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BytesIMap 每次读写都要经过 ObjectSerializable 序列化/反序列化, 这里单独测量这部分开销, 不依赖外存
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectSerializableBenchmark {
+	private static final int EVENTS = 1024;
+
+	@Param({"8", "32", "128"})
+	public int width;
+
+	private ObjectSerializable objectSerializable;
+	private List<TapdataEvent> events;
+	private List<byte[]> serialized;
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		objectSerializable = InstanceFactory.instance(ObjectSerializable.class);
+		events = SyntheticEvents.tapdataEvents(EVENTS, width, SyntheticEvents.KeyDistribution.SEQUENTIAL, EVENTS);
+		serialized = new ArrayList<>(EVENTS);
+		for (TapdataEvent event : events) {
+			serialized.add(objectSerializable.fromObject(event));
+		}
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		index = (index + 1) & (EVENTS - 1);
+		return objectSerializable.fromObject(events.get(index));
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		index = (index + 1) & (EVENTS - 1);
+		return objectSerializable.toObject(serialized.get(index));
+	}
+}
@@ -0,0 +1,89 @@
+package io.tapdata.benchmark;
+
+import com.tapdata.entity.TapdataEvent;
+import com.tapdata.tm.commons.task.dto.TaskDto;
+import io.tapdata.flow.engine.V2.node.hazelcast.data.pdk.concurrent.PartitionConcurrentProcessor;
+import io.tapdata.flow.engine.V2.node.hazelcast.data.pdk.concurrent.partitioner.KeysPartitioner;
+import io.tapdata.flow.engine.V2.node.hazelcast.data.pdk.concurrent.selector.TapEventPartitionKeySelector;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 目标节点并发写入管道: 按主键分区后由分区线程批量消费, 消费端只做计数, 测量的是分区/排队/屏障的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PartitionConcurrentProcessorBenchmark {
+	private static final int BATCH = 1000;
+
+	@Param({"1", "4", "8"})
+	public int partitions;
+
+	@Param({"SEQUENTIAL", "UNIFORM", "HOTSPOT"})
+	public SyntheticEvents.KeyDistribution distribution;
+
+	@Param({"16"})
+	public int width;
+
+	private PartitionConcurrentProcessor processor;
+	private List<TapdataEvent> events;
+	private final LongAdder consumed = new LongAdder();
+
+	@Setup(Level.Trial)
+	public void setup() {
+		TaskDto taskDto = new TaskDto();
+		taskDto.setId(new ObjectId());
+		taskDto.setName("benchmark");
+		events = SyntheticEvents.tapdataEvents(BATCH, width, distribution, 100_000L);
+		processor = new PartitionConcurrentProcessor(
+				partitions,
+				BATCH,
+				new KeysPartitioner(),
+				new TapEventPartitionKeySelector(tapEvent -> Collections.singletonList(SyntheticEvents.KEY_FIELD)),
+				processEvents -> consumed.add(processEvents.size()),
+				tapdataEvent -> {
+				},
+				(throwable, message) -> {
+					throw new RuntimeException(message, throwable);
+				},
+				() -> true,
+				taskDto
+		);
+		processor.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		processor.forceStop();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void processBatch(Blackhole blackhole) {
+		processor.process(events, false);
+		blackhole.consume(consumed.sum());
+	}
+}
@@ -0,0 +1,126 @@
+package io.tapdata.benchmark;
+
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.entity.SyncStage;
+import com.tapdata.entity.dataflow.SyncProgress;
+import io.tapdata.flow.engine.V2.util.PdkUtil;
+import io.tapdata.flow.engine.V2.util.SyncProgressCheckpoint;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目标节点一次断点的 CPU 时间和上报字节数: 每个源节点的 batch/stream offset 都包含 tables 张表,
+ * 每次断点只有一个源节点的 stream offset 前进; full 为每次重新编码全部断点, delta 为 SyncProgressCheckpoint
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyncProgressCheckpointBenchmark {
+
+	@Param({"10", "1000", "10000"})
+	public int tables;
+
+	@Param({"1", "8"})
+	public int sources;
+
+	private Map<String, SyncProgress> syncProgressMap;
+	private String[] keys;
+	private SyncProgressCheckpoint checkpoint;
+	private long position;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class BytesCounter {
+		public long checkpointBytes;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		syncProgressMap = new HashMap<>();
+		keys = new String[sources];
+		for (int s = 0; s < sources; s++) {
+			Map<String, Object> batchOffset = new LinkedHashMap<>();
+			for (int t = 0; t < tables; t++) {
+				Map<String, Object> tableOffset = new HashMap<>();
+				tableOffset.put("status", "over");
+				tableOffset.put("lastId", (long) t * 1000);
+				batchOffset.put("table_" + t, tableOffset);
+			}
+			SyncProgress syncProgress = new SyncProgress();
+			syncProgress.setSyncStage(SyncStage.CDC.name());
+			syncProgress.setBatchOffsetObj(batchOffset);
+			syncProgress.setStreamOffsetObj(streamOffset(0L));
+			keys[s] = "source_" + s + ",target";
+			syncProgressMap.put(keys[s], syncProgress);
+		}
+		checkpoint = new SyncProgressCheckpoint(null);
+		for (String key : keys) {
+			checkpoint.markDirty(key);
+		}
+		checkpoint.takeDelta(syncProgressMap);
+	}
+
+	@Benchmark
+	public Map<String, String> full(BytesCounter counter) throws Exception {
+		advance();
+		Map<String, String> syncProgressJsonMap = new HashMap<>(syncProgressMap.size());
+		for (Map.Entry<String, SyncProgress> entry : syncProgressMap.entrySet()) {
+			SyncProgress syncProgress = entry.getValue();
+			syncProgress.setBatchOffset(PdkUtil.encodeOffset(syncProgress.getBatchOffsetObj()));
+			syncProgress.setStreamOffset(SyncProgressCheckpoint.encodeStreamOffset(syncProgress.getStreamOffsetObj()));
+			syncProgressJsonMap.put(JSONUtil.obj2Json(Arrays.asList(entry.getKey().split(","))), JSONUtil.obj2Json(syncProgress));
+		}
+		counter.checkpointBytes += bytes(syncProgressJsonMap);
+		return syncProgressJsonMap;
+	}
+
+	@Benchmark
+	public Map<String, String> delta(BytesCounter counter) {
+		checkpoint.markDirty(advance());
+		Map<String, String> syncProgressJsonMap = checkpoint.takeDelta(syncProgressMap);
+		counter.checkpointBytes += bytes(syncProgressJsonMap);
+		return syncProgressJsonMap;
+	}
+
+	private String advance() {
+		position++;
+		String key = keys[(int) (position % sources)];
+		syncProgressMap.get(key).setStreamOffsetObj(streamOffset(position));
+		return key;
+	}
+
+	private Map<String, Object> streamOffset(long position) {
+		Map<String, Object> streamOffset = new HashMap<>();
+		streamOffset.put("file", "binlog.000123");
+		streamOffset.put("position", position);
+		return streamOffset;
+	}
+
+	private static long bytes(Map<String, String> syncProgressJsonMap) {
+		long bytes = 0L;
+		for (Map.Entry<String, String> entry : syncProgressJsonMap.entrySet()) {
+			bytes += entry.getKey().length() + entry.getValue().length();
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,100 @@
+package io.tapdata.benchmark;
+
+import com.tapdata.entity.SyncStage;
+import com.tapdata.entity.TapdataEvent;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成插入事件流, 固定随机种子, 保证不同提交之间的输入完全一致
+ */
+public class SyntheticEvents {
+	public static final String TABLE_NAME = "benchmark_table";
+	public static final String KEY_FIELD = "id";
+	private static final long SEED = 20240601L;
+
+	public enum KeyDistribution {
+		/**
+		 * 主键递增, 每条事件都是不同的 key
+		 */
+		SEQUENTIAL,
+		/**
+		 * 主键在 keySpace 内均匀分布
+		 */
+		UNIFORM,
+		/**
+		 * 80% 的事件集中在 1% 的 key 上, 模拟热点行
+		 */
+		HOTSPOT,
+	}
+
+	private SyntheticEvents() {
+	}
+
+	/**
+	 * @param width 每条记录的字段数 (包含主键)
+	 */
+	public static Map<String, Object> record(long key, int width, Random random) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put(KEY_FIELD, key);
+		for (int i = 1; i < width; i++) {
+			switch (i % 4) {
+				case 0:
+					record.put("f" + i, random.nextLong());
+					break;
+				case 1:
+					record.put("f" + i, "value-" + random.nextInt(1_000_000));
+					break;
+				case 2:
+					record.put("f" + i, random.nextDouble());
+					break;
+				default:
+					record.put("f" + i, random.nextBoolean());
+					break;
+			}
+		}
+		return record;
+	}
+
+	public static List<TapInsertRecordEvent> insertEvents(int count, int width, KeyDistribution distribution, long keySpace) {
+		Random random = new Random(SEED);
+		List<TapInsertRecordEvent> events = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			TapInsertRecordEvent event = TapInsertRecordEvent.create().after(record(nextKey(i, distribution, keySpace, random), width, random));
+			event.setTableId(TABLE_NAME);
+			event.setReferenceTime(1700000000000L + i);
+			events.add(event);
+		}
+		return events;
+	}
+
+	public static List<TapdataEvent> tapdataEvents(int count, int width, KeyDistribution distribution, long keySpace) {
+		List<TapdataEvent> tapdataEvents = new ArrayList<>(count);
+		for (TapInsertRecordEvent event : insertEvents(count, width, distribution, keySpace)) {
+			TapdataEvent tapdataEvent = new TapdataEvent();
+			tapdataEvent.setTapEvent(event);
+			tapdataEvent.setSyncStage(SyncStage.CDC);
+			tapdataEvent.setSourceTime(event.getReferenceTime());
+			tapdataEvents.add(tapdataEvent);
+		}
+		return tapdataEvents;
+	}
+
+	private static long nextKey(int index, KeyDistribution distribution, long keySpace, Random random) {
+		switch (distribution) {
+			case UNIFORM:
+				return (long) (random.nextDouble() * keySpace);
+			case HOTSPOT:
+				long hotKeys = Math.max(1L, keySpace / 100);
+				return random.nextInt(10) < 8 ? (long) (random.nextDouble() * hotKeys) : (long) (random.nextDouble() * keySpace);
+			case SEQUENTIAL:
+			default:
+				return index;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package io.tapdata.benchmark;
+
+import com.tapdata.entity.TapdataEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点向多个下游分发时每个下游都会复制一次 TapdataEvent, shareClone 只复制事件外壳, 由下游按需复制 tapEvent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TapdataEventCloneBenchmark {
+	private static final int EVENTS = 1024;
+
+	@Param({"8", "32", "128"})
+	public int width;
+
+	@Param({"4"})
+	public int buckets;
+
+	private List<TapdataEvent> events;
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		events = SyntheticEvents.tapdataEvents(EVENTS, width, SyntheticEvents.KeyDistribution.SEQUENTIAL, EVENTS);
+	}
+
+	@Benchmark
+	public Object cloneEvent() {
+		index = (index + 1) & (EVENTS - 1);
+		return events.get(index).clone();
+	}
+
+	@Benchmark
+	public void fanOutClone(Blackhole blackhole) {
+		index = (index + 1) & (EVENTS - 1);
+		TapdataEvent event = events.get(index);
+		for (int i = 0; i < buckets; i++) {
+			blackhole.consume(event.clone());
+		}
+	}
+
+	/**
+	 * 只有一个下游会修改 tapEvent (如一个目标加若干只读节点) 的情况
+	 */
+	@Benchmark
+	public void fanOutShareClone(Blackhole blackhole) {
+		index = (index + 1) & (EVENTS - 1);
+		TapdataEvent event = events.get(index);
+		event.beginShareTapEvent(buckets);
+		TapdataEvent mutator = null;
+		for (int i = 0; i < buckets; i++) {
+			TapdataEvent shared = event.shareClone();
+			if (null == mutator) {
+				mutator = shared;
+			}
+			blackhole.consume(shared);
+		}
+		event.releaseTapEvent();
+		mutator.ownTapEvent();
+		blackhole.consume(mutator.getTapEvent());
+	}
+}
@@ -0,0 +1,57 @@
+package io.tapdata.flow.engine.V2.node.hazelcast.data.pdk;
+
+import com.tapdata.entity.TapdataEvent;
+import com.tapdata.entity.TapdataHeartbeatEvent;
+import io.tapdata.benchmark.SyntheticEvents;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目标节点从队列取出一批事件后, 按事件类型切分成连续的子批次再处理;
+ * heartbeatEvery 控制心跳事件穿插的密度, 0 表示全是数据事件
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchTapdataEventsBenchmark {
+	private static final int BATCH = 1000;
+
+	@Param({"0", "100", "10"})
+	public int heartbeatEvery;
+
+	private List<TapdataEvent> events;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		events = SyntheticEvents.tapdataEvents(BATCH, 16, SyntheticEvents.KeyDistribution.SEQUENTIAL, BATCH);
+		if (heartbeatEvery > 0) {
+			for (int i = heartbeatEvery; i < events.size(); i += heartbeatEvery) {
+				events.set(i, TapdataHeartbeatEvent.create(System.currentTimeMillis(), null));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void dispatch(Blackhole blackhole) {
+		HazelcastTargetPdkBaseNode.dispatchTapdataEvents(events, blackhole::consume);
+	}
+}
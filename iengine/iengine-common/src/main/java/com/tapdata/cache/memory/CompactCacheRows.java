@@ -0,0 +1,588 @@
+package com.tapdata.cache.memory;
+
+import io.tapdata.entity.utils.InstanceFactory;
+import io.tapdata.entity.utils.ObjectSerializable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单个缓存的紧凑存储
+ * <pre>
+ * - 每个缓存共用一份字段字典, 行内只保存字段编号
+ * - 行编码为二进制: 字段数, 然后每个字段是 字段编号 + 带类型标记的值, 整数和长度用变长编码
+ * - 同一个 cache key 下的所有行编码在一个块内: 块头 4 字节为已用长度, 之后依次是每行的 主键 + 行数据, 尾部留有空余
+ * - 写入和删除在块内原地查找主键, 只移动字节, 不解码块内其他行; 主键哈希计数为 0 时直接追加到空余处, 不扫描块
+ * - 空余不足时按 1.5 倍扩容, 追加的拷贝量均摊为常数; 已用长度低于容量 1/4 时收缩
+ * - 块保存在开放寻址哈希表或堆外的 MapDB 中, 每个 cache key 只有两个字节数组; MapDB 按值拷贝保存, 块不留空余, 每次修改后写回
+ * </pre>
+ * 读取时每次解码出新的 Map, 调用方修改返回值不会影响缓存
+ */
+public class CompactCacheRows {
+
+	private static final byte NULL = 0;
+	private static final byte INT = 1;
+	private static final byte LONG = 2;
+	private static final byte DOUBLE = 3;
+	private static final byte FLOAT = 4;
+	private static final byte TRUE = 5;
+	private static final byte FALSE = 6;
+	private static final byte STRING = 7;
+	private static final byte BIG_DECIMAL = 8;
+	private static final byte DATE = 9;
+	private static final byte BYTES = 10;
+	private static final byte OBJECT = 11;
+	private static final byte SHORT = 12;
+	private static final byte BYTE = 13;
+	private static final int HEADER = 4;
+
+	private final CompactRowIndex index;
+	private final List<String> fields = new ArrayList<>();
+	private final Map<String, Integer> fieldIds = new HashMap<>();
+	private final PkHashCounts pkCounts = new PkHashCounts();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private long rowCount;
+
+	public CompactCacheRows(boolean offHeap) {
+		this.index = offHeap ? new OffHeapRowIndex() : new OpenAddressingRowIndex();
+	}
+
+	/**
+	 * 写入或覆盖一行
+	 *
+	 * @return 主键之前不存在时返回 true
+	 */
+	public boolean put(String cacheKey, String pkKey, Map<String, Object> row) {
+		byte[] key = utf8(cacheKey);
+		byte[] pk = utf8(pkKey);
+		lock.writeLock().lock();
+		try {
+			Writer writer = new Writer(128);
+			writer.writeBlob(pk);
+			writer.writeBlob(encodeRow(row));
+			byte[] entry = writer.toByteArray();
+			byte[] block = index.get(key);
+			long pkHash = PkHashCounts.hash(pk, 0, pk.length);
+			int offset = pkCounts.get(pkHash) == 0 ? -1 : indexOf(block, pk);
+			if (offset < 0) {
+				int used = null == block ? HEADER : used(block);
+				splice(key, block, used, used, entry);
+				pkCounts.increment(pkHash);
+				rowCount++;
+				return true;
+			}
+			splice(key, block, offset, entryEnd(block, offset), entry);
+			return false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<Map<String, Object>> get(String cacheKey) {
+		lock.readLock().lock();
+		try {
+			List<Map<String, Object>> rows = new ArrayList<>();
+			byte[] block = index.get(utf8(cacheKey));
+			if (null != block) {
+				Reader reader = blockReader(block);
+				while (reader.hasRemaining()) {
+					reader.skipBlob();
+					rows.add(decodeRow(reader));
+				}
+			}
+			return rows;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public Map<String, Object> getFirst(String cacheKey) {
+		lock.readLock().lock();
+		try {
+			byte[] block = index.get(utf8(cacheKey));
+			if (null == block) {
+				return null;
+			}
+			Reader reader = blockReader(block);
+			reader.skipBlob();
+			return decodeRow(reader);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public boolean remove(String cacheKey, String pkKey) {
+		lock.writeLock().lock();
+		try {
+			return removeFromBlock(utf8(cacheKey), utf8(pkKey));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 不知道 cache key 时, 扫描所有块删除主键对应的行, 块内只比较主键不解码行数据
+	 */
+	public boolean removeByPk(String pkKey) {
+		byte[] pk = utf8(pkKey);
+		lock.writeLock().lock();
+		try {
+			if (pkCounts.get(PkHashCounts.hash(pk, 0, pk.length)) == 0) {
+				return false;
+			}
+			List<byte[]> matched = new ArrayList<>();
+			Iterator<byte[]> keys = index.keys();
+			while (keys.hasNext()) {
+				byte[] key = keys.next();
+				if (indexOf(index.get(key), pk) >= 0) {
+					matched.add(key);
+				}
+			}
+			boolean removed = false;
+			for (byte[] key : matched) {
+				removed |= removeFromBlock(key, pk);
+			}
+			return removed;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 按 cache key 整块淘汰, 直到行数和占用都不超过限制, 小于等于 0 表示不限制
+	 *
+	 * @return 淘汰的行数
+	 */
+	public long evict(long maxRows, long maxBytes) {
+		lock.writeLock().lock();
+		try {
+			long evicted = 0L;
+			Iterator<byte[]> keys = index.keys();
+			while (keys.hasNext() && ((maxRows > 0 && rowCount > maxRows) || (maxBytes > 0 && index.footprint() > maxBytes))) {
+				byte[] key = keys.next();
+				int rows = releaseEntries(index.get(key));
+				keys.remove();
+				rowCount -= rows;
+				evicted += rows;
+			}
+			return evicted;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public long getRowCount() {
+		lock.readLock().lock();
+		try {
+			return rowCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getKeyCount() {
+		return index.size();
+	}
+
+	public int getFieldCount() {
+		lock.readLock().lock();
+		try {
+			return fields.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 实际占用的字节数: 索引 (堆外时为编码后的数据) 加上字段字典
+	 */
+	public long getFootprint() {
+		lock.readLock().lock();
+		try {
+			long dictionary = 0L;
+			for (String field : fields) {
+				dictionary += RamUsageEstimator.sizeOf(field);
+			}
+			return index.footprint() + pkCounts.footprint() + dictionary;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			index.clear();
+			pkCounts.clear();
+			rowCount = 0L;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			index.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean removeFromBlock(byte[] key, byte[] pk) {
+		byte[] block = index.get(key);
+		int offset = indexOf(block, pk);
+		if (offset < 0) {
+			return false;
+		}
+		int end = entryEnd(block, offset);
+		if (offset == HEADER && end == used(block)) {
+			index.remove(key);
+		} else {
+			splice(key, block, offset, end, new byte[0]);
+		}
+		pkCounts.decrement(PkHashCounts.hash(pk, 0, pk.length));
+		rowCount--;
+		return true;
+	}
+
+	/**
+	 * @return 主键所在行在块内的起始位置, 不存在时返回 -1
+	 */
+	private static int indexOf(byte[] block, byte[] pk) {
+		if (null == block) {
+			return -1;
+		}
+		Reader reader = blockReader(block);
+		while (reader.hasRemaining()) {
+			int offset = reader.position;
+			boolean matched = reader.matchBlob(pk);
+			reader.skipBlob();
+			if (matched) {
+				return offset;
+			}
+		}
+		return -1;
+	}
+
+	private static int entryEnd(byte[] block, int offset) {
+		Reader reader = blockReader(block);
+		reader.position = offset;
+		reader.skipBlob();
+		reader.skipBlob();
+		return reader.position;
+	}
+
+	/**
+	 * 整块淘汰时扣减块内所有主键的计数
+	 *
+	 * @return 块内的行数
+	 */
+	private int releaseEntries(byte[] block) {
+		int count = 0;
+		if (null != block) {
+			Reader reader = blockReader(block);
+			while (reader.hasRemaining()) {
+				int length = reader.readVarInt();
+				pkCounts.decrement(PkHashCounts.hash(block, reader.position, length));
+				reader.position += length;
+				reader.skipBlob();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 用 replacement 替换块内 [from, to) 的字节: 容量足够时在原数组内移动后续字节, 否则扩容到新数组; 只有数组变化,
+	 * 或索引按值拷贝保存时才写回索引
+	 */
+	private void splice(byte[] key, byte[] block, int from, int to, byte[] replacement) {
+		int used = null == block ? HEADER : used(block);
+		int required = used - (to - from) + replacement.length;
+		byte[] target = block;
+		if (null == block || required > block.length || (!index.copiesValues() && required < block.length >> 2)) {
+			int capacity = index.copiesValues() || null == block || required < block.length ? required : Math.max(required, used + (used >> 1));
+			target = new byte[capacity];
+			if (null != block) {
+				System.arraycopy(block, 0, target, 0, from);
+			}
+		} else if (index.copiesValues() && required != block.length) {
+			target = Arrays.copyOf(block, required);
+		}
+		if (to < used && (target != block || from + replacement.length != to)) {
+			System.arraycopy(block, to, target, from + replacement.length, used - to);
+		}
+		System.arraycopy(replacement, 0, target, from, replacement.length);
+		setUsed(target, required);
+		if (target != block || index.copiesValues()) {
+			index.put(key, target);
+		}
+	}
+
+	private static int used(byte[] block) {
+		return ((block[0] & 0xFF) << 24) | ((block[1] & 0xFF) << 16) | ((block[2] & 0xFF) << 8) | (block[3] & 0xFF);
+	}
+
+	private static void setUsed(byte[] block, int used) {
+		block[0] = (byte) (used >>> 24);
+		block[1] = (byte) (used >>> 16);
+		block[2] = (byte) (used >>> 8);
+		block[3] = (byte) used;
+	}
+
+	private static Reader blockReader(byte[] block) {
+		Reader reader = new Reader(block, used(block));
+		reader.position = HEADER;
+		return reader;
+	}
+
+	private byte[] encodeRow(Map<String, Object> row) {
+		Writer writer = new Writer(128);
+		writer.writeVarInt(row.size());
+		for (Map.Entry<String, Object> entry : row.entrySet()) {
+			writer.writeVarInt(fieldId(entry.getKey()));
+			writeValue(writer, entry.getValue());
+		}
+		return writer.toByteArray();
+	}
+
+	/**
+	 * 从块内当前位置解码一行, 先读出行数据的长度
+	 */
+	private Map<String, Object> decodeRow(Reader reader) {
+		reader.readVarInt();
+		int size = reader.readVarInt();
+		Map<String, Object> row = new HashMap<>(Math.max(16, (int) (size / 0.75F) + 1));
+		for (int i = 0; i < size; i++) {
+			String field = fields.get(reader.readVarInt());
+			row.put(field, readValue(reader));
+		}
+		return row;
+	}
+
+	private int fieldId(String field) {
+		Integer id = fieldIds.get(field);
+		if (null == id) {
+			id = fields.size();
+			fields.add(field);
+			fieldIds.put(field, id);
+		}
+		return id;
+	}
+
+	private static void writeValue(Writer writer, Object value) {
+		if (null == value) {
+			writer.write(NULL);
+		} else if (value instanceof Integer) {
+			writer.write(INT);
+			writer.writeVarLong(zigZag((Integer) value));
+		} else if (value instanceof Short) {
+			writer.write(SHORT);
+			writer.writeVarLong(zigZag((Short) value));
+		} else if (value instanceof Byte) {
+			writer.write(BYTE);
+			writer.write((Byte) value);
+		} else if (value instanceof Long) {
+			writer.write(LONG);
+			writer.writeVarLong(zigZag((Long) value));
+		} else if (value instanceof Double) {
+			writer.write(DOUBLE);
+			writer.writeLong(Double.doubleToRawLongBits((Double) value));
+		} else if (value instanceof Float) {
+			writer.write(FLOAT);
+			writer.writeInt(Float.floatToRawIntBits((Float) value));
+		} else if (value instanceof Boolean) {
+			writer.write((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof String) {
+			writer.write(STRING);
+			writer.writeBlob(utf8((String) value));
+		} else if (value instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) value;
+			writer.write(BIG_DECIMAL);
+			writer.writeVarLong(zigZag(decimal.scale()));
+			writer.writeBlob(decimal.unscaledValue().toByteArray());
+		} else if (value.getClass() == Date.class) {
+			writer.write(DATE);
+			writer.writeVarLong(zigZag(((Date) value).getTime()));
+		} else if (value instanceof byte[]) {
+			writer.write(BYTES);
+			writer.writeBlob((byte[]) value);
+		} else {
+			writer.write(OBJECT);
+			writer.writeBlob(InstanceFactory.instance(ObjectSerializable.class).fromObject(value));
+		}
+	}
+
+	private static Object readValue(Reader reader) {
+		byte type = reader.read();
+		switch (type) {
+			case NULL:
+				return null;
+			case INT:
+				return (int) unZigZag(reader.readVarLong());
+			case LONG:
+				return unZigZag(reader.readVarLong());
+			case SHORT:
+				return (short) unZigZag(reader.readVarLong());
+			case BYTE:
+				return reader.read();
+			case DOUBLE:
+				return Double.longBitsToDouble(reader.readLong());
+			case FLOAT:
+				return Float.intBitsToFloat(reader.readInt());
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case STRING:
+				return new String(reader.readBlob(), StandardCharsets.UTF_8);
+			case BIG_DECIMAL:
+				int scale = (int) unZigZag(reader.readVarLong());
+				return new BigDecimal(new BigInteger(reader.readBlob()), scale);
+			case DATE:
+				return new Date(unZigZag(reader.readVarLong()));
+			case BYTES:
+				return reader.readBlob();
+			case OBJECT:
+				return InstanceFactory.instance(ObjectSerializable.class).toObject(reader.readBlob());
+			default:
+				throw new IllegalStateException("Unknown cache value type: " + type);
+		}
+	}
+
+	private static byte[] utf8(String value) {
+		return null == value ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static class Writer extends ByteArrayOutputStream {
+		private Writer(int size) {
+			super(size);
+		}
+
+		private void writeVarInt(int value) {
+			writeVarLong(value & 0xFFFFFFFFL);
+		}
+
+		private void writeVarLong(long value) {
+			while ((value & ~0x7FL) != 0) {
+				write((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			write((int) value);
+		}
+
+		private void writeInt(int value) {
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				write(value >>> shift);
+			}
+		}
+
+		private void writeLong(long value) {
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				write((int) (value >>> shift));
+			}
+		}
+
+		private void writeBlob(byte[] bytes) {
+			writeVarInt(bytes.length);
+			write(bytes, 0, bytes.length);
+		}
+	}
+
+	private static class Reader {
+		private final byte[] bytes;
+		private final int limit;
+		private int position;
+
+		private Reader(byte[] bytes, int limit) {
+			this.bytes = bytes;
+			this.limit = limit;
+		}
+
+		private boolean hasRemaining() {
+			return position < limit;
+		}
+
+		private byte read() {
+			return bytes[position++];
+		}
+
+		private int readVarInt() {
+			return (int) readVarLong();
+		}
+
+		private long readVarLong() {
+			long value = 0L;
+			for (int shift = 0; ; shift += 7) {
+				byte b = bytes[position++];
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+		}
+
+		private int readInt() {
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				value = (value << 8) | (bytes[position++] & 0xFF);
+			}
+			return value;
+		}
+
+		private long readLong() {
+			long value = 0L;
+			for (int i = 0; i < 8; i++) {
+				value = (value << 8) | (bytes[position++] & 0xFF);
+			}
+			return value;
+		}
+
+		private byte[] readBlob() {
+			int length = readVarInt();
+			byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+			position += length;
+			return value;
+		}
+
+		private void skipBlob() {
+			int length = readVarInt();
+			position += length;
+		}
+
+		/**
+		 * 比较当前位置的字节块与 value, 读取位置不变
+		 */
+		private boolean matchBlob(byte[] value) {
+			int start = position;
+			int length = readVarInt();
+			boolean matched = length == value.length;
+			for (int i = 0; matched && i < length; i++) {
+				matched = bytes[position + i] == value[i];
+			}
+			position = start;
+			return matched;
+		}
+	}
+}
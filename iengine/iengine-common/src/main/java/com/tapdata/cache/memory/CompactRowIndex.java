@@ -0,0 +1,39 @@
+package com.tapdata.cache.memory;
+
+import java.util.Iterator;
+
+/**
+ * 紧凑缓存的底层索引, key 与 value 都是编码后的字节, 由 {@link CompactCacheRows} 在锁内访问
+ */
+interface CompactRowIndex {
+
+	byte[] get(byte[] key);
+
+	byte[] put(byte[] key, byte[] value);
+
+	byte[] remove(byte[] key);
+
+	int size();
+
+	/**
+	 * 遍历所有 key, 支持 {@link Iterator#remove()}
+	 */
+	Iterator<byte[]> keys();
+
+	/**
+	 * 索引实际占用的字节数
+	 */
+	long footprint();
+
+	void clear();
+
+	/**
+	 * get 返回的是否为拷贝, 为 true 时修改 value 后需要重新 put
+	 */
+	default boolean copiesValues() {
+		return false;
+	}
+
+	default void close() {
+	}
+}
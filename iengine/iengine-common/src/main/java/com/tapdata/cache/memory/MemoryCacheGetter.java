@@ -1,6 +1,7 @@
 package com.tapdata.cache.memory;
 
 import com.tapdata.cache.AbstractCacheGetter;
+import com.tapdata.cache.CacheUtil;
 import com.tapdata.cache.ICacheRuntimeStats;
 import com.tapdata.cache.ICacheStats;
 import com.tapdata.entity.dataflow.DataFlowCacheConfig;
@@ -12,13 +13,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MemoryCacheGetter extends AbstractCacheGetter {
 
-	/**
-	 * - key: cache key
-	 * - value:
-	 * -- key: primary keys
-	 * -- value: record
-	 */
-	private final Map<String, Map<String, Map<String, Object>>> cacheData;
+	private final CompactCacheRows cacheData;
 
 	private final ICacheRuntimeStats cacheStageRuntimeStats;
 
@@ -30,7 +25,7 @@ public class MemoryCacheGetter extends AbstractCacheGetter {
 
 
 	public MemoryCacheGetter(DataFlowCacheConfig cacheConfig,
-							 Map<String, Map<String, Map<String, Object>>> cacheData,
+							 CompactCacheRows cacheData,
 							 ICacheStats cacheStats,
 							 ICacheRuntimeStats cacheStageRuntimeStats, ClientMongoOperator clientMongoOperator) {
 		super(cacheConfig, new MemoryCacheStore(cacheData, cacheStats, cacheConfig), cacheStats, clientMongoOperator);
@@ -43,12 +38,13 @@ public class MemoryCacheGetter extends AbstractCacheGetter {
 
 	@Override
 	protected List<Map<String, Object>> getRecordList(String cacheName, Object... cacheKeys) throws InterruptedException {
-		return null;
+		return null == cacheData ? null : cacheData.get(CacheUtil.cacheKey(cacheKeys));
 	}
 
 	@Override
 	protected Map<String, Object> getRecord(String cacheName, Object... cacheKeys) throws InterruptedException {
-		return null;
+		// 每次解码出新的 Map, 不需要再拷贝
+		return null == cacheData ? null : cacheData.getFirst(CacheUtil.cacheKey(cacheKeys));
 	}
 
 }
@@ -15,6 +15,7 @@ import com.tapdata.entity.dataflow.StageRuntimeStats;
 import com.tapdata.mongo.ClientMongoOperator;
 import com.tapdata.processor.ScriptConnection;
 import com.tapdata.processor.ScriptUtil;
+import io.tapdata.pdk.core.utils.CommonUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -40,18 +41,19 @@ public class MemoryCacheService extends AbstractCacheService {
 	 */
 	public static final long LOG_INFO_BATCH_SIZE = 25000L;
 
+	/**
+	 * 缓存数据是否放在堆外
+	 */
+	public static final String OFF_HEAP_PROP_KEY = "MEMORY_CACHE_OFF_HEAP";
+
 
 	protected Logger logger = LogManager.getLogger(MemoryCacheService.class);
 
 	/**
 	 * key: cache name
-	 * value:
-	 * - key: cache key
-	 * - value:
-	 * -- key: primary keys
-	 * -- value: record
+	 * value: 按 cache key 和主键保存的紧凑编码行
 	 */
-	private final Map<String, Map<String, Map<String, Map<String, Object>>>> cacheData;
+	private final Map<String, CompactCacheRows> cacheData;
 
 	protected Map<String, DataFlowCacheConfig> cacheConfig;
 	/**
@@ -123,7 +125,7 @@ public class MemoryCacheService extends AbstractCacheService {
 		}
 
 		this.cacheConfig.put(cacheName, config);
-		this.cacheData.put(cacheName, new ConcurrentHashMap<>());
+		this.cacheData.put(cacheName, new CompactCacheRows(CommonUtils.getPropertyBool(OFF_HEAP_PROP_KEY, false)));
 
 //    this.isInitialing.put(cacheName, new AtomicBoolean(true));
 //    this.running.put(cacheName, new AtomicBoolean(true));
@@ -169,7 +171,10 @@ public class MemoryCacheService extends AbstractCacheService {
 //      running.get(cacheName).compareAndSet(true, false);
 //    }
 
-		cacheData.remove(cacheName);
+		CompactCacheRows rows = cacheData.remove(cacheName);
+		if (null != rows) {
+			rows.close();
+		}
 		cacheConfig.remove(cacheName);
 		cacheFieldProjection.remove(cacheName);
 		lastLogTS.remove(cacheName);
@@ -179,6 +184,14 @@ public class MemoryCacheService extends AbstractCacheService {
 		queryConnections.remove(cacheName);
 	}
 
+	/**
+	 * 缓存实际占用的字节数, 缓存不存在时返回 0
+	 */
+	public long getCacheFootprint(String cacheName) {
+		CompactCacheRows rows = cacheData.get(cacheName);
+		return null == rows ? 0L : rows.getFootprint();
+	}
+
 	@Override
 	public DataFlowCacheConfig getConfig(String cacheName) {
 		return cacheConfig.get(cacheName);
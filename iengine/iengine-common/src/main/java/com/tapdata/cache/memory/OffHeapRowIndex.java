@@ -0,0 +1,95 @@
+package com.tapdata.cache.memory;
+
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+
+import java.util.Iterator;
+
+/**
+ * 保存在直接内存中的索引, 不占用堆, 占用按编码后的 key、value 字节数统计
+ */
+class OffHeapRowIndex implements CompactRowIndex {
+
+	private final DB db;
+	private final HTreeMap<byte[], byte[]> map;
+	private long dataBytes;
+
+	OffHeapRowIndex() {
+		this.db = DBMaker.memoryDirectDB().make();
+		this.map = db.hashMap("rows", Serializer.BYTE_ARRAY, Serializer.BYTE_ARRAY).create();
+	}
+
+	@Override
+	public byte[] get(byte[] key) {
+		return map.get(key);
+	}
+
+	@Override
+	public byte[] put(byte[] key, byte[] value) {
+		byte[] previous = map.put(key, value);
+		dataBytes += value.length + (null == previous ? key.length : -previous.length);
+		return previous;
+	}
+
+	@Override
+	public byte[] remove(byte[] key) {
+		byte[] previous = map.remove(key);
+		if (null != previous) {
+			dataBytes -= key.length + previous.length;
+		}
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public Iterator<byte[]> keys() {
+		Iterator<byte[]> iterator = map.keySet().iterator();
+		return new Iterator<byte[]>() {
+			private byte[] last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public byte[] next() {
+				return last = iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				OffHeapRowIndex.this.remove(last);
+			}
+		};
+	}
+
+	@Override
+	public long footprint() {
+		return dataBytes;
+	}
+
+	@Override
+	public void clear() {
+		map.clear();
+		dataBytes = 0L;
+	}
+
+	@Override
+	public boolean copiesValues() {
+		return true;
+	}
+
+	@Override
+	public void close() {
+		if (!db.isClosed()) {
+			db.close();
+		}
+	}
+}
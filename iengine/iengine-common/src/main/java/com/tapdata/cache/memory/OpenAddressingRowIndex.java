@@ -0,0 +1,200 @@
+package com.tapdata.cache.memory;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 线性探测的开放寻址哈希表, 每个条目只有 key、value 两个字节数组和一个 int 哈希, 没有 Entry 对象;
+ * 删除时留下墓碑, 墓碑和条目合计超过负载因子时重建
+ */
+class OpenAddressingRowIndex implements CompactRowIndex {
+
+	private static final byte[] TOMBSTONE = new byte[0];
+	private static final int MIN_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75F;
+
+	private int[] hashes;
+	private byte[][] keys;
+	private byte[][] values;
+	private int size;
+	private int tombstones;
+	private long dataBytes;
+
+	OpenAddressingRowIndex() {
+		allocate(MIN_CAPACITY);
+	}
+
+	@Override
+	public byte[] get(byte[] key) {
+		int slot = find(key, hash(key));
+		return slot < 0 ? null : values[slot];
+	}
+
+	@Override
+	public byte[] put(byte[] key, byte[] value) {
+		if (size + tombstones + 1 > keys.length * LOAD_FACTOR) {
+			rehash(size + 1 > keys.length * LOAD_FACTOR / 2 ? keys.length << 1 : keys.length);
+		}
+		int hash = hash(key);
+		int mask = keys.length - 1;
+		int firstTombstone = -1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			byte[] current = keys[slot];
+			if (null == current) {
+				int target = firstTombstone >= 0 ? firstTombstone : slot;
+				if (firstTombstone >= 0) {
+					tombstones--;
+				}
+				hashes[target] = hash;
+				keys[target] = key;
+				values[target] = value;
+				size++;
+				dataBytes += RamUsageEstimator.sizeOf(key) + RamUsageEstimator.sizeOf(value);
+				return null;
+			}
+			if (current == TOMBSTONE) {
+				if (firstTombstone < 0) {
+					firstTombstone = slot;
+				}
+			} else if (hashes[slot] == hash && Arrays.equals(current, key)) {
+				byte[] previous = values[slot];
+				values[slot] = value;
+				dataBytes += RamUsageEstimator.sizeOf(value) - RamUsageEstimator.sizeOf(previous);
+				return previous;
+			}
+		}
+	}
+
+	@Override
+	public byte[] remove(byte[] key) {
+		int slot = find(key, hash(key));
+		return slot < 0 ? null : removeAt(slot);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<byte[]> keys() {
+		return new Iterator<byte[]>() {
+			private int next = advance(0);
+			private int last = -1;
+
+			private int advance(int from) {
+				while (from < keys.length && (null == keys[from] || keys[from] == TOMBSTONE)) {
+					from++;
+				}
+				return from;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next < keys.length;
+			}
+
+			@Override
+			public byte[] next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = advance(next + 1);
+				return keys[last];
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				// 留墓碑不移动其它条目, 遍历中删除是安全的
+				removeAt(last);
+				last = -1;
+			}
+		};
+	}
+
+	@Override
+	public long footprint() {
+		return RamUsageEstimator.sizeOf(hashes)
+				+ RamUsageEstimator.shallowSizeOf(keys)
+				+ RamUsageEstimator.shallowSizeOf(values)
+				+ dataBytes;
+	}
+
+	@Override
+	public void clear() {
+		allocate(MIN_CAPACITY);
+	}
+
+	private int find(byte[] key, int hash) {
+		int mask = keys.length - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			byte[] current = keys[slot];
+			if (null == current) {
+				return -1;
+			}
+			if (current != TOMBSTONE && hashes[slot] == hash && Arrays.equals(current, key)) {
+				return slot;
+			}
+		}
+	}
+
+	private byte[] removeAt(int slot) {
+		byte[] previous = values[slot];
+		dataBytes -= RamUsageEstimator.sizeOf(keys[slot]) + RamUsageEstimator.sizeOf(previous);
+		keys[slot] = TOMBSTONE;
+		values[slot] = null;
+		size--;
+		tombstones++;
+		return previous;
+	}
+
+	private void rehash(int capacity) {
+		byte[][] oldKeys = keys;
+		byte[][] oldValues = values;
+		int[] oldHashes = hashes;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			byte[] key = oldKeys[i];
+			if (null == key || key == TOMBSTONE) {
+				continue;
+			}
+			int slot = oldHashes[i] & mask;
+			while (null != keys[slot]) {
+				slot = (slot + 1) & mask;
+			}
+			hashes[slot] = oldHashes[i];
+			keys[slot] = key;
+			values[slot] = oldValues[i];
+			size++;
+			dataBytes += RamUsageEstimator.sizeOf(key) + RamUsageEstimator.sizeOf(oldValues[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		hashes = new int[capacity];
+		keys = new byte[capacity][];
+		values = new byte[capacity][];
+		size = 0;
+		tombstones = 0;
+		dataBytes = 0L;
+	}
+
+	private static int hash(byte[] key) {
+		// murmur3 fmix, 让相近的 key 在线性探测时分散开
+		int h = Arrays.hashCode(key);
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+}
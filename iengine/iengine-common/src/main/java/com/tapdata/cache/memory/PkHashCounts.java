@@ -0,0 +1,127 @@
+package com.tapdata.cache.memory;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * 主键哈希到行数的计数表, 线性探测的开放寻址, 每个条目只有一个 long 哈希和一个 int 计数;
+ * 计数为 0 说明主键一定不在缓存中, 写入新行和按主键删除时不用扫描块. 删除时向前搬移后续条目, 不留墓碑
+ */
+class PkHashCounts {
+
+	private static final int MIN_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75F;
+
+	private long[] hashes;
+	private int[] counts;
+	private int size;
+
+	PkHashCounts() {
+		allocate(MIN_CAPACITY);
+	}
+
+	int get(long hash) {
+		int slot = find(hash);
+		return hashes[slot] == hash ? counts[slot] : 0;
+	}
+
+	void increment(long hash) {
+		if (size + 1 > hashes.length * LOAD_FACTOR) {
+			rehash(hashes.length << 1);
+		}
+		int slot = find(hash);
+		if (hashes[slot] != hash) {
+			hashes[slot] = hash;
+			size++;
+		}
+		counts[slot]++;
+	}
+
+	void decrement(long hash) {
+		int slot = find(hash);
+		if (hashes[slot] != hash) {
+			return;
+		}
+		if (--counts[slot] <= 0) {
+			removeAt(slot);
+		}
+	}
+
+	long footprint() {
+		return RamUsageEstimator.sizeOf(hashes) + RamUsageEstimator.sizeOf(counts);
+	}
+
+	void clear() {
+		allocate(MIN_CAPACITY);
+	}
+
+	/**
+	 * 计算字节区间的哈希, 0 留作空槽
+	 */
+	static long hash(byte[] bytes, int from, int length) {
+		// FNV-1a 64 位, 再做一次 murmur3 fmix64
+		long h = 0xcbf29ce484222325L;
+		for (int i = from; i < from + length; i++) {
+			h ^= bytes[i] & 0xFF;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return 0L == h ? 1L : h;
+	}
+
+	/**
+	 * @return 哈希所在的槽, 不存在时返回探测到的空槽
+	 */
+	private int find(long hash) {
+		int mask = hashes.length - 1;
+		int slot = home(hash, mask);
+		while (0L != hashes[slot] && hashes[slot] != hash) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void removeAt(int slot) {
+		int mask = hashes.length - 1;
+		int hole = slot;
+		for (int i = (slot + 1) & mask; 0L != hashes[i]; i = (i + 1) & mask) {
+			// 后续条目的起始槽不在 (hole, i] 内时, 可以搬到空出来的位置
+			if (((i - home(hashes[i], mask)) & mask) >= ((i - hole) & mask)) {
+				hashes[hole] = hashes[i];
+				counts[hole] = counts[i];
+				hole = i;
+			}
+		}
+		hashes[hole] = 0L;
+		counts[hole] = 0;
+		size--;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldHashes = hashes;
+		int[] oldCounts = counts;
+		allocate(capacity);
+		for (int i = 0; i < oldHashes.length; i++) {
+			if (0L == oldHashes[i]) {
+				continue;
+			}
+			int slot = find(oldHashes[i]);
+			hashes[slot] = oldHashes[i];
+			counts[slot] = oldCounts[i];
+			size++;
+		}
+	}
+
+	private void allocate(int capacity) {
+		hashes = new long[capacity];
+		counts = new int[capacity];
+		size = 0;
+	}
+
+	private static int home(long hash, int mask) {
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+}
@@ -448,6 +448,11 @@ public class Connections implements Serializable {
 	private String pdkType;
 	private String pdkHash;
 
+	/**
+	 * version written by the last schema load
+	 */
+	private String schemaVersion;
+
 	/**
 	 * 裸日志解析服务配置
 	 */
@@ -2300,6 +2305,14 @@ public class Connections implements Serializable {
 		this.pdkHash = pdkHash;
 	}
 
+	public String getSchemaVersion() {
+		return schemaVersion;
+	}
+
+	public void setSchemaVersion(String schemaVersion) {
+		this.schemaVersion = schemaVersion;
+	}
+
 	public Map<String, Object> getExtParam() {
 		return extParam;
 	}
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author jackin
@@ -54,6 +55,11 @@ public class TapdataEvent implements Serializable, Cloneable {
 
 	private String fromNodeId;
 
+	/**
+	 * 扇出到多个下游时共享同一个 tapEvent 的引用计数, 为 null 表示 tapEvent 为当前事件独占
+	 */
+	private transient AtomicInteger tapEventSharers;
+
 	public SyncStage getSyncStage() {
 		return syncStage;
 	}
@@ -160,6 +166,81 @@ public class TapdataEvent implements Serializable, Cloneable {
 		}
 	}
 
+	/**
+	 * 复制事件外壳并换上新的 tapEvent, 不复制当前的 tapEvent, 用于一个事件拆分为多个事件的场景
+	 */
+	public TapdataEvent cloneWithTapEvent(TapEvent newTapEvent) {
+		TapEvent origin = tapEvent;
+		try {
+			TapdataEvent obj = this.getClass().newInstance();
+			tapEvent = null;
+			clone(obj);
+			obj.setTapEvent(newTapEvent);
+			return obj;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		} finally {
+			tapEvent = origin;
+		}
+	}
+
+	/**
+	 * 复制事件外壳, tapEvent 与当前事件共享, 需先调用 {@link #beginShareTapEvent(int)};
+	 * 会修改 tapEvent 的下游在使用前调用 {@link #ownTapEvent()} 获取私有副本
+	 */
+	public TapdataEvent shareClone() {
+		if (null == tapEventSharers) {
+			return (TapdataEvent) clone();
+		}
+		try {
+			TapdataEvent obj = this.getClass().newInstance();
+			obj.tapEventSharers = tapEventSharers;
+			clone(obj);
+			return obj;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 开始将 tapEvent 共享给 sharers 个下游, 当前事件自身占一个计数, 全部发出后调用 {@link #releaseTapEvent()}
+	 */
+	public void beginShareTapEvent(int sharers) {
+		ownTapEvent();
+		tapEventSharers = new AtomicInteger(sharers + 1);
+	}
+
+	/**
+	 * 放弃对共享 tapEvent 的使用
+	 */
+	public void releaseTapEvent() {
+		AtomicInteger sharers = tapEventSharers;
+		if (null != sharers) {
+			tapEventSharers = null;
+			sharers.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 保证 tapEvent 为当前事件独占: 最后一个使用者直接接管原对象, 其余使用者复制一份
+	 */
+	public void ownTapEvent() {
+		AtomicInteger sharers = tapEventSharers;
+		if (null == sharers) {
+			return;
+		}
+		tapEventSharers = null;
+		if (sharers.compareAndSet(1, 0)) {
+			return;
+		}
+		tapEvent = cloneTapEvent(tapEvent);
+		sharers.decrementAndGet();
+	}
+
+	public boolean isTapEventShared() {
+		return null != tapEventSharers;
+	}
+
 	protected void clone(TapdataEvent tapdataEvent) {
 		tapdataEvent.setSourceTime(this.getSourceTime());
 		tapdataEvent.setSourceTime(sourceTime);
@@ -184,16 +265,27 @@ public class TapdataEvent implements Serializable, Cloneable {
 		}
 
 		if (tapEvent != null) {
-			try {
-				TapEvent cloneTapEvent = tapEvent.getClass().newInstance();
-				tapEvent.clone(cloneTapEvent);
-				tapdataEvent.setTapEvent(cloneTapEvent);
-			} catch (InstantiationException | IllegalAccessException e) {
-				throw new RuntimeException("Clone tap event failed: " + e.getMessage(), e);
+			if (null != tapdataEvent.tapEventSharers) {
+				tapdataEvent.setTapEvent(tapEvent);
+			} else {
+				tapdataEvent.setTapEvent(cloneTapEvent(tapEvent));
 			}
 		}
 	}
 
+	private static TapEvent cloneTapEvent(TapEvent tapEvent) {
+		if (null == tapEvent) {
+			return null;
+		}
+		try {
+			TapEvent cloneTapEvent = tapEvent.getClass().newInstance();
+			tapEvent.clone(cloneTapEvent);
+			return cloneTapEvent;
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new RuntimeException("Clone tap event failed: " + e.getMessage(), e);
+		}
+	}
+
 	public String getFromNodeId() {
 		return fromNodeId;
 	}
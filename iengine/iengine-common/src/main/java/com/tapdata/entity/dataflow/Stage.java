@@ -156,6 +156,11 @@ public class Stage implements Serializable {
 
 	private int aggCacheMaxSize = 10000;
 
+	/**
+	 * 增量聚合桶的堆外存储容量 (字节), 大于 0 时代替 aggCacheMaxSize 的堆内缓存
+	 */
+	private long aggCacheMaxBytes;
+
 	private FileProperty fileProperty;
 
 	private long aggregateProcessorInitialInterval = 180 * 1000;
@@ -767,6 +772,14 @@ public class Stage implements Serializable {
 		this.aggCacheMaxSize = aggCacheMaxSize;
 	}
 
+	public long getAggCacheMaxBytes() {
+		return aggCacheMaxBytes;
+	}
+
+	public void setAggCacheMaxBytes(long aggCacheMaxBytes) {
+		this.aggCacheMaxBytes = aggCacheMaxBytes;
+	}
+
 	public FileProperty getFileProperty() {
 		return fileProperty;
 	}
@@ -1,5 +1,6 @@
 package com.tapdata.processor.dataflow.aggregation.incr;
 
+import com.tapdata.constant.ConnectorConstant;
 import com.tapdata.constant.TapdataOffset;
 import com.tapdata.entity.MessageEntity;
 import com.tapdata.entity.OperationType;
@@ -24,9 +25,12 @@ import com.tapdata.processor.dataflow.aggregation.incr.service.factory.ServiceFa
 import com.tapdata.processor.dataflow.aggregation.incr.service.model.BucketValue;
 import com.tapdata.processor.dataflow.aggregation.incr.task.CleanScheduler;
 import com.tapdata.processor.dataflow.aggregation.incr.task.SyncScheduler;
+import io.tapdata.pdk.core.utils.CommonUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -38,6 +42,8 @@ import java.util.concurrent.locks.ReentrantLock;
 public class IncrementAggregationProcessor implements DataFlowProcessor {
 
 	private static final Logger log = LogManager.getLogger(IncrementAggregationProcessor.class);
+	public static final String BUCKET_CACHE_MAX_BYTES_PROP_KEY = "AGGREGATION_BUCKET_CACHE_MAX_BYTES";
+	public static final String BUCKET_CHECKPOINT_INTERVAL_MS_PROP_KEY = "AGGREGATION_BUCKET_CHECKPOINT_INTERVAL_MS";
 
 	private Stage stage;
 	private ProcessorContext processorContext;
@@ -45,6 +51,10 @@ public class IncrementAggregationProcessor implements DataFlowProcessor {
 	private final Map<Class<?>, LifeCycleService> lifeCycleServiceMap = new HashMap<>();
 	private Lock lock;
 	private boolean hasResetSnapshot = false; // flag to reset snapshot data
+	private BucketCache<FuncCacheKey, BucketValue> bucketCache;
+	private long checkpointIntervalMs;
+	private long lastCheckpointTime;
+	private Object lastOffset;
 
 	@Override
 	public void initialize(ProcessorContext context, Stage stage) throws Exception {
@@ -69,7 +79,9 @@ public class IncrementAggregationProcessor implements DataFlowProcessor {
 		aggregationService.start();
 		syncVersionService.start();
 		// cache
-		final BucketCache<FuncCacheKey, BucketValue> bucketCache = new BucketCacheBuilder<FuncCacheKey, BucketValue>().maxSize(this.stage.getAggCacheMaxSize()).build();
+		this.bucketCache = buildBucketCache();
+		this.checkpointIntervalMs = CommonUtils.getPropertyLong(BUCKET_CHECKPOINT_INTERVAL_MS_PROP_KEY, 1000L);
+		this.bucketCache.restore(this.processorContext.getJob().getOffset());
 		// function
 		final List<AggrFunction> aggrFunctionList = new ArrayList<>(this.stage.getAggregations().size());
 		for (Aggregation aggregation : this.stage.getAggregations()) {
@@ -93,9 +105,31 @@ public class IncrementAggregationProcessor implements DataFlowProcessor {
 		lifeCycleServiceMap.put(SyncScheduler.class, syncScheduler);
 	}
 
+	private BucketCache<FuncCacheKey, BucketValue> buildBucketCache() {
+		long maxBytes = this.stage.getAggCacheMaxBytes() > 0 ? this.stage.getAggCacheMaxBytes() : CommonUtils.getPropertyLong(BUCKET_CACHE_MAX_BYTES_PROP_KEY, 0L);
+		BucketCacheBuilder<FuncCacheKey, BucketValue> builder = new BucketCacheBuilder<FuncCacheKey, BucketValue>()
+				.maxSize(this.stage.getAggCacheMaxSize())
+				.maxBytes(maxBytes);
+		if (maxBytes > 0 && StringUtils.isNotBlank(ConnectorConstant.TAPDATA_WORKER_DIR)) {
+			builder.storeFile(Paths.get(ConnectorConstant.TAPDATA_WORKER_DIR, "aggregation",
+					this.processorContext.getJob().getId() + "_" + this.stage.getId() + ".db").toFile());
+		}
+		return builder.build();
+	}
+
 	@Override
 	public void stop() {
 		Throwable throwable = null;
+		if (null != bucketCache) {
+			try {
+				if (null != lastOffset) {
+					bucketCache.checkpoint(lastOffset);
+				}
+				bucketCache.close();
+			} catch (Throwable t) {
+				log.warn(String.format("job/stage [%s/%s] IncrementAggregationProcessor close bucket cache fail", this.processorContext.getJob().getId(), this.stage.getId()), t);
+			}
+		}
 		for (LifeCycleService service : lifeCycleServiceMap.values()) {
 			try {
 				service.destroy();
@@ -124,7 +158,9 @@ public class IncrementAggregationProcessor implements DataFlowProcessor {
 		try {
 			lock.lock();
 			this.maybeResetSnapshot(messageEntityList.get(0));
-			return this.doProcess(messageEntityList);
+			List<MessageEntity> result = this.doProcess(messageEntityList);
+			this.checkpointIfNeed(messageEntityList.get(messageEntityList.size() - 1).getOffset());
+			return result;
 		} finally {
 			lock.unlock();
 		}
@@ -147,6 +183,18 @@ public class IncrementAggregationProcessor implements DataFlowProcessor {
 		return aggrEntityList;
 	}
 
+	private void checkpointIfNeed(Object offset) {
+		if (null == offset) {
+			return;
+		}
+		lastOffset = offset;
+		long now = System.currentTimeMillis();
+		if (now - lastCheckpointTime >= checkpointIntervalMs) {
+			bucketCache.checkpoint(offset);
+			lastCheckpointTime = now;
+		}
+	}
+
 	private <T> T getService(Class<T> cls) {
 		return (T) lifeCycleServiceMap.get(cls);
 	}
@@ -162,15 +210,18 @@ public class IncrementAggregationProcessor implements DataFlowProcessor {
 			if (TapdataOffset.SYNC_STAGE_SNAPSHOT.equals(tapdataOffset.getSyncStage())) {
 				log.info("prepare to reset snapshot data");
 				snapshotService.reset();
+				bucketCache.invalidAll();
 			}
 		} else if (offset instanceof Map) {
 			if (((Map) offset).isEmpty()) {
 				log.info("prepare to reset snapshot data");
 				snapshotService.reset();
+				bucketCache.invalidAll();
 			}
 		} else if (offset == null) {
 			log.info("prepare to reset snapshot data");
 			snapshotService.reset();
+			bucketCache.invalidAll();
 		}
 		hasResetSnapshot = true;
 	}
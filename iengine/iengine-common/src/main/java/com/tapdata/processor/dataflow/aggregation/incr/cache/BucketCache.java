@@ -10,4 +10,22 @@ public interface BucketCache<K, V> {
 
 	void invalidAll();
 
+	/**
+	 * 持久化当前内容, 并记录对应的任务 offset
+	 */
+	default void checkpoint(Object offset) {
+	}
+
+	/**
+	 * 任务从 offset 启动时调用, 只有上次 checkpoint 的 offset 与之一致时才保留已有内容
+	 *
+	 * @return 是否保留了已有内容
+	 */
+	default boolean restore(Object offset) {
+		return false;
+	}
+
+	default void close() {
+	}
+
 }
@@ -2,10 +2,15 @@ package com.tapdata.processor.dataflow.aggregation.incr.cache;
 
 import com.tapdata.processor.dataflow.aggregation.incr.cache.impl.DefaultBucketCache;
 import com.tapdata.processor.dataflow.aggregation.incr.cache.impl.NoneBucketCache;
+import com.tapdata.processor.dataflow.aggregation.incr.cache.impl.OffHeapBucketCache;
+
+import java.io.File;
 
 public class BucketCacheBuilder<K, V> {
 
 	private int maxSize;
+	private long maxBytes;
+	private File storeFile;
 
 	public BucketCacheBuilder() {
 	}
@@ -19,7 +24,35 @@ public class BucketCacheBuilder<K, V> {
 		return maxSize;
 	}
 
+	/**
+	 * 大于 0 时使用堆外存储, 按字节数限制容量, maxSize 不再生效
+	 */
+	public BucketCacheBuilder<K, V> maxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		return this;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * 堆外存储使用的内存映射文件, 为空时使用直接内存, 不支持重启后恢复
+	 */
+	public BucketCacheBuilder<K, V> storeFile(File storeFile) {
+		this.storeFile = storeFile;
+		return this;
+	}
+
+	public File getStoreFile() {
+		return storeFile;
+	}
+
+	@SuppressWarnings("unchecked")
 	public BucketCache<K, V> build() {
+		if (maxBytes > 0) {
+			return (BucketCache<K, V>) new OffHeapBucketCache(maxBytes, storeFile);
+		}
 		return maxSize > 0 ? new DefaultBucketCache<>(this) : new NoneBucketCache<>();
 	}
 
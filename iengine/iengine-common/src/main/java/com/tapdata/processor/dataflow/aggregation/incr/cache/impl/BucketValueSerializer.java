@@ -0,0 +1,156 @@
+package com.tapdata.processor.dataflow.aggregation.incr.cache.impl;
+
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.AvgBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.BucketValue;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.CountBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.MaxBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.MinBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.SumBucket;
+import io.tapdata.entity.utils.InstanceFactory;
+import io.tapdata.entity.utils.ObjectSerializable;
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 聚合桶的紧凑二进制编码: 1 字节类型 + 定长的 count + 带类型标记的数值, 常见数值类型不经过对象序列化
+ */
+public class BucketValueSerializer implements Serializer<BucketValue> {
+
+	private static final byte COUNT = 1;
+	private static final byte SUM = 2;
+	private static final byte MIN = 3;
+	private static final byte MAX = 4;
+	private static final byte AVG = 5;
+
+	private static final byte NULL = 0;
+	private static final byte INT = 1;
+	private static final byte LONG = 2;
+	private static final byte FLOAT = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte BIG_DECIMAL = 5;
+	private static final byte STRING = 6;
+	private static final byte OBJECT = 9;
+
+	@Override
+	public void serialize(@NotNull DataOutput2 out, @NotNull BucketValue value) throws IOException {
+		if (value instanceof CountBucket.Value) {
+			out.writeByte(COUNT);
+			out.writeLong(((CountBucket.Value) value).getCount());
+		} else if (value instanceof SumBucket.Value) {
+			SumBucket.Value sum = (SumBucket.Value) value;
+			out.writeByte(SUM);
+			out.writeLong(sum.getCount());
+			writeObject(out, sum.getValue());
+		} else if (value instanceof MinBucket.Value) {
+			MinBucket.Value min = (MinBucket.Value) value;
+			out.writeByte(MIN);
+			out.writeLong(min.getCount());
+			writeObject(out, min.getValue());
+			writeObject(out, min.getMinId());
+		} else if (value instanceof MaxBucket.Value) {
+			MaxBucket.Value max = (MaxBucket.Value) value;
+			out.writeByte(MAX);
+			out.writeLong(max.getCount());
+			writeObject(out, max.getValue());
+			writeObject(out, max.getMaxId());
+		} else if (value instanceof AvgBucket.Value) {
+			AvgBucket.Value avg = (AvgBucket.Value) value;
+			out.writeByte(AVG);
+			out.writeLong(avg.getCount());
+			writeObject(out, avg.getValue());
+			writeObject(out, avg.getSum());
+		} else {
+			throw new IllegalArgumentException("Unsupported bucket value: " + value.getClass().getName());
+		}
+	}
+
+	@Override
+	public BucketValue deserialize(@NotNull DataInput2 input, int available) throws IOException {
+		byte type = input.readByte();
+		long count = input.readLong();
+		switch (type) {
+			case COUNT:
+				return new CountBucket.Value(count);
+			case SUM:
+				return new SumBucket.Value((Number) readObject(input), count);
+			case MIN:
+				return new MinBucket.Value((Number) readObject(input), count, readObject(input));
+			case MAX:
+				return new MaxBucket.Value((Number) readObject(input), count, readObject(input));
+			case AVG:
+				return new AvgBucket.Value((Number) readObject(input), (Number) readObject(input), count);
+			default:
+				throw new IOException("Unknown bucket value type: " + type);
+		}
+	}
+
+	static void writeObject(DataOutput out, Object value) throws IOException {
+		if (null == value) {
+			out.writeByte(NULL);
+		} else if (value instanceof Integer) {
+			out.writeByte(INT);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) value;
+			byte[] unscaled = decimal.unscaledValue().toByteArray();
+			out.writeByte(BIG_DECIMAL);
+			out.writeInt(decimal.scale());
+			out.writeInt(unscaled.length);
+			out.write(unscaled);
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) value);
+		} else {
+			byte[] bytes = InstanceFactory.instance(ObjectSerializable.class).fromObject(value);
+			out.writeByte(OBJECT);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	static Object readObject(DataInput input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case NULL:
+				return null;
+			case INT:
+				return input.readInt();
+			case LONG:
+				return input.readLong();
+			case FLOAT:
+				return input.readFloat();
+			case DOUBLE:
+				return input.readDouble();
+			case BIG_DECIMAL:
+				int scale = input.readInt();
+				byte[] unscaled = new byte[input.readInt()];
+				input.readFully(unscaled);
+				return new BigDecimal(new BigInteger(unscaled), scale);
+			case STRING:
+				return input.readUTF();
+			case OBJECT:
+				byte[] bytes = new byte[input.readInt()];
+				input.readFully(bytes);
+				return InstanceFactory.instance(ObjectSerializable.class).toObject(bytes);
+			default:
+				throw new IOException("Unknown value type: " + type);
+		}
+	}
+}
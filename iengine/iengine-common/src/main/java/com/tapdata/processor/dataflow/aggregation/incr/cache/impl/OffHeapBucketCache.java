@@ -0,0 +1,172 @@
+package com.tapdata.processor.dataflow.aggregation.incr.cache.impl;
+
+import com.tapdata.constant.JSONUtil;
+import com.tapdata.processor.dataflow.aggregation.incr.cache.BucketCache;
+import com.tapdata.processor.dataflow.aggregation.incr.func.FuncCacheKey;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.BucketValue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mapdb.Atomic;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 堆外的聚合桶缓存, 桶的值以定长的二进制编码保存在直接内存或内存映射文件中, 不占用堆;
+ * 容量按存储字节数限制, 超出后淘汰最久未访问的桶, 被淘汰的桶下次访问时从快照重新计算;
+ * 使用文件时, checkpoint 会记录任务 offset, 任务从同一 offset 重启时直接复用已有的桶
+ */
+public class OffHeapBucketCache implements BucketCache<FuncCacheKey, BucketValue> {
+
+	private static final Logger logger = LogManager.getLogger(OffHeapBucketCache.class);
+	private static final String BUCKETS = "buckets";
+	private static final String OFFSET = "offset";
+	private static final String CLEAN = "clean";
+
+	private final File storeFile;
+	private final DB db;
+	private final HTreeMap<byte[], BucketValue> buckets;
+	private final Atomic.String offset;
+	private final Atomic.Boolean clean;
+	private volatile boolean dirty;
+
+	public OffHeapBucketCache(long maxBytes, File storeFile) {
+		this.storeFile = storeFile;
+		this.db = openDB(storeFile);
+		this.buckets = db.hashMap(BUCKETS, Serializer.BYTE_ARRAY, new BucketValueSerializer())
+				.expireStoreSize(maxBytes)
+				.expireAfterCreate()
+				.expireAfterUpdate()
+				.expireAfterGet()
+				.createOrOpen();
+		this.offset = db.atomicString(OFFSET).createOrOpen();
+		this.clean = db.atomicBoolean(CLEAN).createOrOpen();
+	}
+
+	private static DB openDB(File storeFile) {
+		if (null == storeFile) {
+			return DBMaker.memoryDirectDB().make();
+		}
+		try {
+			Files.createDirectories(storeFile.getAbsoluteFile().getParentFile().toPath());
+			return DBMaker.fileDB(storeFile).fileMmapEnableIfSupported().make();
+		} catch (Exception e) {
+			// 文件损坏时丢弃, 桶会从快照重新计算
+			logger.warn("Open aggregation bucket store {} failed, recreate it: {}", storeFile, e.getMessage());
+			try {
+				Files.deleteIfExists(storeFile.toPath());
+			} catch (IOException ignored) {
+			}
+			return DBMaker.fileDB(storeFile).fileMmapEnableIfSupported().make();
+		}
+	}
+
+	@Override
+	public void put(FuncCacheKey key, BucketValue value) {
+		markDirty();
+		buckets.put(encodeKey(key), value);
+	}
+
+	@Override
+	public BucketValue get(FuncCacheKey key) {
+		return buckets.get(encodeKey(key));
+	}
+
+	@Override
+	public void invalid(FuncCacheKey key) {
+		markDirty();
+		buckets.remove(encodeKey(key));
+	}
+
+	@Override
+	public void invalidAll() {
+		markDirty();
+		buckets.clear();
+	}
+
+	@Override
+	public synchronized void checkpoint(Object taskOffset) {
+		if (null == storeFile) {
+			return;
+		}
+		offset.set(offsetString(taskOffset));
+		clean.set(true);
+		db.commit();
+		dirty = false;
+	}
+
+	@Override
+	public synchronized boolean restore(Object taskOffset) {
+		if (null != storeFile && clean.get() && Objects.equals(offset.get(), offsetString(taskOffset))) {
+			logger.info("Reuse {} aggregation buckets from {}, offset: {}", buckets.size(), storeFile, offset.get());
+			return true;
+		}
+		if (!buckets.isEmpty()) {
+			logger.info("Aggregation bucket store {} does not match task offset, clear {} buckets", storeFile, buckets.size());
+			invalidAll();
+		}
+		return false;
+	}
+
+	@Override
+	public void close() {
+		if (!db.isClosed()) {
+			db.close();
+		}
+	}
+
+	/**
+	 * 第一次修改前把 clean 置为 false, 异常退出后不会误用 checkpoint 之后写入的桶
+	 */
+	private void markDirty() {
+		if (!dirty) {
+			synchronized (this) {
+				if (!dirty) {
+					clean.set(false);
+					if (null != storeFile) {
+						db.commit();
+					}
+					dirty = true;
+				}
+			}
+		}
+	}
+
+	private static String offsetString(Object taskOffset) {
+		if (null == taskOffset) {
+			return null;
+		}
+		try {
+			return JSONUtil.obj2Json(taskOffset);
+		} catch (Exception e) {
+			return String.valueOf(taskOffset);
+		}
+	}
+
+	static byte[] encodeKey(FuncCacheKey key) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(key.getProcessName());
+			Map<String, Object> groupByMap = key.getGroupByMap();
+			out.writeInt(null == groupByMap ? 0 : groupByMap.size());
+			if (null != groupByMap) {
+				for (Map.Entry<String, Object> entry : groupByMap.entrySet()) {
+					out.writeUTF(entry.getKey());
+					BucketValueSerializer.writeObject(out, entry.getValue());
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Encode aggregation bucket key failed: " + e.getMessage(), e);
+		}
+		return bytes.toByteArray();
+	}
+}
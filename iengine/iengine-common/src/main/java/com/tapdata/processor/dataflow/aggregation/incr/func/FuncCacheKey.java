@@ -14,6 +14,14 @@ public class FuncCacheKey {
 		this.groupByMap = groupByMap;
 	}
 
+	public String getProcessName() {
+		return processName;
+	}
+
+	public Map<String, Object> getGroupByMap() {
+		return groupByMap;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
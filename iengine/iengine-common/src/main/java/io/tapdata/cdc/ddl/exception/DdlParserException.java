@@ -1,5 +1,7 @@
 package io.tapdata.cdc.ddl.exception;
 
+import io.tapdata.ddlp.exception.DDLParseException;
+
 /**
  * DDL 解析异常
  *
@@ -8,6 +10,9 @@ package io.tapdata.cdc.ddl.exception;
  */
 public class DdlParserException extends DdlException {
 	private String ddl;
+	private int pos = -1;
+	private int line = -1;
+	private int column = -1;
 
 	public DdlParserException(String ddl) {
 		this.ddl = ddl;
@@ -28,7 +33,30 @@ public class DdlParserException extends DdlException {
 		this.ddl = ddl;
 	}
 
+	public DdlParserException(DDLParseException cause) {
+		super(cause.getMessage(), cause);
+		this.ddl = cause.getDdl();
+		this.pos = cause.getPos();
+		this.line = cause.getLine();
+		this.column = cause.getColumn();
+	}
+
 	public String getDdl() {
 		return ddl;
 	}
+
+	/**
+	 * @return 出错位置, -1 表示未知
+	 */
+	public int getPos() {
+		return pos;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
 }
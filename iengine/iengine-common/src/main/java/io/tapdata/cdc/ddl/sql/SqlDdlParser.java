@@ -0,0 +1,90 @@
+package io.tapdata.cdc.ddl.sql;
+
+import io.tapdata.cdc.ddl.DdlEvent;
+import io.tapdata.cdc.ddl.DdlParser;
+import io.tapdata.cdc.ddl.events.AddField;
+import io.tapdata.cdc.ddl.events.AlterField;
+import io.tapdata.cdc.ddl.events.DropField;
+import io.tapdata.cdc.ddl.events.DropStruct;
+import io.tapdata.cdc.ddl.events.RenameField;
+import io.tapdata.cdc.ddl.events.RenameStruct;
+import io.tapdata.cdc.ddl.exception.DdlException;
+import io.tapdata.cdc.ddl.exception.DdlParserException;
+import io.tapdata.ddlp.exception.DDLParseException;
+import io.tapdata.ddlp.sql.DDLClause;
+import io.tapdata.ddlp.sql.DDLStatement;
+import io.tapdata.ddlp.sql.DDLStatementParser;
+import io.tapdata.ddlp.sql.SqlDialect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 源DDL解析 - SQL实现, 与 io.tapdata.ddlp 共用 {@link DDLStatementParser}
+ * <p>
+ * 语句中任一子句不支持时整条语句报错, 不输出部分事件
+ */
+public abstract class SqlDdlParser implements DdlParser<String, DdlEvent> {
+
+	private final SqlDialect dialect;
+
+	protected SqlDdlParser(SqlDialect dialect) {
+		this.dialect = dialect;
+	}
+
+	@Override
+	public void parseDDL(String in, Consumer<DdlEvent> outConsumer) {
+		if (null == in || (in = in.trim()).isEmpty()) throw new DdlException("DDL is empty");
+
+		DDLStatement statement = DDLStatementParser.parse(in, dialect);
+		List<DdlEvent> events = new ArrayList<>();
+		List<String> namespace = statement.getNamespace();
+		switch (statement.getType()) {
+			case ALTER_TABLE:
+			case RENAME_TABLE:
+				for (DDLClause clause : statement.getClauses()) {
+					clause2Event(in, namespace, clause, events);
+				}
+				break;
+			case DROP_TABLE:
+				events.add(new DropStruct(in, namespace));
+				break;
+			case UNSUPPORTED:
+				throw new DdlParserException(statement.getError());
+			default:
+				throw new DdlParserException(new DDLParseException("Unrealized ddl operator " + statement.getType(), in, 0));
+		}
+		events.forEach(outConsumer);
+	}
+
+	protected void clause2Event(String ddl, List<String> namespace, DDLClause clause, List<DdlEvent> events) {
+		switch (clause.getAction()) {
+			case ADD_COLUMN:
+				events.add(new AddField(ddl, namespace, clause.getName(), clause.getDefinition()));
+				break;
+			case ALTER_COLUMN:
+				events.add(new AlterField(ddl, namespace, clause.getName(), clause.getDefinition()));
+				break;
+			case CHANGE_COLUMN:
+				if (!clause.getName().equals(clause.getNewName())) {
+					events.add(new RenameField(ddl, namespace, clause.getName(), clause.getNewName()));
+				}
+				events.add(new AlterField(ddl, namespace, clause.getNewName(), clause.getDefinition()));
+				break;
+			case DROP_COLUMN:
+				events.add(new DropField(ddl, namespace, clause.getName()));
+				break;
+			case RENAME_COLUMN:
+				events.add(new RenameField(ddl, namespace, clause.getName(), clause.getNewName()));
+				break;
+			case RENAME_TABLE:
+				events.add(new RenameStruct(ddl, namespace, clause.getNewName()));
+				break;
+			case UNSUPPORTED:
+				throw new DdlParserException(clause.getError());
+			default:
+				throw new DdlParserException(new DDLParseException("Unrealized ddl operator " + clause.getAction(), ddl, clause.getPos()));
+		}
+	}
+}
@@ -16,6 +16,8 @@ import lombok.Setter;
 public class UnSupported extends DDLEvent {
 
 	private int pos;
+	private int line;
+	private int column;
 	private String msg;
 
 	public UnSupported() {
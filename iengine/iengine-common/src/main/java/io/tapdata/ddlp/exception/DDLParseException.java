@@ -0,0 +1,69 @@
+package io.tapdata.ddlp.exception;
+
+/**
+ * DDL 解析异常, 带出错位置
+ */
+public class DDLParseException extends DDLException {
+
+	private final String ddl;
+	private final int pos;
+	private final int line;
+	private final int column;
+	private final String near;
+
+	public DDLParseException(String message, String ddl, int pos) {
+		super(message);
+		this.ddl = ddl;
+		this.pos = Math.max(0, Math.min(pos, null == ddl ? 0 : ddl.length()));
+		int l = 1;
+		int c = 1;
+		for (int i = 0; i < this.pos; i++) {
+			if (ddl.charAt(i) == '\n') {
+				l++;
+				c = 1;
+			} else {
+				c++;
+			}
+		}
+		this.line = l;
+		this.column = c;
+		this.near = null == ddl ? "" : ddl.substring(this.pos, Math.min(ddl.length(), this.pos + 32));
+	}
+
+	public String getDdl() {
+		return ddl;
+	}
+
+	/**
+	 * @return 出错位置 (从 0 开始的字符下标)
+	 */
+	public int getPos() {
+		return pos;
+	}
+
+	/**
+	 * @return 出错行 (从 1 开始)
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * @return 出错列 (从 1 开始)
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return 出错位置之后的片段
+	 */
+	public String getNear() {
+		return near;
+	}
+
+	@Override
+	public String getMessage() {
+		return super.getMessage() + ", line " + line + ", column " + column + " near '" + near + "'";
+	}
+}
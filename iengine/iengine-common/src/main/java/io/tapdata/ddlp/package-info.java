@@ -13,7 +13,7 @@
  *   <li>
  *     开发新组件：
  *     <ol>
- *       <li>实现解析器：io.tapdata.ddlp.parsers.DDLParser</li>
+ *       <li>实现解析器：io.tapdata.ddlp.parsers.DDLParser，SQL 类数据库继承 io.tapdata.ddlp.utils.SqlDDLParser 并指定 io.tapdata.ddlp.sql.SqlDialect</li>
  *       <li>实现转换器：io.tapdata.ddlp.converters.DDLConverter</li>
  *     </ol>
  *   </li>
@@ -26,6 +26,10 @@
  *       <li>DropField: 删除字段</li>
  *     </ol>
  *   </li>
+ *   <li>
+ *     SQL 解析：io.tapdata.ddlp.sql.DDLStatementParser，与 io.tapdata.cdc.ddl 共用，相同语句的解析结果会被缓存，
+ *     无法解析时 UnSupported 中带出错行列
+ *   </li>
  * </ol>
  *
  * @author <a href="mailto:harsen_lin@163.com">Harsen</a>
@@ -2,7 +2,7 @@ package io.tapdata.ddlp.parsers;
 
 import com.tapdata.entity.DatabaseTypeEnum;
 import io.tapdata.annotation.DatabaseTypeAnnotation;
-import io.tapdata.ddlp.utils.CharReader;
+import io.tapdata.ddlp.sql.SqlDialect;
 import io.tapdata.ddlp.utils.SqlDDLParser;
 
 /**
@@ -17,20 +17,8 @@ public class MssqlDDLParser extends SqlDDLParser {
 	public MssqlDDLParser() {
 	}
 
-	/**
-	 * 加载名称
-	 *
-	 * @param reader 读取器
-	 * @return 名称，为空时表示读取不到
-	 */
-	protected String loadName(CharReader reader) {
-		switch (reader.current()) {
-			case '[':
-				return reader.readInQuote('[', ']');
-			case '"':
-				return reader.readInQuote('"', '"');
-			default:
-				return reader.readNotIn(spaceFn);
-		}
+	@Override
+	protected SqlDialect dialect() {
+		return SqlDialect.MSSQL;
 	}
 }
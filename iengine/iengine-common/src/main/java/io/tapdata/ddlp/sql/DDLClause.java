@@ -0,0 +1,92 @@
+package io.tapdata.ddlp.sql;
+
+import io.tapdata.ddlp.exception.DDLParseException;
+
+/**
+ * DDL 子句, 一条 ALTER TABLE 可以包含多个子句
+ */
+public final class DDLClause {
+
+	public enum Action {
+		ADD_COLUMN,
+		DROP_COLUMN,
+		/**
+		 * 修改列定义: ALTER COLUMN, MODIFY
+		 */
+		ALTER_COLUMN,
+		/**
+		 * 修改列名和定义: CHANGE old new definition
+		 */
+		CHANGE_COLUMN,
+		RENAME_COLUMN,
+		RENAME_TABLE,
+		/**
+		 * 设置默认值: ADD DEFAULT value FOR column, ALTER column SET DEFAULT value
+		 */
+		ADD_DEFAULT,
+		UNSUPPORTED,
+	}
+
+	private final Action action;
+	private final String name;
+	private final String newName;
+	private final String definition;
+	private final int pos;
+	private final DDLParseException error;
+
+	private DDLClause(Action action, String name, String newName, String definition, int pos, DDLParseException error) {
+		this.action = action;
+		this.name = name;
+		this.newName = newName;
+		this.definition = definition;
+		this.pos = pos;
+		this.error = error;
+	}
+
+	public static DDLClause of(Action action, String name, String newName, String definition, int pos) {
+		return new DDLClause(action, name, newName, definition, pos, null);
+	}
+
+	public static DDLClause unsupported(DDLParseException error) {
+		return new DDLClause(Action.UNSUPPORTED, null, null, null, error.getPos(), error);
+	}
+
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * @return 列名
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return 新名称 (列或表)
+	 */
+	public String getNewName() {
+		return newName;
+	}
+
+	/**
+	 * @return 原始列定义, 默认值子句为原始默认值
+	 */
+	public String getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * @return 子句在原 SQL 中的开始下标
+	 */
+	public int getPos() {
+		return pos;
+	}
+
+	/**
+	 * @return 未支持原因, 包含出错位置
+	 */
+	public DDLParseException getError() {
+		return error;
+	}
+}
@@ -0,0 +1,120 @@
+package io.tapdata.ddlp.sql;
+
+import io.tapdata.pdk.core.utils.CommonUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DDL 解析结果缓存 (LRU), CDC 中同一条 DDL 会被多个任务、多次重试重复解析
+ */
+public class DDLParseCache {
+	public static final String PROP_CACHE_SIZE = "DDL_PARSE_CACHE_SIZE";
+	public static final int DEFAULT_CACHE_SIZE = 256;
+	public static final String PROP_CACHE_CHARS = "DDL_PARSE_CACHE_CHARS";
+	/**
+	 * 缓存中语句的总字符数上限, 解析结果保留了列定义原文, 占用与语句长度相当
+	 */
+	public static final long DEFAULT_CACHE_CHARS = 2L * 1024 * 1024;
+	/**
+	 * 超长语句不缓存, 这类语句很少重复出现
+	 */
+	public static final int MAX_CACHE_SQL_LENGTH = 64 * 1024;
+
+	private final int capacity;
+	private final long maxChars;
+	private final Map<Key, DDLStatement> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private long cachedChars;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public DDLParseCache() {
+		this(CommonUtils.getPropertyInt(PROP_CACHE_SIZE, DEFAULT_CACHE_SIZE), CommonUtils.getPropertyLong(PROP_CACHE_CHARS, DEFAULT_CACHE_CHARS));
+	}
+
+	public DDLParseCache(int capacity) {
+		this(capacity, DEFAULT_CACHE_CHARS);
+	}
+
+	public DDLParseCache(int capacity, long maxChars) {
+		this.capacity = capacity;
+		this.maxChars = maxChars;
+	}
+
+	public DDLStatement get(SqlDialect dialect, String sql) {
+		if (capacity <= 0) return null;
+		DDLStatement statement;
+		synchronized (cache) {
+			statement = cache.get(new Key(dialect, sql));
+		}
+		(null == statement ? misses : hits).incrementAndGet();
+		return statement;
+	}
+
+	public void put(SqlDialect dialect, String sql, DDLStatement statement) {
+		if (capacity <= 0 || sql.length() > MAX_CACHE_SQL_LENGTH || sql.length() > maxChars) return;
+		synchronized (cache) {
+			if (null == cache.put(new Key(dialect, sql), statement)) {
+				cachedChars += sql.length();
+			}
+			// 按最久未使用的顺序淘汰, 直到条数和总字符数都不超限
+			Iterator<Key> iterator = cache.keySet().iterator();
+			while ((cache.size() > capacity || cachedChars > maxChars) && iterator.hasNext()) {
+				cachedChars -= iterator.next().sql.length();
+				iterator.remove();
+			}
+		}
+	}
+
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	public long getCachedChars() {
+		synchronized (cache) {
+			return cachedChars;
+		}
+	}
+
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			cachedChars = 0;
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private static final class Key {
+		private final SqlDialect dialect;
+		private final String sql;
+
+		private Key(SqlDialect dialect, String sql) {
+			this.dialect = dialect;
+			this.sql = sql;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key key = (Key) o;
+			return dialect == key.dialect && sql.equals(key.sql);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * sql.hashCode() + dialect.ordinal();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package io.tapdata.ddlp.sql;
+
+import io.tapdata.ddlp.exception.DDLParseException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DDL 解析结果, 与具体事件模型无关, 创建后不可修改, 可以被缓存和共享
+ */
+public final class DDLStatement {
+
+	public enum Type {
+		ALTER_TABLE,
+		CREATE_TABLE,
+		DROP_TABLE,
+		RENAME_TABLE,
+		UNSUPPORTED,
+	}
+
+	private final Type type;
+	private final List<String> namespace;
+	private final List<DDLClause> clauses;
+	private final DDLParseException error;
+
+	private DDLStatement(Type type, List<String> namespace, List<DDLClause> clauses, DDLParseException error) {
+		this.type = type;
+		this.namespace = Collections.unmodifiableList(namespace);
+		this.clauses = Collections.unmodifiableList(clauses);
+		this.error = error;
+	}
+
+	static DDLStatement of(Type type, List<String> namespace, List<DDLClause> clauses) {
+		return new DDLStatement(type, namespace, clauses, null);
+	}
+
+	static DDLStatement error(DDLParseException error) {
+		return new DDLStatement(Type.UNSUPPORTED, Collections.emptyList(), Collections.emptyList(), error);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return 表名, 包含库名、模式名
+	 */
+	public List<String> getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * @return 子句; CREATE TABLE 时为列定义
+	 */
+	public List<DDLClause> getClauses() {
+		return clauses;
+	}
+
+	/**
+	 * @return 语句无法解析时的异常, 包含出错位置
+	 */
+	public DDLParseException getError() {
+		return error;
+	}
+
+	public boolean isUnsupported() {
+		return type == Type.UNSUPPORTED;
+	}
+}
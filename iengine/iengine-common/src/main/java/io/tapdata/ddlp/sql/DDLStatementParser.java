@@ -0,0 +1,379 @@
+package io.tapdata.ddlp.sql;
+
+import io.tapdata.ddlp.exception.DDLParseException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DDL 解析, 在分词结果上按语法递归下降, 各方言共用
+ * <ol>
+ *   <li>ALTER TABLE: ADD/DROP/ALTER/MODIFY/CHANGE/RENAME 子句, 支持逗号分隔的多个子句</li>
+ *   <li>CREATE TABLE: 列定义</li>
+ *   <li>DROP TABLE, RENAME TABLE</li>
+ * </ol>
+ * 无法识别的子句输出为 {@link DDLClause.Action#UNSUPPORTED}, 不影响同一语句中的其它子句
+ */
+public class DDLStatementParser {
+
+	private static final DDLParseCache CACHE = new DDLParseCache();
+	private static final Set<String> CONSTRAINT_WORDS = new HashSet<>(Arrays.asList(
+			"CONSTRAINT", "PRIMARY", "UNIQUE", "INDEX", "KEY", "FOREIGN", "FULLTEXT", "SPATIAL", "CHECK", "PARTITION", "PERIOD"
+	));
+	private static final Set<String> TABLE_OPTION_WORDS = new HashSet<>(Arrays.asList(
+			"ALGORITHM", "LOCK", "ENGINE", "COMMENT", "AUTO_INCREMENT", "CHARSET", "CHARACTER", "COLLATE", "ROW_FORMAT", "FORCE"
+	));
+	private static final Set<String> CLAUSE_WORDS = new HashSet<>(Arrays.asList(
+			"ADD", "DROP", "ALTER", "MODIFY", "CHANGE", "RENAME"
+	));
+
+	private final String sql;
+	private final List<SqlToken> tokens;
+	private final int end;
+	private int i;
+
+	private DDLStatementParser(String sql, List<SqlToken> tokens) {
+		this.sql = sql;
+		this.tokens = tokens;
+		int e = tokens.size();
+		while (e > 0 && tokens.get(e - 1).isSymbol(';')) e--;
+		this.end = e;
+	}
+
+	/**
+	 * 解析 DDL, 相同语句直接返回缓存结果
+	 *
+	 * @param sql     DDL
+	 * @param dialect 方言
+	 * @return 解析结果, 无法解析时 {@link DDLStatement#getError()} 不为空
+	 */
+	public static DDLStatement parse(String sql, SqlDialect dialect) {
+		DDLStatement statement = CACHE.get(dialect, sql);
+		if (null == statement) {
+			statement = parseNoCache(sql, dialect);
+			CACHE.put(dialect, sql, statement);
+		}
+		return statement;
+	}
+
+	public static DDLStatement parseNoCache(String sql, SqlDialect dialect) {
+		try {
+			return new DDLStatementParser(sql, SqlTokenizer.tokenize(sql, dialect)).statement();
+		} catch (DDLParseException e) {
+			return DDLStatement.error(e);
+		}
+	}
+
+	public static DDLParseCache cache() {
+		return CACHE;
+	}
+
+	private DDLStatement statement() {
+		if (end == 0) throw error("DDL is empty");
+		for (int j = 0; j < end; j++) {
+			if (tokens.get(j).isSymbol(';')) throw error("Multiple statements", tokens.get(j).begin());
+		}
+
+		List<DDLClause> clauses = new ArrayList<>();
+		if (accept("alter")) {
+			acceptAny("online", "offline", "ignore");
+			expect("table");
+			acceptIfExists();
+			accept("only");
+			List<String> namespace = namespace();
+			alterClauses(clauses);
+			return DDLStatement.of(DDLStatement.Type.ALTER_TABLE, namespace, clauses);
+		} else if (accept("create")) {
+			acceptAny("temporary", "global", "local");
+			expect("table");
+			if (accept("if")) {
+				expect("not");
+				expect("exists");
+			}
+			List<String> namespace = namespace();
+			if (null != peek() && peek().isSymbol('(')) {
+				columnDefinitions(clauses);
+			}
+			return DDLStatement.of(DDLStatement.Type.CREATE_TABLE, namespace, clauses);
+		} else if (accept("drop")) {
+			accept("temporary");
+			expect("table");
+			acceptIfExists();
+			List<String> namespace = namespace();
+			if (null != peek() && peek().isSymbol(',')) throw error("Temporary unsupported drop multiple tables");
+			return DDLStatement.of(DDLStatement.Type.DROP_TABLE, namespace, clauses);
+		} else if (accept("rename")) {
+			expect("table");
+			List<String> namespace = namespace();
+			int pos = peekPos();
+			expect("to");
+			List<String> rename = namespace();
+			if (null != peek()) throw error("Temporary unsupported rename multiple tables");
+			clauses.add(DDLClause.of(DDLClause.Action.RENAME_TABLE, null, last(rename), null, pos));
+			return DDLStatement.of(DDLStatement.Type.RENAME_TABLE, namespace, clauses);
+		}
+		throw error("Unsupported ddl operator");
+	}
+
+	private void alterClauses(List<DDLClause> clauses) {
+		if (i >= end) throw error("Not found alter table clause");
+		DDLClause.Action prev = null;
+		while (i < end) {
+			int stop = clauseEnd(i);
+			if (i >= stop) throw error("Empty alter table clause");
+			try {
+				prev = alterClause(stop, prev, clauses);
+			} catch (DDLParseException e) {
+				clauses.add(DDLClause.unsupported(e));
+				prev = DDLClause.Action.UNSUPPORTED;
+			}
+			i = stop + 1;
+			if (stop + 1 == end) throw error("Empty alter table clause", tokens.get(stop).begin());
+		}
+	}
+
+	/**
+	 * 解析单个子句
+	 *
+	 * @param stop    子句结束 (逗号或语句结束) 的下标
+	 * @param prev    上一个子句的类型, SQL Server 允许 ADD a int, b int 的写法
+	 * @param clauses 输出
+	 * @return 子句类型, 表选项返回 null
+	 */
+	private DDLClause.Action alterClause(int stop, DDLClause.Action prev, List<DDLClause> clauses) {
+		int pos = peekPos();
+		SqlToken first = tokens.get(i);
+		if (isTableOption(first, stop)) {
+			return null;
+		}
+		if (accept("add")) {
+			boolean column = accept("column");
+			if (peek(stop).isSymbol('(')) {
+				columnDefinitions(clauses);
+				checkStop(stop);
+				return DDLClause.Action.ADD_COLUMN;
+			}
+			if (!column && peek(stop).isWord("default")) {
+				i++;
+				int valueEnd = find("for", stop);
+				if (valueEnd < 0) throw error("Not found column name");
+				if (valueEnd == i) throw error("Not found default value");
+				String value = raw(i, valueEnd);
+				i = valueEnd + 1;
+				String name = name(stop);
+				checkStop(stop);
+				clauses.add(DDLClause.of(DDLClause.Action.ADD_DEFAULT, name, null, value, pos));
+				return DDLClause.Action.ADD_DEFAULT;
+			}
+			if (!column && isConstraint(peek(stop))) {
+				throw error("Temporary unsupported constraint ddl", pos);
+			}
+			clauses.add(columnDefinition(stop, pos));
+			return DDLClause.Action.ADD_COLUMN;
+		} else if (accept("drop")) {
+			boolean column = accept("column");
+			if (!column && (isConstraint(peek(stop)) || peek(stop).isWord("default"))) {
+				throw error("Temporary unsupported constraint ddl", pos);
+			}
+			acceptIfExists();
+			clauses.add(DDLClause.of(DDLClause.Action.DROP_COLUMN, name(stop), null, null, pos));
+			return DDLClause.Action.DROP_COLUMN;
+		} else if (accept("alter")) {
+			boolean column = accept("column");
+			if (!column && isConstraint(peek(stop))) {
+				throw error("Temporary unsupported constraint ddl", pos);
+			}
+			String name = name(stop);
+			if (accept("set")) {
+				expect("default");
+				clauses.add(DDLClause.of(DDLClause.Action.ADD_DEFAULT, name, null, definition(stop), pos));
+				return DDLClause.Action.ADD_DEFAULT;
+			}
+			if (peek(stop).isWord("drop")) throw error("Temporary unsupported drop default");
+			accept("type");
+			clauses.add(DDLClause.of(DDLClause.Action.ALTER_COLUMN, name, null, definition(stop), pos));
+			return DDLClause.Action.ALTER_COLUMN;
+		} else if (accept("modify")) {
+			accept("column");
+			String name = name(stop);
+			clauses.add(DDLClause.of(DDLClause.Action.ALTER_COLUMN, name, null, definition(stop), pos));
+			return DDLClause.Action.ALTER_COLUMN;
+		} else if (accept("change")) {
+			accept("column");
+			String name = name(stop);
+			String newName = name(stop);
+			clauses.add(DDLClause.of(DDLClause.Action.CHANGE_COLUMN, name, newName, definition(stop), pos));
+			return DDLClause.Action.CHANGE_COLUMN;
+		} else if (accept("rename")) {
+			if (acceptAny("to", "as")) {
+				clauses.add(DDLClause.of(DDLClause.Action.RENAME_TABLE, null, last(namespace()), null, pos));
+				checkStop(stop);
+				return DDLClause.Action.RENAME_TABLE;
+			}
+			if (peek(stop).isWord("index") || peek(stop).isWord("key") || peek(stop).isWord("constraint")) {
+				throw error("Temporary unsupported rename index");
+			}
+			boolean column = accept("column");
+			List<String> names = namespace();
+			if (column || null != peek() && peek().isWord("to")) {
+				expect("to");
+				if (names.size() > 1) throw error("Illegal column name", pos);
+				clauses.add(DDLClause.of(DDLClause.Action.RENAME_COLUMN, names.get(0), name(stop), null, pos));
+				checkStop(stop);
+				return DDLClause.Action.RENAME_COLUMN;
+			}
+			// MySQL: RENAME new_tbl_name
+			clauses.add(DDLClause.of(DDLClause.Action.RENAME_TABLE, null, last(names), null, pos));
+			checkStop(stop);
+			return DDLClause.Action.RENAME_TABLE;
+		} else if (first.isName() && !(first.type() == SqlToken.Type.WORD && CLAUSE_WORDS.contains(first.value().toUpperCase()))) {
+			if (prev == DDLClause.Action.ADD_COLUMN) {
+				clauses.add(columnDefinition(stop, pos));
+				return prev;
+			} else if (prev == DDLClause.Action.DROP_COLUMN) {
+				clauses.add(DDLClause.of(DDLClause.Action.DROP_COLUMN, name(stop), null, null, pos));
+				return prev;
+			}
+		}
+		throw error("Unsupported alter table clause", pos);
+	}
+
+	/**
+	 * 括号包裹的列定义列表, 约束和索引定义跳过
+	 */
+	private void columnDefinitions(List<DDLClause> clauses) {
+		SqlToken open = tokens.get(i);
+		int close = i + 1;
+		while (close < end && !(tokens.get(close).isSymbol(')') && tokens.get(close).depth() == open.depth())) close++;
+		if (close >= end) throw error("Not found end of column definitions", open.begin());
+		int innerDepth = open.depth() + 1;
+		i++;
+		while (i < close) {
+			int stop = i;
+			while (stop < close && !(tokens.get(stop).isSymbol(',') && tokens.get(stop).depth() == innerDepth)) stop++;
+			if (i >= stop) throw error("Empty column definition");
+			SqlToken first = tokens.get(i);
+			if (!isConstraint(first) && !first.isWord("like")) {
+				clauses.add(columnDefinition(stop, first.begin()));
+			}
+			i = stop + 1;
+		}
+		i = close + 1;
+	}
+
+	private DDLClause columnDefinition(int stop, int pos) {
+		String name = name(stop);
+		return DDLClause.of(DDLClause.Action.ADD_COLUMN, name, null, definition(stop), pos);
+	}
+
+	/**
+	 * 读取到子句结束的原始内容, 保留原始格式
+	 */
+	private String definition(int stop) {
+		if (i >= stop) throw error("Not found column definition");
+		String def = raw(i, stop);
+		i = stop;
+		return def;
+	}
+
+	private boolean isTableOption(SqlToken first, int stop) {
+		if (first.type() != SqlToken.Type.WORD) return false;
+		if (TABLE_OPTION_WORDS.contains(first.value().toUpperCase())) return true;
+		// DEFAULT CHARSET = xxx
+		return i + 1 < stop && (tokens.get(i + 1).isSymbol('=')
+				|| first.isWord("default") && TABLE_OPTION_WORDS.contains(tokens.get(i + 1).value().toUpperCase()));
+	}
+
+	private boolean isConstraint(SqlToken token) {
+		return token.type() == SqlToken.Type.WORD && CONSTRAINT_WORDS.contains(token.value().toUpperCase());
+	}
+
+	private List<String> namespace() {
+		List<String> names = new ArrayList<>(3);
+		names.add(name(end));
+		while (i < end && tokens.get(i).isSymbol('.')) {
+			i++;
+			names.add(name(end));
+		}
+		return names;
+	}
+
+	private String name(int stop) {
+		SqlToken token = peek(stop);
+		if (!token.isName()) throw error("Illegal name");
+		i++;
+		return token.value();
+	}
+
+	private static String last(List<String> names) {
+		return names.get(names.size() - 1);
+	}
+
+	private int clauseEnd(int from) {
+		int j = from;
+		while (j < end && !(tokens.get(j).isSymbol(',') && tokens.get(j).depth() == 0)) j++;
+		return j;
+	}
+
+	private int find(String word, int stop) {
+		for (int j = i; j < stop; j++) {
+			if (tokens.get(j).isWord(word) && tokens.get(j).depth() == tokens.get(i).depth()) return j;
+		}
+		return -1;
+	}
+
+	private String raw(int from, int to) {
+		return sql.substring(tokens.get(from).begin(), tokens.get(to - 1).end());
+	}
+
+	private SqlToken peek() {
+		return i < end ? tokens.get(i) : null;
+	}
+
+	private SqlToken peek(int stop) {
+		if (i >= stop) throw error("Unexpected end");
+		return tokens.get(i);
+	}
+
+	private int peekPos() {
+		return i < end ? tokens.get(i).begin() : sql.length();
+	}
+
+	private boolean accept(String word) {
+		if (i < end && tokens.get(i).isWord(word)) {
+			i++;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean acceptAny(String... words) {
+		for (String word : words) {
+			if (accept(word)) return true;
+		}
+		return false;
+	}
+
+	private void acceptIfExists() {
+		if (accept("if")) expect("exists");
+	}
+
+	private void expect(String word) {
+		if (!accept(word)) throw error("Expected '" + word + "'");
+	}
+
+	private void checkStop(int stop) {
+		if (i < stop) throw error("Unexpected token");
+	}
+
+	private DDLParseException error(String msg) {
+		return error(msg, peekPos());
+	}
+
+	private DDLParseException error(String msg, int pos) {
+		return new DDLParseException(msg, sql, pos);
+	}
+}
@@ -0,0 +1,54 @@
+package io.tapdata.ddlp.sql;
+
+/**
+ * SQL 方言, 只描述分词需要的差异
+ */
+public enum SqlDialect {
+	/**
+	 * 名称: `name`, 双引号为字符串, 支持反斜杠转义和 # 注释
+	 */
+	MYSQL('`', '`', false, true, true),
+	/**
+	 * 名称: [name] 或 "name"
+	 */
+	MSSQL('[', ']', true, false, false),
+	/**
+	 * 标准 SQL, 名称: "name"
+	 */
+	STANDARD('"', '"', true, false, false),
+	;
+
+	private final char nameBegin;
+	private final char nameEnd;
+	private final boolean doubleQuoteName;
+	private final boolean backslashEscape;
+	private final boolean hashComment;
+
+	SqlDialect(char nameBegin, char nameEnd, boolean doubleQuoteName, boolean backslashEscape, boolean hashComment) {
+		this.nameBegin = nameBegin;
+		this.nameEnd = nameEnd;
+		this.doubleQuoteName = doubleQuoteName;
+		this.backslashEscape = backslashEscape;
+		this.hashComment = hashComment;
+	}
+
+	public char nameBegin() {
+		return nameBegin;
+	}
+
+	public char nameEnd() {
+		return nameEnd;
+	}
+
+	public boolean doubleQuoteName() {
+		return doubleQuoteName;
+	}
+
+	public boolean backslashEscape() {
+		return backslashEscape;
+	}
+
+	public boolean hashComment() {
+		return hashComment;
+	}
+}
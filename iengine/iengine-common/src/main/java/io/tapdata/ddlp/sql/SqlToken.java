@@ -0,0 +1,89 @@
+package io.tapdata.ddlp.sql;
+
+/**
+ * SQL 词法单元
+ */
+public final class SqlToken {
+
+	public enum Type {
+		/**
+		 * 关键字、未加引号的名称、数字等
+		 */
+		WORD,
+		/**
+		 * 加引号的名称, value 为去掉引号和转义后的内容
+		 */
+		NAME,
+		/**
+		 * 字符串, value 为去掉引号和转义后的内容
+		 */
+		STRING,
+		/**
+		 * 单字符符号: ( ) , ; . =
+		 */
+		SYMBOL,
+	}
+
+	private final Type type;
+	private final String value;
+	private final int begin;
+	private final int end;
+	private final int depth;
+
+	SqlToken(Type type, String value, int begin, int end, int depth) {
+		this.type = type;
+		this.value = value;
+		this.begin = begin;
+		this.end = end;
+		this.depth = depth;
+	}
+
+	public Type type() {
+		return type;
+	}
+
+	public String value() {
+		return value;
+	}
+
+	/**
+	 * @return 在原 SQL 中的开始下标
+	 */
+	public int begin() {
+		return begin;
+	}
+
+	/**
+	 * @return 在原 SQL 中的结束下标 (不包含)
+	 */
+	public int end() {
+		return end;
+	}
+
+	/**
+	 * @return 所在括号层级, 括号本身按外层计算
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	public boolean isWord(String word) {
+		return type == Type.WORD && word.equalsIgnoreCase(value);
+	}
+
+	public boolean isSymbol(char c) {
+		return type == Type.SYMBOL && value.charAt(0) == c;
+	}
+
+	/**
+	 * @return 是否可以作为名称
+	 */
+	public boolean isName() {
+		return type == Type.WORD || type == Type.NAME;
+	}
+
+	@Override
+	public String toString() {
+		return type + "(" + value + ")@" + begin;
+	}
+}
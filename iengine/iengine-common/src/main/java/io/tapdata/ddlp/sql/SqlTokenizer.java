@@ -0,0 +1,147 @@
+package io.tapdata.ddlp.sql;
+
+import io.tapdata.ddlp.exception.DDLParseException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SQL 分词器, 单次扫描输出全部词法单元, 各方言只在引号和注释规则上有差异
+ */
+public class SqlTokenizer {
+
+	private final String sql;
+	private final SqlDialect dialect;
+	private final int length;
+	private int pos;
+	private int depth;
+	private int[] openPositions = new int[8];
+
+	private SqlTokenizer(String sql, SqlDialect dialect) {
+		this.sql = sql;
+		this.dialect = dialect;
+		this.length = sql.length();
+	}
+
+	/**
+	 * 分词
+	 *
+	 * @param sql     SQL
+	 * @param dialect 方言
+	 * @return 词法单元, 不包含空白和注释
+	 * @throws DDLParseException 引号或注释未结束
+	 */
+	public static List<SqlToken> tokenize(String sql, SqlDialect dialect) {
+		return new SqlTokenizer(sql, dialect).tokenize();
+	}
+
+	private List<SqlToken> tokenize() {
+		List<SqlToken> tokens = new ArrayList<>(Math.max(16, length / 6));
+		char c;
+		while (pos < length) {
+			c = sql.charAt(pos);
+			if (Character.isWhitespace(c)) {
+				pos++;
+			} else if (c == '-' && pos + 1 < length && sql.charAt(pos + 1) == '-' || c == '#' && dialect.hashComment()) {
+				skipLine();
+			} else if (c == '/' && pos + 1 < length && sql.charAt(pos + 1) == '*') {
+				skipBlockComment();
+			} else if (c == '\'') {
+				tokens.add(quoted(SqlToken.Type.STRING, '\'', dialect.backslashEscape()));
+			} else if (c == '"') {
+				tokens.add(dialect.doubleQuoteName()
+						? quoted(SqlToken.Type.NAME, '"', false)
+						: quoted(SqlToken.Type.STRING, '"', dialect.backslashEscape()));
+			} else if (c == dialect.nameBegin()) {
+				tokens.add(quoted(SqlToken.Type.NAME, dialect.nameEnd(), false));
+			} else if (isSymbol(c)) {
+				if (c == ')' && --depth < 0) throw new DDLParseException("Unbalanced parentheses", sql, pos);
+				tokens.add(new SqlToken(SqlToken.Type.SYMBOL, String.valueOf(c), pos, pos + 1, depth));
+				if (c == '(') open();
+				pos++;
+			} else {
+				int begin = pos;
+				while (pos < length && isWordChar(sql.charAt(pos))) pos++;
+				tokens.add(new SqlToken(SqlToken.Type.WORD, sql.substring(begin, pos), begin, pos, depth));
+			}
+		}
+		if (depth != 0) throw new DDLParseException("Not found end of parentheses", sql, openPositions[depth - 1]);
+		return tokens;
+	}
+
+	private void open() {
+		if (depth == openPositions.length) {
+			openPositions = Arrays.copyOf(openPositions, depth * 2);
+		}
+		openPositions[depth++] = pos;
+	}
+
+	private boolean isSymbol(char c) {
+		switch (c) {
+			case '(':
+			case ')':
+			case ',':
+			case ';':
+			case '.':
+			case '=':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private boolean isWordChar(char c) {
+		if (Character.isWhitespace(c) || isSymbol(c)) return false;
+		switch (c) {
+			case '\'':
+			case '"':
+				return false;
+			default:
+				return c != dialect.nameBegin();
+		}
+	}
+
+	private void skipLine() {
+		while (pos < length && sql.charAt(pos) != '\n') pos++;
+	}
+
+	private void skipBlockComment() {
+		int end = sql.indexOf("*/", pos + 2);
+		if (end < 0) throw new DDLParseException("Not found end of comment", sql, pos);
+		pos = end + 2;
+	}
+
+	/**
+	 * 读取引号包裹的内容, 连续两个结束引号视为一个引号字符
+	 */
+	private SqlToken quoted(SqlToken.Type type, char end, boolean backslashEscape) {
+		int start = pos;
+		StringBuilder sb = null;
+		int from = ++pos;
+		char c;
+		while (pos < length) {
+			c = sql.charAt(pos);
+			if (backslashEscape && c == '\\' && pos + 1 < length) {
+				if (null == sb) sb = new StringBuilder();
+				sb.append(sql, from, pos).append(sql.charAt(pos + 1));
+				pos += 2;
+				from = pos;
+			} else if (c == end) {
+				if (pos + 1 < length && sql.charAt(pos + 1) == end) {
+					if (null == sb) sb = new StringBuilder();
+					sb.append(sql, from, pos + 1);
+					pos += 2;
+					from = pos;
+				} else {
+					String value = null == sb ? sql.substring(from, pos) : sb.append(sql, from, pos).toString();
+					pos++;
+					return new SqlToken(type, value, start, pos, depth);
+				}
+			} else {
+				pos++;
+			}
+		}
+		throw new DDLParseException("Not found end quote: '" + end + "'", sql, start);
+	}
+}
@@ -178,6 +178,7 @@ public class TapTableMap<K extends String, V extends TapTable> extends HashMap<K
 
 	private CompletableFuture<Void> future = null;
 	private ExecutorService executorService = null;
+	private volatile boolean preloaded;
 	public void preLoadSchema() {
 		logListener.info(String.format("Node %s[%s] start preload schema,table counts: %d", this.nodeName, this.nodeId, tableNameAndQualifiedNameMap.size()));
 		long start = System.currentTimeMillis();
@@ -219,12 +220,20 @@ public class TapTableMap<K extends String, V extends TapTable> extends HashMap<K
 			}
 		}
 		if (index == tableNames.size()){
+			preloaded = true;
 			long end = System.currentTimeMillis();
 			logListener.info(String.format("Node %s[%s] preload schema finished, cost %d ms", this.nodeName, this.nodeId, end-start));
 		}
 		return index;
 	}
 
+	/**
+	 * 预加载是否已经完成, 完成后读取已知表的结构不会再请求 TM
+	 */
+	public boolean isPreloaded() {
+		return preloaded;
+	}
+
 	public void doClose() {
 		//停止预加载线程
 		//未执行完
@@ -465,6 +474,7 @@ public class TapTableMap<K extends String, V extends TapTable> extends HashMap<K
 	}
 
 	public void reset() {
+		preloaded = false;
 		resetTapTable();
 		this.tableNameAndQualifiedNameMap.clear();
 		doClose();
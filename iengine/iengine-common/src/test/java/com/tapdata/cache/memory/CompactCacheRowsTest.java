@@ -0,0 +1,215 @@
+package com.tapdata.cache.memory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompactCacheRows Class Test")
+class CompactCacheRowsTest {
+
+	private static Map<String, Object> row(Object id, Object name) {
+		Map<String, Object> row = new HashMap<>();
+		row.put("id", id);
+		row.put("name", name);
+		return row;
+	}
+
+	@Nested
+	@DisplayName("Put and get test")
+	class PutGetTest {
+		@ParameterizedTest
+		@ValueSource(booleans = {false, true})
+		void testRoundTrip(boolean offHeap) {
+			CompactCacheRows rows = new CompactCacheRows(offHeap);
+			try {
+				Map<String, Object> row = row(1, "a");
+				row.put("long", Long.MAX_VALUE);
+				row.put("negative", -12);
+				row.put("short", (short) -3);
+				row.put("byte", (byte) 7);
+				row.put("double", 1.5D);
+				row.put("float", 2.5F);
+				row.put("bool", true);
+				row.put("decimal", new BigDecimal("-123.4500"));
+				row.put("date", new Date(1700000000000L));
+				row.put("bytes", new byte[]{1, 2, 3});
+				row.put("null", null);
+				assertTrue(rows.put("k1-", "1-", row));
+
+				Map<String, Object> result = rows.getFirst("k1-");
+				assertArrayEquals((byte[]) row.remove("bytes"), (byte[]) result.remove("bytes"));
+				assertEquals(row, result);
+				assertInstanceOf(Short.class, result.get("short"));
+				assertInstanceOf(Byte.class, result.get("byte"));
+				assertNotSame(rows.getFirst("k1-"), rows.getFirst("k1-"));
+				assertNull(rows.getFirst("k2-"));
+				assertTrue(rows.get("k2-").isEmpty());
+			} finally {
+				rows.close();
+			}
+		}
+
+		@Test
+		@DisplayName("Rows of one cache key, overwritten by primary key")
+		void testMultiRows() {
+			CompactCacheRows rows = new CompactCacheRows(false);
+			assertTrue(rows.put("k1-", "1-", row(1, "a")));
+			assertTrue(rows.put("k1-", "2-", row(2, "b")));
+			assertFalse(rows.put("k1-", "1-", row(1, "c")));
+
+			List<Map<String, Object>> result = rows.get("k1-");
+			assertEquals(2, result.size());
+			assertEquals(row(1, "c"), result.get(0));
+			assertEquals(row(2, "b"), result.get(1));
+			assertEquals(2, rows.getRowCount());
+			assertEquals(1, rows.getKeyCount());
+			assertEquals(2, rows.getFieldCount());
+		}
+
+		@Test
+		@DisplayName("Many keys with resize")
+		void testManyKeys() {
+			CompactCacheRows rows = new CompactCacheRows(false);
+			for (int i = 0; i < 10000; i++) {
+				rows.put("k" + i + "-", i + "-", row(i, "n" + i));
+			}
+			for (int i = 0; i < 10000; i += 2) {
+				assertTrue(rows.remove("k" + i + "-", i + "-"));
+			}
+			for (int i = 0; i < 10000; i++) {
+				Map<String, Object> result = rows.getFirst("k" + i + "-");
+				if (i % 2 == 0) {
+					assertNull(result);
+				} else {
+					assertEquals(row(i, "n" + i), result);
+				}
+			}
+			assertEquals(5000, rows.getRowCount());
+			assertEquals(5000, rows.getKeyCount());
+		}
+
+		@Test
+		@DisplayName("Many rows of one cache key, overwritten in place")
+		void testManyRowsOfOneKey() {
+			CompactCacheRows rows = new CompactCacheRows(false);
+			for (int i = 0; i < 10000; i++) {
+				assertTrue(rows.put("k1-", i + "-", row(i, "n" + i)));
+			}
+			assertFalse(rows.put("k1-", "5000-", row(5000, "a longer name than before")));
+			assertFalse(rows.put("k1-", "0-", row(0, "")));
+
+			List<Map<String, Object>> result = rows.get("k1-");
+			assertEquals(10000, result.size());
+			assertEquals(row(0, ""), result.get(0));
+			assertEquals(row(5000, "a longer name than before"), result.get(5000));
+			assertEquals(row(9999, "n9999"), result.get(9999));
+			assertEquals(10000, rows.getRowCount());
+		}
+	}
+
+	@Test
+	@DisplayName("Rows of one cache key are appended into spare capacity")
+	void testAppendInPlace() {
+		CompactCacheRows rows = new CompactCacheRows(false);
+		CompactRowIndex index = (CompactRowIndex) ReflectionTestUtils.getField(rows, "index");
+		byte[] key = "k1-".getBytes(StandardCharsets.UTF_8);
+		int reallocations = 0;
+		byte[] last = null;
+		for (int i = 0; i < 10000; i++) {
+			rows.put("k1-", i + "-", row(i, "n" + i));
+			byte[] block = index.get(key);
+			if (block != last) {
+				reallocations++;
+				last = block;
+			}
+		}
+		assertTrue(reallocations < 40, "reallocations: " + reallocations);
+		assertEquals(10000, rows.get("k1-").size());
+
+		for (int i = 0; i < 9990; i++) {
+			assertTrue(rows.remove("k1-", i + "-"));
+		}
+		assertNotSame(last, index.get(key));
+		assertEquals(row(9995, "n9995"), rows.get("k1-").get(5));
+	}
+
+	@Nested
+	@DisplayName("Remove and evict test")
+	class RemoveTest {
+		@Test
+		void testRemoveByPk() {
+			CompactCacheRows rows = new CompactCacheRows(false);
+			rows.put("k1-", "1-", row(1, "a"));
+			rows.put("k1-", "2-", row(2, "b"));
+			assertTrue(rows.removeByPk("1-"));
+			assertFalse(rows.removeByPk("1-"));
+			assertEquals(1, rows.get("k1-").size());
+			assertTrue(rows.remove("k1-", "2-"));
+			assertEquals(0, rows.getKeyCount());
+			assertEquals(0, rows.getRowCount());
+		}
+
+		@Test
+		@DisplayName("Primary key of an evicted block can be put again")
+		void testPutAfterEvict() {
+			CompactCacheRows rows = new CompactCacheRows(false);
+			rows.put("k1-", "1-", row(1, "a"));
+			rows.put("k2-", "2-", row(2, "b"));
+			assertEquals(1, rows.evict(1, 0));
+			assertEquals(1, rows.getRowCount());
+
+			String evictedKey = null == rows.getFirst("k1-") ? "k1-" : "k2-";
+			String evictedPk = "k1-".equals(evictedKey) ? "1-" : "2-";
+			assertFalse(rows.removeByPk(evictedPk));
+			assertTrue(rows.put(evictedKey, evictedPk, row(3, "c")));
+			assertEquals(row(3, "c"), rows.getFirst(evictedKey));
+			assertTrue(rows.removeByPk(evictedPk));
+			assertEquals(1, rows.getRowCount());
+		}
+
+		@ParameterizedTest
+		@ValueSource(booleans = {false, true})
+		void testEvict(boolean offHeap) {
+			CompactCacheRows rows = new CompactCacheRows(offHeap);
+			try {
+				for (int i = 0; i < 100; i++) {
+					rows.put("k" + i + "-", i + "-", row(i, "n" + i));
+				}
+				assertEquals(10, rows.evict(90, 0));
+				assertEquals(90, rows.getRowCount());
+
+				long footprint = rows.getFootprint();
+				assertTrue(rows.evict(0, footprint / 2) > 0);
+				assertTrue(rows.getFootprint() <= footprint / 2);
+				assertEquals(rows.getKeyCount(), rows.getRowCount());
+			} finally {
+				rows.close();
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Footprint follows the data")
+	void testFootprint() {
+		CompactCacheRows rows = new CompactCacheRows(false);
+		long empty = rows.getFootprint();
+		rows.put("k1-", "1-", row(1, "a"));
+		long one = rows.getFootprint();
+		assertTrue(one > empty);
+		rows.clear();
+		assertEquals(0, rows.getRowCount());
+		assertTrue(rows.getFootprint() < one);
+	}
+}
@@ -0,0 +1,139 @@
+package com.tapdata.processor.dataflow.aggregation.incr.cache.impl;
+
+import com.tapdata.constant.TapdataOffset;
+import com.tapdata.processor.dataflow.aggregation.incr.func.FuncCacheKey;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.AvgBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.BucketValue;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.CountBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.MaxBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.MinBucket;
+import com.tapdata.processor.dataflow.aggregation.incr.service.model.SumBucket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBucketCacheTest {
+
+	private static FuncCacheKey key(String processName, Object group) {
+		Map<String, Object> groupByMap = new LinkedHashMap<>();
+		groupByMap.put("group", group);
+		return new FuncCacheKey(processName, groupByMap);
+	}
+
+	@Nested
+	class MemoryTest {
+		private final OffHeapBucketCache cache = new OffHeapBucketCache(16 * 1024 * 1024, null);
+
+		@AfterEach
+		void afterEach() {
+			cache.close();
+		}
+
+		@Test
+		void testPutAndGet() {
+			cache.put(key("count", "a"), new CountBucket.Value(3));
+			cache.put(key("sum", "a"), new SumBucket.Value(new BigDecimal("12.50"), 2));
+			cache.put(key("min", 1), new MinBucket.Value(1.5D, 4, "id-1"));
+			cache.put(key("max", 1L), new MaxBucket.Value(9, 4, 7L));
+			cache.put(key("avg", null), new AvgBucket.Value(2.5F, 5L, 2));
+
+			assertEquals(3, ((CountBucket.Value) cache.get(key("count", "a"))).getCount());
+			SumBucket.Value sum = (SumBucket.Value) cache.get(key("sum", "a"));
+			assertEquals(new BigDecimal("12.50"), sum.getValue());
+			assertEquals(2, sum.getCount());
+			MinBucket.Value min = (MinBucket.Value) cache.get(key("min", 1));
+			assertEquals(1.5D, min.getValue());
+			assertEquals("id-1", min.getMinId());
+			MaxBucket.Value max = (MaxBucket.Value) cache.get(key("max", 1L));
+			assertEquals(9, max.getValue());
+			assertEquals(7L, max.getMaxId());
+			AvgBucket.Value avg = (AvgBucket.Value) cache.get(key("avg", null));
+			assertEquals(2.5F, avg.getValue());
+			assertEquals(5L, avg.getSum());
+			assertEquals(2, avg.getCount());
+		}
+
+		@Test
+		void testKeyTypeMatters() {
+			cache.put(key("count", 1), new CountBucket.Value(1));
+			assertNull(cache.get(key("count", 1L)));
+			assertNull(cache.get(key("other", 1)));
+		}
+
+		@Test
+		void testInvalid() {
+			cache.put(key("count", "a"), new CountBucket.Value(1));
+			cache.put(key("count", "b"), new CountBucket.Value(2));
+			cache.invalid(key("count", "a"));
+			assertNull(cache.get(key("count", "a")));
+			assertNotNull(cache.get(key("count", "b")));
+			cache.invalidAll();
+			assertNull(cache.get(key("count", "b")));
+		}
+
+		@Test
+		void testMemoryNotRestore() {
+			cache.put(key("count", "a"), new CountBucket.Value(1));
+			cache.checkpoint(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 1L));
+			assertFalse(cache.restore(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 1L)));
+			assertNull(cache.get(key("count", "a")));
+		}
+	}
+
+	@Nested
+	class FileTest {
+		@TempDir
+		File dir;
+
+		@Test
+		void testRestoreWithSameOffset() {
+			File file = new File(dir, "buckets.db");
+			OffHeapBucketCache cache = new OffHeapBucketCache(16 * 1024 * 1024, file);
+			cache.put(key("count", "a"), new CountBucket.Value(5));
+			cache.checkpoint(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 10L));
+			cache.close();
+
+			OffHeapBucketCache reopened = new OffHeapBucketCache(16 * 1024 * 1024, file);
+			assertTrue(reopened.restore(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 10L)));
+			BucketValue value = reopened.get(key("count", "a"));
+			assertEquals(5, ((CountBucket.Value) value).getCount());
+			reopened.close();
+		}
+
+		@Test
+		void testClearWithDifferentOffset() {
+			File file = new File(dir, "buckets.db");
+			OffHeapBucketCache cache = new OffHeapBucketCache(16 * 1024 * 1024, file);
+			cache.put(key("count", "a"), new CountBucket.Value(5));
+			cache.checkpoint(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 10L));
+			cache.close();
+
+			OffHeapBucketCache reopened = new OffHeapBucketCache(16 * 1024 * 1024, file);
+			assertFalse(reopened.restore(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 5L)));
+			assertNull(reopened.get(key("count", "a")));
+			reopened.close();
+		}
+
+		@Test
+		void testClearWhenWrittenAfterCheckpoint() {
+			File file = new File(dir, "buckets.db");
+			OffHeapBucketCache cache = new OffHeapBucketCache(16 * 1024 * 1024, file);
+			cache.put(key("count", "a"), new CountBucket.Value(5));
+			cache.checkpoint(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 10L));
+			cache.put(key("count", "a"), new CountBucket.Value(6));
+			cache.close();
+
+			OffHeapBucketCache reopened = new OffHeapBucketCache(16 * 1024 * 1024, file);
+			assertFalse(reopened.restore(new TapdataOffset(TapdataOffset.SYNC_STAGE_CDC, 10L)));
+			reopened.close();
+		}
+	}
+}
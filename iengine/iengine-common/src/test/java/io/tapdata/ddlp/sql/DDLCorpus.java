@@ -0,0 +1,63 @@
+package io.tapdata.ddlp.sql;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 加载 ddl/corpus.sql 中的 DDL 样例
+ */
+class DDLCorpus {
+	private static final String CASE_PREFIX = "-- @case ";
+
+	final SqlDialect dialect;
+	final String type;
+	final String expected;
+	final String ddl;
+
+	private DDLCorpus(SqlDialect dialect, String type, String expected, String ddl) {
+		this.dialect = dialect;
+		this.type = type;
+		this.expected = expected;
+		this.ddl = ddl;
+	}
+
+	static DDLCorpus of(SqlDialect dialect, String ddl) {
+		return new DDLCorpus(dialect, null, null, ddl);
+	}
+
+	static List<DDLCorpus> load() throws IOException {
+		List<DDLCorpus> cases = new ArrayList<>();
+		try (InputStream in = DDLCorpus.class.getResourceAsStream("/ddl/corpus.sql");
+			 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String[] header = null;
+			StringBuilder ddl = new StringBuilder();
+			String line;
+			while (null != (line = reader.readLine())) {
+				if (line.startsWith(CASE_PREFIX)) {
+					add(cases, header, ddl);
+					header = line.substring(CASE_PREFIX.length()).trim().split("\\s+");
+					ddl.setLength(0);
+				} else if (null != header) {
+					ddl.append(line).append('\n');
+				}
+			}
+			add(cases, header, ddl);
+		}
+		return cases;
+	}
+
+	private static void add(List<DDLCorpus> cases, String[] header, StringBuilder ddl) {
+		if (null == header) return;
+		cases.add(new DDLCorpus(SqlDialect.valueOf(header[0]), header[1], header[2], ddl.toString().trim()));
+	}
+
+	@Override
+	public String toString() {
+		return dialect + ": " + ddl;
+	}
+}
@@ -0,0 +1,192 @@
+package io.tapdata.ddlp.sql;
+
+import io.tapdata.cdc.ddl.DdlEvent;
+import io.tapdata.cdc.ddl.events.AlterField;
+import io.tapdata.cdc.ddl.events.RenameField;
+import io.tapdata.cdc.ddl.exception.DdlParserException;
+import io.tapdata.cdc.ddl.mysql.MysqlDdlParser;
+import io.tapdata.ddlp.DDLEvent;
+import io.tapdata.ddlp.DDLOperator;
+import io.tapdata.ddlp.events.AddField;
+import io.tapdata.ddlp.events.AddFieldDefault;
+import io.tapdata.ddlp.events.UnSupported;
+import io.tapdata.ddlp.exception.DDLParseException;
+import io.tapdata.ddlp.parsers.MssqlDDLParser;
+import io.tapdata.ddlp.parsers.MysqlDDLParser;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DDLStatementParserTest {
+
+	@Test
+	void testCorpus() throws Exception {
+		List<DDLCorpus> cases = DDLCorpus.load();
+		assertFalse(cases.isEmpty());
+		for (DDLCorpus c : cases) {
+			DDLStatement statement = DDLStatementParser.parseNoCache(c.ddl, c.dialect);
+			assertEquals(c.type, statement.getType().name(), c.toString());
+			if (statement.getType() == DDLStatement.Type.UNSUPPORTED) {
+				DDLParseException error = statement.getError();
+				assertNotNull(error, c.toString());
+				assertEquals(c.expected, error.getLine() + ":" + error.getColumn(), c.toString());
+			} else {
+				String actions = statement.getClauses().stream().map(cl -> cl.getAction().name()).collect(Collectors.joining(","));
+				assertEquals(c.expected, actions.isEmpty() ? "-" : actions, c.toString());
+			}
+		}
+	}
+
+	@Nested
+	class ClauseTest {
+		@Test
+		void testDefinitionKeepsOriginalText() {
+			DDLStatement statement = DDLStatementParser.parseNoCache(
+					"ALTER TABLE `db`.`t` ADD COLUMN `c1` enum('a','b,c') DEFAULT 'a', MODIFY `c2` decimal(18, 4) NOT NULL;", SqlDialect.MYSQL);
+			assertEquals(Arrays.asList("db", "t"), statement.getNamespace());
+			DDLClause add = statement.getClauses().get(0);
+			assertEquals("c1", add.getName());
+			assertEquals("enum('a','b,c') DEFAULT 'a'", add.getDefinition());
+			DDLClause modify = statement.getClauses().get(1);
+			assertEquals("c2", modify.getName());
+			assertEquals("decimal(18, 4) NOT NULL", modify.getDefinition());
+		}
+
+		@Test
+		void testQuotedNames() {
+			DDLStatement statement = DDLStatementParser.parseNoCache("ALTER TABLE [dbo].[a]]b] ADD [c d] int", SqlDialect.MSSQL);
+			assertEquals(Arrays.asList("dbo", "a]b"), statement.getNamespace());
+			assertEquals("c d", statement.getClauses().get(0).getName());
+
+			statement = DDLStatementParser.parseNoCache("ALTER TABLE `a``b` ADD `c` int", SqlDialect.MYSQL);
+			assertEquals("a`b", statement.getNamespace().get(0));
+		}
+
+		@Test
+		void testAddDefault() {
+			DDLClause clause = DDLStatementParser.parseNoCache(
+					"alter table [t] add default '[ '' \"\" 1_23 ]' for \"name\"", SqlDialect.MSSQL).getClauses().get(0);
+			assertEquals(DDLClause.Action.ADD_DEFAULT, clause.getAction());
+			assertEquals("name", clause.getName());
+			assertEquals("'[ '' \"\" 1_23 ]'", clause.getDefinition());
+		}
+
+		@Test
+		void testUnsupportedClauseLocation() {
+			DDLStatement statement = DDLStatementParser.parseNoCache("ALTER TABLE t\n  ADD COLUMN a int,\n  ADD INDEX idx (a)", SqlDialect.MYSQL);
+			DDLClause clause = statement.getClauses().get(1);
+			assertEquals(DDLClause.Action.UNSUPPORTED, clause.getAction());
+			assertEquals(3, clause.getError().getLine());
+			assertEquals(3, clause.getError().getColumn());
+		}
+
+		@Test
+		void testWideStatements() {
+			StringBuilder create = new StringBuilder("CREATE TABLE `db`.`wide_table` (\n");
+			for (int i = 0; i < 500; i++) {
+				create.append("  `col_").append(i).append("` decimal(18,4) NOT NULL DEFAULT '0.0000' COMMENT 'column ").append(i).append(", (test)',\n");
+			}
+			create.append("  PRIMARY KEY (`col_0`)\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+			assertEquals(500, DDLStatementParser.parseNoCache(create.toString(), SqlDialect.MYSQL).getClauses().size());
+
+			StringBuilder alter = new StringBuilder("ALTER TABLE `db`.`wide_table`");
+			for (int i = 0; i < 300; i++) {
+				alter.append(i == 0 ? "\n" : ",\n").append("  ADD COLUMN `new_").append(i).append("` varchar(64) DEFAULT 'a,b' AFTER `col_").append(i).append('`');
+			}
+			assertEquals(300, DDLStatementParser.parseNoCache(alter.toString(), SqlDialect.MYSQL).getClauses().size());
+		}
+	}
+
+	@Nested
+	class CacheTest {
+		@Test
+		void testCacheHit() {
+			String ddl = "ALTER TABLE cache_test_" + System.nanoTime() + " ADD COLUMN a int";
+			DDLStatement first = DDLStatementParser.parse(ddl, SqlDialect.MYSQL);
+			long hits = DDLStatementParser.cache().getHits();
+			assertSame(first, DDLStatementParser.parse(ddl, SqlDialect.MYSQL));
+			assertEquals(hits + 1, DDLStatementParser.cache().getHits());
+			assertNotSame(first, DDLStatementParser.parse(ddl, SqlDialect.MSSQL));
+		}
+
+		@Test
+		void testEvict() {
+			DDLParseCache cache = new DDLParseCache(2);
+			DDLStatement statement = DDLStatementParser.parseNoCache("DROP TABLE a", SqlDialect.MYSQL);
+			cache.put(SqlDialect.MYSQL, "a", statement);
+			cache.put(SqlDialect.MYSQL, "b", statement);
+			cache.get(SqlDialect.MYSQL, "a");
+			cache.put(SqlDialect.MYSQL, "c", statement);
+			assertEquals(2, cache.size());
+			assertNotNull(cache.get(SqlDialect.MYSQL, "a"));
+			assertNull(cache.get(SqlDialect.MYSQL, "b"));
+		}
+
+		@Test
+		void testEvictByChars() {
+			DDLParseCache cache = new DDLParseCache(100, 10);
+			DDLStatement statement = DDLStatementParser.parseNoCache("DROP TABLE a", SqlDialect.MYSQL);
+			cache.put(SqlDialect.MYSQL, "aaaa", statement);
+			cache.put(SqlDialect.MYSQL, "bbbb", statement);
+			cache.put(SqlDialect.MYSQL, "cccc", statement);
+			assertEquals(2, cache.size());
+			assertEquals(8, cache.getCachedChars());
+			assertNull(cache.get(SqlDialect.MYSQL, "aaaa"));
+
+			cache.put(SqlDialect.MYSQL, "too long statement", statement);
+			assertNull(cache.get(SqlDialect.MYSQL, "too long statement"));
+			assertEquals(8, cache.getCachedChars());
+			cache.clear();
+			assertEquals(0, cache.getCachedChars());
+		}
+	}
+
+	@Nested
+	class FrontEndTest {
+		@Test
+		void testDDLParserEvents() {
+			List<DDLEvent> events = new MssqlDDLParser().ddl2Event("ALTER TABLE [dbo].[t] ADD [F1] varchar(255) NULL");
+			assertEquals(1, events.size());
+			AddField addField = (AddField) events.get(0);
+			assertEquals(Arrays.asList("dbo", "t"), addField.getNamespace());
+			assertEquals("F1", addField.getName());
+			assertEquals("varchar(255) NULL", addField.getType());
+
+			events = new MssqlDDLParser().ddl2Event("alter table [t] add default 0 for age");
+			assertEquals("0", ((AddFieldDefault) events.get(0)).getValue());
+		}
+
+		@Test
+		void testDDLParserUnsupported() {
+			List<DDLEvent> events = new MysqlDDLParser().ddl2Event("ALTER TABLE t\n  ADD `a int");
+			assertEquals(1, events.size());
+			UnSupported unSupported = (UnSupported) events.get(0);
+			assertEquals(DDLOperator.Unsupported, unSupported.getOp());
+			assertEquals(2, unSupported.getLine());
+			assertEquals(7, unSupported.getColumn());
+		}
+
+		@Test
+		void testDdlParserEvents() {
+			List<DdlEvent> events = new ArrayList<>();
+			MysqlDdlParser.ins().parseDDL("ALTER TABLE `t` CHANGE `a` `b` int NOT NULL", events::add);
+			assertEquals(2, events.size());
+			assertEquals("b", ((RenameField) events.get(0)).getRename());
+			assertEquals("int NOT NULL", ((AlterField) events.get(1)).getType());
+		}
+
+		@Test
+		void testDdlParserException() {
+			DdlParserException e = assertThrows(DdlParserException.class, () -> MysqlDdlParser.ins().parseDDL("TRUNCATE TABLE t", event -> {
+			}));
+			assertEquals(1, e.getLine());
+			assertEquals(1, e.getColumn());
+		}
+	}
+}
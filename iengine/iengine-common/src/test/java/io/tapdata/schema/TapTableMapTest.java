@@ -21,7 +21,9 @@ import java.util.concurrent.*;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class TapTableMapTest {
@@ -137,6 +139,9 @@ public class TapTableMapTest {
             doReturn(mock(TapTable.class)).when(tapTableMap).findSchema(anyString());
             tapTableMap.preLoadSchema();
             verify(tapTableMap ,new Times(3)).getTapTable(anyString());
+            assertTrue(tapTableMap.isPreloaded());
+            tapTableMap.reset();
+            assertFalse(tapTableMap.isPreloaded());
         }
         @Test
         @DisplayName("start thread to preload")
@@ -150,6 +155,7 @@ public class TapTableMapTest {
             doReturn(mock(TapTable.class)).when(tapTableMap).findSchema(anyString());
             tapTableMap.preLoadSchema();
             verify(log).info("Node AA[111] start preload schema,table counts: 3");
+            assertFalse(tapTableMap.isPreloaded());
         }
     }
     @Nested
@@ -0,0 +1,141 @@
+-- DDL 解析样例
+-- 格式: "-- @case 方言 语句类型 子句类型(逗号分隔, 无子句为 -)" 或 "-- @case 方言 UNSUPPORTED 行:列"
+-- 下一个 @case 之前的内容为 DDL
+
+-- @case MYSQL ALTER_TABLE ADD_COLUMN
+alter table `db`.`test` add column `name` varchar(32) null after `id`
+-- @case MYSQL ALTER_TABLE RENAME_TABLE
+alter table `db`.`test` rename to `test1`
+-- @case MYSQL ALTER_TABLE RENAME_TABLE
+ALTER TABLE t1 RENAME t2
+-- @case MYSQL ALTER_TABLE RENAME_COLUMN
+alter table `db`.`test` rename `name` to `alias`
+-- @case MYSQL ALTER_TABLE RENAME_COLUMN
+alter table `db`.`test` rename column `name` to `alias`
+-- @case MYSQL ALTER_TABLE DROP_COLUMN
+alter table `db`.`test` drop column `name`
+-- @case MYSQL ALTER_TABLE DROP_COLUMN
+ALTER TABLE `test` DROP `name`;
+-- @case MYSQL ALTER_TABLE CHANGE_COLUMN
+alter table `db`.`test` change column `name` `alias` varchar(32) null after `id`
+-- @case MYSQL ALTER_TABLE ALTER_COLUMN
+ALTER TABLE `orders` MODIFY COLUMN `amount` decimal(18,4) NOT NULL DEFAULT '0.0000' COMMENT 'amount, with ''quote'''
+-- @case MYSQL ALTER_TABLE ADD_COLUMN,ADD_COLUMN,DROP_COLUMN,ALTER_COLUMN
+ALTER TABLE `shop`.`orders`
+  ADD COLUMN `c1` enum('a','b,c') DEFAULT 'a',
+  ADD `c2` int(11) unsigned NOT NULL COMMENT 'x, y',
+  DROP COLUMN `c3`,
+  MODIFY `c4` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin,
+  ALGORITHM=INPLACE, LOCK=NONE
+-- @case MYSQL ALTER_TABLE ADD_COLUMN,ADD_COLUMN
+ALTER TABLE t ADD (a int, b varchar(10) DEFAULT 'x,y')
+-- @case MYSQL ALTER_TABLE ADD_DEFAULT
+ALTER TABLE t ALTER COLUMN a SET DEFAULT 10
+-- @case MYSQL ALTER_TABLE UNSUPPORTED
+ALTER TABLE t ADD INDEX idx_a (a)
+-- @case MYSQL ALTER_TABLE UNSUPPORTED,ADD_COLUMN
+ALTER TABLE t DROP PRIMARY KEY, ADD COLUMN id bigint
+-- @case MYSQL ALTER_TABLE ADD_COLUMN
+/* gh-ost */ ALTER TABLE `t` # comment
+  -- another comment
+  ADD COLUMN `note` text
+-- @case MYSQL ALTER_TABLE ADD_COLUMN
+ALTER TABLE `t` ADD COLUMN `say` varchar(10) DEFAULT 'it\'s'
+-- @case MYSQL ALTER_TABLE -
+ALTER TABLE `t` ENGINE=InnoDB
+-- @case MYSQL CREATE_TABLE ADD_COLUMN,ADD_COLUMN
+create table `db`.`test`(`id` int primary key, `name` varchar(64) not null)
+-- @case MYSQL CREATE_TABLE ADD_COLUMN,ADD_COLUMN,ADD_COLUMN
+CREATE TABLE IF NOT EXISTS `user` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `name` varchar(64) DEFAULT NULL COMMENT 'name (nick)',
+  `created` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_name` (`name`),
+  KEY `idx_created` (`created`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+/*!50100 PARTITION BY RANGE (id) (PARTITION p0 VALUES LESS THAN (1000)) */
+-- @case MYSQL DROP_TABLE -
+drop table `db`.`test`
+-- @case MYSQL DROP_TABLE -
+DROP TABLE IF EXISTS `t`;
+-- @case MYSQL RENAME_TABLE RENAME_TABLE
+RENAME TABLE `db`.`a` TO `db`.`b`
+-- @case MYSQL UNSUPPORTED 1:1
+TRUNCATE TABLE `t`
+-- @case MYSQL UNSUPPORTED 1:13
+ALTER TABLE `t ADD COLUMN a int
+-- @case MYSQL UNSUPPORTED 2:23
+ALTER TABLE t
+  ADD COLUMN a varchar(10
+-- @case MYSQL UNSUPPORTED 1:24
+ALTER TABLE t ADD a int; DROP TABLE t
+-- @case MSSQL DROP_TABLE -
+drop table [cdc].[dbo_HSTEST_1207_INDEX_1639110539318_CT]
+-- @case MSSQL ALTER_TABLE DROP_COLUMN
+ALTER TABLE [dbo].[HSTEST_1207_INDEX] DROP COLUMN [ADD]
+-- @case MSSQL ALTER_TABLE ADD_COLUMN
+ALTER TABLE [dbo].[HSTEST_1207_INDEX] ADD [F1] varchar(255) NULL
+-- @case MSSQL ALTER_TABLE ADD_COLUMN
+ALTER TABLE [dbo].[HSTEST_1207_INDEX] ADD [F4] varchar(10) NOT NULL
+-- @case MSSQL ALTER_TABLE ALTER_COLUMN
+ALTER TABLE [dbo].[HSTEST_1207_INDEX] ALTER COLUMN [F3] datetime2(6) NOT NULL
+-- @case MSSQL ALTER_TABLE ALTER_COLUMN
+ALTER TABLE [dbo].[HSTEST_1207_INDEX] ALTER COLUMN [F2] varchar(3) COLLATE Chinese_PRC_CI_AS NULL
+-- @case MSSQL ALTER_TABLE UNSUPPORTED
+ALTER TABLE [dbo].[HSTEST_1207_INDEX] ADD CONSTRAINT [fk_hstest_1207_index] FOREIGN KEY ([SEQ]) REFERENCES [dbo].[HSTEST_1207_INDEX] ([ID])
+-- @case MSSQL ALTER_TABLE ADD_DEFAULT
+alter table [hstest0208_alter_field_default] add default 0 for age
+-- @case MSSQL ALTER_TABLE ADD_DEFAULT
+alter table [hstest0208_alter_field_default] add default '[ '' "" 1_23 ]' for "name"
+-- @case MSSQL ALTER_TABLE ADD_COLUMN
+alter table test_100_4
+	add test int
+-- @case MSSQL ALTER_TABLE DROP_COLUMN
+alter table test_100_1 drop column f1
+-- @case MSSQL ALTER_TABLE ADD_COLUMN,ADD_COLUMN
+ALTER TABLE [dbo].[t] ADD [a] int NULL, [b] nvarchar(20) DEFAULT N'x, y' NOT NULL
+-- @case MSSQL ALTER_TABLE DROP_COLUMN,DROP_COLUMN
+ALTER TABLE [dbo].[t] DROP COLUMN IF EXISTS [a], [b]
+-- @case MSSQL ALTER_TABLE ADD_COLUMN
+ALTER TABLE [dbo].[t] ADD [we]]ird] int
+-- @case MSSQL CREATE_TABLE ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN,ADD_COLUMN
+CREATE TABLE [dbo].[usrXYPJ](
+ [ID] [bigint] NOT NULL,
+ [INBBM] [int] NULL,
+ [IGSDM] [int] NULL,
+ [XXFBRQ] [datetime] NULL,
+ [PJLB] [int] NULL,
+ [PJJG] [varchar](200) NULL,
+ [QYBH] [int] NULL,
+ [PJRQ] [datetime] NULL,
+ [PJMS] [varchar](50) NULL,
+ [XYJB] [int] NULL,
+ [GKBZ] [tinyint] NOT NULL,
+ [XGRY] [int] NOT NULL,
+ [XGRY2] [int] NOT NULL,
+ [XGSJ] [datetime] NOT NULL,
+ [FBSJ] [datetime] NULL,
+ [SHRY] [int] NULL,
+ [JSID] [bigint] NOT NULL,
+ [XYDJBZ] [int] NULL,
+ [PJTX] [int] NULL,
+ [XXLB] [int] NULL,
+ [QYMC] [varchar](200) NULL,
+ [BH] [int] NULL,
+ [XXLY] [varchar](200) NULL,
+ [ZTMS] [varchar](500) NULL,
+ [PJZT] [int] NULL,
+ [PJZW] [varchar](100) NULL,
+ [XXLYLB] [int] NULL,
+ [PJZWLB] [int] NULL,
+ [PJRQDY] [int] NULL,
+ [PJYY] [int] NULL,
+ [BZ] [varchar](1000) NULL,
+ CONSTRAINT [pk_usrXYPJ] PRIMARY KEY NONCLUSTERED 
+(
+ [ID] ASC
+)WITH (PAD_INDEX = OFF, STATISTICS_NORECOMPUTE = OFF, IGNORE_DUP_KEY = OFF, ALLOW_ROW_LOCKS = ON, ALLOW_PAGE_LOCKS = ON) ON [PRIMARY]
+) ON [PRIMARY]
+-- @case MSSQL UNSUPPORTED 1:35
+ALTER TABLE [dbo].[t] ADD [a] int '
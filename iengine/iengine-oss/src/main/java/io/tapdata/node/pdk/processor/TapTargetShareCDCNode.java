@@ -1,38 +1,183 @@
 package io.tapdata.node.pdk.processor;
 
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.jet.core.Processor.*;
+import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.entity.TapdataEvent;
 import com.tapdata.entity.TapdataShareLogEvent;
 import com.tapdata.entity.task.context.DataProcessorContext;
+import com.tapdata.tm.commons.dag.Node;
+import com.tapdata.tm.commons.dag.logCollector.LogCollectorNode;
+import com.tapdata.tm.commons.externalStorage.ExternalStorageDto;
+import com.tapdata.tm.shareCdcTableMapping.ShareCdcTableMappingDto;
+import io.tapdata.construct.constructImpl.ConstructRingBuffer;
 import io.tapdata.entity.TapProcessorNodeContext;
+import io.tapdata.entity.event.TapBaseEvent;
 import io.tapdata.entity.event.TapEvent;
-import io.tapdata.exception.TapOssNonsupportFunctionException;
-import io.tapdata.pdk.apis.context.TapProcessorContext;
+import io.tapdata.flow.engine.V2.util.PdkUtil;
+import io.tapdata.flow.engine.V2.util.TapEventUtil;
+import io.tapdata.loglistener.TapLogger;
+import io.tapdata.sharecdc.ShareCdcLogStorage;
+import org.apache.commons.collections4.CollectionUtils;
+import org.bson.Document;
+import org.springframework.beans.BeanUtils;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class TapTargetShareCDCNode implements TapProcessorNode{
+/**
+ * 共享挖掘日志写入: 按 (连接, 表) 将挖掘到的增量事件写入对应的 ConstructRingBuffer, 供多个任务按时间点/序号读取
+ */
+public class TapTargetShareCDCNode implements TapProcessorNode {
 
-    public TapTargetShareCDCNode(DataProcessorContext dataProcessorContext) {
-        throw new TapOssNonsupportFunctionException();
-    }
+	private final DataProcessorContext dataProcessorContext;
+	private final Map<String, ShareCdcTableMappingDto> tableMappings = new ConcurrentHashMap<>();
+	private final Map<String, ConstructRingBuffer<Document>> ringBuffers = new ConcurrentHashMap<>();
+	private final Set<String> unknownTables = new HashSet<>();
+	private HazelcastInstance hazelcastInstance;
+	private ExternalStorageDto externalStorageDto;
+	private TapLogger obsLogger;
+	private AtomicBoolean running;
+	private String taskId;
+	private String defaultConnectionId;
+	private Object lastStreamOffset;
+	private String lastOffsetString;
 
-    @Override
-    public void doInit(Context context, TapProcessorNodeContext tapProcessorNodeContext) {
-        throw new TapOssNonsupportFunctionException();
-    }
+	public TapTargetShareCDCNode(DataProcessorContext dataProcessorContext) {
+		this.dataProcessorContext = dataProcessorContext;
+	}
 
-    @Override
-    public void processEvents(List<TapEvent> tapEvents) {
-        throw new TapOssNonsupportFunctionException();
-    }
+	@Override
+	public void doInit(Context context, TapProcessorNodeContext tapProcessorNodeContext) {
+		this.hazelcastInstance = context.hazelcastInstance();
+		this.obsLogger = tapProcessorNodeContext.getObsLogger();
+		this.running = tapProcessorNodeContext.getRunning();
+		this.taskId = dataProcessorContext.getTaskDto().getId().toHexString();
+		// 外存配置由节点上下文共享, 复制后再修改
+		this.externalStorageDto = new ExternalStorageDto();
+		BeanUtils.copyProperties(tapProcessorNodeContext.getExternalStorageDto(), externalStorageDto);
+		LogCollectorNode logCollectorNode = findLogCollectorNode();
+		if (null != logCollectorNode) {
+			if (null != logCollectorNode.getStorageTime() && logCollectorNode.getStorageTime() > 0) {
+				// 日志保留时间以挖掘任务配置为准, 每张表的 RingBuffer 按该 TTL 过期
+				externalStorageDto.setTtlDay(logCollectorNode.getStorageTime());
+			}
+			List<String> connectionIds = logCollectorNode.getConnectionIds();
+			if (null != connectionIds && connectionIds.size() == 1) {
+				defaultConnectionId = connectionIds.get(0);
+			}
+		}
+		List<ShareCdcTableMappingDto> mappings = ShareCdcLogStorage.findTableMappings(ConnectorConstant.clientMongoOperator, taskId);
+		if (CollectionUtils.isNotEmpty(mappings)) {
+			for (ShareCdcTableMappingDto mapping : mappings) {
+				tableMappings.put(mapping.getSign(), mapping);
+				// 空的 RingBuffer 写入开始时间标记, 读取端以此判断挖掘日志是否覆盖任务的增量开始时间
+				ConstructRingBuffer<Document> ringBuffer = ringBuffer(mapping);
+				if (ringBuffer.isEmpty()) {
+					try {
+						ringBuffer.insert(ShareCdcLogStorage.startTimeSign());
+					} catch (Exception e) {
+						throw new RuntimeException("Write start time sign into share cdc log storage failed, table: " + mapping.getTableName(), e);
+					}
+				}
+			}
+		}
+		obsLogger.info("Share cdc log storage initialized, tables: {}, ttl day: {}", tableMappings.size(), externalStorageDto.getTtlDay());
+	}
 
-    @Override
-    public void doClose() {
-        throw new TapOssNonsupportFunctionException();
-    }
+	@Override
+	public void processEvents(List<TapEvent> tapEvents) {
+		throw new UnsupportedOperationException();
+	}
 
-    @Override
-    public void processShareLog(List<TapdataShareLogEvent> tapdataShareLogEvents) {
-        throw new TapOssNonsupportFunctionException();
-    }
+	@Override
+	public void processShareLog(List<TapdataShareLogEvent> tapdataShareLogEvents) {
+		Map<String, List<Document>> documentsBySign = new LinkedHashMap<>();
+		for (TapdataShareLogEvent tapdataShareLogEvent : tapdataShareLogEvents) {
+			TapEvent tapEvent = tapdataShareLogEvent.getTapEvent();
+			if (!(tapEvent instanceof TapBaseEvent)) {
+				continue;
+			}
+			String connectionId = connectionId(tapdataShareLogEvent);
+			String sign = ShareCdcTableMappingDto.genSign(connectionId, TapEventUtil.getTableId(tapEvent));
+			Document document = ShareCdcLogStorage.toDocument(tapEvent, connectionId, offsetString(tapdataShareLogEvent.getStreamOffset()));
+			if (null == document) {
+				continue;
+			}
+			documentsBySign.computeIfAbsent(sign, k -> new ArrayList<>()).add(document);
+		}
+		for (Map.Entry<String, List<Document>> entry : documentsBySign.entrySet()) {
+			Document first = entry.getValue().get(0);
+			ShareCdcTableMappingDto mapping = tableMapping(entry.getKey(), first.getString("connectionId"), first.getString("fromTable"));
+			if (null == mapping) {
+				continue;
+			}
+			try {
+				ringBuffer(mapping).insertMany(entry.getValue(), v -> !running.get());
+			} catch (Exception e) {
+				throw new RuntimeException("Write share cdc log failed, table: " + mapping.getTableName() + ", size: " + entry.getValue().size(), e);
+			}
+		}
+	}
+
+	@Override
+	public void doClose() {
+		// RingBuffer 由所有读取任务共享, 关闭时不销毁
+		ringBuffers.clear();
+		tableMappings.clear();
+	}
+
+	private LogCollectorNode findLogCollectorNode() {
+		List<Node> nodes = dataProcessorContext.getNodes();
+		if (null == nodes) {
+			return null;
+		}
+		return (LogCollectorNode) nodes.stream().filter(n -> n instanceof LogCollectorNode).findFirst().orElse(null);
+	}
+
+	private String connectionId(TapdataEvent tapdataEvent) {
+		Object connectionId = tapdataEvent.getInfo(TapdataEvent.CONNECTION_ID_INFO_KEY);
+		return connectionId instanceof String ? (String) connectionId : defaultConnectionId;
+	}
+
+	/**
+	 * 同一批次的事件通常共享同一个 offset 对象, 只在 offset 变化时重新序列化
+	 */
+	private String offsetString(Object streamOffset) {
+		if (null == streamOffset) {
+			return lastOffsetString;
+		}
+		if (streamOffset != lastStreamOffset) {
+			lastStreamOffset = streamOffset;
+			lastOffsetString = PdkUtil.encodeOffset(streamOffset);
+		}
+		return lastOffsetString;
+	}
+
+	private ShareCdcTableMappingDto tableMapping(String sign, String connectionId, String tableName) {
+		ShareCdcTableMappingDto mapping = tableMappings.get(sign);
+		if (null != mapping) {
+			return mapping;
+		}
+		mapping = ShareCdcLogStorage.findTableMapping(ConnectorConstant.clientMongoOperator, connectionId, tableName);
+		if (null == mapping) {
+			if (unknownTables.add(sign)) {
+				obsLogger.warn("Table {} of connection {} is not registered in share cdc table mapping, its events will be skipped", tableName, connectionId);
+			}
+			return null;
+		}
+		tableMappings.put(sign, mapping);
+		return mapping;
+	}
+
+	private ConstructRingBuffer<Document> ringBuffer(ShareCdcTableMappingDto mapping) {
+		return ringBuffers.computeIfAbsent(mapping.getSign(), sign -> new ConstructRingBuffer<>(
+				hazelcastInstance, taskId, ShareCdcLogStorage.ringBufferName(mapping), externalStorageDto, null));
+	}
 }
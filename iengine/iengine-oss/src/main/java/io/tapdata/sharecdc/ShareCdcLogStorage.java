@@ -0,0 +1,146 @@
+package io.tapdata.sharecdc;
+
+import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.entity.OperationType;
+import com.tapdata.entity.sharecdc.LogContent;
+import com.tapdata.mongo.ClientMongoOperator;
+import com.tapdata.tm.shareCdcTableMapping.ShareCdcTableMappingDto;
+import io.tapdata.entity.event.TapEvent;
+import io.tapdata.entity.event.ddl.TapDDLEvent;
+import io.tapdata.entity.event.dml.TapDeleteRecordEvent;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import io.tapdata.entity.event.dml.TapRecordEvent;
+import io.tapdata.entity.event.dml.TapUpdateRecordEvent;
+import io.tapdata.entity.utils.InstanceFactory;
+import io.tapdata.entity.utils.ObjectSerializable;
+import io.tapdata.flow.engine.V2.util.TapEventUtil;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * 共享挖掘日志存储: 每个 (连接, 表) 对应一个 ConstructRingBuffer, 名称由 TM 的 ShareCdcTableMapping 维护,
+ * 日志条目为 {@link LogContent} 结构的 Document
+ */
+public class ShareCdcLogStorage {
+
+	private static final String SHARE_CDC_KEY_PREFIX = "ExternalStorage_SHARE_CDC_";
+
+	private ShareCdcLogStorage() {
+	}
+
+	public static List<ShareCdcTableMappingDto> findTableMappings(ClientMongoOperator clientMongoOperator, String shareCdcTaskId) {
+		Query query = Query.query(where("shareCdcTaskId").is(shareCdcTaskId));
+		return clientMongoOperator.find(query, ConnectorConstant.SHARE_CDC_TABLE_MAPPING_COLLECTION, ShareCdcTableMappingDto.class);
+	}
+
+	public static ShareCdcTableMappingDto findTableMapping(ClientMongoOperator clientMongoOperator, String connectionId, String tableName) {
+		Query query = Query.query(where("sign").is(ShareCdcTableMappingDto.genSign(connectionId, tableName)));
+		return clientMongoOperator.findOne(query, ConnectorConstant.SHARE_CDC_TABLE_MAPPING_COLLECTION, ShareCdcTableMappingDto.class);
+	}
+
+	/**
+	 * 写入端和读取端都只按映射计算名称, 保证两边打开同一个 RingBuffer; 映射中缺少存储表名的旧数据,
+	 * 按 TM ShareCdcTableMappingServiceImpl#genExternalStorageTableName 不带命名空间的规则生成
+	 */
+	public static String ringBufferName(ShareCdcTableMappingDto tableMapping) {
+		if (StringUtils.isNotBlank(tableMapping.getExternalStorageTableName())) {
+			return tableMapping.getExternalStorageTableName();
+		}
+		return SHARE_CDC_KEY_PREFIX + String.join("_", tableMapping.getConnectionId(), tableMapping.getTableName()).hashCode();
+	}
+
+	/**
+	 * @return 不支持的事件类型返回 null
+	 */
+	public static Document toDocument(TapEvent tapEvent, String connectionId, String offsetString) {
+		String op = TapEventUtil.getOp(tapEvent);
+		if (StringUtils.isBlank(op)) {
+			return null;
+		}
+		Long timestamp = TapEventUtil.getTimestamp(tapEvent);
+		if (null == timestamp) {
+			timestamp = System.currentTimeMillis();
+		}
+		Document document = new Document("fromTable", TapEventUtil.getTableId(tapEvent))
+				.append("timestamp", timestamp)
+				.append("date", new Date(timestamp))
+				.append("op", op)
+				.append("offsetString", null == offsetString ? "" : offsetString)
+				.append("type", LogContent.LogContentType.DATA.name());
+		List<String> namespaces = TapEventUtil.getNamespaces(tapEvent);
+		if (CollectionUtils.isNotEmpty(namespaces)) {
+			document.append("tableNamespaces", namespaces);
+		}
+		if (null != connectionId) {
+			document.append("connectionId", connectionId);
+		}
+		if (tapEvent instanceof TapRecordEvent) {
+			document.append("before", TapEventUtil.getBefore(tapEvent))
+					.append("after", TapEventUtil.getAfter(tapEvent));
+			List<String> removeFields = TapEventUtil.getRemoveFields(tapEvent);
+			if (CollectionUtils.isNotEmpty(removeFields)) {
+				document.append("removeFields", removeFields);
+			}
+			document.append("isReplaceEvent", Boolean.TRUE.equals(TapEventUtil.getIsReplaceEvent(tapEvent)));
+		} else {
+			document.append("tapDDLEvent", InstanceFactory.instance(ObjectSerializable.class).fromObject(tapEvent));
+		}
+		return document;
+	}
+
+	public static Document startTimeSign() {
+		LogContent sign = LogContent.createStartTimeSign();
+		return new Document("timestamp", sign.getTimestamp())
+				.append("date", new Date(sign.getTimestamp()))
+				.append("type", sign.getType());
+	}
+
+	/**
+	 * @return 标记类日志返回 null
+	 */
+	public static TapEvent toTapEvent(LogContent logContent) {
+		if (LogContent.LogContentType.SIGN.name().equals(logContent.getType())) {
+			return null;
+		}
+		OperationType operationType = OperationType.fromOp(logContent.getOp());
+		if (null == operationType) {
+			throw new IllegalArgumentException("Unrecognized share cdc log op: " + logContent.getOp());
+		}
+		TapEvent tapEvent;
+		switch (operationType) {
+			case INSERT:
+				tapEvent = TapInsertRecordEvent.create().after(logContent.getAfter());
+				break;
+			case UPDATE:
+				TapUpdateRecordEvent updateRecordEvent = TapUpdateRecordEvent.create().before(logContent.getBefore()).after(logContent.getAfter());
+				updateRecordEvent.setRemovedFields(logContent.getRemoveFields());
+				updateRecordEvent.setIsReplaceEvent(logContent.getReplaceEvent());
+				tapEvent = updateRecordEvent;
+				break;
+			case DELETE:
+				tapEvent = TapDeleteRecordEvent.create().before(logContent.getBefore());
+				break;
+			case DDL:
+				Object ddlEvent = InstanceFactory.instance(ObjectSerializable.class).toObject(logContent.getTapDDLEvent());
+				if (!(ddlEvent instanceof TapDDLEvent)) {
+					throw new IllegalArgumentException("Share cdc log ddl content is not a TapDDLEvent: " + ddlEvent);
+				}
+				return (TapDDLEvent) ddlEvent;
+			default:
+				throw new IllegalArgumentException("Unsupported share cdc log op: " + logContent.getOp());
+		}
+		TapRecordEvent tapRecordEvent = (TapRecordEvent) tapEvent;
+		tapRecordEvent.setTableId(logContent.getFromTable());
+		tapRecordEvent.setNamespaces(logContent.getTableNamespaces());
+		tapRecordEvent.setReferenceTime(logContent.getTimestamp());
+		tapRecordEvent.setTime(System.currentTimeMillis());
+		return tapRecordEvent;
+	}
+}
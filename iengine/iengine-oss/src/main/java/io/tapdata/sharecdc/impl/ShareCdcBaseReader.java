@@ -1,30 +1,38 @@
 package io.tapdata.sharecdc.impl;
 
-import io.tapdata.error.EngineErrorCodes;
-import io.tapdata.error.EngineExCode_33;
-import io.tapdata.exception.TapOssNonsupportFunctionException;
 import io.tapdata.flow.engine.V2.sharecdc.ShareCdcContext;
 import io.tapdata.flow.engine.V2.sharecdc.ShareCdcReader;
 import io.tapdata.flow.engine.V2.sharecdc.exception.ShareCdcUnsupportedException;
+import io.tapdata.loglistener.TapLogger;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ShareCdcBaseReader implements ShareCdcReader {
-    protected ShareCdcBaseReader() {
-        throw new TapOssNonsupportFunctionException();
-    }
-    @Override
-    public void init(ShareCdcContext shareCdcContext) throws ShareCdcUnsupportedException {
-        throw new TapOssNonsupportFunctionException();
-    }
+	protected final AtomicBoolean running = new AtomicBoolean(false);
+	protected ShareCdcContext shareCdcContext;
+	protected TapLogger obsLogger;
 
-    @Override
-    public boolean isRunning() {
-        return false;
-    }
+	protected ShareCdcBaseReader() {
+	}
 
-    @Override
-    public void close() throws IOException {
-        throw new TapOssNonsupportFunctionException();
-    }
+	@Override
+	public void init(ShareCdcContext shareCdcContext) throws ShareCdcUnsupportedException {
+		if (null == shareCdcContext) {
+			throw new IllegalArgumentException("Share cdc context cannot be null");
+		}
+		this.shareCdcContext = shareCdcContext;
+		this.obsLogger = shareCdcContext.getObsLogger();
+		this.running.set(true);
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		running.set(false);
+	}
 }
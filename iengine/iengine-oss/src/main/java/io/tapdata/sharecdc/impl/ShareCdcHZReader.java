@@ -1,4 +1,316 @@
 package io.tapdata.sharecdc.impl;
 
-public class ShareCdcHZReader extends ShareCdcBaseReader{
+import com.hazelcast.core.HazelcastInstance;
+import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.constant.HazelcastUtil;
+import com.tapdata.entity.Connections;
+import com.tapdata.entity.sharecdc.LogContent;
+import com.tapdata.tm.commons.externalStorage.ExternalStorageDto;
+import com.tapdata.tm.shareCdcTableMapping.ShareCdcTableMappingDto;
+import io.tapdata.construct.ConstructIterator;
+import io.tapdata.construct.constructImpl.ConstructRingBuffer;
+import io.tapdata.entity.event.TapEvent;
+import io.tapdata.entity.utils.DataMap;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCDCOffset;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCdcContext;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCdcTaskContext;
+import io.tapdata.flow.engine.V2.sharecdc.exception.ShareCdcUnsupportedException;
+import io.tapdata.pdk.apis.consumer.StreamReadConsumer;
+import io.tapdata.pdk.core.utils.CommonUtils;
+import io.tapdata.sharecdc.ShareCdcLogStorage;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * 从共享挖掘日志 (每张表一个 ConstructRingBuffer) 读取增量事件
+ * <p>
+ * 首次启动按增量开始时间 findSequence 定位, 之后按每张表的序号续传; 当读取位置已被过期/覆盖 (落后于 RingBuffer 头部),
+ * 或挖掘日志不能覆盖增量开始时间时, 抛出 {@link ShareCdcUnsupportedException} 回退到直接增量
+ * <p>
+ * 每张表单独记录最后读取事件的源库位点, 回退直接增量时从读得最慢的表的位点开始, 其余表可能重复但不会丢失事件
+ */
+public class ShareCdcHZReader extends ShareCdcBaseReader {
+	public static final String BATCH_SIZE_PROP_KEY = "SHARE_CDC_READ_BATCH_SIZE";
+	private static final long IDLE_SLEEP_MS = 200L;
+	private static final long LAG_LOG_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+
+	protected final Map<String, TableReader> tableReaders = new LinkedHashMap<>();
+	protected Object offset;
+	private int batchSize;
+
+	protected ShareCdcHZReader() {
+	}
+
+	protected ShareCdcHZReader(Object offset) {
+		this.offset = offset;
+	}
+
+	@Override
+	public void init(ShareCdcContext shareCdcContext) throws ShareCdcUnsupportedException {
+		super.init(shareCdcContext);
+		if (!(shareCdcContext instanceof ShareCdcTaskContext)) {
+			throw new ShareCdcUnsupportedException("Unsupported share cdc context: " + shareCdcContext.getClass().getName(), true);
+		}
+		ShareCdcTaskContext taskContext = (ShareCdcTaskContext) shareCdcContext;
+		Connections connections = taskContext.getConnections();
+		if (null == connections || !connections.isShareCdcEnable()) {
+			throw new ShareCdcUnsupportedException("Share cdc is not enabled on source connection", true);
+		}
+		List<String> tables = taskContext.getTables();
+		if (CollectionUtils.isEmpty(tables)) {
+			throw new ShareCdcUnsupportedException("No table to read from share cdc log storage", true);
+		}
+		ExternalStorageDto externalStorageDto = externalStorage(connections);
+		this.batchSize = CommonUtils.getPropertyInt(BATCH_SIZE_PROP_KEY, 1000);
+		HazelcastInstance hazelcastInstance = HazelcastUtil.getInstance();
+		Map<String, Long> sequenceMap = sequenceMap(offset);
+		Object initialStreamOffset = null;
+		Long initialStreamOffsetTime = null;
+		if (offset instanceof ShareCDCOffset) {
+			initialStreamOffset = ((ShareCDCOffset) offset).getStreamOffset();
+			initialStreamOffsetTime = ((ShareCDCOffset) offset).getStreamOffsetTime();
+		}
+		for (String table : tables) {
+			ShareCdcTableMappingDto mapping = ShareCdcLogStorage.findTableMapping(ConnectorConstant.clientMongoOperator, connections.getId(), table);
+			if (null == mapping) {
+				throw new ShareCdcUnsupportedException("Table " + table + " is not collected by any share cdc task", true);
+			}
+			ConstructRingBuffer<Document> ringBuffer = new ConstructRingBuffer<>(hazelcastInstance, mapping.getShareCdcTaskId(),
+					ShareCdcLogStorage.ringBufferName(mapping), externalStorageDto, null);
+			TableReader tableReader = new TableReader(table, ringBuffer, startSequence(table, ringBuffer, sequenceMap));
+			if (sequenceMap.containsKey(table)) {
+				tableReader.streamOffset(initialStreamOffset, initialStreamOffsetTime);
+			} else {
+				// 按增量开始时间定位的表, 还没有读到事件时从增量开始时间回退
+				tableReader.streamOffset(null, shareCdcContext.getCdcStartTs());
+			}
+			tableReaders.put(table, tableReader);
+		}
+		obsLogger.info("Share cdc reader initialized, tables: {}, start sequences: {}", tables.size(), currentSequenceMap());
+	}
+
+	@Override
+	public void listen(StreamReadConsumer streamReadConsumer) throws Exception {
+		streamReadConsumer.streamReadStarted();
+		long lastLagLogTime = System.currentTimeMillis();
+		while (isRunning()) {
+			boolean read = false;
+			for (TableReader tableReader : tableReaders.values()) {
+				if (!isRunning()) {
+					break;
+				}
+				List<TapEvent> events = tableReader.read();
+				if (null == events) {
+					continue;
+				}
+				read = true;
+				if (!events.isEmpty()) {
+					streamReadConsumer.accept(events, currentOffset());
+				}
+			}
+			if (System.currentTimeMillis() - lastLagLogTime >= LAG_LOG_INTERVAL_MS) {
+				obsLogger.info("Share cdc reader lag: {}", lag());
+				lastLagLogTime = System.currentTimeMillis();
+			}
+			if (!read) {
+				TimeUnit.MILLISECONDS.sleep(IDLE_SLEEP_MS);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		super.close();
+		tableReaders.clear();
+	}
+
+	/**
+	 * 源库原生的增量位点, 用于回退直接增量时续传, 需要连接器的 ClassLoader 才能反序列化
+	 */
+	protected Object decodeStreamOffset(String offsetString) {
+		return null;
+	}
+
+	/**
+	 * @return table -> (待读取条数, 最后读取事件的时间延迟 ms)
+	 */
+	protected DataMap lag() {
+		DataMap dataMap = new DataMap();
+		long now = System.currentTimeMillis();
+		for (TableReader tableReader : tableReaders.values()) {
+			DataMap tableLag = new DataMap();
+			tableLag.put("pending", Math.max(0L, tableReader.ringBuffer.getRingbuffer().tailSequence() + 1 - tableReader.iterator.getSequence()));
+			tableLag.put("delayMs", tableReader.lastTimestamp > 0 ? now - tableReader.lastTimestamp : null);
+			dataMap.put(tableReader.table, tableLag);
+		}
+		return dataMap;
+	}
+
+	/**
+	 * 各表的读取序号, 以及读得最慢的表的源库位点; 时间未知的表视为最慢
+	 */
+	protected ShareCDCOffset currentOffset() {
+		TableReader earliest = null;
+		for (TableReader tableReader : tableReaders.values()) {
+			if (null == tableReader.streamOffsetTime) {
+				earliest = tableReader;
+				break;
+			}
+			if (null == earliest || tableReader.streamOffsetTime < earliest.streamOffsetTime) {
+				earliest = tableReader;
+			}
+		}
+		if (null == earliest) {
+			return new ShareCDCOffset(currentSequenceMap(), null);
+		}
+		return new ShareCDCOffset(currentSequenceMap(), earliest.streamOffset, earliest.streamOffsetTime);
+	}
+
+	protected Map<String, Long> currentSequenceMap() {
+		Map<String, Long> sequenceMap = new HashMap<>();
+		tableReaders.forEach((table, tableReader) -> sequenceMap.put(table, tableReader.iterator.getSequence()));
+		return sequenceMap;
+	}
+
+	private ExternalStorageDto externalStorage(Connections connections) throws ShareCdcUnsupportedException {
+		String externalStorageId = connections.getShareCDCExternalStorageId();
+		if (StringUtils.isBlank(externalStorageId)) {
+			throw new ShareCdcUnsupportedException("Share cdc external storage is not set on source connection", true);
+		}
+		ExternalStorageDto externalStorageDto = ConnectorConstant.clientMongoOperator.findOne(Query.query(where("_id").is(externalStorageId)),
+				ConnectorConstant.EXTERNAL_STORAGE_COLLECTION, ExternalStorageDto.class);
+		if (null == externalStorageDto) {
+			throw new ShareCdcUnsupportedException("Share cdc external storage not found: " + externalStorageId, true);
+		}
+		return externalStorageDto;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Long> sequenceMap(Object offset) {
+		Map<String, Long> sequenceMap = new HashMap<>();
+		if (offset instanceof ShareCDCOffset) {
+			offset = ((ShareCDCOffset) offset).getSequenceMap();
+		}
+		if (offset instanceof Map) {
+			((Map<Object, Object>) offset).forEach((k, v) -> {
+				if (k instanceof String && v instanceof Number) {
+					sequenceMap.put((String) k, ((Number) v).longValue());
+				}
+			});
+		}
+		return sequenceMap;
+	}
+
+	private long startSequence(String table, ConstructRingBuffer<Document> ringBuffer, Map<String, Long> sequenceMap) throws ShareCdcUnsupportedException {
+		long headSequence = ringBuffer.getRingbuffer().headSequence();
+		Long sequence = sequenceMap.get(table);
+		if (null == sequence) {
+			// 首次读取: 挖掘日志的第一条 (开始时间标记) 必须早于增量开始时间, 否则中间的变更没有被挖掘
+			Long cdcStartTs = shareCdcContext.getCdcStartTs();
+			Document head = ringBuffer.isEmpty() ? null : headDocument(ringBuffer);
+			if (null == head || null == head.getLong("timestamp") || head.getLong("timestamp") > cdcStartTs) {
+				throw new ShareCdcUnsupportedException("Share cdc log of table " + table + " does not cover the cdc start time " + cdcStartTs, true);
+			}
+			try {
+				sequence = ringBuffer.findSequence(cdcStartTs);
+			} catch (Exception e) {
+				throw new ShareCdcUnsupportedException("Find share cdc log sequence of table " + table + " failed", e, true);
+			}
+			if (sequence < 0) {
+				sequence = ringBuffer.getRingbuffer().tailSequence() + 1;
+			}
+		}
+		if (sequence < headSequence) {
+			throw new ShareCdcUnsupportedException(fellOffTailMessage(table, sequence, headSequence), true);
+		}
+		return sequence;
+	}
+
+	private static Document headDocument(ConstructRingBuffer<Document> ringBuffer) throws ShareCdcUnsupportedException {
+		try {
+			// 不带序号的过滤条件从 RingBuffer 头部开始读取
+			return ringBuffer.find(Collections.emptyMap()).tryNext();
+		} catch (Exception e) {
+			throw new ShareCdcUnsupportedException("Read head of share cdc log " + ringBuffer.getName() + " failed", e, true);
+		}
+	}
+
+	private static String fellOffTailMessage(String table, long sequence, long headSequence) {
+		return "Share cdc log of table " + table + " at sequence " + sequence + " has expired, head sequence: " + headSequence;
+	}
+
+	protected class TableReader {
+		private final String table;
+		private final ConstructRingBuffer<Document> ringBuffer;
+		private final ConstructIterator<Document> iterator;
+		private long lastTimestamp;
+		private Object streamOffset;
+		private Long streamOffsetTime;
+
+		TableReader(String table, ConstructRingBuffer<Document> ringBuffer, long sequence) throws ShareCdcUnsupportedException {
+			this.table = table;
+			this.ringBuffer = ringBuffer;
+			try {
+				this.iterator = ringBuffer.find(Collections.<String, Object>singletonMap(ConstructRingBuffer.SEQUENCE_KEY, sequence));
+			} catch (Exception e) {
+				throw new ShareCdcUnsupportedException("Open share cdc log of table " + table + " failed", e, true);
+			}
+		}
+
+		void streamOffset(Object streamOffset, Long streamOffsetTime) {
+			this.streamOffset = streamOffset;
+			this.streamOffsetTime = streamOffsetTime;
+		}
+
+		/**
+		 * @return 没有新日志返回 null
+		 */
+		List<TapEvent> read() throws ShareCdcUnsupportedException {
+			long headSequence = ringBuffer.getRingbuffer().headSequence();
+			if (iterator.getSequence() < headSequence) {
+				// 读取速度落后于日志过期/覆盖速度, 回退到直接增量
+				throw new ShareCdcUnsupportedException(fellOffTailMessage(table, iterator.getSequence(), headSequence), true);
+			}
+			List<Document> documents = iterator.tryNextMany(batchSize, v -> !isRunning());
+			if (CollectionUtils.isEmpty(documents)) {
+				return null;
+			}
+			List<TapEvent> events = new ArrayList<>(documents.size());
+			String lastOffsetString = null;
+			long lastOffsetTime = 0L;
+			for (Document document : documents) {
+				LogContent logContent = LogContent.valueOf(document);
+				lastTimestamp = logContent.getTimestamp();
+				TapEvent tapEvent = ShareCdcLogStorage.toTapEvent(logContent);
+				if (null == tapEvent) {
+					continue;
+				}
+				events.add(tapEvent);
+				if (StringUtils.isNotBlank(logContent.getOffsetString())) {
+					lastOffsetString = logContent.getOffsetString();
+					lastOffsetTime = lastTimestamp;
+				}
+			}
+			if (null != lastOffsetString) {
+				Object decoded = decodeStreamOffset(lastOffsetString);
+				if (null != decoded) {
+					streamOffset(decoded, lastOffsetTime);
+				}
+			}
+			return events;
+		}
+	}
 }
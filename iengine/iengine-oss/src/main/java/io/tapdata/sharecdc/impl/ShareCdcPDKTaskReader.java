@@ -2,16 +2,65 @@ package io.tapdata.sharecdc.impl;
 
 import io.tapdata.entity.memory.MemoryFetcher;
 import io.tapdata.entity.utils.DataMap;
-import io.tapdata.exception.TapOssNonsupportFunctionException;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCdcContext;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCdcTaskPdkContext;
+import io.tapdata.flow.engine.V2.sharecdc.exception.ShareCdcUnsupportedException;
+import io.tapdata.flow.engine.V2.util.PdkUtil;
+import io.tapdata.pdk.core.api.ConnectorNode;
+import io.tapdata.pdk.core.api.PDKIntegration;
+import io.tapdata.pdk.core.utils.CommonUtils;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 public class ShareCdcPDKTaskReader extends ShareCdcHZReader implements Serializable, MemoryFetcher {
-    ShareCdcPDKTaskReader(Object offset) {
-        throw new TapOssNonsupportFunctionException();
-    }
-    @Override
-    public DataMap memory(String keyRegex, String memoryLevel) {
-        return null;
-    }
+	private static final String TAG = ShareCdcPDKTaskReader.class.getSimpleName();
+	private transient ConnectorNode connectorNode;
+	private String memoryKey;
+
+	ShareCdcPDKTaskReader(Object offset) {
+		super(offset);
+	}
+
+	@Override
+	public void init(ShareCdcContext shareCdcContext) throws ShareCdcUnsupportedException {
+		if (!(shareCdcContext instanceof ShareCdcTaskPdkContext)) {
+			throw new ShareCdcUnsupportedException("Unsupported share cdc context: " + (null == shareCdcContext ? null : shareCdcContext.getClass().getName()), true);
+		}
+		this.connectorNode = ((ShareCdcTaskPdkContext) shareCdcContext).getConnectorNode();
+		super.init(shareCdcContext);
+		ShareCdcTaskPdkContext taskContext = (ShareCdcTaskPdkContext) shareCdcContext;
+		this.memoryKey = TAG + "-" + taskContext.getTaskDto().getId().toHexString() + "-" + taskContext.getNode().getId();
+		PDKIntegration.registerMemoryFetcher(memoryKey, this);
+	}
+
+	@Override
+	protected Object decodeStreamOffset(String offsetString) {
+		if (null == connectorNode) {
+			return null;
+		}
+		try {
+			return PdkUtil.decodeOffset(offsetString, connectorNode);
+		} catch (Exception e) {
+			obsLogger.warn("Decode stream offset from share cdc log failed, it will not be available when switching to normal cdc: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		super.close();
+		if (null != memoryKey) {
+			CommonUtils.ignoreAnyError(() -> PDKIntegration.unregisterMemoryFetcher(memoryKey), TAG);
+		}
+	}
+
+	@Override
+	public DataMap memory(String keyRegex, String memoryLevel) {
+		DataMap dataMap = new DataMap();
+		dataMap.put("running", isRunning());
+		dataMap.put("sequences", currentSequenceMap());
+		dataMap.put("lag", lag());
+		return dataMap;
+	}
 }
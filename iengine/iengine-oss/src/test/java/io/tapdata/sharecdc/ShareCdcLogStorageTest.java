@@ -0,0 +1,83 @@
+package io.tapdata.sharecdc;
+
+import com.tapdata.entity.sharecdc.LogContent;
+import com.tapdata.tm.shareCdcTableMapping.ShareCdcTableMappingDto;
+import io.tapdata.entity.event.TapEvent;
+import io.tapdata.entity.event.dml.TapDeleteRecordEvent;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import io.tapdata.entity.event.dml.TapUpdateRecordEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ShareCdcLogStorageTest {
+
+	private static Map<String, Object> data(int id, String name) {
+		Map<String, Object> data = new HashMap<>();
+		data.put("id", id);
+		data.put("name", name);
+		return data;
+	}
+
+	private static TapEvent roundTrip(TapEvent tapEvent) {
+		Document document = ShareCdcLogStorage.toDocument(tapEvent, "conn1", "offset");
+		Assertions.assertNotNull(document);
+		Assertions.assertEquals("conn1", document.getString("connectionId"));
+		Assertions.assertEquals("offset", document.getString("offsetString"));
+		return ShareCdcLogStorage.toTapEvent(LogContent.valueOf(document));
+	}
+
+	@Test
+	@DisplayName("test dml events survive the share cdc log round trip")
+	void testDmlRoundTrip() {
+		TapInsertRecordEvent insert = TapInsertRecordEvent.create().table("t1").after(data(1, "a")).referenceTime(1000L);
+		insert.setNamespaces(Arrays.asList("db", "schema"));
+		TapEvent insertResult = roundTrip(insert);
+		Assertions.assertTrue(insertResult instanceof TapInsertRecordEvent);
+		Assertions.assertEquals("t1", ((TapInsertRecordEvent) insertResult).getTableId());
+		Assertions.assertEquals(Arrays.asList("db", "schema"), ((TapInsertRecordEvent) insertResult).getNamespaces());
+		Assertions.assertEquals(data(1, "a"), ((TapInsertRecordEvent) insertResult).getAfter());
+		Assertions.assertEquals(1000L, ((TapInsertRecordEvent) insertResult).getReferenceTime());
+		Assertions.assertNotNull(insertResult.getTime());
+
+		TapUpdateRecordEvent update = TapUpdateRecordEvent.create().table("t1").before(data(1, "a")).after(data(1, "b")).referenceTime(2000L);
+		update.setRemovedFields(Collections.singletonList("old"));
+		update.setIsReplaceEvent(true);
+		TapEvent updateResult = roundTrip(update);
+		Assertions.assertTrue(updateResult instanceof TapUpdateRecordEvent);
+		Assertions.assertEquals(data(1, "a"), ((TapUpdateRecordEvent) updateResult).getBefore());
+		Assertions.assertEquals(data(1, "b"), ((TapUpdateRecordEvent) updateResult).getAfter());
+		Assertions.assertEquals(Collections.singletonList("old"), ((TapUpdateRecordEvent) updateResult).getRemovedFields());
+		Assertions.assertTrue(((TapUpdateRecordEvent) updateResult).getIsReplaceEvent());
+
+		TapDeleteRecordEvent delete = TapDeleteRecordEvent.create().table("t1").before(data(1, "b")).referenceTime(3000L);
+		TapEvent deleteResult = roundTrip(delete);
+		Assertions.assertTrue(deleteResult instanceof TapDeleteRecordEvent);
+		Assertions.assertEquals(data(1, "b"), ((TapDeleteRecordEvent) deleteResult).getBefore());
+	}
+
+	@Test
+	@DisplayName("test start time sign is skipped when reading")
+	void testStartTimeSign() {
+		Document sign = ShareCdcLogStorage.startTimeSign();
+		Assertions.assertNotNull(sign.getLong("timestamp"));
+		Assertions.assertNull(ShareCdcLogStorage.toTapEvent(LogContent.valueOf(sign)));
+	}
+
+	@Test
+	@DisplayName("test ring buffer name")
+	void testRingBufferName() {
+		ShareCdcTableMappingDto mapping = new ShareCdcTableMappingDto();
+		mapping.setConnectionId("conn1");
+		mapping.setTableName("t1");
+		Assertions.assertEquals("ExternalStorage_SHARE_CDC_" + "conn1_t1".hashCode(), ShareCdcLogStorage.ringBufferName(mapping));
+		mapping.setExternalStorageTableName("SHARE_CDC_1");
+		Assertions.assertEquals("SHARE_CDC_1", ShareCdcLogStorage.ringBufferName(mapping));
+	}
+}
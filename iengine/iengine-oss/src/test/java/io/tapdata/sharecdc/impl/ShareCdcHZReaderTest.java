@@ -0,0 +1,284 @@
+package io.tapdata.sharecdc.impl;
+
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.ringbuffer.Ringbuffer;
+import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.constant.HazelcastUtil;
+import com.tapdata.entity.Connections;
+import com.tapdata.entity.TapdataEvent;
+import com.tapdata.entity.TapdataShareLogEvent;
+import com.tapdata.entity.task.context.DataProcessorContext;
+import com.tapdata.mongo.ClientMongoOperator;
+import com.tapdata.tm.commons.dag.logCollector.LogCollectorNode;
+import com.tapdata.tm.commons.externalStorage.ExternalStorageDto;
+import com.tapdata.tm.commons.task.dto.TaskDto;
+import com.tapdata.tm.shareCdcTableMapping.ShareCdcTableMappingDto;
+import io.tapdata.construct.ConstructIterator;
+import io.tapdata.construct.constructImpl.ConstructRingBuffer;
+import io.tapdata.entity.TapProcessorNodeContext;
+import io.tapdata.entity.event.TapEvent;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCDCOffset;
+import io.tapdata.flow.engine.V2.sharecdc.ShareCdcTaskContext;
+import io.tapdata.loglistener.TapLogger;
+import io.tapdata.node.pdk.processor.TapTargetShareCDCNode;
+import io.tapdata.sharecdc.ShareCdcLogStorage;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+public class ShareCdcHZReaderTest {
+
+	private ShareCdcHZReader reader;
+
+	@BeforeEach
+	void setUp() {
+		reader = new ShareCdcHZReader(null) {
+			@Override
+			protected Object decodeStreamOffset(String offsetString) {
+				return offsetString;
+			}
+		};
+		reader.running.set(true);
+	}
+
+	@SuppressWarnings("unchecked")
+	private ShareCdcHZReader.TableReader tableReader(String table, List<Document> documents) throws Exception {
+		Ringbuffer<Document> ringbuffer = mock(Ringbuffer.class);
+		when(ringbuffer.headSequence()).thenReturn(0L);
+		ConstructIterator<Document> iterator = mock(ConstructIterator.class);
+		when(iterator.getSequence()).thenReturn(0L);
+		when(iterator.tryNextMany(anyInt(), any())).thenReturn(documents, Collections.emptyList());
+		ConstructRingBuffer<Document> ringBuffer = mock(ConstructRingBuffer.class);
+		when(ringBuffer.getRingbuffer()).thenReturn(ringbuffer);
+		when(ringBuffer.find(any())).thenReturn(iterator);
+		ShareCdcHZReader.TableReader tableReader = reader.new TableReader(table, ringBuffer, 0L);
+		reader.tableReaders.put(table, tableReader);
+		return tableReader;
+	}
+
+	private static List<Document> documents(String table, long fromTime, int count) {
+		List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			long time = fromTime + i;
+			TapEvent tapEvent = TapInsertRecordEvent.create().table(table).after(Collections.singletonMap("id", i)).referenceTime(time);
+			documents.add(ShareCdcLogStorage.toDocument(tapEvent, "conn1", table + "-" + time));
+		}
+		return documents;
+	}
+
+	@Test
+	@DisplayName("test stream offset comes from the slower table when tables are read at different speeds")
+	void testStreamOffsetFromSlowerTable() throws Exception {
+		ShareCdcHZReader.TableReader fast = tableReader("fast", documents("fast", 1000L, 100));
+		ShareCdcHZReader.TableReader slow = tableReader("slow", documents("slow", 1000L, 10));
+
+		Assertions.assertEquals(10, slow.read().size());
+		Assertions.assertEquals(100, fast.read().size());
+
+		ShareCDCOffset offset = reader.currentOffset();
+		Assertions.assertEquals("slow-1009", offset.getStreamOffset());
+		Assertions.assertEquals(1009L, offset.getStreamOffsetTime());
+	}
+
+	@Test
+	@DisplayName("test table without any event read keeps the initial stream offset time")
+	void testTableNotReadKeepsInitialTime() throws Exception {
+		ShareCdcHZReader.TableReader fast = tableReader("fast", documents("fast", 1000L, 100));
+		ShareCdcHZReader.TableReader idle = tableReader("idle", Collections.emptyList());
+		idle.streamOffset(null, 500L);
+
+		Assertions.assertEquals(100, fast.read().size());
+		Assertions.assertNull(idle.read());
+
+		ShareCDCOffset offset = reader.currentOffset();
+		Assertions.assertNull(offset.getStreamOffset());
+		Assertions.assertEquals(500L, offset.getStreamOffsetTime());
+	}
+
+	@Test
+	@DisplayName("test unknown stream offset time is treated as the earliest")
+	void testUnknownTimeIsEarliest() throws Exception {
+		ShareCdcHZReader.TableReader fast = tableReader("fast", documents("fast", 1000L, 100));
+		tableReader("unknown", Collections.emptyList());
+
+		fast.read();
+
+		ShareCDCOffset offset = reader.currentOffset();
+		Assertions.assertNull(offset.getStreamOffset());
+		Assertions.assertNull(offset.getStreamOffsetTime());
+		Assertions.assertEquals(2, offset.getSequenceMap().size());
+	}
+
+	@Nested
+	@DisplayName("Share cdc task writes, task reads")
+	class WriteThenReadTest {
+		private final Map<String, List<Document>> storage = new HashMap<>();
+		private final List<String> openedNames = new ArrayList<>();
+		private final List<ExternalStorageDto> openedStorages = new ArrayList<>();
+		private ClientMongoOperator originalClientMongoOperator;
+		private ExternalStorageDto externalStorageDto;
+		private ShareCdcTableMappingDto mapping;
+
+		@BeforeEach
+		void setUp() {
+			originalClientMongoOperator = ConnectorConstant.clientMongoOperator;
+			externalStorageDto = new ExternalStorageDto();
+			externalStorageDto.setId(new ObjectId());
+			externalStorageDto.setTtlDay(1);
+			// 映射缺少存储表名时, 两端都按映射生成名称
+			mapping = new ShareCdcTableMappingDto();
+			mapping.setConnectionId("conn1");
+			mapping.setTableName("t1");
+			mapping.setShareCdcTaskId(new ObjectId().toHexString());
+			mapping.setSign(mapping.genSign());
+			ClientMongoOperator clientMongoOperator = mock(ClientMongoOperator.class);
+			when(clientMongoOperator.find(any(), eq(ConnectorConstant.SHARE_CDC_TABLE_MAPPING_COLLECTION), eq(ShareCdcTableMappingDto.class)))
+					.thenReturn(Collections.singletonList(mapping));
+			when(clientMongoOperator.findOne(any(), eq(ConnectorConstant.SHARE_CDC_TABLE_MAPPING_COLLECTION), eq(ShareCdcTableMappingDto.class)))
+					.thenReturn(mapping);
+			when(clientMongoOperator.findOne(any(), eq(ConnectorConstant.EXTERNAL_STORAGE_COLLECTION), eq(ExternalStorageDto.class)))
+					.thenReturn(externalStorageDto);
+			ConnectorConstant.clientMongoOperator = clientMongoOperator;
+		}
+
+		@AfterEach
+		void tearDown() {
+			ConnectorConstant.clientMongoOperator = originalClientMongoOperator;
+		}
+
+		/**
+		 * 按名称保存在内存中的 RingBuffer, 同名的写入端和读取端看到同一份数据
+		 */
+		@SuppressWarnings("unchecked")
+		private void memoryRingBuffer(ConstructRingBuffer<Document> ringBuffer, MockedConstruction.Context context) throws Exception {
+			String name = (String) context.arguments().get(2);
+			openedNames.add(name);
+			openedStorages.add((ExternalStorageDto) context.arguments().get(3));
+			List<Document> documents = storage.computeIfAbsent(name, k -> new ArrayList<>());
+			when(ringBuffer.getName()).thenReturn(name);
+			when(ringBuffer.isEmpty()).thenAnswer(invocation -> documents.isEmpty());
+			doAnswer(invocation -> {
+				documents.add(invocation.getArgument(0));
+				return 1;
+			}).when(ringBuffer).insert(any());
+			doAnswer(invocation -> {
+				documents.addAll(invocation.getArgument(0));
+				return (long) documents.size();
+			}).when(ringBuffer).insertMany(any(), any());
+			when(ringBuffer.findSequence(anyLong())).thenReturn(0L);
+			Ringbuffer<Document> ringbuffer = mock(Ringbuffer.class);
+			when(ringbuffer.headSequence()).thenReturn(0L);
+			when(ringbuffer.tailSequence()).thenAnswer(invocation -> documents.size() - 1L);
+			when(ringBuffer.getRingbuffer()).thenReturn(ringbuffer);
+			when(ringBuffer.find(anyMap())).thenAnswer(invocation -> {
+				Object sequence = ((Map<String, Object>) invocation.getArgument(0)).get(ConstructRingBuffer.SEQUENCE_KEY);
+				long[] next = {null == sequence ? 0L : (Long) sequence};
+				ConstructIterator<Document> iterator = mock(ConstructIterator.class);
+				when(iterator.getSequence()).thenAnswer(i -> next[0]);
+				when(iterator.tryNext()).thenAnswer(i -> next[0] < documents.size() ? documents.get((int) next[0]++) : null);
+				when(iterator.tryNextMany(anyInt(), any())).thenAnswer(i -> {
+					int from = (int) next[0];
+					int to = Math.min(documents.size(), from + (int) i.getArgument(0));
+					next[0] = to;
+					return new ArrayList<>(documents.subList(from, to));
+				});
+				return iterator;
+			});
+		}
+
+		private TapTargetShareCDCNode writer() {
+			TaskDto taskDto = new TaskDto();
+			taskDto.setId(new ObjectId(mapping.getShareCdcTaskId()));
+			LogCollectorNode logCollectorNode = mock(LogCollectorNode.class);
+			when(logCollectorNode.getStorageTime()).thenReturn(7);
+			when(logCollectorNode.getConnectionIds()).thenReturn(Collections.singletonList("conn1"));
+			DataProcessorContext dataProcessorContext = mock(DataProcessorContext.class);
+			when(dataProcessorContext.getTaskDto()).thenReturn(taskDto);
+			when(dataProcessorContext.getNodes()).thenReturn(Collections.singletonList(logCollectorNode));
+			TapTargetShareCDCNode node = new TapTargetShareCDCNode(dataProcessorContext);
+			node.doInit(mock(Processor.Context.class), TapProcessorNodeContext.builder()
+					.externalStorageDto(externalStorageDto)
+					.obsLogger(mock(TapLogger.class))
+					.running(new AtomicBoolean(true))
+					.build());
+			return node;
+		}
+
+		private ShareCdcTaskContext shareCdcTaskContext(long cdcStartTs) {
+			Connections connections = new Connections();
+			connections.setId("conn1");
+			connections.setShareCdcEnable(true);
+			connections.setShareCDCExternalStorageId(externalStorageDto.getId().toHexString());
+			connections.setNamespace(Collections.singletonList("db"));
+			ShareCdcTaskContext shareCdcTaskContext = mock(ShareCdcTaskContext.class);
+			when(shareCdcTaskContext.getConnections()).thenReturn(connections);
+			when(shareCdcTaskContext.getTables()).thenReturn(Collections.singletonList("t1"));
+			when(shareCdcTaskContext.getCdcStartTs()).thenReturn(cdcStartTs);
+			when(shareCdcTaskContext.getObsLogger()).thenReturn(mock(TapLogger.class));
+			return shareCdcTaskContext;
+		}
+
+		@Test
+		@DisplayName("test a connection with namespace reads the ring buffer written by the share cdc task")
+		@SuppressWarnings("rawtypes")
+		void testRoundTripWithNamespace() throws Exception {
+			try (MockedStatic<HazelcastUtil> hazelcastUtil = mockStatic(HazelcastUtil.class);
+				 MockedConstruction<ConstructRingBuffer> construction = mockConstruction(ConstructRingBuffer.class,
+						 (ringBuffer, context) -> memoryRingBuffer(ringBuffer, context))) {
+				TapTargetShareCDCNode writer = writer();
+				long cdcStartTs = System.currentTimeMillis();
+				TapdataShareLogEvent shareLogEvent = new TapdataShareLogEvent();
+				shareLogEvent.setTapEvent(TapInsertRecordEvent.create().table("t1").after(Collections.singletonMap("id", 1)).referenceTime(cdcStartTs));
+				shareLogEvent.addInfo(TapdataEvent.CONNECTION_ID_INFO_KEY, "conn1");
+				writer.processShareLog(Collections.singletonList(shareLogEvent));
+
+				reader.init(shareCdcTaskContext(cdcStartTs));
+				List<TapEvent> events = reader.tableReaders.get("t1").read();
+
+				Assertions.assertEquals(2, openedNames.size());
+				Assertions.assertEquals(openedNames.get(0), openedNames.get(1));
+				Assertions.assertEquals(1, storage.size());
+				Assertions.assertEquals(1, events.size());
+				Assertions.assertEquals(Collections.singletonMap("id", 1), ((TapInsertRecordEvent) events.get(0)).getAfter());
+			}
+		}
+
+		@Test
+		@DisplayName("test log ttl of the share cdc task is applied to a copy of the external storage")
+		@SuppressWarnings("rawtypes")
+		void testTtlOnCopy() {
+			try (MockedConstruction<ConstructRingBuffer> construction = mockConstruction(ConstructRingBuffer.class,
+					(ringBuffer, context) -> memoryRingBuffer(ringBuffer, context))) {
+				writer();
+				Assertions.assertEquals(7, openedStorages.get(0).getTtlDay());
+				Assertions.assertEquals(1, externalStorageDto.getTtlDay());
+			}
+		}
+	}
+}
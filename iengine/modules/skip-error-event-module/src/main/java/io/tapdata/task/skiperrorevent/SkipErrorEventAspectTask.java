@@ -3,7 +3,10 @@ package io.tapdata.task.skiperrorevent;
 import com.alibaba.fastjson.JSON;
 import com.tapdata.constant.BeanUtil;
 import com.tapdata.constant.ConnectorConstant;
+import com.tapdata.constant.HazelcastUtil;
+import com.tapdata.entity.task.context.DataProcessorContext;
 import com.tapdata.mongo.ClientMongoOperator;
+import com.tapdata.tm.commons.externalStorage.ExternalStorageDto;
 import com.tapdata.tm.commons.task.dto.TaskDto;
 import io.tapdata.ErrorCodeConfig;
 import io.tapdata.ErrorCodeEntity;
@@ -15,6 +18,7 @@ import io.tapdata.aspect.task.AspectTaskSession;
 import io.tapdata.entity.aspect.AspectInterceptResult;
 import io.tapdata.entity.event.dml.TapRecordEvent;
 import io.tapdata.exception.TapCodeException;
+import io.tapdata.flow.engine.V2.util.ExternalStorageUtil;
 import org.apache.logging.log4j.*;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -27,6 +31,7 @@ import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 
 @AspectTaskSession(includeTypes = {TaskDto.SYNC_TYPE_MIGRATE, TaskDto.SYNC_TYPE_SYNC}, ignoreErrors = false)
@@ -47,6 +52,7 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
     private ClientMongoOperator clientMongoOperator;
     private final AtomicReference<Future<?>> storeFuture = new AtomicReference<>();
     private SplitFileLogger logger;
+    private ExternalStorageDto externalStorageDto;
 
     public SkipErrorEventAspectTask() {
         interceptHandlers.register(SkipErrorDataAspect.class, this::skipErrorDataNoeAspectHandle);
@@ -91,12 +97,36 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
         return getTypeMetrics(tableMetrics, type);
     }
 
-    private boolean checkSkip(String tableName, TapRecordEvent tapRecordEvent, Throwable ex) {
+    private void storeSkipEvent(SkipErrorEventStore store, String tableName, TapRecordEvent tapRecordEvent, Throwable ex) {
+        if (null == store) return;
+        try {
+            store.add(tableName, tapRecordEvent, ((TapCodeException) ex).getCode(), ex.getMessage());
+        } catch (Exception e) {
+            logger.warn("task-{} store skip event failed: {}", taskId, e.getMessage());
+        }
+    }
+
+    private SkipErrorEventStore getStore(SkipErrorDataAspect aspect) {
+        DataProcessorContext dataProcessorContext = aspect.getDataProcessorContext();
+        if (null == externalStorageDto || null == dataProcessorContext || null == dataProcessorContext.getNode()) return null;
+        try {
+            SkipErrorEventStore store = SkipErrorEventStore.getOrCreate(HazelcastUtil.getInstance(), externalStorageDto, taskId, dataProcessorContext.getNode().getId());
+            store.bindReplayer(aspect.getTapTable().getId(), aspect.getReplayFunction());
+            return store;
+        } catch (Exception e) {
+            log.warn("Skip error event store is not available: {}", e.getMessage(), e);
+            externalStorageDto = null;
+            return null;
+        }
+    }
+
+    private boolean checkSkip(SkipErrorEventStore store, String tableName, TapRecordEvent tapRecordEvent, Throwable ex) {
         if (checkSkipByThrowable(ex)) {
             long syncCounts = getTypeMetrics(tableName, METRICS_SYNC).get();
             long skipCounts = getTypeMetrics(tableName, METRICS_SKIP).addAndGet(1);
             if (checkSkipByLimitMode(syncCounts, skipCounts)) {
                 logSkipEvent(tapRecordEvent, ex);
+                storeSkipEvent(store, tableName, tapRecordEvent, ex);
                 return true;
             }
         }
@@ -201,6 +231,12 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
                 }
             }).orElse(false)) {
                 this.skipErrorDataNoeAspect = this::skipErrorDataNoeAspectImpl;
+                try {
+                    // 跳过的事件保存到引擎本地外存, 用于检索和修复后重放
+                    this.externalStorageDto = ExternalStorageUtil.getTapdataOrDefaultExternalStorage();
+                } catch (Exception e) {
+                    log.warn("Skip error event store is not enable: {}", e.getMessage(), e);
+                }
             }
         } catch (Exception e) {
             log.warn("Skip error event is not enable: {}", e.getMessage(), e);
@@ -211,6 +247,7 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
     public void onStop(TaskStopAspect stopAspect) {
         try {
             stopStoreFuture();
+            SkipErrorEventStore.release(taskId);
         } finally {
             try {
                 this.logger.close();
@@ -242,9 +279,23 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
         aspect.getPdkMethodInvoker().setEnableSkipErrorEvent(true);
 
         String tableId = aspect.getTapTable().getId();
+        SkipErrorEventStore store = getStore(aspect);
         AspectInterceptResult result = new AspectInterceptResult();
         result.setIntercepted(true);
 
+        // 与重放共用写入锁, 重放不会与节点写入并发
+        Lock writeLock = null == store ? null : store.getWriteLock();
+        if (null != writeLock) writeLock.lock();
+        try {
+            writeWithSkip(aspect, store, tableId);
+        } finally {
+            if (null != writeLock) writeLock.unlock();
+        }
+
+        return result;
+    }
+
+    private void writeWithSkip(SkipErrorDataAspect aspect, SkipErrorEventStore store, String tableId) {
         try {
             aspect.getWriteRecordFunction().apply(aspect.getTapRecordEvents());
             getTypeMetrics(tableId, METRICS_SYNC).addAndGet(aspect.getTapRecordEvents().size());
@@ -256,7 +307,7 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
                         aspect.getWriteRecordFunction().apply(Collections.singletonList(tapRecordEvent));
                         getTypeMetrics(tableId, METRICS_SYNC).addAndGet(1);
                     } catch (Throwable e2) {
-                        if (!checkSkip(tableId, tapRecordEvent, e2)) {
+                        if (!checkSkip(store, tableId, tapRecordEvent, e2)) {
                             throw new RuntimeException(e2);
                         }
                     }
@@ -267,7 +318,5 @@ public class SkipErrorEventAspectTask extends AbstractAspectTask {
                 throw new RuntimeException(e1);
             }
         }
-
-        return result;
     }
 }
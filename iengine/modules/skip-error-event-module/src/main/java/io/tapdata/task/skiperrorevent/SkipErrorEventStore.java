@@ -0,0 +1,331 @@
+package io.tapdata.task.skiperrorevent;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.tapdata.tm.commons.externalStorage.ExternalStorageDto;
+import com.tapdata.tm.commons.function.ThrowableFunction;
+import io.tapdata.construct.constructImpl.ConstructIMap;
+import io.tapdata.entity.event.dml.TapRecordEvent;
+import io.tapdata.entity.utils.InstanceFactory;
+import io.tapdata.entity.utils.ObjectSerializable;
+import io.tapdata.flow.engine.V2.util.TapEventUtil;
+import io.tapdata.pdk.core.utils.CommonUtils;
+import org.apache.commons.collections4.MapUtils;
+import org.bson.Document;
+import org.bson.types.Binary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 跳过的错误事件死信存储, 每个任务的每个目标节点一份, 存放在引擎本地外存中
+ * <p>
+ * 条目以 (表, 操作类型, 修改前后的数据) 的摘要为 key, 同一数据重复跳过只保留一条; 超过容量时淘汰最早的条目;
+ * 内存中只保留用于检索的索引 (表, 错误码, 时间), 事件本体序列化后保存在外存;
+ * 重放时通过目标节点的重放函数逐条写回, 与节点自身的写入共用 {@link #getWriteLock()} 串行执行,
+ * 连接器返回的 errorMap 为空才删除条目, 同一条目不会被重放两次
+ * <p>
+ * 任务停止后内存索引释放, 外存中的数据保留, 可以通过 {@link #open} 检索; 重放需要任务运行中
+ */
+public class SkipErrorEventStore {
+	public static final String MAX_SIZE_PROP_KEY = "SKIP_ERROR_EVENT_STORE_MAX_SIZE";
+	public static final int DEFAULT_MAX_SIZE = 10000;
+	private static final String NAME_PREFIX = "SkipErrorEvent_";
+
+	public static final String FIELD_NODE_ID = "nodeId";
+	public static final String FIELD_TABLE = "table";
+	public static final String FIELD_ERROR_CODE = "errorCode";
+	public static final String FIELD_ERROR_MESSAGE = "errorMessage";
+	public static final String FIELD_REFERENCE_TIME = "referenceTime";
+	public static final String FIELD_SKIP_TIME = "skipTime";
+	public static final String FIELD_EVENT = "event";
+
+	private static final Map<String, SkipErrorEventStore> STORES = new ConcurrentHashMap<>();
+
+	private final String taskId;
+	private final String nodeId;
+	private final int maxSize;
+	private final ConstructIMap<Document> storage;
+	/**
+	 * key -> 索引, 按写入顺序排列, 用于淘汰和检索
+	 */
+	private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>();
+	/**
+	 * table -> 目标节点的重放函数, 任务运行期间用于重放
+	 */
+	private final Map<String, ThrowableFunction<Map<TapRecordEvent, Throwable>, List<TapRecordEvent>, Throwable>> replayers = new ConcurrentHashMap<>();
+	private final Lock writeLock = new ReentrantLock();
+
+	protected SkipErrorEventStore(HazelcastInstance hazelcastInstance, ExternalStorageDto externalStorageDto, String taskId, String nodeId, int maxSize) {
+		this(new ConstructIMap<>(hazelcastInstance, taskId, name(taskId, nodeId), externalStorageDto), taskId, nodeId, maxSize);
+	}
+
+	SkipErrorEventStore(ConstructIMap<Document> storage, String taskId, String nodeId, int maxSize) {
+		this.taskId = taskId;
+		this.nodeId = nodeId;
+		this.maxSize = maxSize;
+		this.storage = storage;
+		loadIndex();
+	}
+
+	public static SkipErrorEventStore getOrCreate(HazelcastInstance hazelcastInstance, ExternalStorageDto externalStorageDto, String taskId, String nodeId) {
+		return STORES.computeIfAbsent(taskId + "_" + nodeId, k -> new SkipErrorEventStore(
+				hazelcastInstance, externalStorageDto, taskId, nodeId, CommonUtils.getPropertyInt(MAX_SIZE_PROP_KEY, DEFAULT_MAX_SIZE)));
+	}
+
+	/**
+	 * 打开已停止任务的存储用于检索, 不登记到运行中的存储
+	 */
+	public static SkipErrorEventStore open(HazelcastInstance hazelcastInstance, ExternalStorageDto externalStorageDto, String taskId, String nodeId) {
+		return new SkipErrorEventStore(hazelcastInstance, externalStorageDto, taskId, nodeId, CommonUtils.getPropertyInt(MAX_SIZE_PROP_KEY, DEFAULT_MAX_SIZE));
+	}
+
+	/**
+	 * @return 任务未运行过或未跳过事件时返回 null
+	 */
+	public static SkipErrorEventStore get(String taskId, String nodeId) {
+		return STORES.get(taskId + "_" + nodeId);
+	}
+
+	public static List<SkipErrorEventStore> getAll(String taskId) {
+		List<SkipErrorEventStore> stores = new ArrayList<>();
+		for (SkipErrorEventStore store : STORES.values()) {
+			if (store.taskId.equals(taskId)) {
+				stores.add(store);
+			}
+		}
+		return stores;
+	}
+
+	/**
+	 * 任务停止时释放内存索引, 外存中的数据保留, 用于修复目标后重放
+	 */
+	public static void release(String taskId) {
+		STORES.values().removeIf(store -> store.taskId.equals(taskId));
+	}
+
+	private static String name(String taskId, String nodeId) {
+		return NAME_PREFIX + String.join("_", taskId, nodeId).hashCode();
+	}
+
+	private void loadIndex() {
+		List<Entry> entries = new ArrayList<>();
+		for (Map.Entry<String, Object> e : storage.getiMap().entrySet()) {
+			if (e.getValue() instanceof Document) {
+				entries.add(Entry.of(e.getKey(), (Document) e.getValue()));
+			}
+		}
+		entries.sort((e1, e2) -> Long.compare(e1.skipTime, e2.skipTime));
+		synchronized (index) {
+			for (Entry entry : entries) {
+				index.put(entry.key, entry);
+			}
+		}
+	}
+
+	public String getTaskId() {
+		return taskId;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * 目标节点写入和重放共用的锁, 保证重放不会与节点写入并发
+	 */
+	public Lock getWriteLock() {
+		return writeLock;
+	}
+
+	public int size() {
+		synchronized (index) {
+			return index.size();
+		}
+	}
+
+	/**
+	 * @return 同一事件已存在时返回 false
+	 */
+	public boolean add(String table, TapRecordEvent tapRecordEvent, String errorCode, String errorMessage) throws Exception {
+		byte[] bytes = InstanceFactory.instance(ObjectSerializable.class).fromObject(tapRecordEvent);
+		String key = key(table, tapRecordEvent);
+		Entry entry = new Entry(key, table, errorCode, tapRecordEvent.getReferenceTime(), System.currentTimeMillis());
+		List<String> evicted = new ArrayList<>();
+		synchronized (index) {
+			if (index.containsKey(key)) {
+				return false;
+			}
+			index.put(key, entry);
+			Iterator<String> iterator = index.keySet().iterator();
+			while (index.size() > maxSize && iterator.hasNext()) {
+				evicted.add(iterator.next());
+				iterator.remove();
+			}
+		}
+		storage.insert(key, new Document(FIELD_NODE_ID, nodeId)
+				.append(FIELD_TABLE, table)
+				.append(FIELD_ERROR_CODE, errorCode)
+				.append(FIELD_ERROR_MESSAGE, errorMessage)
+				.append(FIELD_REFERENCE_TIME, entry.referenceTime)
+				.append(FIELD_SKIP_TIME, entry.skipTime)
+				.append(FIELD_EVENT, bytes));
+		for (String evictedKey : evicted) {
+			storage.delete(evictedKey);
+		}
+		return true;
+	}
+
+	/**
+	 * 按条件检索, 条件为 null 表示不限制
+	 *
+	 * @param fromTime 跳过时间下限 (包含)
+	 * @param toTime   跳过时间上限 (不包含)
+	 */
+	public List<Entry> search(String table, String errorCode, Long fromTime, Long toTime, int limit) {
+		Predicate<Entry> filter = filter(table, errorCode, fromTime, toTime);
+		List<Entry> result = new ArrayList<>();
+		synchronized (index) {
+			for (Entry entry : index.values()) {
+				if (limit > 0 && result.size() >= limit) break;
+				if (filter.test(entry)) {
+					result.add(entry);
+				}
+			}
+		}
+		return result;
+	}
+
+	public TapRecordEvent findEvent(String key) throws Exception {
+		Document document = storage.find(key);
+		if (null == document) {
+			return null;
+		}
+		Object event = document.get(FIELD_EVENT);
+		byte[] bytes = event instanceof Binary ? ((Binary) event).getData() : (byte[]) event;
+		return (TapRecordEvent) InstanceFactory.instance(ObjectSerializable.class).toObject(bytes);
+	}
+
+	public void remove(String key) throws Exception {
+		synchronized (index) {
+			index.remove(key);
+		}
+		storage.delete(key);
+	}
+
+	/**
+	 * 事件的时间等元数据不参与摘要, 同一数据多次跳过得到相同的 key
+	 */
+	static String key(String table, TapRecordEvent tapRecordEvent) {
+		Object content = Arrays.asList(TapEventUtil.getOp(tapRecordEvent), sorted(TapEventUtil.getBefore(tapRecordEvent)), sorted(TapEventUtil.getAfter(tapRecordEvent)));
+		return table + "_" + UUID.nameUUIDFromBytes(InstanceFactory.instance(ObjectSerializable.class).fromObject(content));
+	}
+
+	private static Map<String, Object> sorted(Map<String, Object> map) {
+		return null == map ? null : new TreeMap<>(map);
+	}
+
+	public void bindReplayer(String table, ThrowableFunction<Map<TapRecordEvent, Throwable>, List<TapRecordEvent>, Throwable> replayer) {
+		if (null != replayer) {
+			replayers.put(table, replayer);
+		}
+	}
+
+	/**
+	 * 将符合条件的事件重新写入目标, 遇到写入失败时停止并抛出异常, 失败的条目保留, 已成功的条目删除
+	 *
+	 * @return 重放成功的条数
+	 */
+	public int replay(String table, String errorCode, Long fromTime, Long toTime, int limit) throws Throwable {
+		int replayed = 0;
+		writeLock.lock();
+		try {
+			for (Entry entry : search(table, errorCode, fromTime, toTime, limit)) {
+				ThrowableFunction<Map<TapRecordEvent, Throwable>, List<TapRecordEvent>, Throwable> replayer = replayers.get(entry.table);
+				if (null == replayer) {
+					throw new IllegalStateException("Table " + entry.table + " of node " + nodeId + " has no writer, the task must be running to replay skipped events");
+				}
+				TapRecordEvent tapRecordEvent = findEvent(entry.key);
+				if (null != tapRecordEvent) {
+					Map<TapRecordEvent, Throwable> errorMap = replayer.apply(Collections.singletonList(tapRecordEvent));
+					if (MapUtils.isNotEmpty(errorMap)) {
+						Throwable error = errorMap.values().iterator().next();
+						throw new IllegalStateException("Replay skipped event " + entry.key + " failed: " + (null == error ? null : error.getMessage()), error);
+					}
+					replayed++;
+				}
+				remove(entry.key);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		return replayed;
+	}
+
+	public void clear() throws Exception {
+		synchronized (index) {
+			index.clear();
+		}
+		storage.clear();
+	}
+
+	public static Predicate<Entry> filter(String table, String errorCode, Long fromTime, Long toTime) {
+		return entry -> (null == table || table.equals(entry.table))
+				&& (null == errorCode || errorCode.equals(entry.errorCode))
+				&& (null == fromTime || entry.skipTime >= fromTime)
+				&& (null == toTime || entry.skipTime < toTime);
+	}
+
+	public static class Entry {
+		private final String key;
+		private final String table;
+		private final String errorCode;
+		private final Long referenceTime;
+		private final long skipTime;
+
+		public Entry(String key, String table, String errorCode, Long referenceTime, long skipTime) {
+			this.key = key;
+			this.table = table;
+			this.errorCode = errorCode;
+			this.referenceTime = referenceTime;
+			this.skipTime = skipTime;
+		}
+
+		private static Entry of(String key, Document document) {
+			Number referenceTime = (Number) document.get(FIELD_REFERENCE_TIME);
+			Number skipTime = (Number) document.get(FIELD_SKIP_TIME);
+			return new Entry(key, document.getString(FIELD_TABLE), document.getString(FIELD_ERROR_CODE),
+					null == referenceTime ? null : referenceTime.longValue(), null == skipTime ? 0L : skipTime.longValue());
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public String getTable() {
+			return table;
+		}
+
+		public String getErrorCode() {
+			return errorCode;
+		}
+
+		public Long getReferenceTime() {
+			return referenceTime;
+		}
+
+		public long getSkipTime() {
+			return skipTime;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package io.tapdata.task.skiperrorevent;
+
+import com.hazelcast.map.IMap;
+import io.tapdata.construct.constructImpl.ConstructIMap;
+import io.tapdata.entity.event.dml.TapInsertRecordEvent;
+import io.tapdata.entity.event.dml.TapRecordEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SkipErrorEventStoreTest {
+
+	private Map<String, Document> data;
+	private SkipErrorEventStore store;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		data = new HashMap<>();
+		ConstructIMap<Document> storage = mock(ConstructIMap.class);
+		IMap<String, Object> iMap = mock(IMap.class);
+		when(iMap.entrySet()).thenReturn(Collections.emptySet());
+		when(storage.getiMap()).thenReturn(iMap);
+		doAnswer(invocation -> {
+			data.put(invocation.getArgument(0), invocation.getArgument(1));
+			return 1;
+		}).when(storage).insert(anyString(), any());
+		doAnswer(invocation -> data.get((String) invocation.getArgument(0))).when(storage).find(anyString());
+		doAnswer(invocation -> null == data.remove((String) invocation.getArgument(0)) ? 0 : 1).when(storage).delete(anyString());
+		store = new SkipErrorEventStore(storage, "task", "node", 10);
+	}
+
+	private static TapInsertRecordEvent insert(int id, long time) {
+		Map<String, Object> after = new HashMap<>();
+		after.put("id", id);
+		after.put("name", "name" + id);
+		TapInsertRecordEvent event = TapInsertRecordEvent.create().table("t1").after(after).referenceTime(time);
+		event.setTime(time);
+		return event;
+	}
+
+	@Test
+	@DisplayName("test the same data skipped at different times is stored once")
+	void testDedupeIgnoresTime() throws Exception {
+		Assertions.assertEquals(SkipErrorEventStore.key("t1", insert(1, 1000L)), SkipErrorEventStore.key("t1", insert(1, 2000L)));
+		Assertions.assertNotEquals(SkipErrorEventStore.key("t1", insert(1, 1000L)), SkipErrorEventStore.key("t1", insert(2, 1000L)));
+
+		Assertions.assertTrue(store.add("t1", insert(1, 1000L), "code", "message"));
+		Assertions.assertFalse(store.add("t1", insert(1, 2000L), "code", "message"));
+		Assertions.assertEquals(1, store.size());
+	}
+
+	@Test
+	@DisplayName("test entry is kept when the connector returns the event in errorMap")
+	void testReplayKeepsFailedEntry() throws Exception {
+		store.add("t1", insert(1, 1000L), "code", "message");
+		store.bindReplayer("t1", events -> Collections.<TapRecordEvent, Throwable>singletonMap(events.get(0), new RuntimeException("still failed")));
+
+		Assertions.assertThrows(IllegalStateException.class, () -> store.replay(null, null, null, null, 0));
+		Assertions.assertEquals(1, store.size());
+		Assertions.assertEquals(1, data.size());
+	}
+
+	@Test
+	@DisplayName("test entry is removed after the event is written")
+	void testReplayRemovesWrittenEntry() throws Throwable {
+		store.add("t1", insert(1, 1000L), "code", "message");
+		store.add("t1", insert(2, 1000L), "code", "message");
+		store.bindReplayer("t1", events -> Collections.emptyMap());
+
+		Assertions.assertEquals(2, store.replay("t1", "code", null, null, 0));
+		Assertions.assertEquals(0, store.size());
+		Assertions.assertTrue(data.isEmpty());
+	}
+
+	@Test
+	@DisplayName("test replay without a running writer keeps the entries")
+	void testReplayWithoutReplayer() throws Exception {
+		store.add("t1", insert(1, 1000L), "code", "message");
+		Assertions.assertThrows(IllegalStateException.class, () -> store.replay(null, null, null, null, 0));
+		Assertions.assertEquals(1, store.size());
+	}
+
+	@Test
+	@DisplayName("test replay waits for the node write holding the write lock")
+	void testReplaySerializedWithNodeWrite() throws Exception {
+		store.add("t1", insert(1, 1000L), "code", "message");
+		AtomicBoolean heldByReplay = new AtomicBoolean();
+		store.bindReplayer("t1", events -> {
+			heldByReplay.set(((ReentrantLock) store.getWriteLock()).isHeldByCurrentThread());
+			return Collections.<TapRecordEvent, Throwable>emptyMap();
+		});
+
+		store.getWriteLock().lock();
+		CountDownLatch replayed = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			try {
+				store.replay(null, null, null, null, 0);
+			} catch (Throwable ignored) {
+			}
+			replayed.countDown();
+		});
+		try {
+			thread.start();
+			Assertions.assertFalse(replayed.await(200, TimeUnit.MILLISECONDS));
+			Assertions.assertEquals(1, store.size());
+		} finally {
+			store.getWriteLock().unlock();
+		}
+		Assertions.assertTrue(replayed.await(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(heldByReplay.get());
+		Assertions.assertEquals(0, store.size());
+	}
+
+	@Test
+	@DisplayName("test search by table and skip time")
+	void testSearch() throws Exception {
+		store.add("t1", insert(1, 1000L), "code1", "message");
+		store.add("t2", insert(2, 1000L), "code2", "message");
+		List<SkipErrorEventStore.Entry> entries = store.search("t2", null, null, null, 0);
+		Assertions.assertEquals(1, entries.size());
+		Assertions.assertEquals("code2", entries.get(0).getErrorCode());
+		Assertions.assertTrue(store.search(null, null, System.currentTimeMillis() + 1000L, null, 0).isEmpty());
+	}
+}
@@ -6,10 +6,12 @@ import lombok.Data;
 import org.bson.codecs.pojo.annotations.BsonId;
 import org.springframework.data.mongodb.core.mapping.Field;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Data
 public class MeasurementEntity {
@@ -22,6 +24,13 @@ public class MeasurementEntity {
     public static final String FIELD_LAST = "last";
     public static final String FIELD_TAGS = "tags";
     public static final String FIELD_SAMPLES = "ss";
+    /**
+     * pre-aggregated buckets written at ingest time, keyed by the bucket start millis
+     */
+    public static final String FIELD_ACCUMULATORS = "acc";
+    public static final String FIELD_ACCUMULATOR_COUNT = "n";
+    public static final String FIELD_ACCUMULATOR_VALUES = "vs";
+    public static final String FIELD_EXPIRE_AT = "expireAt";
 
     @BsonId
     private String id;
@@ -41,14 +50,82 @@ public class MeasurementEntity {
     private Map<String, String> tags;
     @Field(FIELD_SAMPLES)
     private List<Sample> samples;
+    @Field(FIELD_ACCUMULATORS)
+    private Map<String, Accumulator> accumulators;
+    @Field(FIELD_EXPIRE_AT)
+    private Date expireAt;
+
+    @Data
+    public static class Accumulator {
+        @Field(FIELD_ACCUMULATOR_COUNT)
+        private Long count;
+        @Field(FIELD_ACCUMULATOR_VALUES)
+        private Map<String, Number> values;
+    }
+
+    /**
+     * Samples of this document, the buckets aggregated at ingest time are averaged into one sample per bucket and
+     * replace the sample with the same date aggregated by schedule
+     * @return samples sorted by date
+     */
+    public List<Sample> mergedSamples() {
+        Map<Long, Sample> merged = new TreeMap<>();
+        if (null != samples) {
+            for (Sample sample : samples) {
+                if (null != sample.getDate()) {
+                    merged.put(sample.getDate().getTime(), sample);
+                }
+            }
+        }
+        if (null != accumulators) {
+            for (Map.Entry<String, Accumulator> entry : accumulators.entrySet()) {
+                Accumulator accumulator = entry.getValue();
+                if (null == accumulator || null == accumulator.getCount() || accumulator.getCount() <= 0 || null == accumulator.getValues()) {
+                    continue;
+                }
+                long time;
+                try {
+                    time = Long.parseLong(entry.getKey());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Map<String, Number> vs = new HashMap<>();
+                for (Map.Entry<String, Number> value : accumulator.getValues().entrySet()) {
+                    if (null != value.getValue()) {
+                        vs.put(value.getKey(), NumberUtils.divideNumbers(value.getValue(), accumulator.getCount().intValue()));
+                    }
+                }
+                Sample sample = new Sample();
+                sample.setDate(new Date(time));
+                sample.setVs(vs);
+                merged.put(time, sample);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
 
     public Map<String, Number> averageValues() {
+        return averageValues(samples);
+    }
+
+    /**
+     * Average of {@link #mergedSamples()}, covers the documents of the tiers aggregated at ingest time which only
+     * have the buckets and no samples
+     */
+    public Map<String, Number> mergedAverageValues() {
+        return averageValues(mergedSamples());
+    }
+
+    private static Map<String, Number> averageValues(List<Sample> samples) {
         Map<String, Number> finalKeyValueMap = new HashMap<>();
         Map<String, Number> keyValueMap = new HashMap<>();
         Map<String, Integer> keyCounterMap = new HashMap<>();
         if(samples != null) {
             for(Sample sample : samples) {
                 Map<String, Number> map = sample.getVs();
+                if (null == map) {
+                    continue;
+                }
                 for(Map.Entry<String, Number> entry : map.entrySet()) {
                     Number number = keyValueMap.get(entry.getKey());
                     if(number == null) {
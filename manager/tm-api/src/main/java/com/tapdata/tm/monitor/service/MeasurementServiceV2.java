@@ -14,6 +14,7 @@ import io.tapdata.common.sample.request.Sample;
 import io.tapdata.common.sample.request.SampleRequest;
 import org.springframework.data.mongodb.core.query.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +31,11 @@ public interface MeasurementServiceV2 {
 
     void aggregateMeasurementByGranularity(Map<String, String> queryTags, long start, long end, String granularity);
 
+    /**
+     * @return true if hour/day/month samples are aggregated at ingest time and need no scheduled aggregation
+     */
+    boolean isIncrementalTier();
+
     void deleteTaskMeasurement(String taskId);
 
     Long[] countEventByTaskRecord(String taskId, String taskRecordId);
@@ -42,6 +48,12 @@ public interface MeasurementServiceV2 {
 
     MeasurementEntity findLastMinuteByTaskId(String taskId);
 
+    /**
+     * 一次查询多个任务从 start 开始的分钟级平均输入 qps
+     * @return taskId -> qps, 没有统计数据的任务不在结果中
+     */
+    Map<String, Double> findTaskAvgInputQps(Collection<String> taskIds, long start);
+
     void queryTableMeasurement(String taskId, TableStatusInfoDto tableStatusInfoDto);
 
 }
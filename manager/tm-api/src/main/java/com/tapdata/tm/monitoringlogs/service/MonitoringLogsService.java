@@ -9,6 +9,7 @@ import com.tapdata.tm.monitoringlogs.param.MonitoringLogCountParam;
 import com.tapdata.tm.monitoringlogs.param.MonitoringLogExportParam;
 import com.tapdata.tm.monitoringlogs.param.MonitoringLogQueryParam;
 import com.tapdata.tm.monitoringlogs.vo.MonitoringLogCountVo;
+import com.tapdata.tm.monitoringlogs.vo.MonitoringLogIngestVo;
 import com.tapdata.tm.statemachine.enums.DataFlowEvent;
 import com.tapdata.tm.statemachine.model.StateMachineResult;
 import com.tapdata.tm.task.entity.TaskDagCheckLog;
@@ -20,6 +21,11 @@ import java.util.zip.ZipOutputStream;
 public interface MonitoringLogsService {
     void batchSave(List<MonitoringLogsDto> monitoringLoges, UserDetail user);
 
+    /**
+     * 引擎上报日志入口, 日志进入写入队列后立即返回, 由后台线程合并批量写库
+     */
+    MonitoringLogIngestVo ingest(List<MonitoringLogsDto> monitoringLoges, UserDetail user);
+
     Page<MonitoringLogsDto> query(MonitoringLogQueryParam param);
 
     List<MonitoringLogCountVo> count(MonitoringLogCountParam param);
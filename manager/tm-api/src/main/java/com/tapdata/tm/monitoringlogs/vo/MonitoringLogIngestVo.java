@@ -0,0 +1,15 @@
+package com.tapdata.tm.monitoringlogs.vo;
+
+import lombok.Data;
+
+/**
+ * 监控日志上报结果, retryAfter 大于0时引擎应等待对应毫秒数后再上报; directWritten 为队列已满时由本次请求直接写库的条数
+ */
+@Data
+public class MonitoringLogIngestVo {
+    private Integer accepted;
+    private Integer merged;
+    private Integer directWritten;
+    private Integer pending;
+    private Long retryAfter;
+}
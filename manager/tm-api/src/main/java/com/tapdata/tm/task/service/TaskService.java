@@ -21,6 +21,8 @@ import com.tapdata.tm.task.entity.TaskEntity;
 import com.tapdata.tm.task.param.LogSettingParam;
 import com.tapdata.tm.task.param.SaveShareCacheParam;
 import com.tapdata.tm.task.repository.TaskRepository;
+import com.tapdata.tm.task.vo.BatchStartJobVo;
+import com.tapdata.tm.task.vo.TaskImportResultVo;
 import com.tapdata.tm.task.vo.ShareCacheDetailVo;
 import com.tapdata.tm.task.vo.ShareCacheVo;
 import com.tapdata.tm.task.vo.TaskDetailVo;
@@ -115,6 +117,10 @@ public abstract class TaskService extends BaseService<TaskDto, TaskEntity, Objec
     public abstract List<MutiResponseMessage> batchStart(List<ObjectId> taskIds, UserDetail user,
                                          HttpServletRequest request, HttpServletResponse response);
 
+    public abstract BatchStartJobVo batchStartAsync(List<ObjectId> taskIds, UserDetail user, HttpServletRequest request);
+
+    public abstract BatchStartJobVo findBatchStartJob(String jobId, UserDetail user);
+
     public abstract int subCronOrPlanNum(TaskDto task, int runningNum);
 
     public abstract boolean checkIsCronOrPlanTask(TaskDto task);
@@ -188,7 +194,11 @@ public abstract class TaskService extends BaseService<TaskDto, TaskEntity, Objec
 
     public abstract void checkJsProcessorTestRun(UserDetail user, List<TaskDto> tpTasks);
 
-    public abstract void batchUpTask(MultipartFile multipartFile, UserDetail user, boolean cover, List<String> tags);
+    public abstract TaskImportResultVo batchUpTask(MultipartFile multipartFile, UserDetail user, boolean cover, List<String> tags);
+
+    public abstract TaskImportResultVo batchUpTaskAsync(MultipartFile multipartFile, UserDetail user, boolean cover, List<String> tags);
+
+    public abstract TaskImportResultVo findImportJob(String jobId, UserDetail user);
 
     public abstract void batchImport(List<TaskDto> taskDtos, UserDetail user, boolean cover, List<String> tags, Map<String, DataSourceConnectionDto> conMap, Map<String, MetadataInstancesDto> metaMap);
 
@@ -292,6 +302,12 @@ public abstract class TaskService extends BaseService<TaskDto, TaskEntity, Objec
 
     public abstract int runningTaskNum(UserDetail userDetail);
 
+    /**
+     * 与 {@link #runningTaskNum(String, UserDetail)} 的统计口径相同, 一次查出所有引擎上的任务
+     * @return agentId -> 任务 id 列表
+     */
+    public abstract Map<String, List<String>> runningTaskIdsGroupByAgent(UserDetail userDetail);
+
     public abstract boolean checkCloudTaskLimit(ObjectId taskId, UserDetail user, boolean checkCurrentTask);
     public abstract void updateDelayTime(ObjectId taskId, long delayTime);
 
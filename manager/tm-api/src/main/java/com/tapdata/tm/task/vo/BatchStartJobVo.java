@@ -0,0 +1,28 @@
+package com.tapdata.tm.task.vo;
+
+import com.tapdata.tm.base.dto.MutiResponseMessage;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 异步批量启动任务的进度
+ */
+@Data
+public class BatchStartJobVo {
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_FINISHED = "finished";
+
+    private String id;
+    private String status;
+    private int total;
+    private int finished;
+    private int failed;
+    private Date startTime;
+    private Date endTime;
+    /** 已经处理完的任务的结果, 与同步的 batchStart 返回值相同 */
+    private List<MutiResponseMessage> results;
+    /** 还没有处理完的任务 id */
+    private List<String> pending;
+}
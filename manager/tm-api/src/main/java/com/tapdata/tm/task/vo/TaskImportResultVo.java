@@ -0,0 +1,52 @@
+package com.tapdata.tm.task.vo;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 任务导入的进度和结果
+ */
+@Data
+public class TaskImportResultVo {
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_FINISHED = "finished";
+
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_CONNECTION = "connection";
+    public static final String STAGE_METADATA = "metadata";
+    public static final String STAGE_TASK = "task";
+
+    public static final String ITEM_IMPORTED = "imported";
+    public static final String ITEM_SKIPPED = "skipped";
+    public static final String ITEM_FAILED = "failed";
+
+    private String id;
+    private String status;
+    /** 当前所处的阶段, 按 validate -> connection -> metadata -> task 依次进行 */
+    private String stage;
+    /** 导入包中的任务数 */
+    private int total;
+    /** 已经处理完的任务数 */
+    private int processed;
+    private int imported;
+    private int skipped;
+    private int failed;
+    private Date startTime;
+    private Date endTime;
+    /** 连接、模型、自定义节点等按集合统计的导入数量 */
+    private Map<String, Integer> counts;
+    /** 不属于某个任务的错误, 如某一类数据整体导入失败 */
+    private List<String> errors;
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private String id;
+        private String name;
+        private String status;
+        private String message;
+    }
+}
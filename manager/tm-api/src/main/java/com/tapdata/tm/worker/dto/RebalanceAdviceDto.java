@@ -0,0 +1,23 @@
+package com.tapdata.tm.worker.dto;
+
+import lombok.Data;
+
+/**
+ * 引擎间负载不均衡时的任务迁移建议
+ */
+@Data
+public class RebalanceAdviceDto {
+    private String taskId;
+    private String taskName;
+    private String fromProcessId;
+    private String toProcessId;
+    /**
+     * 任务成本 (事件/秒)
+     */
+    private Double taskCost;
+    /**
+     * 迁移前两个引擎的负载
+     */
+    private Double fromLoad;
+    private Double toLoad;
+}
@@ -11,4 +11,8 @@ public class WorkSchedule implements Serializable {
     private Integer weight;
     private Integer taskRunNum;
     private Integer taskLimit;
+    /**
+     * 调度时引擎的负载, 见 EngineLoadScheduler
+     */
+    private Double load;
 }
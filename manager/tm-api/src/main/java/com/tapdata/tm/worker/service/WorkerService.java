@@ -9,6 +9,7 @@ import com.tapdata.tm.commons.task.dto.TaskDto;
 import com.tapdata.tm.config.security.UserDetail;
 import com.tapdata.tm.dataflow.dto.DataFlowDto;
 import com.tapdata.tm.inspect.dto.InspectDto;
+import com.tapdata.tm.worker.dto.RebalanceAdviceDto;
 import com.tapdata.tm.worker.dto.WorkerDto;
 import com.tapdata.tm.worker.dto.WorkerExpireDto;
 import com.tapdata.tm.worker.dto.WorkerProcessInfoDto;
@@ -52,6 +53,10 @@ public abstract class WorkerService extends BaseService<WorkerDto, Worker, Objec
 
     public abstract CalculationEngineVo calculationEngine(SchedulableDto entity, UserDetail userDetail, String type);
 
+    public abstract Map<String, String> scheduleTasksToEngines(List<TaskDto> tasks, UserDetail userDetail);
+
+    public abstract List<RebalanceAdviceDto> rebalanceAdvice(UserDetail userDetail);
+
     public abstract void scheduleTaskToEngine(InspectDto inspectDto, UserDetail userDetail) throws BizException;
 
     public abstract void scheduleTaskToEngine(DataFlowDto dataFlowDto, UserDetail userDetail) throws BizException;
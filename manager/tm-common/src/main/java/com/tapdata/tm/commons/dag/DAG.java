@@ -1126,6 +1126,7 @@ public class DAG implements Serializable, Cloneable {
         private List<CustomTypeMapping> customTypeMappings;
         private String fieldsNameTransform;
         private List<String> includes; //: "Leon_CAR_CUSTOMER";
+        private List<String> ddlTables; // 源节点 DDL 涉及的表, 不为空时源节点只推演这些表
         private int batchNum;
         private String uuid;
 
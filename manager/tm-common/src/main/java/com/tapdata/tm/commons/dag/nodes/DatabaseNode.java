@@ -220,6 +220,13 @@ public class DatabaseNode extends DataParentNode<List<Schema>> {
         }
 
         List<String> tables = getSourceNodeTableNames(Lists.newArrayList(this));
+        if (CollectionUtils.isNotEmpty(tables) && CollectionUtils.isNotEmpty(options.getDdlTables())) {
+            // DDL 只影响部分表时, 只推演这些表及其下游节点; 找不到对应的表时仍然推演全部
+            List<String> ddlTables = tables.stream().filter(new HashSet<>(options.getDdlTables())::contains).collect(Collectors.toList());
+            if (CollectionUtils.isNotEmpty(ddlTables)) {
+                tables = ddlTables;
+            }
+        }
 
         if (CollectionUtils.isNotEmpty(tables)) {
             tableNames.removeIf(String::isEmpty);
@@ -15,6 +15,11 @@ import lombok.Setter;
 @Getter
 @Setter
 public class PyProcessNode extends ScriptProcessNode {
+    /**
+     * 并发的 python 引擎数, 为空时使用引擎配置
+     */
+    private Integer concurrentNum;
+
     public PyProcessNode() {
         super(NodeEnum.python_processor.getNodeName());
     }
@@ -38,6 +38,8 @@ public class MonitoringLogsDto extends BaseDto {
     private List<Map<String, Object>> data;
     private String errorCode;
     private String fullErrorCode;
+    private Long repeatCount;
+    private Long lastTimestamp;
 
     public String formatMonitoringLog() {
         return "[" + level + "] " + date + " " + formatMonitoringLogMessage();
@@ -1,8 +1,10 @@
 package com.tapdata.tm.config;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Updates;
 import org.bson.BsonDocument;
 import org.bson.BsonInt32;
 import org.bson.Document;
@@ -21,6 +23,8 @@ import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -64,8 +68,9 @@ public class ObsMongoConfig implements AsyncConfigurer {
                             new BsonDocument("tags.engineId", new BsonInt32(1)),
                             new BsonDocument("tags.type", new BsonInt32(1))));
 
-                    agentMeasurementV2.createIndex(new BsonDocument("date", new BsonInt32(-1)), new IndexOptions().expireAfter(7L, TimeUnit.DAYS));
+                    agentMeasurementV2.createIndex(new BsonDocument("date", new BsonInt32(-1)));
                 }
+                ensureTierTtlIndex(agentMeasurementV2);
 
                 return mongoTemplate;
             } catch (Exception e) {
@@ -73,4 +78,23 @@ public class ObsMongoConfig implements AsyncConfigurer {
             }
         });
     }
+
+    /**
+     * Every granularity has its own retention, documents expire by the expireAt field set at ingest time.
+     * The former ttl index on date expires all granularities after 7 days, it is replaced once and the
+     * documents written before get expireAt with the same 7 days retention.
+     */
+    protected void ensureTierTtlIndex(MongoCollection<Document> agentMeasurementV2) {
+        List<Document> indexes = agentMeasurementV2.listIndexes().into(new ArrayList<>());
+        for (Document index : indexes) {
+            Document key = index.get("key", Document.class);
+            if (null != key && key.size() == 1 && key.containsKey("date") && index.containsKey("expireAfterSeconds")) {
+                agentMeasurementV2.dropIndex(index.getString("name"));
+                Date expireAt = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(7L));
+                agentMeasurementV2.updateMany(Filters.exists("expireAt", false), Updates.set("expireAt", expireAt));
+                agentMeasurementV2.createIndex(new BsonDocument("date", new BsonInt32(-1)));
+            }
+        }
+        agentMeasurementV2.createIndex(new BsonDocument("expireAt", new BsonInt32(1)), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+    }
 }
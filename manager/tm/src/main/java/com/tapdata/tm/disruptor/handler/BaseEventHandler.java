@@ -2,11 +2,16 @@ package com.tapdata.tm.disruptor.handler;
 
 import com.tapdata.tm.disruptor.Element;
 
+import java.util.List;
+
 /**
  * @author jiuyetx
  * @date 2022/9/6
  */
 public interface BaseEventHandler<T, R> {
 
-    R onEvent(Element<T> event, long sequence, boolean endOfBatch);
+    /**
+     * 同一个任务的事件在同一个RingBuffer中按发布顺序处理, 相邻的同topic事件合并成一批
+     */
+    R onEvents(List<Element<T>> events);
 }
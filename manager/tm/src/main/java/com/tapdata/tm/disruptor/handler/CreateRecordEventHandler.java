@@ -9,6 +9,9 @@ import com.tapdata.tm.task.entity.TaskRecord;
 import com.tapdata.tm.task.service.TaskRecordService;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author jiuyetx
  * @date 2022/9/6
@@ -17,15 +20,16 @@ import org.springframework.stereotype.Component;
 public class CreateRecordEventHandler implements BaseEventHandler<TaskRecord, Boolean>{
 
     @Override
-    public Boolean onEvent(Element<TaskRecord> event, long sequence, boolean endOfBatch) {
-
-        TaskRecordService taskRecordService = SpringUtil.getBean(TaskRecordService.class);
-        taskRecordService.createRecord(event.getData());
+    public Boolean onEvents(List<Element<TaskRecord>> events) {
+        List<TaskRecord> taskRecords = events.stream().map(Element::getData).collect(Collectors.toList());
+        SpringUtil.getBean(TaskRecordService.class).createRecords(taskRecords);
 
-        String taskId = event.getData().getTaskId();
-        SpringUtil.getBean(AlarmService.class).delAlarm(taskId);
-        SpringUtil.getBean(ShareCdcTableMetricsService.class).deleteByTaskId(taskId);
-        SpringUtil.getBean(MeasureAOP.class).removeObsInfoByTaskId(taskId);
+        for (TaskRecord taskRecord : taskRecords) {
+            String taskId = taskRecord.getTaskId();
+            SpringUtil.getBean(AlarmService.class).delAlarm(taskId);
+            SpringUtil.getBean(ShareCdcTableMetricsService.class).deleteByTaskId(taskId);
+            SpringUtil.getBean(MeasureAOP.class).removeObsInfoByTaskId(taskId);
+        }
 
         return true;
     }
@@ -3,27 +3,57 @@ package com.tapdata.tm.disruptor.handler;
 import cn.hutool.extra.spring.SpringUtil;
 import com.lmax.disruptor.EventHandler;
 import com.tapdata.tm.disruptor.Element;
-import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 基础event handler
- * 根据topic 分发数据
+ * 根据topic 分发数据, 相邻的同topic事件合并成一批交给对应的handler
+ * 每个RingBuffer一个实例, 只在该RingBuffer的消费线程中访问
  * @author jiuyetx
  * @date 2022/9/6
  */
-@Component
 @SuppressWarnings("rawtypes")
 public class DistributeEventHandler implements EventHandler {
 
+    private final List<Element> batch = new ArrayList<>();
+
     @Override
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public void onEvent(Object event, long sequence, boolean endOfBatch) {
         if (!(event instanceof Element)) {
             throw new RuntimeException("类型错误,必须为Element类型~");
         }
         Element<?> element = (Element<?>) event;
-        //分发topic  到对应的handler
-        BaseEventHandler handler = SpringUtil.getBean(element.getTopic().getBeanName(), BaseEventHandler.class);
-        handler.onEvent(element, sequence, endOfBatch);
+        // RingBuffer中的元素会被复用, 缓存前先复制
+        Element<Object> copy = new Element<>();
+        copy.setTopic(element.getTopic());
+        copy.setData(element.getData());
+        boolean topicChanged = !batch.isEmpty() && batch.get(0).getTopic() != element.getTopic();
+        try {
+            // topic切换时先处理前一批, 保证同一个任务的事件按顺序处理
+            if (topicChanged) {
+                flush();
+            }
+        } finally {
+            batch.add(copy);
+            if (endOfBatch) {
+                flush();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            //分发topic  到对应的handler
+            BaseEventHandler handler = SpringUtil.getBean(batch.get(0).getTopic().getBeanName(), BaseEventHandler.class);
+            handler.onEvents(new ArrayList<>(batch));
+        } finally {
+            batch.clear();
+        }
     }
 }
@@ -24,6 +24,7 @@ import com.tapdata.tm.utils.MongoUtils;
 import io.tapdata.pdk.core.utils.CommonUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -32,12 +33,14 @@ import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * @author jiuyetx
  * @date 2022/9/6
  */
 @Component("updateRecordStatusEventHandler")
+@Slf4j
 public class UpdateRecordStatusEventHandler implements BaseEventHandler<SyncTaskStatusDto, Boolean>{
 
     private static final String TAG = UpdateRecordStatusEventHandler.class.getSimpleName();
@@ -46,13 +49,26 @@ public class UpdateRecordStatusEventHandler implements BaseEventHandler<SyncTask
     private TaskService taskService;
 
     @Override
-    public Boolean onEvent(Element<SyncTaskStatusDto> event, long sequence, boolean endOfBatch) {
+    public Boolean onEvents(List<Element<SyncTaskStatusDto>> events) {
+        List<SyncTaskStatusDto> batch = events.stream().map(Element::getData).collect(Collectors.toList());
+        // 任务记录和状态在同一个RingBuffer中按顺序处理, 这里找不到的记录不会再被创建
+        List<SyncTaskStatusDto> missing = SpringUtil.getBean(TaskRecordService.class).updateTaskStatus(batch);
+        if (CollectionUtils.isNotEmpty(missing)) {
+            log.warn("Update task record status failed, task record not found: {}", missing.stream().map(SyncTaskStatusDto::getTaskRecordId).collect(Collectors.toList()));
+        }
 
-        TaskRecordService taskRecordService = SpringUtil.getBean(TaskRecordService.class);
-        SyncTaskStatusDto data = event.getData();
-        taskRecordService.updateTaskStatus(data);
-        CompletableFuture.runAsync(() -> taskAlarm(data));
-        CompletableFuture.runAsync(()->logCollectorAlarm(data));
+        for (SyncTaskStatusDto data : batch) {
+            // 状态写入后在消费线程中告警, 不会被同一个任务之后的 CREATE_RECORD 清理告警越过
+            String threadName = Thread.currentThread().getName();
+            try {
+                taskAlarm(data);
+            } catch (Exception e) {
+                log.warn("Task status alarm failed, task id: {}, status: {}, message: {}", data.getTaskId(), data.getTaskStatus(), e.getMessage());
+            } finally {
+                Thread.currentThread().setName(threadName);
+            }
+            CompletableFuture.runAsync(() -> logCollectorAlarm(data));
+        }
 
         return true;
     }
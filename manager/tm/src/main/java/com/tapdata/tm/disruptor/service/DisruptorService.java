@@ -1,24 +1,34 @@
 package com.tapdata.tm.disruptor.service;
 
 import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import com.tapdata.tm.disruptor.Element;
 import com.tapdata.tm.disruptor.constants.DisruptorTopicEnum;
 import com.tapdata.tm.disruptor.handler.DisruptorExceptionHandler;
 import com.tapdata.tm.disruptor.handler.DistributeEventHandler;
-import io.tapdata.common.executor.ExecutorsManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
@@ -26,13 +36,23 @@ import java.util.concurrent.ThreadFactory;
 @SuppressWarnings({"rawtypes"})
 public class DisruptorService{
 
-    private final DistributeEventHandler distributeEventHandler;
     private final DisruptorExceptionHandler disruptorExceptionHandler;
-    private final ExecutorService executorService = ExecutorsManager.getInstance().getExecutorService();
-    private Disruptor<Element> elementDisruptor;
+    /**
+     * 按任务id分区, 同一个任务的所有topic事件进入同一个RingBuffer按顺序处理, 不同分区由各自的线程并行处理
+     */
+    private final List<Disruptor<Element>> disruptors = new ArrayList<>();
+    private final List<Timer> publishWaitTimers = new ArrayList<>();
+
+    @Value("${disruptor.partitions:4}")
+    private int partitions = 4;
+
+    @Value("${disruptor.bufferSize:1024}")
+    private int bufferSize = 1024;
+
+    @Value("${disruptor.waitStrategy:blocking}")
+    private String waitStrategy = "blocking";
 
-    public DisruptorService(DistributeEventHandler distributeEventHandler, DisruptorExceptionHandler disruptorExceptionHandler) {
-        this.distributeEventHandler = distributeEventHandler;
+    public DisruptorService(DisruptorExceptionHandler disruptorExceptionHandler) {
         this.disruptorExceptionHandler = disruptorExceptionHandler;
     }
 
@@ -41,33 +61,53 @@ public class DisruptorService{
      */
     @PostConstruct
     @SuppressWarnings("unchecked")
-    private void init() {
+    protected void init() {
         // RingBuffer生产工厂,初始化RingBuffer的时候使用
         EventFactory<Element> factory = Element::new;
-        // 阻塞策略
-        BlockingWaitStrategy strategy = new BlockingWaitStrategy();
-        // 指定RingBuffer的大小
-        int bufferSize = 64;
-        // 创建disruptor，采用单生产者模式
-        elementDisruptor = new Disruptor<>(factory, bufferSize, executorService, ProducerType.SINGLE, strategy);
-        // 设置EventHandler 并且后置清理消费过的数据
-        elementDisruptor.handleEventsWith(distributeEventHandler);
-        elementDisruptor.handleExceptionsFor(distributeEventHandler).with(disruptorExceptionHandler);
-        // 启动disruptor的线程
-        elementDisruptor.start();
+        // RingBuffer的大小必须是2的N次方
+        int ringSize = ringBufferSize(bufferSize);
+        int partitionCount = Math.max(1, partitions);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            // 创建disruptor，HTTP请求线程并发发布事件，采用多生产者模式
+            Disruptor<Element> disruptor = new Disruptor<>(factory, ringSize, threadFactory(partition), ProducerType.MULTI, waitStrategy(waitStrategy));
+            // 设置EventHandler 并且后置清理消费过的数据, EventHandler缓存了未处理的批次, 每个RingBuffer一个
+            DistributeEventHandler distributeEventHandler = new DistributeEventHandler();
+            disruptor.handleEventsWith(distributeEventHandler);
+            disruptor.handleExceptionsFor(distributeEventHandler).with(disruptorExceptionHandler);
+            // 启动disruptor的线程
+            disruptor.start();
+            disruptors.add(disruptor);
+
+            RingBuffer<Element> ringBuffer = disruptor.getRingBuffer();
+            Gauge.builder("disruptor_ring_occupancy", ringBuffer, r -> r.getBufferSize() - r.remainingCapacity())
+                    .tag("partition", String.valueOf(partition))
+                    .register(Metrics.globalRegistry);
+            publishWaitTimers.add(Timer.builder("disruptor_publish_wait")
+                    .tag("partition", String.valueOf(partition))
+                    .register(Metrics.globalRegistry));
+        }
+        log.info("Disruptor started, partitions: {}, buffer size: {}, wait strategy: {}", partitionCount, ringSize, waitStrategy);
     }
 
     /**
-     * 发送消息
+     * 发送消息, 相同taskId的消息按发送顺序处理
      *
      * @author ming
      * @date 2020-10-27 17:08
      */
     @SuppressWarnings("unchecked")
-    public <T> void sendMessage(DisruptorTopicEnum disruptorTopicEnum, T data) {
-        RingBuffer<Element> ringBuffer = elementDisruptor.getRingBuffer();
-        // 获取下一个可用位置的下标
-        long sequence = ringBuffer.next();
+    public <T> void sendMessage(DisruptorTopicEnum disruptorTopicEnum, String taskId, T data) {
+        int partition = partition(taskId, disruptors.size());
+        RingBuffer<Element> ringBuffer = disruptors.get(partition).getRingBuffer();
+        // 获取下一个可用位置的下标, RingBuffer已满时才阻塞等待, 并记录等待时长
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            long start = System.nanoTime();
+            sequence = ringBuffer.next();
+            publishWaitTimers.get(partition).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
         try {
             // 返回可用位置的元素
             Element<T> event = ringBuffer.get(sequence);
@@ -88,6 +128,41 @@ public class DisruptorService{
     @PreDestroy
     public void destroy() {
         //销毁 disruptor
-        elementDisruptor.shutdown();
+        disruptors.forEach(Disruptor::shutdown);
+    }
+
+    protected static int partition(String taskId, int partitions) {
+        return null == taskId ? 0 : Math.floorMod(taskId.hashCode(), partitions);
+    }
+
+    protected static int ringBufferSize(int size) {
+        int ringSize = 1;
+        while (ringSize < size) {
+            ringSize <<= 1;
+        }
+        return ringSize;
+    }
+
+    protected static WaitStrategy waitStrategy(String name) {
+        switch (String.valueOf(name).toLowerCase()) {
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busyspin":
+                return new BusySpinWaitStrategy();
+            case "blocking":
+            default:
+                return new BlockingWaitStrategy();
+        }
+    }
+
+    private static ThreadFactory threadFactory(int partition) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "disruptor-" + partition + "-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
@@ -65,6 +65,7 @@ import com.tapdata.tm.task.entity.TaskEntity;
 import com.tapdata.tm.task.service.LdpService;
 import com.tapdata.tm.task.service.LogCollectorService;
 import com.tapdata.tm.task.service.TaskService;
+import com.tapdata.tm.task.service.batchup.ImportNameResolver;
 import com.tapdata.tm.user.service.UserService;
 import com.tapdata.tm.utils.*;
 import com.tapdata.tm.worker.entity.Worker;
@@ -117,6 +118,8 @@ public class DataSourceServiceImpl extends DataSourceService{
 
     private final static String connectNameReg = "^([\u4e00-\u9fa5]|[A-Za-z])[\\s\\S]*$";
     private final static String LAST_UPDATE= "lastUpdate";
+    /** 引擎重新加载模型时结构未变化的表, 只刷新 lastUpdate, 不再重复上传表结构 */
+    private final static String UNCHANGED_TABLES = "unchangedTables";
     public static final String LOAD_FIELD_STATUS_FINISHED = "finished";
     @Value("${gateway.secret:}")
     private String gatewaySecret;
@@ -1376,8 +1379,12 @@ public class DataSourceServiceImpl extends DataSourceService{
             String oldName = null;
             Document set = null;
             Object status = null;
+            List<String> unchangedTables = null;
             if (update != null && update.get("$set") != null) {
                 set = setToDocumentByJsonParser(update);
+                if (set != null && set.get(UNCHANGED_TABLES) instanceof List) {
+                    unchangedTables = ((List<?>) set.remove(UNCHANGED_TABLES)).stream().map(String::valueOf).collect(Collectors.toList());
+                }
                 if (set != null && (set.get("schema.tables") != null
                         || DataSourceConnectionDto.STATUS_INVALID.equals(set.get("status"))
                         || DataSourceConnectionDto.STATUS_READY.equals(set.get("status")))) {
@@ -1452,6 +1459,9 @@ public class DataSourceServiceImpl extends DataSourceService{
                 Criteria criteria2 = Criteria.where("source._id").is(connectionId).and("meta_type").in(inValues);
                 metadataInstancesService.update(new Query(criteria2), Update.update("databaseId", databaseId), user);
                 flushDatabaseMetadataInstanceLastUpdate((String) set.get("loadFieldsStatus"), connectionId, (Long) set.get(LAST_UPDATE), user);
+                if (CollectionUtils.isNotEmpty(unchangedTables) && set.get(LAST_UPDATE) != null) {
+                    flushUnchangedMetadataInstanceLastUpdate(connectionId, unchangedTables, (Long) set.get(LAST_UPDATE), user);
+                }
                 if (hasSchema) {
                     if (CollectionUtils.isNotEmpty(tables)) {
                         Long schemaVersion = (Long) set.get(LAST_UPDATE);
@@ -1463,7 +1473,9 @@ public class DataSourceServiceImpl extends DataSourceService{
                     }
                 } else {
                     if (set != null && set.get(LAST_UPDATE) != null) {
-                        deleteModels(LOAD_FIELD_STATUS_FINISHED, connectionId, (Long) set.get(LAST_UPDATE), user);
+                        // 只携带未变化表的中间进度, 加载完成前不能删除模型
+                        String loadFieldsStatus = null == unchangedTables ? LOAD_FIELD_STATUS_FINISHED : (String) set.get("loadFieldsStatus");
+                        deleteModels(loadFieldsStatus, connectionId, (Long) set.get(LAST_UPDATE), user);
                     }
                 }
             }
@@ -1708,49 +1720,82 @@ public class DataSourceServiceImpl extends DataSourceService{
         return findAllDto(query, user);
     }
 
+    /**
+     * 导入连接: 已有的 id 和名称各用一次查询预加载, 新连接一次批量写入
+     */
     public Map<String, DataSourceConnectionDto> batchImport(List<DataSourceConnectionDto> connectionDtos, UserDetail user, boolean cover) {
 
         Map<String, DataSourceConnectionDto> conMap = new HashMap<>();
+        if (CollectionUtils.isEmpty(connectionDtos)) {
+            return conMap;
+        }
+        List<ObjectId> ids = connectionDtos.stream().map(DataSourceConnectionDto::getId).collect(Collectors.toList());
+        Set<ObjectId> idsByUser = findImportIds(ids, user);
+        Set<ObjectId> existsIds = findImportIds(ids, null);
+        ImportNameResolver nameResolver = importNameResolver(connectionDtos, user);
+        Map<String, String> externalStorageIds = new HashMap<>();
+        List<String> insertConnIds = new ArrayList<>();
+        List<DataSourceEntity> inserts = new ArrayList<>();
         for (DataSourceConnectionDto connectionDto : connectionDtos) {
             String connId = connectionDto.getId().toString();
-            Query query = new Query(Criteria.where("_id").is(connectionDto.getId()));
-            query.fields().include("_id");
             connectionDto.setListtags(null);
-            DataSourceConnectionDto connectionByUser = findOne(query,user);
-            if (connectionByUser == null) {
-				DataSourceConnectionDto connection = findOne(new Query(Criteria.where("_id").is(connectionDto.getId())));
-                while (checkRepeatNameBool(user, connectionDto.getName(), null)) {
-                    connectionDto.setName(connectionDto.getName() + "_import");
-				}
-				if(connection != null){
-					connectionDto.setId(null);
+            if (!idsByUser.contains(connectionDto.getId())) {
+                connectionDto.setName(nameResolver.resolve(connectionDto.getName(), null));
+                if (existsIds.contains(connectionDto.getId())) {
+                    connectionDto.setId(null);
                 }
-                if(StringUtils.isNotBlank(connectionDto.getShareCDCExternalStorageId())){
-					ExternalStorageDto externalStorageDto = externalStorageService.findById(MongoUtils.toObjectId(connectionDto.getShareCDCExternalStorageId()));
-					if(externalStorageDto == null){
-						Query query1 = new Query(Criteria.where("defaultStorage").is(true));
-						ExternalStorageDto defaultExternalStorage = externalStorageService.findOne(query1);
-						connectionDto.setShareCDCExternalStorageId(defaultExternalStorage.getId().toString());
-					}
-
-				}
+                if (StringUtils.isNotBlank(connectionDto.getShareCDCExternalStorageId())) {
+                    connectionDto.setShareCDCExternalStorageId(externalStorageIds.computeIfAbsent(connectionDto.getShareCDCExternalStorageId(), this::importExternalStorageId));
+                }
+                agentGroupService.importAgentInfo(connectionDto);
+                insertConnIds.add(connId);
+                inserts.add(convertToEntity(DataSourceEntity.class, connectionDto));
+            } else if (cover) {
+                connectionDto.setName(nameResolver.resolve(connectionDto.getName(), connectionDto.getId()));
                 agentGroupService.importAgentInfo(connectionDto);
-                connectionByUser = importEntity(connectionDto, user);
+                conMap.put(connId, save(connectionDto, user));
             } else {
-                if (cover) {
-                    ObjectId objectId = connectionByUser.getId();
-                    while (checkRepeatNameBool(user, connectionDto.getName(), objectId)) {
-                        connectionDto.setName(connectionDto.getName() + "_import");
-                    }
-                    agentGroupService.importAgentInfo(connectionDto);
-                    connectionByUser = save(connectionDto, user);
-                }
+                DataSourceConnectionDto connectionByUser = new DataSourceConnectionDto();
+                connectionByUser.setId(connectionDto.getId());
+                conMap.put(connId, connectionByUser);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            List<DataSourceEntity> inserted = repository.insert(inserts, user);
+            for (int i = 0; i < inserted.size(); i++) {
+                conMap.put(insertConnIds.get(i), convertToDto(inserted.get(i), DataSourceConnectionDto.class));
             }
+        }
+        return conMap;
+    }
 
-            conMap.put(connId, connectionByUser);
+    protected Set<ObjectId> findImportIds(List<ObjectId> ids, UserDetail user) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        List<DataSourceEntity> entities = null == user ? repository.findAll(query) : repository.findAll(query, user);
+        return entities.stream().map(DataSourceEntity::getId).collect(Collectors.toSet());
+    }
 
+    protected ImportNameResolver importNameResolver(List<DataSourceConnectionDto> connectionDtos, UserDetail user) {
+        Set<String> names = connectionDtos.stream().map(DataSourceConnectionDto::getName).filter(Objects::nonNull).collect(Collectors.toSet());
+        ImportNameResolver nameResolver = new ImportNameResolver(names, (name, id) -> checkRepeatNameBool(user, name, id));
+        Query query = new Query(Criteria.where("name").in(names));
+        query.fields().include("_id", "name");
+        repository.findAll(query, user).forEach(entity -> nameResolver.exists(entity.getName(), entity.getId()));
+        return nameResolver;
+    }
+
+    /**
+     * 导入连接使用的共享挖掘外存不存在时改用默认外存
+     */
+    protected String importExternalStorageId(String externalStorageId) {
+        ExternalStorageDto externalStorageDto = externalStorageService.findById(MongoUtils.toObjectId(externalStorageId));
+        if (externalStorageDto != null) {
+            return externalStorageId;
         }
-        return conMap;
+        Query query = new Query(Criteria.where("defaultStorage").is(true));
+        ExternalStorageDto defaultExternalStorage = externalStorageService.findOne(query);
+        return defaultExternalStorage.getId().toString();
     }
 
     public List<DataSourceConnectionDto> listAll(Filter filter, UserDetail loginUser) {
@@ -2067,6 +2112,12 @@ public class DataSourceServiceImpl extends DataSourceService{
 				BeanUtil.copyProperties(v, DataSourceConnectionDto.class)).orElse(null);
 	}
 
+    protected void flushUnchangedMetadataInstanceLastUpdate(String connectionId, List<String> tableNames, Long lastUpdate, UserDetail user) {
+        Criteria criteria = Criteria.where("source._id").is(connectionId).and("original_name").in(tableNames)
+                .and("is_deleted").ne(true).and("taskId").exists(false).and("meta_type").ne("database");
+        metadataInstancesService.update(new Query(criteria), Update.update(LAST_UPDATE, lastUpdate), user);
+    }
+
     @Override
     public void flushDatabaseMetadataInstanceLastUpdate(String loadFieldsStatus, String connectionId, Long lastUpdate, UserDetail userDetail) {
         if (LOAD_FIELD_STATUS_FINISHED.equals(loadFieldsStatus) && lastUpdate != null && StringUtils.isNotBlank(connectionId)) {
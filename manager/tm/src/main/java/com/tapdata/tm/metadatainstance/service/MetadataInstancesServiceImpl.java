@@ -1979,6 +1979,8 @@ public class MetadataInstancesServiceImpl extends MetadataInstancesService{
 
         metadataInstancesDtos = new ArrayList<>(collect.values());
         Map<String, MetadataInstancesDto> metaMap = new HashMap<>();
+        // 与 importEntity 相同, 按 qualified_name upsert, 整批一次写入
+        BulkOperations bulkOperations = repository.bulkOperations(BulkOperations.BulkMode.UNORDERED);
         for (MetadataInstancesDto metadataInstancesDto : metadataInstancesDtos) {
             String connectionId = null;
             if (metadataInstancesDto.getSource() != null) {
@@ -1997,10 +1999,17 @@ public class MetadataInstancesServiceImpl extends MetadataInstancesService{
                     metadataInstancesDto.setSource(sourceDto);
                 }
             }
-            MetadataInstancesDto newMeta = null;
             metadataInstancesDto.setListtags(null);
-            newMeta = importEntity(metadataInstancesDto, user);
-            metaMap.put(newMeta.getId().toHexString(), metadataInstancesDto);
+            MetadataInstancesEntity metadataInstance = convertToEntity(MetadataInstancesEntity.class, metadataInstancesDto);
+            Update update = repository.buildUpdateSet(metadataInstance, user);
+            Query where = Query.query(Criteria.where("qualified_name").is(metadataInstancesDto.getQualifiedName()));
+            repository.applyUserDetail(where, user);
+            repository.beforeUpsert(update, user);
+            bulkOperations.upsert(where, update);
+            metaMap.put(metadataInstancesDto.getId().toHexString(), metadataInstancesDto);
+        }
+        if (!metaMap.isEmpty()) {
+            bulkOperations.execute();
         }
         return metaMap;
     }
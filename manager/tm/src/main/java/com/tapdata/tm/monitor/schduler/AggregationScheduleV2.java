@@ -52,6 +52,11 @@ public class AggregationScheduleV2 {
 
 
     private void aggregateWithLockAcquire(String granularity, long current) {
+        // samples of upper granularity are already aggregated when they are added
+        if (measurementServiceV2.isIncrementalTier()) {
+            return;
+        }
+
         // should erase the time precision based on granularity
         Date date = Granularity.calculateGranularityDate(granularity, new Date(current));
 
@@ -36,6 +36,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.MongoExpression;
 import org.springframework.data.mongodb.core.BulkOperations;
@@ -59,6 +60,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -70,6 +72,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -84,6 +87,20 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
     private final TaskService taskService;
     private Map<String, Long> taskDelayTimeMap;
 
+    /**
+     * write hour/day/month buckets at ingest time instead of re-aggregating samples by schedule
+     */
+    @Value("${measurement.tier.incremental:true}")
+    private boolean incrementalTier = true;
+    @Value("${measurement.tier.ttlDays.minute:7}")
+    private long minuteTtlDays = 7;
+    @Value("${measurement.tier.ttlDays.hour:30}")
+    private long hourTtlDays = 30;
+    @Value("${measurement.tier.ttlDays.day:180}")
+    private long dayTtlDays = 180;
+    @Value("${measurement.tier.ttlDays.month:730}")
+    private long monthTtlDays = 730;
+
     public MeasurementServiceV2Impl(@Qualifier(value = "obsMongoTemplate") CompletableFuture<MongoTemplate> mongoTemplateCompletableFuture, MetadataInstancesService metadataInstancesService, TaskService taskService) throws ExecutionException, InterruptedException {
         this.mongoOperations = mongoTemplateCompletableFuture.get();
         this.metadataInstancesService = metadataInstancesService;
@@ -135,7 +152,8 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
 
             Update update = new Update()
                     .min(MeasurementEntity.FIELD_FIRST, requestSample.get().getDate())
-                    .max(MeasurementEntity.FIELD_LAST, requestSample.get().getDate());
+                    .max(MeasurementEntity.FIELD_LAST, requestSample.get().getDate())
+                    .set(MeasurementEntity.FIELD_EXPIRE_AT, expireAt(Granularity.GRANULARITY_MINUTE, theDate));
             if ("table".equals(tags.get("type"))) {
                 update.set(MeasurementEntity.FIELD_SAMPLES, Collections.singletonList(sampleMap));
                 update.set(MeasurementEntity.FIELD_DATE, theDate);
@@ -144,6 +162,9 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
             }
 
             bulkOperations.upsert(query, update);
+            if (incrementalTier && !"table".equals(tags.get("type"))) {
+                upsertAccumulators(bulkOperations, tags, second, requestSample.get().getVs());
+            }
             if ("task".equals(tags.get("type"))) {
                 Map<String, Object> vs = (Map) sampleMap.get("vs");
                 Object replicateLag = Optional.ofNullable(vs.get(REPLICATE_LAG)).orElse(0);
@@ -159,6 +180,66 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
         bulkOperations.execute();
     }
 
+    /**
+     * Add the sample into the minute bucket of the hour document, the hour bucket of the day document and the
+     * day bucket of the month document, every bucket keeps the count and the sum of values so that the average
+     * can be read directly without re-aggregating samples of the lower granularity.
+     */
+    protected void upsertAccumulators(BulkOperations bulkOperations, Map<String, String> tags, Date date, Map<String, Number> values) {
+        if (null == values || values.isEmpty()) {
+            return;
+        }
+        for (String bucketGranularity : TIER_BUCKET_GRANULARITIES) {
+            String granularity = Granularity.getNextLevelGranularity(bucketGranularity);
+            Date bucketDate = Granularity.calculateGranularityDate(bucketGranularity, date);
+            Date theDate = Granularity.calculateGranularityDate(granularity, date);
+
+            Criteria criteria = Criteria.where(MeasurementEntity.FIELD_GRANULARITY).is(granularity)
+                    .and(MeasurementEntity.FIELD_DATE).is(theDate);
+            for (Map.Entry<String, String> entry : tags.entrySet()) {
+                criteria.and(String.format(TAG_FORMAT, entry.getKey())).is(entry.getValue());
+            }
+
+            String bucket = String.format("%s.%d.", MeasurementEntity.FIELD_ACCUMULATORS, bucketDate.getTime());
+            Update update = new Update()
+                    .inc(bucket + MeasurementEntity.FIELD_ACCUMULATOR_COUNT, 1)
+                    .min(MeasurementEntity.FIELD_FIRST, bucketDate)
+                    .max(MeasurementEntity.FIELD_LAST, bucketDate)
+                    .set(MeasurementEntity.FIELD_EXPIRE_AT, expireAt(granularity, theDate));
+            for (Map.Entry<String, Number> entry : values.entrySet()) {
+                if (null != entry.getValue()) {
+                    update.inc(bucket + MeasurementEntity.FIELD_ACCUMULATOR_VALUES + "." + entry.getKey(), entry.getValue());
+                }
+            }
+            bulkOperations.upsert(Query.query(criteria), update);
+        }
+    }
+
+    protected Date expireAt(String granularity, Date date) {
+        long ttlDays;
+        switch (granularity) {
+            case Granularity.GRANULARITY_HOUR:
+                ttlDays = hourTtlDays;
+                break;
+            case Granularity.GRANULARITY_DAY:
+                ttlDays = dayTtlDays;
+                break;
+            case Granularity.GRANULARITY_MONTH:
+                ttlDays = monthTtlDays;
+                break;
+            default:
+                ttlDays = minuteTtlDays;
+        }
+        return new Date(date.getTime() + TimeUnit.DAYS.toMillis(ttlDays));
+    }
+
+    @Override
+    public boolean isIncrementalTier() {
+        return incrementalTier;
+    }
+
+    private static final List<String> TIER_BUCKET_GRANULARITIES = Lists.of(
+            Granularity.GRANULARITY_MINUTE, Granularity.GRANULARITY_HOUR, Granularity.GRANULARITY_DAY);
     private static final String TAG_FORMAT = String.format("%s.%%s", MeasurementEntity.FIELD_TAGS);
     private static final String FIELD_FORMAT = String.format("%s.%s.%%s",
             MeasurementEntity.FIELD_SAMPLES, Sample.FIELD_VALUES);
@@ -235,6 +316,9 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
                                 for (String field : querySample.getFields()) {
                                     includedFields.add(String.format(FIELD_FORMAT, field));
                                 }
+                                if (!Granularity.GRANULARITY_MINUTE.equals(previousGranularity)) {
+                                    includedFields.add(MeasurementEntity.FIELD_ACCUMULATORS);
+                                }
 
                                 Query query = new Query(criteria);
                                 query.fields().include(includedFields.toArray(new String[]{}));
@@ -246,7 +330,9 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
                                     continuousSamples.putIfAbsent(hash, new ArrayList<>());
                                     Sample sample = new Sample();
                                     sample.setDate(new Date(timeline.get(idx)));
-                                    sample.setVs(entity.averageValues());
+                                    Map<String, Number> vs = entity.mergedAverageValues();
+                                    vs.keySet().retainAll(querySample.getFields());
+                                    sample.setVs(vs);
                                     continuousSamples.get(hash).add(sample);
                                 }
                                 break;
@@ -515,10 +601,13 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
             return data;
         }
 
-        Criteria criteria = Criteria.where(String.format("%s.%s", MeasurementEntity.FIELD_SAMPLES, Sample.FIELD_DATE))
-                .gte(new Date(start))
+        // one document holds one section of the granularity, select the documents by their section date so that
+        // the query only touches the sections in range of the chosen tier
+        String granularity = Granularity.calculateReasonableGranularity(start, end);
+        Criteria criteria = Criteria.where(MeasurementEntity.FIELD_DATE)
+                .gte(Granularity.calculateGranularityDate(granularity, new Date(start)))
                 .lte(new Date(end));
-        criteria.and(MeasurementEntity.FIELD_GRANULARITY).is(Granularity.calculateReasonableGranularity(start, end));
+        criteria.and(MeasurementEntity.FIELD_GRANULARITY).is(granularity);
         for (Map.Entry<String, String> entry : querySample.getTags().entrySet()) {
             criteria.and(String.format(TAG_FORMAT, entry.getKey())).is(entry.getValue());
         }
@@ -529,17 +618,26 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
         for (String field : querySample.getFields()) {
             includedFields.add(String.format(FIELD_FORMAT, field));
         }
+        if (!Granularity.GRANULARITY_MINUTE.equals(granularity)) {
+            includedFields.add(MeasurementEntity.FIELD_ACCUMULATORS);
+        }
 
         Query query = new Query(criteria);
         query.fields().include(includedFields.toArray(new String[]{}));
         query.with(Sort.by(MeasurementEntity.FIELD_DATE).ascending());
         List<MeasurementEntity> entities = mongoOperations.find(query, MeasurementEntity.class, MeasurementEntity.COLLECTION_NAME);
+        List<String> fields = querySample.getFields();
         for (MeasurementEntity entity : entities) {
             String hash = hashTag(entity.getTags());
             if (!data.containsKey(hash)) {
                 data.put(hash, new ArrayList<>());
             }
-            data.get(hash).addAll(entity.getSamples());
+            for (Sample sample : entity.mergedSamples()) {
+                if (null != sample.getVs()) {
+                    sample.getVs().keySet().retainAll(fields);
+                }
+                data.get(hash).add(sample);
+            }
         }
 
         return data;
@@ -1103,6 +1201,31 @@ public class MeasurementServiceV2Impl implements MeasurementServiceV2 {
     }
 
 
+    @Override
+    public Map<String, Double> findTaskAvgInputQps(Collection<String> taskIds, long start) {
+        Map<String, Double> result = new HashMap<>();
+        if (CollectionUtils.isEmpty(taskIds)) {
+            return result;
+        }
+        Criteria criteria = Criteria.where(String.format(TAG_FORMAT, "taskId")).in(taskIds)
+                .and(String.format(TAG_FORMAT, "type")).is("task")
+                .and(MeasurementEntity.FIELD_GRANULARITY).is(Granularity.GRANULARITY_MINUTE)
+                .and(MeasurementEntity.FIELD_DATE).gte(new Date(start));
+        MatchOperation match = Aggregation.match(criteria);
+        UnwindOperation unwind = Aggregation.unwind(MeasurementEntity.FIELD_SAMPLES, false);
+        GroupOperation group = Aggregation.group(String.format(TAG_FORMAT, "taskId")).avg("ss.vs.inputQps").as("qps");
+        Aggregation aggregation = Aggregation.newAggregation(match, unwind, group);
+        aggregation.withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+        for (Document document : mongoOperations.aggregate(aggregation, MeasurementEntity.COLLECTION_NAME, Document.class).getMappedResults()) {
+            Object taskId = document.get("_id");
+            Object qps = document.get("qps");
+            if (taskId instanceof String && qps instanceof Number) {
+                result.put((String) taskId, ((Number) qps).doubleValue());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void queryTableMeasurement(String taskId, TableStatusInfoDto tableStatusInfoDto) {
         Criteria criteria = Criteria.where("tags.taskId").is(taskId)
@@ -10,6 +10,7 @@ import com.tapdata.tm.monitoringlogs.param.MonitoringLogExportParam;
 import com.tapdata.tm.monitoringlogs.param.MonitoringLogQueryParam;
 import com.tapdata.tm.monitoringlogs.service.MonitoringLogsService;
 import com.tapdata.tm.monitoringlogs.vo.MonitoringLogCountVo;
+import com.tapdata.tm.monitoringlogs.vo.MonitoringLogIngestVo;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -48,18 +49,16 @@ public class MonitoringLogsController extends BaseController {
      */
     @Operation(summary = "Create a new batch of instances of the model and persist it into the data source")
     @PostMapping("batch")
-    public ResponseMessage<List<MonitoringLogsDto>> save(@RequestBody List<MonitoringLogsDto> monitoringLoges) {
+    public ResponseMessage<MonitoringLogIngestVo> save(@RequestBody List<MonitoringLogsDto> monitoringLoges) {
         for (MonitoringLogsDto monitoringLoge : monitoringLoges) {
             monitoringLoge.setId(null);
         }
-        monitoringLogsService.batchSave(monitoringLoges, getLoginUser());
-
-        return success();
+        return success(monitoringLogsService.ingest(monitoringLoges, getLoginUser()));
     }
 
     @Operation(summary = "Create a new batch of instances of the model and persist it into the data source")
     @PostMapping("batchJson")
-    public ResponseMessage<List<MonitoringLogsDto>> batchJson(@RequestBody List<String> list) {
+    public ResponseMessage<MonitoringLogIngestVo> batchJson(@RequestBody List<String> list) {
         if (CollectionUtils.isEmpty(list)) {
             return success();
         }
@@ -72,9 +71,7 @@ public class MonitoringLogsController extends BaseController {
         for (MonitoringLogsDto monitoringLoge : monitoringLoges) {
             monitoringLoge.setId(null);
         }
-        monitoringLogsService.batchSave(monitoringLoges, getLoginUser());
-
-        return success();
+        return success(monitoringLogsService.ingest(monitoringLoges, getLoginUser()));
     }
 
     /**
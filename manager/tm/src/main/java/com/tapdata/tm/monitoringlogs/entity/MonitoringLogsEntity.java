@@ -33,4 +33,8 @@ public class MonitoringLogsEntity extends BaseEntity {
     private String dataJson;
     private String errorCode;
     private String fullErrorCode;
+    /** 同一批次内重复出现的次数, 未重复时为空 */
+    private Long repeatCount;
+    /** 最后一次重复出现的时间 */
+    private Long lastTimestamp;
 }
\ No newline at end of file
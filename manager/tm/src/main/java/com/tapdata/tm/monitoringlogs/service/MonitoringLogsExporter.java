@@ -0,0 +1,220 @@
+package com.tapdata.tm.monitoringlogs.service;
+
+import com.alibaba.fastjson.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 监控日志导出: 直接读取投影后的原始 Document 并写入带缓冲的 Writer, 不再逐行转换 DTO 和拼接字符串;
+ * 时间范围按 parallelism 切分为互不重叠的区间并行读取, 按区间顺序输出, 结果整体按时间有序
+ */
+@Slf4j
+public class MonitoringLogsExporter {
+
+    public static final List<String> PROJECTION_FIELDS = Arrays.asList(
+            "level", "date", "timestamp", "taskName", "nodeName", "logTags", "message", "errorStack", "data", "repeatCount");
+
+    private static final int WRITER_BUFFER_SIZE = 1 << 16;
+    private static final long MIN_SLICE_MILLIS = 60 * 1000L;
+    private static final Object END = new Object();
+
+    /**
+     * 读取 [start, end) 时间范围内按 timestamp 升序的日志, 返回的迭代器如果实现了 Closeable 会在读取结束后关闭
+     */
+    @FunctionalInterface
+    public interface SliceReader {
+        Iterator<Document> read(long start, long end);
+    }
+
+    private final SliceReader reader;
+    private final int parallelism;
+    private final int prefetch;
+
+    public MonitoringLogsExporter(SliceReader reader, int parallelism, int prefetch) {
+        this.reader = reader;
+        this.parallelism = Math.max(parallelism, 1);
+        this.prefetch = Math.max(prefetch, 1);
+    }
+
+    /**
+     * @return 导出的行数
+     */
+    public long export(long start, long end, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITER_BUFFER_SIZE);
+        List<long[]> slices = split(start, end, parallelism);
+        long count = slices.size() == 1 ? exportSequential(start, end, writer) : exportParallel(slices, writer);
+        writer.flush();
+        return count;
+    }
+
+    protected static List<long[]> split(long start, long end, int parallelism) {
+        List<long[]> slices = new ArrayList<>();
+        int sliceCount = (int) Math.max(1, Math.min(parallelism, (end - start) / MIN_SLICE_MILLIS));
+        long step = (end - start) / sliceCount;
+        long from = start;
+        for (int i = 0; i < sliceCount; i++) {
+            long to = i == sliceCount - 1 ? end : from + step;
+            slices.add(new long[]{from, to});
+            from = to;
+        }
+        return slices;
+    }
+
+    private long exportSequential(long start, long end, Writer writer) throws IOException {
+        long count = 0;
+        Iterator<Document> iterator = reader.read(start, end);
+        try {
+            while (iterator.hasNext()) {
+                writeLine(iterator.next(), writer);
+                count++;
+            }
+        } finally {
+            closeQuietly(iterator);
+        }
+        return count;
+    }
+
+    private long exportParallel(List<long[]> slices, Writer writer) throws IOException {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(slices.size(), r -> {
+            Thread thread = new Thread(r, "monitoring-logs-export-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<BlockingQueue<Object>> queues = new ArrayList<>(slices.size());
+        for (long[] slice : slices) {
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>(prefetch);
+            queues.add(queue);
+            executor.execute(() -> readSlice(slice[0], slice[1], queue, cancelled));
+        }
+
+        long count = 0;
+        try {
+            for (BlockingQueue<Object> queue : queues) {
+                Object item;
+                while ((item = queue.take()) != END) {
+                    if (item instanceof Throwable) {
+                        throw new IOException("Read monitoring logs failed", (Throwable) item);
+                    }
+                    writeLine((Document) item, writer);
+                    count++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export monitoring logs interrupted", e);
+        } finally {
+            cancelled.set(true);
+            executor.shutdownNow();
+        }
+        return count;
+    }
+
+    private void readSlice(long start, long end, BlockingQueue<Object> queue, AtomicBoolean cancelled) {
+        Iterator<Document> iterator = null;
+        try {
+            iterator = reader.read(start, end);
+            while (!cancelled.get() && iterator.hasNext()) {
+                if (!put(queue, iterator.next(), cancelled)) {
+                    return;
+                }
+            }
+            put(queue, END, cancelled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            try {
+                put(queue, e, cancelled);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            closeQuietly(iterator);
+        }
+    }
+
+    private static boolean put(BlockingQueue<Object> queue, Object item, AtomicBoolean cancelled) throws InterruptedException {
+        while (!cancelled.get()) {
+            if (queue.offer(item, 100L, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 与 MonitoringLogsDto.formatMonitoringLog 输出一致, 重复合并的日志追加重复次数
+     */
+    protected static void writeLine(Document document, Writer writer) throws IOException {
+        writer.write('[');
+        writer.write(String.valueOf(document.get("level")));
+        writer.write("] ");
+        writer.write(String.valueOf(document.get("date")));
+        writer.write(" [");
+        writer.write(String.valueOf(document.get("taskName")));
+        writer.write(']');
+        Object nodeName = document.get("nodeName");
+        if (nodeName instanceof String && StringUtils.isNotBlank((String) nodeName)) {
+            writer.write('[');
+            writer.write((String) nodeName);
+            writer.write(']');
+        }
+        Object logTags = document.get("logTags");
+        if (logTags instanceof List) {
+            for (Object tag : (List<?>) logTags) {
+                writer.write('[');
+                writer.write(String.valueOf(tag));
+                writer.write("] ");
+            }
+        }
+        writer.write(" - ");
+        writer.write(String.valueOf(document.get("message")));
+        writer.write(' ');
+        Object errorStack = document.get("errorStack");
+        if (null != errorStack) {
+            writer.write(errorStack.toString());
+        }
+        Object data = document.get("data");
+        if (data instanceof List && !((List<?>) data).isEmpty()) {
+            writer.write(JSON.toJSONString(data));
+        }
+        Object repeatCount = document.get("repeatCount");
+        if (repeatCount instanceof Number && ((Number) repeatCount).longValue() > 1) {
+            writer.write(" (repeated ");
+            writer.write(repeatCount.toString());
+            writer.write(" times)");
+        }
+        writer.write('\n');
+    }
+
+    private static void closeQuietly(Object iterator) {
+        if (iterator instanceof Closeable) {
+            try {
+                ((Closeable) iterator).close();
+            } catch (Exception e) {
+                log.warn("Close monitoring logs cursor failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.tapdata.tm.monitoringlogs.service;
+
+import com.tapdata.tm.monitoringlogs.entity.MonitoringLogsEntity;
+import com.tapdata.tm.monitoringlogs.vo.MonitoringLogIngestVo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 引擎上报监控日志的写入队列: 多个HTTP请求的小批次在内存中合并, 达到批次大小或刷新间隔后统一批量写入;
+ * 同一窗口内相同 task/node/level/message 的日志只保留一条并累加 repeatCount; 积压超过水位时通过返回值通知引擎降速;
+ * 队列满时请求线程等待后台写入腾出空间, 等待超时则由请求线程直接写库, 不丢弃日志
+ */
+@Slf4j
+public class MonitoringLogsIngestQueue {
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<List<Object>, MonitoringLogsEntity> pending = new LinkedHashMap<>();
+    private final Consumer<List<MonitoringLogsEntity>> writer;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int highWaterMark;
+    private final long blockTimeoutMs;
+    private final Counter blockedCounter;
+    private final Counter directWrittenCounter;
+    private final Counter mergedCounter;
+    private volatile boolean running = true;
+    private final Thread flushThread;
+
+    public MonitoringLogsIngestQueue(Consumer<List<MonitoringLogsEntity>> writer, int capacity, int batchSize, long flushIntervalMs) {
+        this(writer, capacity, batchSize, flushIntervalMs, flushIntervalMs * 5);
+    }
+
+    public MonitoringLogsIngestQueue(Consumer<List<MonitoringLogsEntity>> writer, int capacity, int batchSize, long flushIntervalMs, long blockTimeoutMs) {
+        this.writer = writer;
+        this.capacity = Math.max(capacity, 1);
+        this.batchSize = Math.max(Math.min(batchSize, this.capacity), 1);
+        this.flushIntervalMs = Math.max(flushIntervalMs, 1L);
+        this.highWaterMark = Math.max(this.capacity * 4 / 5, this.batchSize);
+        this.blockTimeoutMs = Math.max(blockTimeoutMs, 0L);
+        this.blockedCounter = Counter.builder("monitoring_logs_ingest_blocked").register(Metrics.globalRegistry);
+        this.directWrittenCounter = Counter.builder("monitoring_logs_ingest_direct_written").register(Metrics.globalRegistry);
+        this.mergedCounter = Counter.builder("monitoring_logs_ingest_merged").register(Metrics.globalRegistry);
+        Gauge.builder("monitoring_logs_ingest_pending", this, MonitoringLogsIngestQueue::size).register(Metrics.globalRegistry);
+        this.flushThread = new Thread(this::flushLoop, "monitoring-logs-ingest");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+    }
+
+    /**
+     * 放入一批日志, 队列有空间时不等待写库; 队列满时阻塞等待, 超过 blockTimeoutMs 仍放不下的日志由当前线程直接写库,
+     * 写库失败时抛出异常, 由引擎按上报失败重试
+     * @return 本次接收情况以及建议引擎下次上报前等待的毫秒数
+     */
+    public MonitoringLogIngestVo offer(List<MonitoringLogsEntity> entities) {
+        int accepted = 0;
+        int merged = 0;
+        boolean blocked = false;
+        List<MonitoringLogsEntity> overflow = new ArrayList<>();
+        int size;
+        synchronized (lock) {
+            long deadline = System.currentTimeMillis() + blockTimeoutMs;
+            for (MonitoringLogsEntity entity : entities) {
+                List<Object> key = dedupKey(entity);
+                while (true) {
+                    MonitoringLogsEntity exists = pending.get(key);
+                    if (null != exists) {
+                        exists.setRepeatCount(exists.getRepeatCount() == null ? 2L : exists.getRepeatCount() + 1);
+                        exists.setLastTimestamp(entity.getTimestamp());
+                        merged++;
+                        break;
+                    }
+                    if (running && pending.size() < capacity) {
+                        pending.put(key, entity);
+                        accepted++;
+                        break;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (!running || remaining <= 0) {
+                        overflow.add(entity);
+                        break;
+                    }
+                    blocked = true;
+                    lock.notifyAll();
+                    try {
+                        lock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        deadline = 0L;
+                    }
+                }
+            }
+            size = pending.size();
+            if (size >= batchSize) {
+                lock.notifyAll();
+            }
+        }
+        if (merged > 0) {
+            mergedCounter.increment(merged);
+        }
+        if (blocked) {
+            blockedCounter.increment();
+        }
+        if (!overflow.isEmpty()) {
+            directWrittenCounter.increment(overflow.size());
+            log.warn("Monitoring logs ingest queue is full or stopped, write {} logs directly, pending: {}", overflow.size(), size);
+            writer.accept(overflow);
+        }
+
+        MonitoringLogIngestVo vo = new MonitoringLogIngestVo();
+        vo.setAccepted(accepted);
+        vo.setMerged(merged);
+        vo.setDirectWritten(overflow.size());
+        vo.setPending(size);
+        vo.setRetryAfter(retryAfter(size, blocked));
+        return vo;
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 停止后台线程并写入剩余日志
+     */
+    public void stop() {
+        running = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            flushThread.join(flushIntervalMs * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    protected long retryAfter(int size, boolean blocked) {
+        if (blocked) {
+            return flushIntervalMs * 2;
+        }
+        if (size >= highWaterMark) {
+            return flushIntervalMs;
+        }
+        return 0L;
+    }
+
+    protected void flush() {
+        List<MonitoringLogsEntity> batch;
+        while (!(batch = takeBatch()).isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            List<MonitoringLogsEntity> batch;
+            synchronized (lock) {
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                long remaining;
+                while (running && pending.size() < batchSize && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        lock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                batch = takeBatch();
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    private List<MonitoringLogsEntity> takeBatch() {
+        synchronized (lock) {
+            List<MonitoringLogsEntity> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            Iterator<Map.Entry<List<Object>, MonitoringLogsEntity>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next().getValue());
+                iterator.remove();
+            }
+            if (!batch.isEmpty()) {
+                // 唤醒等待空间的请求线程
+                lock.notifyAll();
+            }
+            return batch;
+        }
+    }
+
+    private void write(List<MonitoringLogsEntity> batch) {
+        try {
+            writer.accept(batch);
+        } catch (Exception e) {
+            log.error("Write monitoring logs failed, {} logs lost", batch.size(), e);
+        }
+    }
+
+    private static List<Object> dedupKey(MonitoringLogsEntity entity) {
+        return Arrays.asList(entity.getTaskId(), entity.getTaskRecordId(), entity.getNodeId(), entity.getLevel(),
+                entity.getMessage(), entity.getErrorCode(), entity.getErrorStack(), entity.getDataJson());
+    }
+}
@@ -3,7 +3,6 @@ package com.tapdata.tm.monitoringlogs.service;
 import cn.hutool.core.date.DatePattern;
 import cn.hutool.core.date.DateUtil;
 import com.alibaba.fastjson.JSON;
-import com.tapdata.manager.common.utils.IOUtils;
 import com.tapdata.tm.base.dto.Page;
 import com.tapdata.tm.base.exception.BizException;
 import com.tapdata.tm.base.service.BaseService;
@@ -18,6 +17,7 @@ import com.tapdata.tm.monitoringlogs.param.MonitoringLogExportParam;
 import com.tapdata.tm.monitoringlogs.param.MonitoringLogQueryParam;
 import com.tapdata.tm.monitoringlogs.repository.MonitoringLogsRepository;
 import com.tapdata.tm.monitoringlogs.vo.MonitoringLogCountVo;
+import com.tapdata.tm.monitoringlogs.vo.MonitoringLogIngestVo;
 import com.tapdata.tm.statemachine.enums.DataFlowEvent;
 import com.tapdata.tm.statemachine.enums.TaskState;
 import com.tapdata.tm.statemachine.model.StateMachineResult;
@@ -31,8 +31,10 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -41,16 +43,16 @@ import org.springframework.data.mongodb.core.aggregation.GroupOperation;
 import org.springframework.data.mongodb.core.aggregation.MatchOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.zip.ZipOutputStream;
 
@@ -69,6 +71,22 @@ public class MonitoringLogsServiceImpl extends BaseService<MonitoringLogsDto, Mo
 
     private final Map<String, Object> oemConfig = OEMReplaceUtil.getOEMConfigMap("log/replace.json");
 
+    @Value("${monitoringLogs.ingest.enabled:true}")
+    private boolean ingestEnabled = true;
+    @Value("${monitoringLogs.ingest.capacity:100000}")
+    private int ingestCapacity = 100000;
+    @Value("${monitoringLogs.ingest.batchSize:5000}")
+    private int ingestBatchSize = 5000;
+    @Value("${monitoringLogs.ingest.flushIntervalMs:1000}")
+    private long ingestFlushIntervalMs = 1000L;
+    @Value("${monitoringLogs.ingest.blockTimeoutMs:5000}")
+    private long ingestBlockTimeoutMs = 5000L;
+    private MonitoringLogsIngestQueue ingestQueue;
+    @Value("${monitoringLogs.export.parallelism:4}")
+    private int exportParallelism = 4;
+    @Value("${monitoringLogs.export.batchSize:2000}")
+    private int exportBatchSize = 2000;
+
     public MonitoringLogsServiceImpl(@NonNull MonitoringLogsRepository repository, @Qualifier(value = "logMongoTemplate") CompletableFuture<MongoTemplate> mongoTemplateCompletableFuture) throws ExecutionException, InterruptedException {
         super(repository, MonitoringLogsDto.class, MonitoringLogsEntity.class);
         this.mongoOperations = mongoTemplateCompletableFuture.get();
@@ -79,8 +97,40 @@ public class MonitoringLogsServiceImpl extends BaseService<MonitoringLogsDto, Mo
     }
 
     public void batchSave(List<MonitoringLogsDto> monitoringLoges, UserDetail user) {
+        bulkInsert(prepareEntities(monitoringLoges, user));
+    }
 
-        BulkOperations bulkOperations = repository.getMongoOperations().bulkOps(BulkOperations.BulkMode.UNORDERED, MonitoringLogsEntity.class);
+    @Override
+    public MonitoringLogIngestVo ingest(List<MonitoringLogsDto> monitoringLoges, UserDetail user) {
+        List<MonitoringLogsEntity> entities = prepareEntities(monitoringLoges, user);
+        if (null == ingestQueue) {
+            bulkInsert(entities);
+            MonitoringLogIngestVo vo = new MonitoringLogIngestVo();
+            vo.setAccepted(entities.size());
+            vo.setMerged(0);
+            vo.setDirectWritten(0);
+            vo.setPending(0);
+            vo.setRetryAfter(0L);
+            return vo;
+        }
+        return ingestQueue.offer(entities);
+    }
+
+    @PostConstruct
+    protected void initIngestQueue() {
+        if (ingestEnabled) {
+            ingestQueue = new MonitoringLogsIngestQueue(this::bulkInsert, ingestCapacity, ingestBatchSize, ingestFlushIntervalMs, ingestBlockTimeoutMs);
+        }
+    }
+
+    @PreDestroy
+    protected void destroyIngestQueue() {
+        if (null != ingestQueue) {
+            ingestQueue.stop();
+        }
+    }
+
+    protected List<MonitoringLogsEntity> prepareEntities(List<MonitoringLogsDto> monitoringLoges, UserDetail user) {
         for (MonitoringLogsDto monitoringLoge : monitoringLoges) {
             String message = OEMReplaceUtil.replace(monitoringLoge.getMessage(), oemConfig);
             monitoringLoge.setMessage(message);
@@ -98,9 +148,16 @@ public class MonitoringLogsServiceImpl extends BaseService<MonitoringLogsDto, Mo
                 String jsonData = OEMReplaceUtil.replace(JSON.toJSONString(monitoringLogsEntity.getData()), oemConfig);
                 monitoringLogsEntity.setDataJson(jsonData);
             }
-            bulkOperations.insert(monitoringLogsEntity);
         }
+        return monitoringLogsEntities;
+    }
 
+    protected void bulkInsert(List<MonitoringLogsEntity> monitoringLogsEntities) {
+        if (CollectionUtils.isEmpty(monitoringLogsEntities)) {
+            return;
+        }
+        BulkOperations bulkOperations = repository.getMongoOperations().bulkOps(BulkOperations.BulkMode.UNORDERED, MonitoringLogsEntity.class);
+        bulkOperations.insert(monitoringLogsEntities);
         bulkOperations.execute();
     }
 
@@ -248,25 +305,23 @@ public class MonitoringLogsServiceImpl extends BaseService<MonitoringLogsDto, Mo
             throw new BizException("Invalid value for start or end");
         }
 
-        criteria.and("timestamp").gte(param.getStart()).lt(param.getEnd());
-
-        Query query = new Query(criteria);
-        query.with(Sort.by("timestamp").ascending());
-
-        CloseableIterator<MonitoringLogsEntity> iter = mongoOperations.stream(query, MonitoringLogsEntity.class);
-        AtomicLong count = new AtomicLong();
-        iter.forEachRemaining(logEntity -> {
-            try {
-                MonitoringLogsDto logDto = convertToDto(logEntity, MonitoringLogsDto.class);
-                count.addAndGet(1);
-
-                stream.write((logDto.formatMonitoringLog() + "\n").getBytes());
-            } catch (IOException e) {
-                throw new BizException("Export.IOError", e);
-            }
-        });
-        IOUtils.closeQuietly(iter);
-        if (count.get() == 0) {
+        Document filter = criteria.getCriteriaObject();
+        Document projection = new Document();
+        MonitoringLogsExporter.PROJECTION_FIELDS.forEach(field -> projection.append(field, 1));
+        MonitoringLogsExporter.SliceReader reader = (start, end) -> mongoOperations.getCollection(mongoOperations.getCollectionName(MonitoringLogsEntity.class))
+                .find(new Document(filter).append("timestamp", new Document("$gte", start).append("$lt", end)))
+                .projection(projection)
+                .sort(new Document("timestamp", 1))
+                .batchSize(exportBatchSize)
+                .iterator();
+        MonitoringLogsExporter exporter = new MonitoringLogsExporter(reader, exportParallelism, exportBatchSize);
+        long count;
+        try {
+            count = exporter.export(param.getStart(), param.getEnd(), stream);
+        } catch (IOException e) {
+            throw new BizException("Export.IOError", e);
+        }
+        if (count == 0) {
             try {
                 stream.write(("Can't find any logs by query " + param).getBytes());
             } catch (IOException e) {
@@ -881,6 +881,25 @@ public class TaskController extends BaseController {
 			return success(responseMessages);
 		}
 
+    /**
+     * 异步批量启动, 返回的进度中包含 id, 之后用 GET batchStart/{id} 查询每个任务的结果
+     */
+    @PutMapping("batchStartAsync")
+    public ResponseMessage<BatchStartJobVo> batchStartAsync(@RequestParam("taskIds") List<String> taskIds,
+                                                            @RequestParam(value = "syncType", required = false) String syncType,
+                                                            HttpServletRequest request) {
+        UserDetail userDetail = getLoginUser();
+        List<ObjectId> taskObjectIds = taskIds.stream().map(MongoUtils::toObjectId).collect(Collectors.toList());
+        return success(dataPermissionCheckOfMenu(userDetail, syncType, DataPermissionActionEnums.Start,
+                () -> taskService.batchStartAsync(taskObjectIds, userDetail, request)
+        ));
+    }
+
+    @GetMapping("batchStart/{id}")
+    public ResponseMessage<BatchStartJobVo> findBatchStartJob(@PathVariable("id") String id) {
+        return success(taskService.findBatchStartJob(id, getLoginUser()));
+    }
+
     @PutMapping("batchStop")
     public ResponseMessage<List<MutiResponseMessage>> batchStop(@RequestParam("taskIds") List<String> taskIds,
 																																@RequestParam(value = "syncType", required = false) String syncType,
@@ -1082,7 +1101,7 @@ public class TaskController extends BaseController {
 
     @Operation(summary = "任务导入")
     @PostMapping(path = "batch/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseMessage<Void> upload(@RequestParam(value = "file") MultipartFile file,
+    public ResponseMessage<TaskImportResultVo> upload(@RequestParam(value = "file") MultipartFile file,
                                         @RequestParam(value = "cover", required = false, defaultValue = "false") boolean cover,
                                         @RequestParam(value = "listtags", required = false) String listtags,
                                         @RequestParam(value = "source", required = false, defaultValue = "") String source,
@@ -1092,7 +1111,7 @@ public class TaskController extends BaseController {
             tags = JSON.parseArray(listtags, String.class);
         }
         if (Objects.requireNonNull(file.getOriginalFilename()).endsWith("json.gz")) {
-            taskService.batchUpTask(file, getLoginUser(), cover, tags);
+            return success(taskService.batchUpTask(file, getLoginUser(), cover, tags));
         }
         if (Objects.requireNonNull(file.getOriginalFilename()).endsWith("relmig")) {
             taskService.importRmProject(file, getLoginUser(), cover, tags, source, sink);
@@ -1100,6 +1119,26 @@ public class TaskController extends BaseController {
         return success();
     }
 
+    /**
+     * 异步导入, 返回的进度中包含 id, 之后用 GET batch/import/{id} 查询进度和每个任务的结果
+     */
+    @Operation(summary = "任务异步导入")
+    @PostMapping(path = "batch/importAsync", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseMessage<TaskImportResultVo> uploadAsync(@RequestParam(value = "file") MultipartFile file,
+                                                           @RequestParam(value = "cover", required = false, defaultValue = "false") boolean cover,
+                                                           @RequestParam(value = "listtags", required = false) String listtags) {
+        List<String> tags = Lists.newArrayList();
+        if (StringUtils.isNoneBlank(listtags)) {
+            tags = JSON.parseArray(listtags, String.class);
+        }
+        return success(taskService.batchUpTaskAsync(file, getLoginUser(), cover, tags));
+    }
+
+    @GetMapping("batch/import/{id}")
+    public ResponseMessage<TaskImportResultVo> findImportJob(@PathVariable("id") String id) {
+        return success(taskService.findImportJob(id, getLoginUser()));
+    }
+
 
     @Operation(summary = "校验任务是否从来没有跑过，或者重置过")
     @GetMapping("checkRun/{id}")
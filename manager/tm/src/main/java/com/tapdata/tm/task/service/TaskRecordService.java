@@ -7,11 +7,21 @@ import com.tapdata.tm.task.bean.TaskRecordDto;
 import com.tapdata.tm.task.entity.TaskRecord;
 import com.tapdata.tm.task.vo.TaskRecordListVo;
 
+import java.util.List;
+
 public interface TaskRecordService {
     void createRecord(TaskRecord taskRecord);
 
+    void createRecords(List<TaskRecord> taskRecords);
+
     void updateTaskStatus(SyncTaskStatusDto dto);
 
+    /**
+     * update status of many task records in one bulk write
+     * @return the updates whose task record does not exist yet
+     */
+    List<SyncTaskStatusDto> updateTaskStatus(List<SyncTaskStatusDto> dtoList);
+
     Page<TaskRecordListVo> queryRecords(TaskRecordDto dto);
 
     TaskDto queryTask(String taskRecordId, String userId);
@@ -7,6 +7,11 @@ import com.tapdata.tm.worker.vo.CalculationEngineVo;
 public interface TaskScheduleService {
 
     void scheduling(TaskDto taskDto, UserDetail user);
+
+    /**
+     * @param placedAgentId 批量启动时统一计算好的引擎, 为空时按单个任务重新计算
+     */
+    void scheduling(TaskDto taskDto, UserDetail user, String placedAgentId);
     void sendStartMsg(String taskId, String agentId, UserDetail user);
     CalculationEngineVo cloudTaskLimitNum(TaskDto taskDto, UserDetail user, boolean limitNum);
 
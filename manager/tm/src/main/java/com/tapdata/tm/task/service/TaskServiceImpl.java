@@ -137,6 +137,7 @@ import com.tapdata.tm.task.repository.TaskRepository;
 import com.tapdata.tm.task.service.batchin.ParseRelMig;
 import com.tapdata.tm.task.service.batchin.entity.ParseParam;
 import com.tapdata.tm.task.service.batchup.BatchUpChecker;
+import com.tapdata.tm.task.service.batchup.ImportNameResolver;
 import com.tapdata.tm.task.service.chart.ChartViewService;
 import com.tapdata.tm.task.service.utils.TaskServiceUtil;
 import com.tapdata.tm.transform.service.MetadataTransformerItemService;
@@ -187,6 +188,7 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -194,10 +196,12 @@ import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.WebUtils;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
@@ -210,10 +214,15 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -300,6 +309,11 @@ public class TaskServiceImpl extends TaskService{
     public static final String COLUMN = "column";
     public static final String STOPED_DATE = "stopedDate";
     public static final String TARGET = "target";
+    public static final int BATCH_START_CONCURRENCY = 8;
+    public static final long BATCH_START_JOB_EXPIRE_MS = 30 * 60 * 1000L;
+    public static final int TASK_IMPORT_CONCURRENCY = 2;
+    public static final int IMPORT_JS_TEST_RUN_CONCURRENCY = 4;
+    public static final long TASK_IMPORT_JOB_EXPIRE_MS = 30 * 60 * 1000L;
 
     @NotNull
     private static String getTableName() {
@@ -360,7 +374,12 @@ public class TaskServiceImpl extends TaskService{
 
     private DateNodeService dateNodeService;
 
-    private final Map<String, ReentrantLock> scheduleLockMap = new ConcurrentHashMap<>();
+    private final Map<String, ScheduleLock> scheduleLockMap = new ConcurrentHashMap<>();
+    private final Map<String, BatchStartJob> batchStartJobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor batchStartExecutor = daemonExecutor(BATCH_START_CONCURRENCY, "batch-start-task-");
+    private final Map<String, TaskImportJob> taskImportJobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor taskImportExecutor = daemonExecutor(TASK_IMPORT_CONCURRENCY, "task-import-");
+    private final ThreadPoolExecutor jsTestRunExecutor = daemonExecutor(IMPORT_JS_TEST_RUN_CONCURRENCY, "import-js-test-run-");
 
     private SettingsServiceImpl settingsService;
 
@@ -378,6 +397,18 @@ public class TaskServiceImpl extends TaskService{
         super(repository);
     }
 
+    private static ThreadPoolExecutor daemonExecutor(int size, String threadNamePrefix) {
+        AtomicInteger threadNo = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, threadNamePrefix + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
 	public Supplier<TaskDto> dataPermissionFindById(ObjectId taskId, Field fields) {
 		return () -> {
 			if (null != fields) {
@@ -903,19 +934,32 @@ public class TaskServiceImpl extends TaskService{
     }
 
     public void checkEngineStatus(TaskDto taskDto, UserDetail user) {
+        checkEngineStatus(taskDto, user, null);
+    }
+
+    protected void checkEngineStatus(TaskDto taskDto, UserDetail user, BatchStartLookups lookups) {
         String errCode = "Agent.Not.Found";
         String accessNodeType = taskDto.getAccessNodeType();
         List<String> taskProcessIdList = agentGroupService.getProcessNodeListWithGroup(taskDto, user);
         if (AccessNodeTypeEnum.isGroupManually(accessNodeType) && taskProcessIdList.isEmpty()) {
             throw new BizException(errCode);
         }
-        List<Worker> availableAgentByAccessNode = workerService.findAvailableAgentByAccessNode(user, taskProcessIdList);
+        List<Worker> availableAgentByAccessNode = null == lookups
+                ? workerService.findAvailableAgentByAccessNode(user, taskProcessIdList)
+                : lookups.availableAgents.computeIfAbsent(new ArrayList<>(taskProcessIdList), ids -> workerService.findAvailableAgentByAccessNode(user, ids));
         if (CollectionUtils.isEmpty(availableAgentByAccessNode)) {
             throw new BizException(errCode);
         }
     }
 
     public void checkDagAgentConflict(TaskDto taskDto, UserDetail user, boolean showListMsg) {
+        checkDagAgentConflict(taskDto, user, showListMsg, null);
+    }
+
+    /**
+     * @param connections 已经查出的连接, 为 null 时按任务的节点查询
+     */
+    protected void checkDagAgentConflict(TaskDto taskDto, UserDetail user, boolean showListMsg, Map<String, DataSourceConnectionDto> connections) {
         if (taskDto.getShareCache()) {
             return;
         }
@@ -928,7 +972,9 @@ public class TaskServiceImpl extends TaskService{
             }
         });
         List<String> taskProcessIdList = taskDto.getAccessNodeProcessIdList();
-        List<DataSourceConnectionDto> dataSourceConnectionList = dataSourceService.findInfoByConnectionIdList(connectionIdList);
+        List<DataSourceConnectionDto> dataSourceConnectionList = null == connections
+                ? dataSourceService.findInfoByConnectionIdList(connectionIdList)
+                : connectionIdList.stream().distinct().map(connections::get).filter(Objects::nonNull).collect(Collectors.toList());
         Map<String, List<Message>> validateMessage = Maps.newHashMap();
         if (CollectionUtils.isNotEmpty(dataSourceConnectionList)) {
             Map<String, DataSourceConnectionDto> collect = dataSourceConnectionList.stream().collect(Collectors.toMap(s -> s.getId().toHexString(), a -> a, (k1, k2) -> k1));
@@ -1306,7 +1352,7 @@ public class TaskServiceImpl extends TaskService{
                 if (null != taskSnapshot){
                     taskSnapshot.setTaskRecordId(lastTaskRecordId);
                 }
-                disruptorService.sendMessage(DisruptorTopicEnum.CREATE_RECORD,
+                disruptorService.sendMessage(DisruptorTopicEnum.CREATE_RECORD, taskDto.getId().toHexString(),
                         new TaskRecord(lastTaskRecordId, taskDto.getId().toHexString(), taskSnapshot, system ? "system" : user.getUserId(), new Date()));
             }
         } else {
@@ -1400,42 +1446,262 @@ public class TaskServiceImpl extends TaskService{
 
     public List<MutiResponseMessage> batchStart(List<ObjectId> taskIds, UserDetail user,
                                                 HttpServletRequest request, HttpServletResponse response) {
-        List<MutiResponseMessage> responseMessages = new ArrayList<>();
         List<TaskDto> taskDtos = findAllTasksByIds(taskIds.stream().map(ObjectId::toHexString).collect(Collectors.toList()));
-        int index = 1;
-        for (TaskDto task : taskDtos) {
+        BatchStartJob job = new BatchStartJob(new ObjectId().toHexString(), user.getUserId(), taskDtos);
+        Locale locale = null == request ? null : WebUtils.getLocale(request);
+        runBatchStart(job, user, job::fail).join();
+        // 请求对象不在工作线程间共享, 失败结果回到请求线程中按请求生成
+        for (int i = 0; i < job.errors.length; i++) {
+            if (null != job.errors[i]) {
+                job.finish(i, startFailed(job.tasks.get(i), user, job.errors[i], locale, request, response));
+            }
+        }
+        return Arrays.asList(job.results);
+    }
+
+    /**
+     * 异步批量启动, 立即返回任务进度, 之后通过 {@link #findBatchStartJob(String, UserDetail)} 查询
+     */
+    public BatchStartJobVo batchStartAsync(List<ObjectId> taskIds, UserDetail user, HttpServletRequest request) {
+        removeExpiredBatchStartJobs();
+        List<TaskDto> taskDtos = findAllTasksByIds(taskIds.stream().map(ObjectId::toHexString).collect(Collectors.toList()));
+        BatchStartJob job = new BatchStartJob(new ObjectId().toHexString(), user.getUserId(), taskDtos);
+        batchStartJobs.put(job.id, job);
+        Locale locale = null == request ? null : WebUtils.getLocale(request);
+        // 异步启动时请求已经结束, 失败结果直接在工作线程中生成
+        runBatchStart(job, user, (index, e) -> job.finish(index, startFailed(job.tasks.get(index), user, e, locale, null, null)))
+                .whenComplete((v, e) -> job.endTime = new Date());
+        return job.toVo();
+    }
+
+    /**
+     * 结束超过 {@link #BATCH_START_JOB_EXPIRE_MS} 的批量启动任务不再保留
+     */
+    @Scheduled(fixedDelay = BATCH_START_JOB_EXPIRE_MS)
+    public void removeExpiredBatchStartJobs() {
+        batchStartJobs.values().removeIf(BatchStartJob::expired);
+    }
+
+    public BatchStartJobVo findBatchStartJob(String jobId, UserDetail user) {
+        BatchStartJob job = batchStartJobs.get(jobId);
+        if (null == job || !job.userId.equals(user.getUserId())) {
+            throw new BizException("Task.BatchStartJobNotFound", jobId);
+        }
+        return job.toVo();
+    }
+
+    /**
+     * 批量启动: 云版的任务数限制在提交前按顺序检查, 同一批任务共用一次引擎的计算结果;
+     * 通过检查的任务一起分配引擎后在线程池中并发启动, 开启共享挖掘的任务仍然依次启动; 失败的任务交给 onFailure 生成结果
+     */
+    protected CompletableFuture<Void> runBatchStart(BatchStartJob job, UserDetail user, BiConsumer<Integer, Exception> onFailure) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        CompletableFuture<Void> shareCdcLane = CompletableFuture.completedFuture(null);
+        boolean isCloud = settingsService.isCloud();
+        Map<String, CalculationEngineVo> calculationEngines = new HashMap<>();
+        Map<String, Integer> admitted = new HashMap<>();
+        List<Integer> admittedIndexes = new ArrayList<>();
+        for (int i = 0; i < job.tasks.size(); i++) {
+            if (isCloud) {
+                try {
+                    checkBatchStartLimit(job.tasks.get(i), user, i + 1, calculationEngines, admitted);
+                } catch (Exception e) {
+                    onFailure.accept(i, e);
+                    continue;
+                }
+            }
+            admittedIndexes.add(i);
+        }
+        List<TaskDto> admittedTasks = admittedIndexes.stream().map(job.tasks::get).collect(Collectors.toList());
+        BatchStartLookups lookups = new BatchStartLookups(findBatchConnections(admittedTasks), placeBatchTasks(admittedTasks, user));
+        for (int index : admittedIndexes) {
+            Runnable startTask = () -> startInBatch(job, index, user, lookups, onFailure);
+            if (Boolean.TRUE.equals(job.tasks.get(index).getShareCdcEnable())) {
+                shareCdcLane = shareCdcLane.thenRunAsync(startTask, batchStartExecutor);
+            } else {
+                futures.add(CompletableFuture.runAsync(startTask, batchStartExecutor));
+            }
+        }
+        futures.add(shareCdcLane);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * 一次查出本批任务用到的所有连接
+     */
+    protected Map<String, DataSourceConnectionDto> findBatchConnections(List<TaskDto> tasks) {
+        Set<String> connectionIds = new HashSet<>();
+        for (TaskDto task : tasks) {
+            if (null == task.getDag() || Boolean.TRUE.equals(task.getShareCache())) {
+                continue;
+            }
+            task.getDag().getNodes().forEach(node -> {
+                if (node instanceof DataParentNode) {
+                    connectionIds.add(((DataParentNode<?>) node).getConnectionId());
+                }
+            });
+        }
+        if (connectionIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<DataSourceConnectionDto> connections = dataSourceService.findInfoByConnectionIdList(new ArrayList<>(connectionIds));
+        if (CollectionUtils.isEmpty(connections)) {
+            return new HashMap<>();
+        }
+        return connections.stream().collect(Collectors.toMap(c -> c.getId().toHexString(), c -> c, (k1, k2) -> k1));
+    }
+
+    /**
+     * 本批自动分配引擎的任务一起计算负载并分配引擎, 启动时不再逐个计算; 分配失败的任务在启动时按单个任务重新计算
+     *
+     * @return 任务 id -> 引擎 processId
+     */
+    protected Map<String, String> placeBatchTasks(List<TaskDto> tasks, UserDetail user) {
+        List<TaskDto> autoTasks = tasks.stream()
+                .filter(task -> !AccessNodeTypeEnum.isManually(task.getAccessNodeType()))
+                .collect(Collectors.toList());
+        if (autoTasks.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return workerService.scheduleTasksToEngines(autoTasks, user);
+        } catch (Exception e) {
+            log.warn("Place batch start tasks failed, schedule each task when it starts: {}", e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * 同一用户、相同调度条件的任务只计算一次可用引擎, 之后按本批已经通过的任务数累加
+     */
+    protected void checkBatchStartLimit(TaskDto task, UserDetail user, int index,
+                                        Map<String, CalculationEngineVo> calculationEngines, Map<String, Integer> admitted) {
+        String key = String.join("|", String.valueOf(task.getUserId()), String.valueOf(task.getAgentId()),
+                String.valueOf(task.getAccessNodeType()), String.valueOf(task.getAccessNodeProcessIdList()), String.valueOf(task.getAgentTags()));
+        CalculationEngineVo calculationEngineVo = calculationEngines.get(key);
+        if (null == calculationEngineVo) {
+            calculationEngineVo = taskScheduleService.cloudTaskLimitNum(task, user, true);
+            calculationEngines.put(key, calculationEngineVo);
+        }
+        int runningNum = calculationEngineVo.getRunningNum() + admitted.getOrDefault(key, 0);
+        if (checkIsCronOrPlanTask(task) && runningNum > 0) {
+            runningNum -= 1;
+        }
+        if (runningNum >= calculationEngineVo.getTaskLimit() || index > calculationEngineVo.getTotalLimit()) {
+            throw new BizException("Task.ScheduleLimit");
+        }
+        admitted.merge(key, 1, Integer::sum);
+    }
+
+    protected void startInBatch(BatchStartJob job, int index, UserDetail user, BatchStartLookups lookups, BiConsumer<Integer, Exception> onFailure) {
+        TaskDto task = job.tasks.get(index);
+        try {
+            start(task, user, "11", lookups);
             MutiResponseMessage mutiResponseMessage = new MutiResponseMessage();
             mutiResponseMessage.setId(task.getId().toHexString());
+            job.finish(index, mutiResponseMessage);
+        } catch (Exception e) {
+            onFailure.accept(index, e);
+        }
+    }
+
+    protected MutiResponseMessage startFailed(TaskDto task, UserDetail user, Exception e, Locale locale,
+                                              HttpServletRequest request, HttpServletResponse response) {
+        MutiResponseMessage mutiResponseMessage = new MutiResponseMessage();
+        mutiResponseMessage.setId(task.getId().toHexString());
+        log.warn("start task exception, task id = {}, e = {}", task.getId(), ThrowableUtils.getStackTraceByPn(e));
+        monitoringLogsService.startTaskErrorLog(task, user, e, Level.ERROR);
+        if (e instanceof BizException) {
+            mutiResponseMessage.setCode(((BizException) e).getErrorCode());
+            mutiResponseMessage.setMessage(null == locale
+                    ? MessageUtil.getMessage(((BizException) e).getErrorCode(), ((BizException) e).getArgs())
+                    : MessageUtil.getMessage(locale, ((BizException) e).getErrorCode(), ((BizException) e).getArgs()));
+        } else if (null == request) {
+            // 异步启动时请求已经结束
+            mutiResponseMessage.setCode("SystemError");
+            mutiResponseMessage.setMessage(null == locale ? e.getMessage() : MessageUtil.getMessage(locale, "SystemError", e.getMessage()));
+        } else {
             try {
-                if (settingsService.isCloud()) {
-                    CalculationEngineVo calculationEngineVo = taskScheduleService.cloudTaskLimitNum(task, user, true);
-                    int runningNum = subCronOrPlanNum(task, calculationEngineVo.getRunningNum());
-                    if (runningNum >= calculationEngineVo.getTaskLimit() ||
-                            index > calculationEngineVo.getTotalLimit()) {
-                        throw new BizException("Task.ScheduleLimit");
-                    }
-                }
-                start(task, user, "11");
-            } catch (Exception e) {
-                log.warn("start task exception, task id = {}, e = {}", task.getId(), ThrowableUtils.getStackTraceByPn(e));
-                monitoringLogsService.startTaskErrorLog(task, user, e, Level.ERROR);
-                if (e instanceof BizException) {
-                    mutiResponseMessage.setCode(((BizException) e).getErrorCode());
-                    mutiResponseMessage.setMessage(MessageUtil.getMessage(((BizException) e).getErrorCode(), ((BizException) e).getArgs()));
+                ResponseMessage<?> responseMessage = exceptionHandler.handlerException(e, request, response);
+                mutiResponseMessage.setCode(responseMessage.getCode());
+                mutiResponseMessage.setMessage(responseMessage.getMessage());
+            } catch (Throwable ex) {
+                log.warn(DELETE_TASK_HANDLE_EXCEPTION_ERROR_TASK_ID, task.getId().toHexString());
+            }
+        }
+        return mutiResponseMessage;
+    }
+
+    /**
+     * 批量启动时同一批任务共用的查询结果: 连接信息一次查出, 可用引擎按任务的引擎列表缓存
+     */
+    protected static class BatchStartLookups {
+        private final Map<String, DataSourceConnectionDto> connections;
+        private final Map<String, String> placements;
+        private final Map<List<String>, List<Worker>> availableAgents = new ConcurrentHashMap<>();
+
+        protected BatchStartLookups(Map<String, DataSourceConnectionDto> connections) {
+            this(connections, new HashMap<>());
+        }
+
+        protected BatchStartLookups(Map<String, DataSourceConnectionDto> connections, Map<String, String> placements) {
+            this.connections = connections;
+            this.placements = placements;
+        }
+    }
+
+    protected static class BatchStartJob {
+        private final String id;
+        private final String userId;
+        private final List<TaskDto> tasks;
+        private final MutiResponseMessage[] results;
+        private final Exception[] errors;
+        private final Date startTime = new Date();
+        private volatile Date endTime;
+
+        protected BatchStartJob(String id, String userId, List<TaskDto> tasks) {
+            this.id = id;
+            this.userId = userId;
+            this.tasks = tasks;
+            this.results = new MutiResponseMessage[tasks.size()];
+            this.errors = new Exception[tasks.size()];
+        }
+
+        protected synchronized void finish(int index, MutiResponseMessage result) {
+            results[index] = result;
+        }
+
+        protected synchronized void fail(int index, Exception e) {
+            errors[index] = e;
+        }
+
+        protected boolean expired() {
+            return null != endTime && System.currentTimeMillis() - endTime.getTime() > BATCH_START_JOB_EXPIRE_MS;
+        }
+
+        protected synchronized BatchStartJobVo toVo() {
+            BatchStartJobVo vo = new BatchStartJobVo();
+            vo.setId(id);
+            vo.setStatus(null == endTime ? BatchStartJobVo.STATUS_RUNNING : BatchStartJobVo.STATUS_FINISHED);
+            vo.setTotal(tasks.size());
+            vo.setStartTime(startTime);
+            vo.setEndTime(endTime);
+            List<MutiResponseMessage> done = new ArrayList<>();
+            List<String> pending = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                MutiResponseMessage result = results[i];
+                if (null == result) {
+                    pending.add(tasks.get(i).getId().toHexString());
                 } else {
-                    try {
-                        ResponseMessage<?> responseMessage = exceptionHandler.handlerException(e, request, response);
-                        mutiResponseMessage.setCode(responseMessage.getCode());
-                        mutiResponseMessage.setMessage(responseMessage.getMessage());
-                    } catch (Throwable ex) {
-                        log.warn(DELETE_TASK_HANDLE_EXCEPTION_ERROR_TASK_ID, task.getId().toHexString());
-                    }
+                    done.add(result);
                 }
             }
-            index++;
-            responseMessages.add(mutiResponseMessage);
+            vo.setFinished(done.size());
+            vo.setFailed((int) done.stream().filter(r -> !ResponseMessage.OK.equals(r.getCode())).count());
+            vo.setResults(done);
+            vo.setPending(pending);
+            return vo;
         }
-        return responseMessages;
     }
 
     public int subCronOrPlanNum(TaskDto task, int runningNum) {
@@ -2591,7 +2857,7 @@ public class TaskServiceImpl extends TaskService{
                 .and("grnty").is("hour")
                 .and("tags.type").is("task");
         Query query1 = new Query(in);
-        query1.fields().include("ss", "tags");
+        query1.fields().include("ss", "acc", "tags");
         DateTimeFormatter format = DateTimeFormatter.ofPattern(DATETIME_PATTERN);
         List<MeasurementEntity> measurementEntities = measurementServiceV2.find(query1);
 
@@ -2602,7 +2868,7 @@ public class TaskServiceImpl extends TaskService{
 
         taskMap.forEach((k1, v1) -> {
             Map<LocalDate, BigInteger> inputNumMap = new HashMap<>();
-            Map<LocalDate, List<Sample>> sampleMap = v1.stream().flatMap(m -> m.getSamples().stream()).collect(Collectors.groupingBy(s -> {
+            Map<LocalDate, List<Sample>> sampleMap = v1.stream().flatMap(m -> m.mergedSamples().stream()).collect(Collectors.groupingBy(s -> {
                 Date date = s.getDate();
                 return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
             }));
@@ -3418,6 +3684,9 @@ public class TaskServiceImpl extends TaskService{
         checkJsProcessorTestRun(user, tpTasks);
     }
 
+    /**
+     * 导入后试运行 js 节点: 在固定大小的线程池中并发执行, 不占用导入请求的线程
+     */
     public void checkJsProcessorTestRun(UserDetail user, List<TaskDto> tpTasks) {
         for (TaskDto task: tpTasks) {
             DAG dag = task.getDag();
@@ -3433,12 +3702,46 @@ public class TaskServiceImpl extends TaskService{
                 testRunDto.setScript(((ScriptProcessNode)node).getScript());
                 testRunDto.setVersion(3L);
                 testRunDto.setTableName(node.getName());
-                taskNodeService.testRunJsNodeRPC(testRunDto, user, 1);
+                jsTestRunExecutor.execute(() -> {
+                    try {
+                        taskNodeService.testRunJsNodeRPC(testRunDto, user, 1);
+                    } catch (Exception e) {
+                        log.warn("Test run js node failed after import, task id: {}, node id: {}, error: {}", testRunDto.getTaskId(), testRunDto.getJsNodeId(), e.getMessage());
+                    }
+                });
             }
         }
     }
 
-    public void batchUpTask(MultipartFile multipartFile, UserDetail user, boolean cover, List<String> tags) {
+    public TaskImportResultVo batchUpTask(MultipartFile multipartFile, UserDetail user, boolean cover, List<String> tags) {
+        TaskImportJob job = prepareImport(multipartFile, user);
+        runImport(job, user, cover, tags);
+        return job.toVo();
+    }
+
+    /**
+     * 异步导入, 导入包解析和校验通过后立即返回进度, 之后通过 {@link #findImportJob(String, UserDetail)} 查询
+     */
+    public TaskImportResultVo batchUpTaskAsync(MultipartFile multipartFile, UserDetail user, boolean cover, List<String> tags) {
+        taskImportJobs.values().removeIf(TaskImportJob::expired);
+        TaskImportJob job = prepareImport(multipartFile, user);
+        taskImportJobs.put(job.id, job);
+        CompletableFuture.runAsync(() -> runImport(job, user, cover, tags), taskImportExecutor);
+        return job.toVo();
+    }
+
+    public TaskImportResultVo findImportJob(String jobId, UserDetail user) {
+        TaskImportJob job = taskImportJobs.get(jobId);
+        if (null == job || !job.userId.equals(user.getUserId())) {
+            throw new BizException("Task.ImportJobNotFound", jobId);
+        }
+        return job.toVo();
+    }
+
+    /**
+     * 解析并校验整个导入包, 校验不通过的任务记录结果后不再导入; 这一步不写入任何数据
+     */
+    protected TaskImportJob prepareImport(MultipartFile multipartFile, UserDetail user) {
         byte[] bytes;
         List<TaskUpAndLoadDto> taskUpAndLoadDtos;
 
@@ -3465,11 +3768,8 @@ public class TaskServiceImpl extends TaskService{
             throw new BizException(TASK_IMPORT_FORMAT_ERROR);
         }
 
-        List<MetadataInstancesDto> metadataInstancess = new ArrayList<>();
-        List<TaskDto> tasks = new ArrayList<>();
-        List<DataSourceConnectionDto> connections = new ArrayList<>();
+        TaskImportJob job = new TaskImportJob(new ObjectId().toHexString(), user.getUserId());
         Set<ObjectId> connectionIds = new HashSet<>();
-        List<CustomNodeDto> customNodeDtos = new ArrayList<>();
         for (TaskUpAndLoadDto taskUpAndLoadDto : taskUpAndLoadDtos) {
             try {
                 String dtoJson = taskUpAndLoadDto.getJson();
@@ -3477,42 +3777,114 @@ public class TaskServiceImpl extends TaskService{
                     continue;
                 }
                 if (METADATA_INSTANCES.equals(taskUpAndLoadDto.getCollectionName())) {
-                    metadataInstancess.add(JsonUtil.parseJsonUseJackson(dtoJson, MetadataInstancesDto.class));
+                    job.metadataInstances.add(JsonUtil.parseJsonUseJackson(dtoJson, MetadataInstancesDto.class));
                 } else if ("Task".equals(taskUpAndLoadDto.getCollectionName())) {
-                    tasks.add(JsonUtil.parseJsonUseJackson(dtoJson, TaskDto.class));
+                    job.tasks.add(JsonUtil.parseJsonUseJackson(dtoJson, TaskDto.class));
                 } else if ("Connections".equals(taskUpAndLoadDto.getCollectionName())) {
                     DataSourceConnectionDto connectionDto = JsonUtil.parseJsonUseJackson(dtoJson, DataSourceConnectionDto.class);
                     if (connectionDto != null) {
                         if (!connectionIds.contains(connectionDto.getId())) {
-                            connections.add(connectionDto);
+                            job.connections.add(connectionDto);
                             if (connectionDto.getId() != null) {
                                 connectionIds.add(connectionDto.getId());
                             }
                         }
                     }
                 } else if ("CustomNodeTemps".equals(taskUpAndLoadDto.getCollectionName())) {
-                    customNodeDtos.add(JsonUtil.parseJsonUseJackson(dtoJson, CustomNodeDto.class));
+                    job.customNodes.add(JsonUtil.parseJsonUseJackson(dtoJson, CustomNodeDto.class));
                 }
             } catch (Exception e) {
                 log.error("error", e);
+                job.error("Parse " + taskUpAndLoadDto.getCollectionName() + " failed: " + e.getMessage());
+            }
+        }
+        job.tasks.removeIf(Objects::isNull);
+        job.total = job.tasks.size();
+        batchUpChecker.checkDataSourceConnection(job.connections, user);
+        validateImportTasks(job, connectionIds, user);
+        return job;
+    }
+
+    /**
+     * 导入前校验任务: 没有 dag 的任务、包内重复的任务、引用的连接既不在包内也不在库中的任务都不导入;
+     * 库中的连接用一次查询校验
+     */
+    protected void validateImportTasks(TaskImportJob job, Set<ObjectId> packageConnectionIds, UserDetail user) {
+        Set<String> importConnectionIds = packageConnectionIds.stream().map(ObjectId::toHexString).collect(Collectors.toSet());
+        Set<String> referenceIds = new HashSet<>();
+        job.tasks.forEach(task -> referenceIds.addAll(importConnectionIds(task)));
+        referenceIds.removeAll(importConnectionIds);
+        Set<String> existsConnectionIds = findExistsConnectionIds(referenceIds, user);
+
+        Set<ObjectId> taskIds = new HashSet<>();
+        Iterator<TaskDto> iterator = job.tasks.iterator();
+        while (iterator.hasNext()) {
+            TaskDto task = iterator.next();
+            if (null == task.getDag()) {
+                job.item(task, TaskImportResultVo.ITEM_FAILED, "Task dag is empty");
+            } else if (null != task.getId() && !taskIds.add(task.getId())) {
+                job.item(task, TaskImportResultVo.ITEM_SKIPPED, "Duplicate task in import file");
+            } else {
+                List<String> lostConnectionIds = importConnectionIds(task).stream()
+                        .filter(id -> !importConnectionIds.contains(id) && !existsConnectionIds.contains(id))
+                        .collect(Collectors.toList());
+                if (lostConnectionIds.isEmpty()) {
+                    continue;
+                }
+                job.item(task, TaskImportResultVo.ITEM_FAILED, "Connection not found: " + String.join(",", lostConnectionIds));
+            }
+            iterator.remove();
+        }
+    }
+
+    protected Set<String> importConnectionIds(TaskDto task) {
+        if (null == task.getDag() || null == task.getDag().getNodes()) {
+            return Collections.emptySet();
+        }
+        Set<String> ids = new HashSet<>();
+        for (Node<?> node : task.getDag().getNodes()) {
+            if (node instanceof DataParentNode && StringUtils.isNotBlank(((DataParentNode<?>) node).getConnectionId())) {
+                ids.add(((DataParentNode<?>) node).getConnectionId());
             }
         }
-        batchUpChecker.checkDataSourceConnection(connections, user);
-        Map<String, CustomNodeDto> customNodeMap = new HashMap<>();
+        return ids;
+    }
+
+    protected Set<String> findExistsConnectionIds(Set<String> connectionIds, UserDetail user) {
+        List<ObjectId> ids = connectionIds.stream().filter(ObjectId::isValid).map(ObjectId::new).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        return dataSourceService.findAllDto(query, user).stream()
+                .map(connection -> connection.getId().toHexString())
+                .collect(Collectors.toSet());
+    }
+
+    protected void runImport(TaskImportJob job, UserDetail user, boolean cover, List<String> tags) {
         Map<String, DataSourceConnectionDto> conMap = new HashMap<>();
         Map<String, MetadataInstancesDto> metaMap = new HashMap<>();
         try {
-            agentGroupService.importAgentInfo(tasks, user);
-            customNodeMap = customNodeService.batchImport(customNodeDtos, user, cover);
-            conMap = dataSourceService.batchImport(connections, user, cover);
-            metaMap = metadataInstancesService.batchImport(metadataInstancess, user, cover, conMap);
+            job.stage(TaskImportResultVo.STAGE_CONNECTION);
+            agentGroupService.importAgentInfo(job.tasks, user);
+            job.count("CustomNodeTemps", customNodeService.batchImport(job.customNodes, user, cover).size());
+            conMap = dataSourceService.batchImport(job.connections, user, cover);
+            job.count("Connections", conMap.size());
+            job.stage(TaskImportResultVo.STAGE_METADATA);
+            metaMap = metadataInstancesService.batchImport(job.metadataInstances, user, cover, conMap);
+            job.count(METADATA_INSTANCES, metaMap.size());
         } catch (Exception e) {
             log.error("metadataInstancesService.batchImport error", e);
+            job.error("Import " + job.stage + " failed: " + importErrorMessage(e));
         }
         try {
-            batchImport(tasks, user, cover, tags, conMap, metaMap);
+            batchImport(job.tasks, user, cover, tags, conMap, metaMap, job);
         } catch (Exception e) {
             log.error("tasks.batchImport error", e);
+            job.error("Import task failed: " + importErrorMessage(e));
+        } finally {
+            job.finish();
         }
     }
 
@@ -3526,6 +3898,25 @@ public class TaskServiceImpl extends TaskService{
      * @param metaMap 为后续多租户的调整做准备
      */
     public void batchImport(List<TaskDto> taskDtos, UserDetail user, boolean cover, List<String> tags, Map<String, DataSourceConnectionDto> conMap, Map<String, MetadataInstancesDto> metaMap) {
+        TaskImportJob job = new TaskImportJob(new ObjectId().toHexString(), user.getUserId());
+        job.total = taskDtos.size();
+        try {
+            batchImport(taskDtos, user, cover, tags, conMap, metaMap, job);
+        } finally {
+            job.finish();
+        }
+    }
+
+    /**
+     * 已有任务和重名检查各用一次查询预加载, 新任务整批 upsert, 状态整批重置, 之后逐个确认保存(推演模型);
+     * 单个任务失败只记录在结果中, 不影响其他任务
+     */
+    protected void batchImport(List<TaskDto> taskDtos, UserDetail user, boolean cover, List<String> tags, Map<String, DataSourceConnectionDto> conMap,
+                               Map<String, MetadataInstancesDto> metaMap, TaskImportJob job) {
+        job.stage(TaskImportResultVo.STAGE_TASK);
+        if (CollectionUtils.isEmpty(taskDtos)) {
+            return;
+        }
 
         List<Tag> tagList = new ArrayList<>();
 
@@ -3539,10 +3930,16 @@ public class TaskServiceImpl extends TaskService{
             }
         }
 
+        List<ObjectId> ids = taskDtos.stream().map(TaskDto::getId).filter(Objects::nonNull).collect(Collectors.toList());
+        Set<ObjectId> idsByUser = findImportTaskIds(ids, user);
+        Set<ObjectId> existsIds = findImportTaskIds(ids, null);
+        ImportNameResolver nameResolver = importTaskNameResolver(taskDtos, user);
+
+        List<TaskDto> imports = new ArrayList<>();
+        Set<ObjectId> newIds = new HashSet<>();
+        BulkOperations bulkOperations = repository.bulkOperations(BulkOperations.BulkMode.UNORDERED);
         for (TaskDto taskDto : taskDtos) {
-            Query query = new Query(Criteria.where("_id").is(taskDto.getId()).and(IS_DELETED).ne(true));
-            query.fields().include("_id", USER_ID);
-            TaskDto one = findOne(query, user);
+            boolean exists = null != taskDto.getId() && idsByUser.contains(taskDto.getId());
 
             taskDto.setListtags(null);
             taskDto.setStatus(TaskDto.STATUS_EDIT);
@@ -3555,58 +3952,180 @@ public class TaskServiceImpl extends TaskService{
                 attrs.remove(SYNC_PROGRESS);
             }
 
-            if (one == null) {
-                TaskDto one1 = findOne(new Query(Criteria.where("_id").is(taskDto.getId()).and(IS_DELETED).ne(true)));
-                if (one1 != null) {
-                    taskDto.setId(null);
-                    taskDto.getDag().getNodes().forEach(node -> {
-                        if(node instanceof DatabaseNode){
-                            DatabaseNode databaseNode = (DatabaseNode) node;
-                            if(conMap.containsKey(databaseNode.getConnectionId())){
-                                DataSourceConnectionDto dataSourceCon = conMap.get(databaseNode.getConnectionId());
-                                databaseNode.setConnectionId(dataSourceCon.getId().toString());
-                            }
+            if (!exists && null != taskDto.getId() && existsIds.contains(taskDto.getId())) {
+                taskDto.setId(null);
+                taskDto.getDag().getNodes().forEach(node -> {
+                    if(node instanceof DatabaseNode){
+                        DatabaseNode databaseNode = (DatabaseNode) node;
+                        if(conMap.containsKey(databaseNode.getConnectionId())){
+                            DataSourceConnectionDto dataSourceCon = conMap.get(databaseNode.getConnectionId());
+                            databaseNode.setConnectionId(dataSourceCon.getId().toString());
                         }
-                    });
-                }
+                    }
+                });
             }
 
-            if (one == null || cover) {
-                ObjectId objectId = null;
-                if (one != null) {
-                    objectId = one.getId();
-                }
+            if (exists && !cover) {
+                job.item(taskDto, TaskImportResultVo.ITEM_SKIPPED, "Task already exists");
+                continue;
+            }
 
-                while (checkTaskNameNotError(taskDto.getName(), user, objectId)) {
-                    taskDto.setName(taskDto.getName() + "_import");
+            taskDto.setName(nameResolver.resolve(taskDto.getName(), exists ? taskDto.getId() : null));
+            if (CollectionUtils.isNotEmpty(tagList)) {
+                taskDto.setListtags(tagList);
+            }
+            if (!exists) {
+                if (taskDto.getId() == null) {
+                    taskDto.setId(new ObjectId());
                 }
+                // 与 TaskRepository.importEntity 相同, 按 _id upsert
+                TaskEntity taskEntity = convertToEntity(TaskEntity.class, taskDto);
+                repository.applyUserDetail(taskEntity, user);
+                repository.beforeCreateEntity(taskEntity, user);
+                bulkOperations.upsert(new Query(Criteria.where("_id").is(taskEntity.getId())), repository.buildUpdateSet(taskEntity));
+                newIds.add(taskEntity.getId());
+            }
+            imports.add(taskDto);
+        }
 
-                if (CollectionUtils.isNotEmpty(tagList)) {
-                    taskDto.setListtags(tagList);
-                }
-                if (one == null) {
-                    if (taskDto.getId() == null) {
-                        taskDto.setId(new ObjectId());
-                    }
-                    //taskDto.setId(null);
-                    TaskEntity taskEntity = repository.importEntity(convertToEntity(TaskEntity.class, taskDto), user);
-                    taskDto = convertToDto(taskEntity, TaskDto.class);
-                }
+        if (!newIds.isEmpty()) {
+            bulkOperations.execute();
+            Map<ObjectId, TaskEntity> saved = repository.findAll(new Query(Criteria.where("_id").in(newIds)), user).stream()
+                    .collect(Collectors.toMap(TaskEntity::getId, Function.identity(), (e1, e2) -> e1));
+            imports.replaceAll(taskDto -> saved.containsKey(taskDto.getId()) ? convertToDto(saved.get(taskDto.getId()), TaskDto.class) : taskDto);
+        }
 
-                DAG dag = taskDto.getDag();
-                if (dag != null) {
-                    Map<String, List<Message>> validate = dag.validate();
-                    if (validate != null && validate.size() != 0) {
+        List<TaskDto> confirms = new ArrayList<>();
+        for (TaskDto taskDto : imports) {
+            DAG dag = taskDto.getDag();
+            if (dag != null) {
+                Map<String, List<Message>> validate = dag.validate();
+                if (validate != null && validate.size() != 0) {
+                    try {
                         updateById(taskDto, user);
-                        continue;
+                        job.item(taskDto, TaskImportResultVo.ITEM_IMPORTED, "Task dag is invalid, saved without confirm");
+                    } catch (Exception e) {
+                        job.item(taskDto, TaskImportResultVo.ITEM_FAILED, importErrorMessage(e));
                     }
+                    continue;
                 }
-                repository.getMongoOperations().updateFirst(new Query(Criteria.where("_id").is(taskDto.getId())), Update.update(STATUS, TaskDto.STATUS_EDIT), TaskEntity.class);
+            }
+            confirms.add(taskDto);
+        }
+        if (confirms.isEmpty()) {
+            return;
+        }
+        List<ObjectId> confirmIds = confirms.stream().map(TaskDto::getId).collect(Collectors.toList());
+        repository.getMongoOperations().updateMulti(new Query(Criteria.where("_id").in(confirmIds)), Update.update(STATUS, TaskDto.STATUS_EDIT), TaskEntity.class);
+        for (TaskDto taskDto : confirms) {
+            try {
                 confirmById(taskDto, user, true, true);
+                job.item(taskDto, TaskImportResultVo.ITEM_IMPORTED, null);
+            } catch (Exception e) {
+                log.warn("Confirm imported task failed, task id: {}, name: {}, error: {}", taskDto.getId(), taskDto.getName(), e.getMessage());
+                job.item(taskDto, TaskImportResultVo.ITEM_FAILED, importErrorMessage(e));
             }
         }
     }
 
+    protected Set<ObjectId> findImportTaskIds(List<ObjectId> ids, UserDetail user) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids).and(IS_DELETED).ne(true));
+        query.fields().include("_id");
+        List<TaskEntity> entities = null == user ? repository.findAll(query) : repository.findAll(query, user);
+        return entities.stream().map(TaskEntity::getId).collect(Collectors.toSet());
+    }
+
+    protected ImportNameResolver importTaskNameResolver(List<TaskDto> taskDtos, UserDetail user) {
+        Set<String> names = taskDtos.stream().map(TaskDto::getName).filter(Objects::nonNull).collect(Collectors.toSet());
+        ImportNameResolver nameResolver = new ImportNameResolver(names, (name, id) -> checkTaskNameNotError(name, user, id));
+        Query query = new Query(Criteria.where("name").in(names).and(IS_DELETED).ne(true));
+        query.fields().include("_id", "name");
+        repository.findAll(query, user).forEach(entity -> nameResolver.exists(entity.getName(), entity.getId()));
+        return nameResolver;
+    }
+
+    protected String importErrorMessage(Exception e) {
+        if (e instanceof BizException) {
+            return MessageUtil.getMessage(((BizException) e).getErrorCode(), ((BizException) e).getArgs());
+        }
+        return e.getMessage();
+    }
+
+    protected static class TaskImportJob {
+        private final String id;
+        private final String userId;
+        private final Date startTime = new Date();
+        private volatile Date endTime;
+        private volatile String stage = TaskImportResultVo.STAGE_VALIDATE;
+        private volatile int total;
+        /** 解析出的导入包, 校验不通过的任务会被移除 */
+        protected final List<MetadataInstancesDto> metadataInstances = new ArrayList<>();
+        protected final List<TaskDto> tasks = new ArrayList<>();
+        protected final List<DataSourceConnectionDto> connections = new ArrayList<>();
+        protected final List<CustomNodeDto> customNodes = new ArrayList<>();
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private final List<TaskImportResultVo.Item> items = new ArrayList<>();
+
+        protected TaskImportJob(String id, String userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        protected void stage(String stage) {
+            this.stage = stage;
+        }
+
+        protected synchronized void count(String collectionName, int count) {
+            counts.put(collectionName, count);
+        }
+
+        protected synchronized void error(String message) {
+            errors.add(message);
+        }
+
+        protected synchronized void item(TaskDto task, String status, String message) {
+            TaskImportResultVo.Item item = new TaskImportResultVo.Item();
+            item.setId(null == task.getId() ? null : task.getId().toHexString());
+            item.setName(task.getName());
+            item.setStatus(status);
+            item.setMessage(message);
+            items.add(item);
+        }
+
+        protected void finish() {
+            endTime = new Date();
+            TaskImportResultVo vo = toVo();
+            log.info("Task import {} finished in {}ms, total: {}, imported: {}, skipped: {}, failed: {}, counts: {}, errors: {}",
+                    id, endTime.getTime() - startTime.getTime(), vo.getTotal(), vo.getImported(), vo.getSkipped(), vo.getFailed(), vo.getCounts(), vo.getErrors());
+        }
+
+        protected boolean expired() {
+            return null != endTime && System.currentTimeMillis() - endTime.getTime() > TASK_IMPORT_JOB_EXPIRE_MS;
+        }
+
+        protected synchronized TaskImportResultVo toVo() {
+            TaskImportResultVo vo = new TaskImportResultVo();
+            vo.setId(id);
+            vo.setStatus(null == endTime ? TaskImportResultVo.STATUS_RUNNING : TaskImportResultVo.STATUS_FINISHED);
+            vo.setStage(stage);
+            vo.setTotal(total);
+            vo.setProcessed(items.size());
+            vo.setImported((int) items.stream().filter(i -> TaskImportResultVo.ITEM_IMPORTED.equals(i.getStatus())).count());
+            vo.setSkipped((int) items.stream().filter(i -> TaskImportResultVo.ITEM_SKIPPED.equals(i.getStatus())).count());
+            vo.setFailed((int) items.stream().filter(i -> TaskImportResultVo.ITEM_FAILED.equals(i.getStatus())).count());
+            vo.setStartTime(startTime);
+            vo.setEndTime(endTime);
+            vo.setCounts(new LinkedHashMap<>(counts));
+            vo.setErrors(new ArrayList<>(errors));
+            vo.setItems(new ArrayList<>(items));
+            return vo;
+        }
+    }
+
     /**
      * 处理filter里面的or 请求，传话成Criteria
      *
@@ -3950,6 +4469,13 @@ public class TaskServiceImpl extends TaskService{
      *                  第二位 是否开启打点任务      1 是   0 否
      */
     public void start(TaskDto taskDto, UserDetail user, String startFlag) {
+        start(taskDto, user, startFlag, (BatchStartLookups) null);
+    }
+
+    /**
+     * @param lookups 批量启动时同一批任务共用的查询结果, 单个启动时为 null
+     */
+    protected void start(TaskDto taskDto, UserDetail user, String startFlag, BatchStartLookups lookups) {
         String taskType = taskDto.getSyncType();
         TasksNumBatch tasksNumBatch = new TasksNumBatch();
         tasksNumBatch.setTaskType(taskType);
@@ -3974,7 +4500,7 @@ public class TaskServiceImpl extends TaskService{
 
             TaskEntity taskSnapshot = new TaskEntity();
             BeanUtil.copyProperties(taskDto, taskSnapshot);
-            disruptorService.sendMessage(DisruptorTopicEnum.CREATE_RECORD, new TaskRecord(taskDto.getTaskRecordId(), taskDto.getId().toHexString(), taskSnapshot, user.getUserId(), DateUtil.date()));
+            disruptorService.sendMessage(DisruptorTopicEnum.CREATE_RECORD, taskDto.getId().toHexString(), new TaskRecord(taskDto.getTaskRecordId(), taskDto.getId().toHexString(), taskSnapshot, user.getUserId(), DateUtil.date()));
         }
         if (Objects.isNull(taskDto.getStartTime())) {
             DateTime date = DateUtil.date();
@@ -3983,8 +4509,9 @@ public class TaskServiceImpl extends TaskService{
         }
         update(Query.query(Criteria.where("_id").is(taskDto.getId().toHexString())), update);
 
-        checkDagAgentConflict(taskDto, user, false);
-        checkEngineStatus(taskDto, user);
+        checkDagAgentConflict(taskDto, user, false, null == lookups ? null : lookups.connections);
+        checkEngineStatus(taskDto, user, lookups);
+        String placedAgentId = null == lookups ? null : lookups.placements.get(taskDto.getId().toHexString());
         if (!taskDto.getShareCache()) {
                 Map<String, List<Message>> validateMessage = taskDto.getDag().validate();
                 if (!validateMessage.isEmpty()) {
@@ -4022,7 +4549,7 @@ public class TaskServiceImpl extends TaskService{
             for (int i = 1; i < 6; i++) {
                 TaskDto transformedCheck = findByTaskId(taskDto.getId(), "transformed");
                 if (transformedCheck.getTransformed() != null && transformedCheck.getTransformed()) {
-                    run(taskDto, user);
+                    run(taskDto, user, placedAgentId);
                     return;
                 }
                 try {
@@ -4038,7 +4565,7 @@ public class TaskServiceImpl extends TaskService{
             }
             throw new BizException("Task.StartCheckModelFailed");
         } else {
-            run(taskDto, user);
+            run(taskDto, user, placedAgentId);
         }
     }
 
@@ -4049,11 +4576,19 @@ public class TaskServiceImpl extends TaskService{
      * @param user
      */
     public void run(TaskDto taskDto, UserDetail user) {
-        ReentrantLock lock = scheduleLockMap.computeIfAbsent(user.getUserId(), k -> new ReentrantLock());
+        run(taskDto, user, null);
+    }
+
+    /**
+     * @param placedAgentId 批量启动时已经分配的引擎, 任务数限制在提交前已经检查过
+     */
+    protected void run(TaskDto taskDto, UserDetail user, String placedAgentId) {
+        // 引用计数在 compute 中原子地增减, 还有线程持有或等待时不会被移除
+        ScheduleLock lock = scheduleLockMap.compute(user.getUserId(), (k, l) -> (null == l ? new ScheduleLock() : l).retain());
         lock.lock();
 
         try {
-            if (settingsService.isCloud()) {
+            if (StringUtils.isBlank(placedAgentId) && settingsService.isCloud()) {
                 CalculationEngineVo calculationEngineVo = taskScheduleService.cloudTaskLimitNum(taskDto, user, true);
                 int runningNum = subCronOrPlanNum(taskDto, calculationEngineVo.getRunningNum());
                 if (runningNum >= calculationEngineVo.getTaskLimit()) {
@@ -4074,12 +4609,29 @@ public class TaskServiceImpl extends TaskService{
                     .set(RESTART_FLAG, false)
                     .set(STOP_RETRY_TIMES, 0);
             update(query, set, user);
-            taskScheduleService.scheduling(taskDto, user);
+            taskScheduleService.scheduling(taskDto, user, placedAgentId);
         } finally {
             lock.unlock();
-            if (!lock.isLocked()) {
-                scheduleLockMap.remove(user.getUserId());
-            }
+            scheduleLockMap.computeIfPresent(user.getUserId(), (k, l) -> l.release() ? null : l);
+        }
+    }
+
+    /**
+     * 同一用户的调度串行执行, users 只在 scheduleLockMap 的 compute 中修改
+     */
+    protected static class ScheduleLock extends ReentrantLock {
+        private int users;
+
+        protected ScheduleLock retain() {
+            users++;
+            return this;
+        }
+
+        /**
+         * @return 没有其他线程再使用时返回 true
+         */
+        protected boolean release() {
+            return --users <= 0;
         }
     }
 
@@ -4111,7 +4663,7 @@ public class TaskServiceImpl extends TaskService{
                     .taskDto(dto)
                     .userDetail(userDetail)
                     .build();
-            disruptorService.sendMessage(DisruptorTopicEnum.TASK_STATUS, info);
+            disruptorService.sendMessage(DisruptorTopicEnum.TASK_STATUS, info.getTaskId(), info);
         }
     }
 
@@ -4386,11 +4938,14 @@ public class TaskServiceImpl extends TaskService{
 
 
     public void updateSyncProgress(ObjectId taskId, Document document) {
-        document.forEach((k, v) -> {
-            Criteria criteria = Criteria.where("_id").is(taskId);
-            Update update = new Update().set("attrs.syncProgress." + k, v);
-            update(new Query(criteria), update);
-        });
+        if (document.isEmpty()) {
+            return;
+        }
+        // 引擎只上报有变化的断点, 一次更新合并所有 key
+        Criteria criteria = Criteria.where("_id").is(taskId);
+        Update update = new Update();
+        document.forEach((k, v) -> update.set("attrs.syncProgress." + k, v));
+        update(new Query(criteria), update);
     }
     public void updateDelayTime(ObjectId taskId, long delayTime) {
         Criteria criteria = Criteria.where("_id").is(taskId);
@@ -4901,6 +5456,22 @@ public class TaskServiceImpl extends TaskService{
         return (int) workNum;
     }
 
+    @Override
+    public Map<String, List<String>> runningTaskIdsGroupByAgent(UserDetail userDetail) {
+        Query query = Query.query(Criteria.where(IS_DELETED).ne(true)
+                .and(AGENT_ID).ne(null)
+                .and(SYNC_TYPE).in(TaskDto.SYNC_TYPE_SYNC, TaskDto.SYNC_TYPE_MIGRATE)
+                .and(STATUS).nin(TaskDto.STATUS_DELETE_FAILED,TaskDto.STATUS_DELETING)
+                .orOperator(Criteria.where(STATUS).in(TaskDto.STATUS_RUNNING, TaskDto.STATUS_SCHEDULING, TaskDto.STATUS_WAIT_RUN),
+                        Criteria.where(PLAN_START_DATE_FLAG).is(true),
+                        Criteria.where(CRONTAB_EXPRESSION_FLAG).is(true)
+                ));
+        query.fields().include("_id", AGENT_ID);
+        return findAll(query, userDetail).stream()
+                .filter(task -> null != task.getId() && null != task.getAgentId())
+                .collect(Collectors.groupingBy(TaskEntity::getAgentId, Collectors.mapping(task -> task.getId().toHexString(), Collectors.toList())));
+    }
+
     public boolean checkCloudTaskLimit(ObjectId taskId,UserDetail user,boolean checkCurrentTask){
         if (settingsService.isCloud()) {
             TaskDto task = findByTaskId(taskId,"id",AGENT_ID,"agentTags");
@@ -0,0 +1,67 @@
+package com.tapdata.tm.task.service.batchup;
+
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * 导入时为重名的任务、连接追加 {@link #SUFFIX} 后缀
+ * <pre>
+ * 导入包中的原始名称通过一次查询预加载, 只有追加后缀后的新名称才逐个回查数据库;
+ * 同一批中已经分配出去的名称也会记录下来, 避免包内互相重名
+ * </pre>
+ */
+public class ImportNameResolver {
+    public static final String SUFFIX = "_import";
+
+    private final Map<String, Set<ObjectId>> owners = new HashMap<>();
+    private final BiPredicate<String, ObjectId> existsInDb;
+
+    /**
+     * @param queriedNames 预加载时查询过的名称, 查不到记录的名称视为可用
+     * @param existsInDb   名称没有预加载时的回查, 参数为名称和需要排除的 id
+     */
+    public ImportNameResolver(Collection<String> queriedNames, BiPredicate<String, ObjectId> existsInDb) {
+        this.existsInDb = existsInDb;
+        if (null != queriedNames) {
+            queriedNames.forEach(name -> owners.put(name, new HashSet<>()));
+        }
+    }
+
+    /**
+     * 登记预加载查询到的已有记录
+     */
+    public void exists(String name, ObjectId id) {
+        owners.computeIfAbsent(name, k -> new HashSet<>()).add(id);
+    }
+
+    /**
+     * 返回可用的名称并登记, id 为空时任何同名记录都视为冲突
+     */
+    public String resolve(String name, ObjectId id) {
+        String newName = name;
+        while (taken(newName, id)) {
+            newName = newName + SUFFIX;
+        }
+        exists(newName, id);
+        return newName;
+    }
+
+    protected boolean taken(String name, ObjectId id) {
+        Set<ObjectId> ids = owners.get(name);
+        if (null == ids) {
+            return existsInDb.test(name, id);
+        }
+        for (ObjectId owner : ids) {
+            if (null == owner || !owner.equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
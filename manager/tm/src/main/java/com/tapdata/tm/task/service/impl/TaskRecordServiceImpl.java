@@ -17,11 +17,15 @@ import com.tapdata.tm.task.vo.TaskRecordListVo;
 import com.tapdata.tm.user.service.UserService;
 import com.tapdata.tm.utils.Lists;
 import com.tapdata.tm.utils.MongoUtils;
+import com.mongodb.bulk.BulkWriteResult;
 import lombok.Setter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ObjectUtils;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -46,16 +50,58 @@ public class TaskRecordServiceImpl implements TaskRecordService {
         mongoTemplate.save(taskRecord);
     }
 
+    @Override
+    public void createRecords(List<TaskRecord> taskRecords) {
+        if (CollectionUtils.isEmpty(taskRecords)) {
+            return;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TaskRecord.class);
+        for (TaskRecord taskRecord : taskRecords) {
+            bulkOperations.replaceOne(new Query(Criteria.where("_id").is(taskRecord.getId())), taskRecord, FindAndReplaceOptions.options().upsert());
+        }
+        bulkOperations.execute();
+    }
+
     @Override
     public void updateTaskStatus(SyncTaskStatusDto dto) {
         Query query = new Query(Criteria.where("_id").is(MongoUtils.toObjectId(dto.getTaskRecordId())));
+        mongoTemplate.updateFirst(query, buildStatusUpdate(dto), TaskRecord.class);
+    }
+
+    @Override
+    public List<SyncTaskStatusDto> updateTaskStatus(List<SyncTaskStatusDto> dtoList) {
+        if (CollectionUtils.isEmpty(dtoList)) {
+            return Collections.emptyList();
+        }
+        // ordered, the status stack of one record must keep the order of status changes
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, TaskRecord.class);
+        for (SyncTaskStatusDto dto : dtoList) {
+            Query query = new Query(Criteria.where("_id").is(MongoUtils.toObjectId(dto.getTaskRecordId())));
+            bulkOperations.updateOne(query, buildStatusUpdate(dto));
+        }
+        BulkWriteResult result = bulkOperations.execute();
+        if (result.getMatchedCount() >= dtoList.size()) {
+            return Collections.emptyList();
+        }
+
+        Set<ObjectId> recordIds = dtoList.stream().map(dto -> MongoUtils.toObjectId(dto.getTaskRecordId())).filter(Objects::nonNull).collect(Collectors.toSet());
+        Query existsQuery = new Query(Criteria.where("_id").in(recordIds));
+        existsQuery.fields().include("_id");
+        Set<String> existsIds = mongoTemplate.find(existsQuery, TaskRecord.class).stream()
+                .map(taskRecord -> taskRecord.getId().toHexString()).collect(Collectors.toSet());
+        return dtoList.stream()
+                .filter(dto -> null != dto.getTaskRecordId() && !existsIds.contains(dto.getTaskRecordId()))
+                .collect(Collectors.toList());
+    }
+
+    private Update buildStatusUpdate(SyncTaskStatusDto dto) {
         String taskStatus = dto.getTaskStatus();
         Update update = new Update().set("taskSnapshot.status", taskStatus);
 
         Date now = new Date();
         update.set("taskSnapshot.last_updated", now);
         update.push("statusStack", new TaskRecord.TaskStatusUpdate(taskStatus, now));
-        mongoTemplate.updateFirst(query, update, TaskRecord.class);
+        return update;
     }
 
     @Override
@@ -65,8 +65,15 @@ public class TaskScheduleServiceImpl implements TaskScheduleService {
 
     @Override
     public void scheduling(TaskDto taskDto, UserDetail user) {
+        scheduling(taskDto, user, null);
+    }
+
+    @Override
+    public void scheduling(TaskDto taskDto, UserDetail user, String placedAgentId) {
 
-        CalculationEngineVo calculationEngineVo = cloudTaskLimitNum(taskDto, user, false);
+        CalculationEngineVo calculationEngineVo = StringUtils.isBlank(placedAgentId)
+                ? cloudTaskLimitNum(taskDto, user, false)
+                : scheduleToPlacedEngine(taskDto, user, placedAgentId);
         UserDetail finalUser = user;
         FunctionUtils.ignoreAnyError(() -> {
             String template = "Scheduling calculation results: {0}, all agent data: {1}.";
@@ -106,6 +113,14 @@ public class TaskScheduleServiceImpl implements TaskScheduleService {
         }
     }
 
+    /**
+     * 使用批量启动时已经分配的引擎, 引擎在此期间离线时 calculationEngine 会重新选择
+     */
+    protected CalculationEngineVo scheduleToPlacedEngine(TaskDto taskDto, UserDetail user, String placedAgentId) {
+        taskDto.setAgentId(placedAgentId);
+        return workerService.scheduleTaskToEngine(taskDto, user, "task", taskDto.getName());
+    }
+
     public void sendStartMsg(String taskId, String agentId, UserDetail user) {
         //发送websocket消息，提醒flowengin启动
         DataSyncMq dataSyncMq = new DataSyncMq();
@@ -30,7 +30,7 @@ public class TaskAop {
     UserLogService userLogService;
     TaskService taskService;
 
-    @Pointcut("execution(* com.tapdata.tm.task.service.TaskService.start(..)) || execution(* com.tapdata.tm.task.service.TaskService.batchStart(..))")
+    @Pointcut("execution(* com.tapdata.tm.task.service.TaskService.start(..)) || execution(* com.tapdata.tm.task.service.TaskService.batchStart(..)) || execution(* com.tapdata.tm.task.service.TaskService.batchStartAsync(..))")
     public void startPointcut() {}
 
     @Pointcut("execution(* com.tapdata.tm.task.service.TaskService.pause(..)) || execution(* com.tapdata.tm.task.service.TaskService.batchStop(..))")
@@ -13,6 +13,7 @@ import com.tapdata.tm.userLog.service.UserLogService;
 import com.tapdata.tm.utils.MongoUtils;
 import com.tapdata.tm.worker.WorkerSingletonLock;
 import com.tapdata.tm.worker.dto.CheckTaskUsedAgentDto;
+import com.tapdata.tm.worker.dto.RebalanceAdviceDto;
 import com.tapdata.tm.worker.dto.WorkerDto;
 import com.tapdata.tm.worker.dto.WorkerExpireDto;
 import com.tapdata.tm.worker.dto.WorkerProcessInfoDto;
@@ -431,6 +432,12 @@ public class WorkerController extends BaseController {
 	    return success(new HashMap<String, List>(){{put("result", workerDtos);}});
     }
 
+    @Operation(summary = "根据引擎负载给出任务迁移建议")
+    @GetMapping("/rebalanceAdvice")
+    public ResponseMessage<List<RebalanceAdviceDto>> rebalanceAdvice() {
+        return success(workerService.rebalanceAdvice(getLoginUser()));
+    }
+
     /**
      * 校验任务所使用的agent是否可以强制停止, agent如果离线状态，则提醒用户会存在问题，入agent在线，或者已删除，则可以使用。
      * @param taskId
@@ -0,0 +1,283 @@
+package com.tapdata.tm.worker.service;
+
+import com.tapdata.tm.worker.dto.RebalanceAdviceDto;
+import com.tapdata.tm.worker.dto.WorkSchedule;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按引擎上报的资源使用情况调度任务
+ * <pre>
+ * 负载 = CPU * 0.4 + 堆内存 * 0.2 + 源节点队列占用 * 0.1 + 吞吐 * 0.3
+ * - CPU/堆内存/队列占用来自引擎心跳中的 metricValues, 取值 0~1
+ * - 吞吐取引擎上报的每秒事件数与引擎上任务成本之和的较大值, 按所有引擎中的最大值归一化
+ * - 任务成本 = 历史平均每秒输入事件数 + 固定成本, 没有历史数据的任务只有固定成本
+ * </pre>
+ * 权重高的引擎优先 (用户自己的引擎优先于共享引擎), 同权重的引擎中选择加上任务成本后负载最低的;
+ * 一次调度多个任务时, 每分配一个任务就累加到对应引擎上, 后面的任务会看到前面的分配结果
+ */
+public class EngineLoadScheduler {
+    public static final String METRIC_CPU_USAGE = "CpuUsage";
+    public static final String METRIC_HEAP_MEMORY_USAGE = "HeapMemoryUsage";
+    public static final String METRIC_QUEUE_USAGE = "QueueUsage";
+    public static final String METRIC_EVENT_RATE = "EventRate";
+    /**
+     * 每个任务的固定成本, 单位与吞吐相同 (事件/秒), 空闲任务也会占用线程和内存
+     */
+    public static final double BASE_TASK_COST = 100D;
+    /**
+     * 负载差超过该值时才建议迁移
+     */
+    public static final double REBALANCE_THRESHOLD = 0.2D;
+    private static final double CPU_WEIGHT = 0.4D;
+    private static final double HEAP_WEIGHT = 0.2D;
+    private static final double QUEUE_WEIGHT = 0.1D;
+    private static final double THROUGHPUT_WEIGHT = 0.3D;
+    private static final int MAX_REBALANCE_ADVICES = 10;
+
+    private final Map<String, EngineLoad> engines = new LinkedHashMap<>();
+    private final Map<String, Double> taskCosts;
+
+    /**
+     * @param taskCosts 任务 id -> 成本, 见 {@link #taskCost(Double)}
+     */
+    public EngineLoadScheduler(Map<String, Double> taskCosts) {
+        this.taskCosts = null == taskCosts ? new HashMap<>() : taskCosts;
+    }
+
+    public static double taskCost(Double avgInputQps) {
+        return BASE_TASK_COST + (null == avgInputQps || avgInputQps.isNaN() || avgInputQps < 0 ? 0D : avgInputQps);
+    }
+
+    public double getTaskCost(String taskId) {
+        return null == taskId ? BASE_TASK_COST : taskCosts.getOrDefault(taskId, BASE_TASK_COST);
+    }
+
+    /**
+     * @param metricValues 引擎心跳上报的 metricValues, 可以为 null (旧版本引擎), 此时只按任务成本计算
+     * @param taskIds      引擎上正在运行的任务
+     */
+    public EngineLoad addEngine(String processId, int weight, int taskLimit, Map<String, Object> metricValues, Collection<String> taskIds) {
+        EngineLoad engineLoad = new EngineLoad(processId, weight, taskLimit);
+        if (null != metricValues) {
+            engineLoad.cpu = ratio(metricValues.get(METRIC_CPU_USAGE));
+            engineLoad.heap = ratio(metricValues.get(METRIC_HEAP_MEMORY_USAGE));
+            engineLoad.queue = ratio(metricValues.get(METRIC_QUEUE_USAGE));
+            engineLoad.eventRate = number(metricValues.get(METRIC_EVENT_RATE));
+        }
+        if (null != taskIds) {
+            for (String taskId : taskIds) {
+                engineLoad.tasks.put(taskId, getTaskCost(taskId));
+                engineLoad.taskCost += getTaskCost(taskId);
+            }
+        }
+        engines.put(processId, engineLoad);
+        return engineLoad;
+    }
+
+    public Collection<EngineLoad> getEngines() {
+        return Collections.unmodifiableCollection(engines.values());
+    }
+
+    /**
+     * 为一个成本为 cost 的任务选择引擎, 并把成本计入该引擎
+     *
+     * @param checkLimit 是否跳过任务数已经超过限制的引擎
+     * @return 引擎的 processId, 没有可用引擎时返回 null
+     */
+    public String place(String taskId, double cost, boolean checkLimit) {
+        double scale = throughputScale(cost);
+        EngineLoad selected = null;
+        double selectedScore = 0D;
+        for (EngineLoad engine : engines.values()) {
+            if (checkLimit && engine.getRunningNum() > engine.taskLimit) {
+                continue;
+            }
+            double score = engine.score(cost, scale);
+            if (null == selected
+                    || engine.weight > selected.weight
+                    || (engine.weight == selected.weight && (score < selectedScore
+                    || (score == selectedScore && engine.freeSlots() > selected.freeSlots())))) {
+                selected = engine;
+                selectedScore = score;
+            }
+        }
+        if (null == selected) {
+            return null;
+        }
+        selected.assign(null == taskId ? "pending-" + selected.tasks.size() : taskId, cost);
+        return selected.processId;
+    }
+
+    /**
+     * 一次为多个任务选择引擎, 成本高的任务先分配
+     *
+     * @return 任务 id -> 引擎 processId, 没有可用引擎的任务不在结果中
+     */
+    public Map<String, String> placeAll(Collection<String> taskIds, boolean checkLimit) {
+        List<String> sorted = new ArrayList<>(taskIds);
+        sorted.sort(Comparator.comparingDouble(this::getTaskCost).reversed());
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String taskId : sorted) {
+            String processId = place(taskId, getTaskCost(taskId), checkLimit);
+            if (null != processId) {
+                result.put(taskId, processId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 负载最高和最低的引擎相差超过 {@link #REBALANCE_THRESHOLD} 时, 建议把负载最高的引擎上的任务迁移到负载最低的引擎,
+     * 每次选择迁移后两者负载最接近的任务, 直到相差小于阈值或迁移不再改善
+     */
+    public List<RebalanceAdviceDto> rebalanceAdvice() {
+        List<RebalanceAdviceDto> advices = new ArrayList<>();
+        if (engines.size() < 2) {
+            return advices;
+        }
+        double scale = throughputScale(0D);
+        while (advices.size() < MAX_REBALANCE_ADVICES) {
+            EngineLoad busiest = null;
+            EngineLoad idlest = null;
+            for (EngineLoad engine : engines.values()) {
+                double score = engine.score(0D, scale);
+                if (null == busiest || score > busiest.score(0D, scale)) busiest = engine;
+                if (null == idlest || score < idlest.score(0D, scale)) idlest = engine;
+            }
+            double gap = busiest.score(0D, scale) - idlest.score(0D, scale);
+            if (gap <= REBALANCE_THRESHOLD) {
+                break;
+            }
+            // 迁移的任务按比例带走源引擎的 CPU
+            double cpuPerCost = busiest.throughput() > 0 ? busiest.cpu / busiest.throughput() : 0D;
+            String bestTask = null;
+            double bestGap = gap;
+            for (Map.Entry<String, Double> task : busiest.tasks.entrySet()) {
+                double cost = task.getValue();
+                double cpu = CPU_WEIGHT * Math.min(busiest.cpu, cost * cpuPerCost);
+                double newGap = Math.abs(busiest.score(-cost, scale) - cpu - idlest.score(cost, scale) - cpu);
+                if (newGap < bestGap) {
+                    bestGap = newGap;
+                    bestTask = task.getKey();
+                }
+            }
+            if (null == bestTask) {
+                break;
+            }
+            double cost = busiest.tasks.get(bestTask);
+            RebalanceAdviceDto advice = new RebalanceAdviceDto();
+            advice.setTaskId(bestTask);
+            advice.setFromProcessId(busiest.processId);
+            advice.setToProcessId(idlest.processId);
+            advice.setTaskCost(cost);
+            advice.setFromLoad(busiest.score(0D, scale));
+            advice.setToLoad(idlest.score(0D, scale));
+            advices.add(advice);
+            double cpu = Math.min(busiest.cpu, cost * cpuPerCost);
+            busiest.release(bestTask, cost);
+            busiest.cpu -= cpu;
+            idlest.assign(bestTask, cost);
+            idlest.cpu = Math.min(1D, idlest.cpu + cpu);
+        }
+        return advices;
+    }
+
+    public List<WorkSchedule> toWorkSchedules() {
+        double scale = throughputScale(0D);
+        List<WorkSchedule> workSchedules = new ArrayList<>(engines.size());
+        for (EngineLoad engine : engines.values()) {
+            workSchedules.add(engine.toWorkSchedule(scale));
+        }
+        return workSchedules;
+    }
+
+    private double throughputScale(double extra) {
+        double scale = 1D;
+        for (EngineLoad engine : engines.values()) {
+            scale = Math.max(scale, engine.throughput() + extra);
+        }
+        return scale;
+    }
+
+    private static double ratio(Object value) {
+        return Math.min(1D, number(value));
+    }
+
+    private static double number(Object value) {
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return Double.isNaN(d) || d < 0 ? 0D : d;
+        }
+        return 0D;
+    }
+
+    @Getter
+    public static class EngineLoad {
+        private final String processId;
+        private final int weight;
+        private final int taskLimit;
+        private double cpu;
+        private double heap;
+        private double queue;
+        private double eventRate;
+        private double taskCost;
+        private final Map<String, Double> tasks = new LinkedHashMap<>();
+
+        EngineLoad(String processId, int weight, int taskLimit) {
+            this.processId = processId;
+            this.weight = weight;
+            this.taskLimit = taskLimit;
+        }
+
+        public int getRunningNum() {
+            return tasks.size();
+        }
+
+        /**
+         * 任务成本是按历史数据估算的, 引擎实际上报的吞吐更高时以上报值为准
+         */
+        double throughput() {
+            return Math.max(eventRate, taskCost);
+        }
+
+        double score(double extraCost, double scale) {
+            double throughput = Math.max(0D, throughput() + extraCost);
+            return CPU_WEIGHT * cpu + HEAP_WEIGHT * heap + QUEUE_WEIGHT * queue + THROUGHPUT_WEIGHT * throughput / scale;
+        }
+
+        long freeSlots() {
+            return (long) taskLimit - getRunningNum();
+        }
+
+        void assign(String taskId, double cost) {
+            tasks.put(taskId, cost);
+            taskCost += cost;
+            eventRate += eventRate > 0 ? cost : 0D;
+        }
+
+        void release(String taskId, double cost) {
+            tasks.remove(taskId);
+            taskCost -= cost;
+            eventRate = Math.max(0D, eventRate - cost);
+        }
+
+        public WorkSchedule toWorkSchedule(double scale) {
+            WorkSchedule workSchedule = new WorkSchedule();
+            workSchedule.setProcessId(processId);
+            workSchedule.setWeight(weight);
+            workSchedule.setTaskRunNum(getRunningNum());
+            workSchedule.setTaskLimit(taskLimit);
+            workSchedule.setLoad(score(0D, scale));
+            return workSchedule;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import com.tapdata.tm.cluster.dto.SystemInfo;
 import com.tapdata.tm.cluster.dto.UpdataStatusRequest;
 import com.tapdata.tm.cluster.service.ClusterStateService;
 import com.tapdata.tm.commons.base.dto.SchedulableDto;
+import com.tapdata.tm.commons.dag.AccessNodeTypeEnum;
 import com.tapdata.tm.commons.task.dto.ParentTaskDto;
 import com.tapdata.tm.commons.task.dto.TaskDto;
 import com.tapdata.tm.commons.util.JsonUtil;
@@ -29,6 +30,7 @@ import com.tapdata.tm.config.security.UserDetail;
 import com.tapdata.tm.dataflow.dto.DataFlowDto;
 import com.tapdata.tm.dataflow.service.DataFlowService;
 import com.tapdata.tm.inspect.dto.InspectDto;
+import com.tapdata.tm.monitor.service.MeasurementServiceV2;
 import com.tapdata.tm.scheduleTasks.dto.ScheduleTasksDto;
 import com.tapdata.tm.scheduleTasks.service.ScheduleTasksService;
 import com.tapdata.tm.task.service.TaskExtendService;
@@ -57,6 +59,7 @@ import org.bson.types.ObjectId;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -67,7 +70,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigInteger;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -79,6 +81,10 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class WorkerServiceImpl extends WorkerService{
+    /**
+     * 按最近一小时的平均输入 qps 估算任务成本
+     */
+    private static final long TASK_COST_HISTORY_MS = 60 * 60 * 1000L;
 
     @Autowired
     private DataFlowService dataFlowService;
@@ -98,6 +104,9 @@ public class WorkerServiceImpl extends WorkerService{
     private UserService userService;
     @Autowired
     private MongoTemplate mongoTemplate;
+    @Autowired
+    @Lazy
+    private MeasurementServiceV2 measurementServiceV2;
 
     private final MultiTaggedCounter workerPing;
 
@@ -400,6 +409,45 @@ public class WorkerServiceImpl extends WorkerService{
         }
         // 53迭代Task上增加了指定Flow Engine的功能 --end
 
+        Criteria where = availableWorkerCriteria(entity.getAgentTags(), userDetail, findTime, isCloud);
+        Query query = Query.query(where);
+        List<WorkerDto> workers = findAll(query);
+        if (CollectionUtils.isEmpty(workers)) {
+            throw new BizException("Task.AgentNotFound");
+        }
+        availableNum = workers.size();
+
+        EngineLoadScheduler scheduler = engineLoadScheduler(workers, userDetail,
+                entity instanceof TaskDto && null != ((TaskDto) entity).getId() ? Collections.singleton(((TaskDto) entity).getId().toHexString()) : Collections.emptyList());
+        long totalTaskLimit = 0L;
+        for (EngineLoadScheduler.EngineLoad engineLoad : scheduler.getEngines()) {
+            totalTaskLimit += engineLoad.getTaskLimit();
+        }
+        threadLog.addAll(scheduler.toWorkSchedules());
+        String taskId = entity instanceof TaskDto && null != ((TaskDto) entity).getId() ? ((TaskDto) entity).getId().toHexString() : null;
+        String processId = scheduler.place(taskId, scheduler.getTaskCost(taskId), isCloud);
+        if (null == processId) {
+            processId = scheduleAgentId.get();
+        }
+        int totalRunningNum = taskService.runningTaskNum(userDetail);
+        filter = where.toString();
+
+        entity.setAgentId(processId);
+        entity.setScheduleTime(System.currentTimeMillis());
+
+        calculationEngineVo.setProcessId(processId);
+        calculationEngineVo.setFilter(filter);
+        calculationEngineVo.setThreadLog(threadLog);
+        calculationEngineVo.setAvailable(availableNum);
+        calculationEngineVo.setManually(false);
+        int totalTask = totalTaskLimit < 0 || totalTaskLimit > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) totalTaskLimit;
+        calculationEngineVo.setTaskLimit(totalTask);
+        calculationEngineVo.setRunningNum(totalRunningNum);
+        calculationEngineVo.setTotalLimit(totalTask);
+        return calculationEngineVo;
+    }
+
+    protected Criteria availableWorkerCriteria(List<String> entityAgentTags, UserDetail userDetail, Long findTime, boolean isCloud) {
         Criteria where = Criteria.where("worker_type").is("connector")
                 .and("ping_time").gte(findTime)
                 .and("isDeleted").ne(true)
@@ -414,10 +462,10 @@ public class WorkerServiceImpl extends WorkerService{
             }
         }
 
-        if (isCloud && entity.getAgentTags() != null && entity.getAgentTags().size() > 0) {
+        if (isCloud && entityAgentTags != null && entityAgentTags.size() > 0) {
             List<String> agentTags = new ArrayList<>();
-            for (int i = 0; i < entity.getAgentTags().size(); i++) {
-                String s = entity.getAgentTags().get(i);
+            for (int i = 0; i < entityAgentTags.size(); i++) {
+                String s = entityAgentTags.get(i);
                 if (!s.equals("unidirectional")) {
                     agentTags.add(s);
                 }
@@ -430,74 +478,107 @@ public class WorkerServiceImpl extends WorkerService{
         } else {
             where.and("agentTags").ne("disabledScheduleTask");
         }
+        return where;
+    }
 
-        Query query = Query.query(where);
-        List<WorkerDto> workers = findAll(query);
-        if (CollectionUtils.isEmpty(workers)) {
-            throw new BizException("Task.AgentNotFound");
+    /**
+     * 一次查出所有引擎上运行的任务和这些任务的历史吞吐, 构建调度器
+     *
+     * @param pendingTaskIds 待调度的任务, 一起查询历史吞吐
+     */
+    protected EngineLoadScheduler engineLoadScheduler(List<WorkerDto> workers, UserDetail userDetail, Collection<String> pendingTaskIds) {
+        Map<String, List<String>> runningTaskIds = taskService.runningTaskIdsGroupByAgent(userDetail);
+        if (null == runningTaskIds) {
+            runningTaskIds = Collections.emptyMap();
+        }
+        Set<String> processIds = workers.stream().map(WorkerDto::getProcessId).collect(Collectors.toSet());
+        Set<String> taskIds = new HashSet<>(pendingTaskIds);
+        runningTaskIds.forEach((processId, ids) -> {
+            if (processIds.contains(processId)) {
+                taskIds.addAll(ids);
+            }
+        });
+        Map<String, Double> taskCosts = new HashMap<>();
+        if (!taskIds.isEmpty() && null != measurementServiceV2) {
+            try {
+                long start = System.currentTimeMillis() - TASK_COST_HISTORY_MS;
+                measurementServiceV2.findTaskAvgInputQps(taskIds, start)
+                        .forEach((taskId, qps) -> taskCosts.put(taskId, EngineLoadScheduler.taskCost(qps)));
+            } catch (Exception e) {
+                log.warn("Query task input qps failed, schedule by task count: {}", e.getMessage());
+            }
         }
-        availableNum = workers.size();
-
-        AtomicInteger scheduleWeight = new AtomicInteger();
-        AtomicInteger scheduleRunNum = new AtomicInteger();
-        AtomicInteger scheduleTaskLimit = new AtomicInteger();
-        AtomicInteger totalTaskLimit = new AtomicInteger();
 
-        for (int i = 0; i < workers.size(); i++) {
-            WorkerDto worker = workers.get(i);
+        EngineLoadScheduler scheduler = new EngineLoadScheduler(taskCosts);
+        for (WorkerDto worker : workers) {
             FunctionUtils.isTureOrFalse(worker.getUserId().equals(userDetail.getUserId())).trueOrFalseHandle(() -> worker.setWeight(99), () -> worker.setWeight(1));
+            int taskLimit = getLimitTaskNum(worker, userDetail);
+            scheduler.addEngine(worker.getProcessId(), worker.getWeight(), taskLimit, worker.getMetricValues(),
+                    runningTaskIds.getOrDefault(worker.getProcessId(), Collections.emptyList()));
+        }
+        return scheduler;
+    }
+
+    /**
+     * 批量调度: 所有任务共用一次引擎和任务的查询, 按成本从高到低依次分配; 用户指定了引擎的任务使用指定的引擎,
+     * 上次运行留下的 agentId 不影响分配
+     *
+     * @return 任务 id -> 引擎 processId
+     */
+    @Override
+    public Map<String, String> scheduleTasksToEngines(List<TaskDto> tasks, UserDetail userDetail) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (CollectionUtils.isEmpty(tasks)) {
+            return result;
+        }
+        Object jobHeartTimeout = settingsService.getByCategoryAndKey(CategoryEnum.WORKER, KeyEnum.WORKER_HEART_TIMEOUT).getValue();
+        boolean isCloud = settingsService.isCloud();
+        Long findTime = System.currentTimeMillis() - Long.parseLong((String) jobHeartTimeout) * 1000L;
 
-            String processId = worker.getProcessId();
-            runningNum = taskService.runningTaskNum(processId, userDetail);
-            taskLimit = getLimitTaskNum(worker, userDetail);
-            Integer weight = worker.getWeight();
-            totalTaskLimit.addAndGet(taskLimit);
-            if (isCloud && runningNum > taskLimit) {
+        // 可用引擎只与 agentTags 有关, 相同 agentTags 的任务一起分配
+        Map<List<String>, List<TaskDto>> groups = new LinkedHashMap<>();
+        for (TaskDto task : tasks) {
+            if (null == task.getId()) {
                 continue;
             }
-
-            WorkSchedule workSchedule = new WorkSchedule();
-            workSchedule.setProcessId(processId);
-            workSchedule.setWeight(weight);
-            workSchedule.setTaskRunNum(runningNum);
-            workSchedule.setTaskLimit(taskLimit);
-            threadLog.add(workSchedule);
-
-
-            if (i == 0 || workSchedule.getProcessId() == null) {
-                scheduleAgentId.set(processId);
-                scheduleWeight.set(weight);
-                scheduleRunNum.set(runningNum);
-                scheduleTaskLimit.set(taskLimit);
-            } else if (worker.getWeight() > scheduleWeight.get()) {
-                scheduleAgentId.set(processId);
-                scheduleWeight.set(weight);
-                scheduleRunNum.set(runningNum);
-                scheduleTaskLimit.set(taskLimit);
-            } else if (worker.getWeight().equals(scheduleWeight.get()) &&  (taskLimit - runningNum) > (scheduleTaskLimit.get() - scheduleRunNum.get())) {
-                scheduleAgentId.set(processId);
-                scheduleWeight.set(weight);
-                scheduleRunNum.set(runningNum);
-                scheduleTaskLimit.set(taskLimit);
+            if (AccessNodeTypeEnum.isManually(task.getAccessNodeType()) && CollectionUtils.isNotEmpty(task.getAccessNodeProcessIdList())) {
+                result.put(task.getId().toHexString(), task.getAccessNodeProcessIdList().get(0));
+                continue;
             }
+            List<String> agentTags = isCloud && null != task.getAgentTags() ? task.getAgentTags() : Collections.emptyList();
+            groups.computeIfAbsent(agentTags, k -> new ArrayList<>()).add(task);
         }
-        int totalRunningNum = taskService.runningTaskNum(userDetail);
-        filter = where.toString();
-        String processId = scheduleAgentId.get();
-
-        entity.setAgentId(processId);
-        entity.setScheduleTime(System.currentTimeMillis());
+        for (Map.Entry<List<String>, List<TaskDto>> group : groups.entrySet()) {
+            List<WorkerDto> workers = findAll(Query.query(availableWorkerCriteria(group.getKey(), userDetail, findTime, isCloud)));
+            if (CollectionUtils.isEmpty(workers)) {
+                continue;
+            }
+            List<String> taskIds = group.getValue().stream().map(t -> t.getId().toHexString()).collect(Collectors.toList());
+            EngineLoadScheduler scheduler = engineLoadScheduler(workers, userDetail, taskIds);
+            result.putAll(scheduler.placeAll(taskIds, isCloud));
+        }
+        return result;
+    }
 
-        calculationEngineVo.setProcessId(processId);
-        calculationEngineVo.setFilter(filter);
-        calculationEngineVo.setThreadLog(threadLog);
-        calculationEngineVo.setAvailable(availableNum);
-        calculationEngineVo.setManually(false);
-        int totalTask = totalTaskLimit.get() < 0 ? Integer.MAX_VALUE : totalTaskLimit.get();
-        calculationEngineVo.setTaskLimit(totalTask);
-        calculationEngineVo.setRunningNum(totalRunningNum);
-        calculationEngineVo.setTotalLimit(totalTask);
-        return calculationEngineVo;
+    @Override
+    public List<RebalanceAdviceDto> rebalanceAdvice(UserDetail userDetail) {
+        Object jobHeartTimeout = settingsService.getByCategoryAndKey(CategoryEnum.WORKER, KeyEnum.WORKER_HEART_TIMEOUT).getValue();
+        boolean isCloud = settingsService.isCloud();
+        Long findTime = System.currentTimeMillis() - Long.parseLong((String) jobHeartTimeout) * 1000L;
+        List<WorkerDto> workers = findAll(Query.query(availableWorkerCriteria(null, userDetail, findTime, isCloud)));
+        if (CollectionUtils.isEmpty(workers)) {
+            return new ArrayList<>();
+        }
+        List<RebalanceAdviceDto> advices = engineLoadScheduler(workers, userDetail, Collections.emptyList()).rebalanceAdvice();
+        if (!advices.isEmpty()) {
+            List<ObjectId> ids = advices.stream().map(a -> MongoUtils.toObjectId(a.getTaskId())).collect(Collectors.toList());
+            Query query = Query.query(Criteria.where("_id").in(ids));
+            query.fields().include("_id", "name");
+            Map<String, String> names = taskService.findAll(query).stream()
+                    .collect(Collectors.toMap(t -> t.getId().toHexString(), t -> null == t.getName() ? "" : t.getName(), (a, b) -> a));
+            advices.forEach(a -> a.setTaskName(names.get(a.getTaskId())));
+        }
+        return advices;
     }
 
     public void scheduleTaskToEngine(InspectDto inspectDto, UserDetail userDetail) throws BizException {
@@ -6,11 +6,18 @@
  */
 package com.tapdata.tm.ws.dto;
 
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import org.bson.Document;
 
 public class LogsCache {
 
+	/**
+	 * Max log lines buffered for one subscriber, the oldest lines are dropped when a slow client can not keep up
+	 */
+	public static final int DEFAULT_CAPACITY = 5000;
+
 	private String sessionId;
 
 	private String receiver;
@@ -21,11 +28,44 @@ public class LogsCache {
 
 	private Long lastTime;
 
+	private final AtomicLong dropped = new AtomicLong();
+
 	public LogsCache(String sessionId, String receiver) {
+		this(sessionId, receiver, DEFAULT_CAPACITY);
+	}
+
+	public LogsCache(String sessionId, String receiver, int capacity) {
 		this.sessionId = sessionId;
 		this.receiver = receiver;
 		this.enabled = true;
-		this.caches = new LinkedBlockingQueue<>();
+		this.caches = new LinkedBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * Buffer one log line for this subscriber, evict the oldest line and count it as dropped when the buffer is full
+	 * @param document log line
+	 */
+	public void offer(Document document) {
+		while (!caches.offer(document)) {
+			if (caches.poll() != null) {
+				dropped.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Move at most maxSize buffered lines into batch
+	 * @return number of lines moved
+	 */
+	public int drainTo(List<Document> batch, int maxSize) {
+		return caches.drainTo(batch, maxSize);
+	}
+
+	/**
+	 * @return number of lines dropped since last call
+	 */
+	public long getAndResetDropped() {
+		return dropped.getAndSet(0);
 	}
 
 	public String getReceiver() {
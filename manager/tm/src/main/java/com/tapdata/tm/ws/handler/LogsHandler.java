@@ -39,7 +39,9 @@ import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.tapdata.tm.utils.MongoUtils.toObjectId;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
@@ -63,6 +65,21 @@ public class LogsHandler implements WebSocketHandler {
 
 	private static Thread pollingQueryESThread = null;
 
+	/**
+	 * Interval of pushing buffered log lines to subscribers, lines arrived in one interval are sent in one frame
+	 */
+	private static final long FLUSH_INTERVAL_MS = 200L;
+	/**
+	 * Max log lines in one websocket frame
+	 */
+	private static final int MAX_FRAME_SIZE = 500;
+	/**
+	 * Elasticsearch can not be tailed, keep the polling interval short so that lines are pushed with low latency
+	 */
+	private static final long ES_POLLING_INTERVAL_MS = 500L;
+
+	private static volatile ScheduledExecutorService flushExecutor;
+
 	public LogsHandler(MongoTemplate mongoTemplate, LogService logService) {
 		this.mongoTemplate = mongoTemplate;
 		this.logService = logService;
@@ -119,6 +136,7 @@ public class LogsHandler implements WebSocketHandler {
 					.forEach(value -> value.removeIf(cache -> context.getSessionId().equals(cache.getSessionId())));
 		}
 		logsCaches.add(logsCache);
+		startFlushTask();
 		startChangeStream();
 
 		try {
@@ -137,24 +155,10 @@ public class LogsHandler implements WebSocketHandler {
 
 			if (CollectionUtils.isNotEmpty(logs)){
 				logsCache.setLastTime(logs.get(0).getCreateAt().getTime());
-				LinkedBlockingQueue<Document> caches = logsCache.getCaches();
-				// after all the logs cached in queue are consumed, the logsCache will be disabled
-				// and com.tapdata.tm.ws.cs.LogsListener will send the log to ws session directly
-				// when it gets the log change stream.
-				while(caches.size() > 0) {
-					try {
-						Document document = caches.poll();
-						if (document != null){
-							Date createTime = document.getDate("createTime");
-							if (createTime.getTime() - logsCache.getLastTime() > 0) {
-								sendLogsMessage(dataFlowId, context.getSender(), document);
-							}
-						}
-					}catch (Exception ignored){
-
-					}
-				}
 			}
+			// after the history is sent, the lines buffered meanwhile are pushed by the flush task in batches,
+			// lines already contained in the history are removed first
+			removeSentHistory(logsCache);
 			log.info("Handler message end,sessionId: {}", context.getSessionId());
 			logsCache.setEnabled(false);
 		} catch (Exception e) {
@@ -209,6 +213,7 @@ public class LogsHandler implements WebSocketHandler {
 					.forEach(value -> value.removeIf(cache -> context.getSessionId().equals(cache.getSessionId())));
 		}
 		logsCaches.add(logsCache);
+		startFlushTask();
 
 		// start polling query logs in es
 		startPollingQueryES();
@@ -221,21 +226,12 @@ public class LogsHandler implements WebSocketHandler {
 		List<LogDto> logs = convertSearchHintsIntoDtoList(searchHits);
 		sendLogsMessage(dataFlowId, context.getSender(), logs);
 
-		// send cache logs to client and disable log cache for client
+		// the flush task sends cache logs to client once log cache is disabled
 		try {
-			LinkedBlockingQueue<Document> cache = logsCache.getCaches();
-			while(cache.size() > 0) {
-				try {
-					Document document = cache.poll();
-					if (document != null){
-						Date createTime = document.getDate("createTime");
-						if (createTime.getTime() - logsCache.getLastTime() > 0) {
-							sendLogsMessage(dataFlowId, context.getSender(), document);
-						}
-					}
-				} catch (Exception ignored){
-				}
+			if (CollectionUtils.isNotEmpty(logs) && logs.get(0).getCreateAt() != null) {
+				logsCache.setLastTime(logs.get(0).getCreateAt().getTime());
 			}
+			removeSentHistory(logsCache);
 			logsCache.setEnabled(false);
 			log.info("Handler message end,sessionId: {}", context.getSessionId());
 		} catch (Throwable e) {
@@ -269,12 +265,12 @@ public class LogsHandler implements WebSocketHandler {
 
 					if (MapUtils.isEmpty(logsMap)) {
 						cursorTimeForEs.set(currentPoint);
-						Thread.sleep(2000);
+						Thread.sleep(ES_POLLING_INTERVAL_MS);
 						continue;
 					}
 
 					if (cursorTimeForEs.get() == 0) {
-						cursorTimeForEs.set(currentPoint - 2000);
+						cursorTimeForEs.set(currentPoint - ES_POLLING_INTERVAL_MS);
 					}
 
 					org.springframework.data.elasticsearch.core.query.Criteria criteria =
@@ -287,45 +283,25 @@ public class LogsHandler implements WebSocketHandler {
 
 					List<LogDto> logs = convertSearchHintsIntoDtoList(result);
 
-					logs.forEach(log -> {
-
-						String dataFlowId = MapUtils.getAsStringByPath(log.getContextMap(), "dataFlowId");
-						if (StringUtils.isNotBlank(dataFlowId)){
-							List<LogsCache> logsCaches = logsMap.get(dataFlowId);
-							if (CollectionUtils.isEmpty(logsCaches)){
-								return;
-							}
-							for (LogsCache logsCache : new ArrayList<>(logsCaches)) {
-								LinkedBlockingQueue<Document> caches = logsCache.getCaches();
-								if (logsCache.getEnabled()){
-									caches.offer(Document.parse(JsonUtil.toJson(log)));
-								}else {
-									if (caches.size() > 0){
-										for (int i = 0; i < caches.size(); i++) {
-											Document document = caches.poll();
-											if (document != null){
-												LogsHandler.sendLogsMessage(dataFlowId, logsCache.getReceiver(), Collections.singletonList(document));
-											}
-										}
-									}
-									LogsHandler.sendLogsMessage(dataFlowId, logsCache.getReceiver(), Collections.singletonList(log));
-								}
-							}
+					for (LogDto logDto : logs) {
+						String dataFlowId = MapUtils.getAsStringByPath(logDto.getContextMap(), "dataFlowId");
+						if (StringUtils.isNotBlank(dataFlowId) && logsMap.containsKey(dataFlowId)){
+							// serialize once, the document is shared by all subscribers of the task
+							dispatch(dataFlowId, toDocument(logDto));
 						}
-
-					});
-
+					}
 
 					cursorTimeForEs.set(currentPoint);
-					Thread.sleep(2000);
+					Thread.sleep(ES_POLLING_INTERVAL_MS);
 				}
 
 			} catch (Exception e) {
 				log.error("Polling query logs in es failed", e);
 				pollingQueryESThread = null;
 			}
-		});
+		}, "polling-query-es-logs");
 
+		pollingQueryESThread.setDaemon(true);
 		pollingQueryESThread.start();
 
 	}
@@ -348,16 +324,124 @@ public class LogsHandler implements WebSocketHandler {
 
 
 	public static void sendLogsMessage(String dataFlowId, String receiver, Object data){
+		sendLogsMessage(dataFlowId, receiver, data, 0);
+	}
+
+	public static boolean sendLogsMessage(String dataFlowId, String receiver, Object data, long dropped){
 
 		try {
 			Map<String, Object> map = new HashMap<>();
 			map.put("type", "logs");
 			map.put("dataFlowId", dataFlowId);
 			map.put("data", data);
+			if (dropped > 0) {
+				map.put("dropped", dropped);
+			}
 			WebSocketManager.sendMessage(receiver, JsonUtil.toJsonUseJackson(map));
+			return true;
 		} catch (Exception e) {
 			log.error("WebSocket send log message failed,message: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Buffer one log line for every subscriber of the task, the lines are pushed by the flush task
+	 * @param dataFlowId task id
+	 * @param document log line, shared by all subscribers and must not be modified
+	 */
+	public static void dispatch(String dataFlowId, Document document) {
+		List<LogsCache> logsCaches = logsMap.get(dataFlowId);
+		if (CollectionUtils.isEmpty(logsCaches)) {
+			return;
+		}
+		for (LogsCache logsCache : new ArrayList<>(logsCaches)) {
+			logsCache.offer(document);
+		}
+	}
+
+	/**
+	 * Send buffered lines of subscribers which finished loading history, at most MAX_FRAME_SIZE lines per frame.
+	 * A subscriber whose buffer overflowed is told how many lines were dropped
+	 */
+	public static void flush() {
+		for (Map.Entry<String, List<LogsCache>> entry : logsMap.entrySet()) {
+			String dataFlowId = entry.getKey();
+			for (LogsCache logsCache : new ArrayList<>(entry.getValue())) {
+				if (logsCache.getEnabled()) {
+					continue;
+				}
+				List<Document> batch = new ArrayList<>();
+				do {
+					batch.clear();
+					logsCache.drainTo(batch, MAX_FRAME_SIZE);
+					long dropped = logsCache.getAndResetDropped();
+					if (batch.isEmpty() && dropped == 0) {
+						break;
+					}
+					if (!sendLogsMessage(dataFlowId, logsCache.getReceiver(), batch, dropped)) {
+						break;
+					}
+				} while (batch.size() == MAX_FRAME_SIZE);
+			}
+		}
+	}
+
+	private static void startFlushTask() {
+		if (flushExecutor != null) {
+			return;
+		}
+		synchronized (LogsHandler.class) {
+			if (flushExecutor == null) {
+				ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+					Thread thread = new Thread(r, "flush-logs-to-websocket");
+					thread.setDaemon(true);
+					return thread;
+				});
+				executor.scheduleWithFixedDelay(() -> {
+					try {
+						flush();
+					} catch (Throwable e) {
+						log.error("Flush logs to websocket failed, message: {}", e.getMessage(), e);
+					}
+				}, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+				flushExecutor = executor;
+			}
+		}
+	}
+
+	/**
+	 * Convert a line polled from elasticsearch, the creation time is stored as createTime date like the lines from the change stream
+	 */
+	static Document toDocument(LogDto logDto) {
+		Document document = Document.parse(JsonUtil.toJson(logDto));
+		document.remove("createAt");
+		if (logDto.getCreateAt() != null) {
+			document.put("createTime", logDto.getCreateAt());
+		}
+		return document;
+	}
+
+	static void removeSentHistory(LogsCache logsCache) {
+		Long lastTime = logsCache.getLastTime();
+		if (lastTime == null) {
+			return;
+		}
+		logsCache.getCaches().removeIf(document -> {
+			Long createTime = createTime(document);
+			return createTime != null && createTime <= lastTime;
+		});
+	}
+
+	static Long createTime(Document document) {
+		Object createTime = document.get("createTime");
+		if (createTime instanceof Date) {
+			return ((Date) createTime).getTime();
+		}
+		if (createTime instanceof Number) {
+			return ((Number) createTime).longValue();
 		}
+		return null;
 	}
 
 	public static void removeSession(String id){
@@ -0,0 +1,56 @@
+package com.tapdata.tm.disruptor.handler;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.tapdata.tm.alarm.service.AlarmService;
+import com.tapdata.tm.base.aop.MeasureAOP;
+import com.tapdata.tm.disruptor.Element;
+import com.tapdata.tm.shareCdcTableMetrics.service.ShareCdcTableMetricsService;
+import com.tapdata.tm.task.entity.TaskRecord;
+import com.tapdata.tm.task.service.TaskRecordService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class CreateRecordEventHandlerTest {
+
+    @Test
+    @DisplayName("test records are written in one batch and their task data is cleaned")
+    void testBatchCreate() {
+        CreateRecordEventHandler handler = new CreateRecordEventHandler();
+        TaskRecordService taskRecordService = mock(TaskRecordService.class);
+        AlarmService alarmService = mock(AlarmService.class);
+        List<List<TaskRecord>> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            written.add(new ArrayList<>(invocation.getArgument(0)));
+            return null;
+        }).when(taskRecordService).createRecords(anyList());
+        try (MockedStatic<SpringUtil> mb = Mockito.mockStatic(SpringUtil.class)) {
+            mb.when(() -> SpringUtil.getBean(TaskRecordService.class)).thenReturn(taskRecordService);
+            mb.when(() -> SpringUtil.getBean(AlarmService.class)).thenReturn(alarmService);
+            mb.when(() -> SpringUtil.getBean(ShareCdcTableMetricsService.class)).thenReturn(mock(ShareCdcTableMetricsService.class));
+            mb.when(() -> SpringUtil.getBean(MeasureAOP.class)).thenReturn(mock(MeasureAOP.class));
+
+            handler.onEvents(Arrays.asList(element("task1"), element("task2"), element("task3")));
+            Assertions.assertEquals(1, written.size());
+            Assertions.assertEquals(3, written.get(0).size());
+            verify(alarmService, times(3)).delAlarm(anyString());
+        }
+    }
+
+    private Element<TaskRecord> element(String taskId) {
+        TaskRecord taskRecord = new TaskRecord();
+        taskRecord.setTaskId(taskId);
+        Element<TaskRecord> element = new Element<>();
+        element.setData(taskRecord);
+        return element;
+    }
+}
@@ -0,0 +1,83 @@
+package com.tapdata.tm.disruptor.handler;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.tapdata.tm.disruptor.Element;
+import com.tapdata.tm.disruptor.constants.DisruptorTopicEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class DistributeEventHandlerTest {
+
+    @Test
+    @DisplayName("test events of different topics are handled in publish order")
+    @SuppressWarnings("unchecked")
+    void testTopicChangeFlushesInOrder() {
+        BaseEventHandler<String, Boolean> createHandler = mock(BaseEventHandler.class);
+        BaseEventHandler<String, Boolean> statusHandler = mock(BaseEventHandler.class);
+        List<String> calls = new ArrayList<>();
+        doAnswer(invocation -> {
+            calls.add("create" + data(invocation.getArgument(0)));
+            return true;
+        }).when(createHandler).onEvents(anyList());
+        doAnswer(invocation -> {
+            calls.add("status" + data(invocation.getArgument(0)));
+            return true;
+        }).when(statusHandler).onEvents(anyList());
+        try (MockedStatic<SpringUtil> mb = Mockito.mockStatic(SpringUtil.class)) {
+            mb.when(() -> SpringUtil.getBean(DisruptorTopicEnum.CREATE_RECORD.getBeanName(), BaseEventHandler.class)).thenReturn(createHandler);
+            mb.when(() -> SpringUtil.getBean(DisruptorTopicEnum.TASK_STATUS.getBeanName(), BaseEventHandler.class)).thenReturn(statusHandler);
+
+            DistributeEventHandler handler = new DistributeEventHandler();
+            // RingBuffer 复用同一个元素
+            Element<String> slot = new Element<>();
+            handler.onEvent(set(slot, DisruptorTopicEnum.CREATE_RECORD, "t1"), 0, false);
+            handler.onEvent(set(slot, DisruptorTopicEnum.TASK_STATUS, "t1"), 1, false);
+            handler.onEvent(set(slot, DisruptorTopicEnum.TASK_STATUS, "t2"), 2, false);
+            Assertions.assertEquals(1, calls.size());
+            handler.onEvent(set(slot, DisruptorTopicEnum.CREATE_RECORD, "t1"), 3, true);
+
+            Assertions.assertEquals(3, calls.size());
+            Assertions.assertEquals("create[t1]", calls.get(0));
+            Assertions.assertEquals("status[t1, t2]", calls.get(1));
+            Assertions.assertEquals("create[t1]", calls.get(2));
+        }
+    }
+
+    @Test
+    @DisplayName("test a failed batch is dropped and the next event still handled")
+    @SuppressWarnings("unchecked")
+    void testFailedBatchCleared() {
+        BaseEventHandler<String, Boolean> createHandler = mock(BaseEventHandler.class);
+        BaseEventHandler<String, Boolean> statusHandler = mock(BaseEventHandler.class);
+        when(createHandler.onEvents(anyList())).thenThrow(new RuntimeException("failed"));
+        try (MockedStatic<SpringUtil> mb = Mockito.mockStatic(SpringUtil.class)) {
+            mb.when(() -> SpringUtil.getBean(DisruptorTopicEnum.CREATE_RECORD.getBeanName(), BaseEventHandler.class)).thenReturn(createHandler);
+            mb.when(() -> SpringUtil.getBean(DisruptorTopicEnum.TASK_STATUS.getBeanName(), BaseEventHandler.class)).thenReturn(statusHandler);
+
+            DistributeEventHandler handler = new DistributeEventHandler();
+            handler.onEvent(set(new Element<>(), DisruptorTopicEnum.CREATE_RECORD, "t1"), 0, false);
+            Assertions.assertThrows(RuntimeException.class, () -> handler.onEvent(set(new Element<>(), DisruptorTopicEnum.TASK_STATUS, "t1"), 1, true));
+            verify(statusHandler, times(1)).onEvents(anyList());
+        }
+    }
+
+    private static Element<String> set(Element<String> element, DisruptorTopicEnum topic, String data) {
+        element.setTopic(topic);
+        element.setData(data);
+        return element;
+    }
+
+    private static String data(List<Element<String>> events) {
+        return events.stream().map(Element::getData).collect(Collectors.toList()).toString();
+    }
+}
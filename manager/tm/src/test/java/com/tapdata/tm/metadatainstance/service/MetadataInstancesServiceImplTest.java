@@ -2263,8 +2263,11 @@ public class MetadataInstancesServiceImplTest {
 		List<MetadataInstancesDto> metadataInstancesDtos;
 		boolean cover;
 		Map<String, DataSourceConnectionDto> conMap;
+		BulkOperations bulkOperations;
 		@BeforeEach
 		void beforeEach(){
+			bulkOperations = mock(BulkOperations.class);
+			when(metadataInstancesRepository.bulkOperations(BulkOperations.BulkMode.UNORDERED)).thenReturn(bulkOperations);
 			metadataInstancesDtos = new ArrayList<>();
 			DataSourceConnectionDto connectionDto = new DataSourceConnectionDto();
 			connectionDto.setId(mock(ObjectId.class));
@@ -2281,9 +2284,10 @@ public class MetadataInstancesServiceImplTest {
 			sourceDto.setId(new ObjectId("662877df9179877be8b37074"));
 			metadataInstancesDto.setSource(sourceDto);
 			metadataInstancesDtos.add(metadataInstancesDto);
-			doReturn(metadataInstancesDto).when(metadataInstancesService).importEntity(metadataInstancesDto,userDetail);
 			Map<String, MetadataInstancesDto> actual = metadataInstancesService.batchImport(metadataInstancesDtos, userDetail, cover, conMap);
 			assertEquals(metadataInstancesDto,actual.get("662877df9179877be8b37075"));
+			verify(bulkOperations).upsert(any(Query.class), nullable(Update.class));
+			verify(bulkOperations).execute();
 		}
 		@Test
 		@DisplayName("test batchImport method simple")
@@ -2292,9 +2296,31 @@ public class MetadataInstancesServiceImplTest {
 			metadataInstancesDto.setQualifiedName("qualifiedName");
 			metadataInstancesDto.setId(new ObjectId("662877df9179877be8b37075"));
 			metadataInstancesDtos.add(metadataInstancesDto);
-			doReturn(metadataInstancesDto).when(metadataInstancesService).importEntity(metadataInstancesDto,userDetail);
 			Map<String, MetadataInstancesDto> actual = metadataInstancesService.batchImport(metadataInstancesDtos, userDetail, cover, conMap);
 			assertEquals(metadataInstancesDto,actual.get("662877df9179877be8b37075"));
+			verify(bulkOperations).upsert(any(Query.class), nullable(Update.class));
+			verify(bulkOperations).execute();
+		}
+		@Test
+		@DisplayName("test batchImport method write duplicated qualifiedName once")
+		void testDuplicatedQualifiedName(){
+			for (int i = 0; i < 2; i++) {
+				MetadataInstancesDto metadataInstancesDto = new MetadataInstancesDto();
+				metadataInstancesDto.setQualifiedName("qualifiedName");
+				metadataInstancesDto.setId(new ObjectId());
+				metadataInstancesDtos.add(metadataInstancesDto);
+			}
+			Map<String, MetadataInstancesDto> actual = metadataInstancesService.batchImport(metadataInstancesDtos, userDetail, cover, conMap);
+			assertEquals(1, actual.size());
+			verify(bulkOperations, times(1)).upsert(any(Query.class), nullable(Update.class));
+			verify(bulkOperations, times(1)).execute();
+		}
+		@Test
+		@DisplayName("test batchImport method with empty list")
+		void testEmpty(){
+			Map<String, MetadataInstancesDto> actual = metadataInstancesService.batchImport(metadataInstancesDtos, userDetail, cover, conMap);
+			assertTrue(actual.isEmpty());
+			verify(bulkOperations, never()).execute();
 		}
 		@Test
 		@DisplayName("test batchImport method when connectionId not null and connectionDto is null")
@@ -2307,9 +2333,10 @@ public class MetadataInstancesServiceImplTest {
 			metadataInstancesDto.setSource(sourceDto);
 			metadataInstancesDtos.add(metadataInstancesDto);
 			conMap.clear();
-			doReturn(metadataInstancesDto).when(metadataInstancesService).importEntity(metadataInstancesDto,userDetail);
 			Map<String, MetadataInstancesDto> actual = metadataInstancesService.batchImport(metadataInstancesDtos, userDetail, cover, conMap);
 			assertEquals(metadataInstancesDto,actual.get("662877df9179877be8b37075"));
+			verify(bulkOperations).upsert(any(Query.class), nullable(Update.class));
+			verify(bulkOperations).execute();
 		}
 	}
 	@Nested
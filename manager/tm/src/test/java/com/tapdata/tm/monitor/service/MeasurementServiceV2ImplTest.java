@@ -4,6 +4,7 @@ package com.tapdata.tm.monitor.service;
 import com.tapdata.tm.commons.task.dto.TaskDto;
 import com.tapdata.tm.monitor.constant.KeyWords;
 import com.tapdata.tm.monitor.entity.MeasurementEntity;
+import com.tapdata.tm.monitor.param.MeasurementQueryParam;
 import com.tapdata.tm.monitor.vo.TableSyncStaticVo;
 import com.tapdata.tm.task.bean.TableStatusInfoDto;
 import com.tapdata.tm.task.service.TaskService;
@@ -11,6 +12,7 @@ import io.tapdata.common.sample.request.Sample;
 import io.tapdata.common.sample.request.SampleRequest;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
 import org.mockito.internal.verification.Times;
 import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -240,6 +242,107 @@ class MeasurementServiceV2ImplTest {
         }
     }
     @Nested
+    class UpsertAccumulatorsTest {
+        @Test
+        @DisplayName("test sample is added into hour, day and month buckets")
+        void testUpsertAccumulators() {
+            BulkOperations bulkOperations = mock(BulkOperations.class);
+            doCallRealMethod().when(measurementServiceV2).upsertAccumulators(any(BulkOperations.class), anyMap(), any(Date.class), anyMap());
+            when(measurementServiceV2.expireAt(anyString(), any(Date.class))).thenCallRealMethod();
+            ReflectionTestUtils.setField(measurementServiceV2, "hourTtlDays", 30L);
+            Map<String, String> tags = new HashMap<>();
+            tags.put("type", "task");
+            tags.put("taskId", "665d2b9b889245e73373cf49");
+            Map<String, Number> vs = new HashMap<>();
+            vs.put("inputQps", 10);
+            vs.put("replicateLag", null);
+            measurementServiceV2.upsertAccumulators(bulkOperations, tags, new Date(), vs);
+            verify(bulkOperations, times(3)).upsert(any(Query.class), any(org.springframework.data.mongodb.core.query.Update.class));
+        }
+
+        @Test
+        @DisplayName("test empty values are not added")
+        void testEmptyValues() {
+            BulkOperations bulkOperations = mock(BulkOperations.class);
+            doCallRealMethod().when(measurementServiceV2).upsertAccumulators(any(BulkOperations.class), anyMap(), any(Date.class), any());
+            measurementServiceV2.upsertAccumulators(bulkOperations, new HashMap<>(), new Date(), null);
+            verify(bulkOperations, times(0)).upsert(any(Query.class), any(org.springframework.data.mongodb.core.query.Update.class));
+        }
+
+        @Test
+        @DisplayName("test accumulated buckets are averaged and replace scheduled samples of the same date")
+        void testMergedSamples() {
+            MeasurementEntity entity = new MeasurementEntity();
+            Sample scheduled = new Sample();
+            scheduled.setDate(new Date(60000L));
+            scheduled.setVs(new HashMap<>(Collections.singletonMap("inputQps", 1)));
+            Sample old = new Sample();
+            old.setDate(new Date(0L));
+            old.setVs(new HashMap<>(Collections.singletonMap("inputQps", 5)));
+            entity.setSamples(Arrays.asList(scheduled, old));
+            MeasurementEntity.Accumulator accumulator = new MeasurementEntity.Accumulator();
+            accumulator.setCount(4L);
+            accumulator.setValues(new HashMap<>(Collections.singletonMap("inputQps", 40)));
+            entity.setAccumulators(Collections.singletonMap("60000", accumulator));
+
+            List<Sample> merged = entity.mergedSamples();
+            assertEquals(2, merged.size());
+            assertEquals(0L, merged.get(0).getDate().getTime());
+            assertEquals(10, merged.get(1).getVs().get("inputQps").intValue());
+        }
+    }
+    @Nested
+    class GetSamplesTest {
+        @Test
+        @DisplayName("test last point is calculated from the accumulators of the incremental tier")
+        @SuppressWarnings("unchecked")
+        void testLastPointFromAccumulators() {
+            MongoTemplate mongoOperations = mock(MongoTemplate.class);
+            ReflectionTestUtils.setField(measurementServiceV2, "mongoOperations", mongoOperations);
+            doCallRealMethod().when(measurementServiceV2).getSamples(any(MeasurementQueryParam.class));
+
+            long interval = 60 * 60 * 1000L;
+            long now = System.currentTimeMillis();
+            long current = now / interval * interval;
+            Map<String, String> tags = new HashMap<>();
+            tags.put("type", "task");
+            tags.put("taskId", "665d2b9b889245e73373cf49");
+            MeasurementEntity.Accumulator accumulator = new MeasurementEntity.Accumulator();
+            accumulator.setCount(4L);
+            Map<String, Number> values = new HashMap<>();
+            values.put("inputQps", 40);
+            values.put("outputQps", 8);
+            accumulator.setValues(values);
+            MeasurementEntity entity = new MeasurementEntity();
+            entity.setGranularity("hour");
+            entity.setDate(new Date(current));
+            entity.setTags(tags);
+            entity.setAccumulators(Collections.singletonMap(String.valueOf(current), accumulator));
+            when(mongoOperations.find(any(Query.class), eq(MeasurementEntity.class), anyString()))
+                    .thenReturn(new ArrayList<>(), Collections.singletonList(entity));
+
+            MeasurementQueryParam.MeasurementQuerySample querySample = new MeasurementQueryParam.MeasurementQuerySample();
+            querySample.setType(MeasurementQueryParam.MeasurementQuerySample.MEASUREMENT_QUERY_SAMPLE_TYPE_CONTINUOUS);
+            querySample.setTags(tags);
+            querySample.setFields(Collections.singletonList("inputQps"));
+            MeasurementQueryParam param = new MeasurementQueryParam();
+            param.setStartAt(now - 7 * 24 * interval);
+            param.setEndAt(now);
+            param.setSamples(Collections.singletonMap("u", querySample));
+
+            Map<String, Object> ret = (Map<String, Object>) measurementServiceV2.getSamples(param);
+
+            ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+            verify(mongoOperations, times(2)).find(captor.capture(), eq(MeasurementEntity.class), anyString());
+            Assertions.assertTrue(captor.getAllValues().get(1).getFieldsObject().containsKey(MeasurementEntity.FIELD_ACCUMULATORS));
+            List<Map<String, Object>> samples = ((Map<String, List<Map<String, Object>>>) ret.get("samples")).get("u");
+            assertEquals(1, samples.size());
+            Number[] inputQps = (Number[]) samples.get(0).get("inputQps");
+            assertEquals(10, inputQps[inputQps.length - 1].intValue());
+            Assertions.assertFalse(samples.get(0).containsKey("outputQps"));
+        }
+    }
+    @Nested
     class QueryTableMeasurementTest{
         private String taskId;
         private TableStatusInfoDto tableStatusInfoDto;
@@ -0,0 +1,130 @@
+package com.tapdata.tm.monitoringlogs.service;
+
+import com.tapdata.tm.commons.schema.MonitoringLogsDto;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class MonitoringLogsExporterTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    /**
+     * 每毫秒一条日志的模拟数据源
+     */
+    private static MonitoringLogsExporter.SliceReader syntheticReader(long step) {
+        return (start, end) -> new Iterator<Document>() {
+            long next = start;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public Document next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Document document = new Document("level", "WARN")
+                        .append("date", new Date(next))
+                        .append("timestamp", next)
+                        .append("taskName", "task")
+                        .append("nodeName", "node")
+                        .append("message", "message " + next);
+                next += step;
+                return document;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("test line format is the same as MonitoringLogsDto.formatMonitoringLog")
+    void testWriteLine() throws IOException {
+        Date date = new Date();
+        MonitoringLogsDto dto = MonitoringLogsDto.builder().level("ERROR").date(date).taskName("t1").nodeName("n1")
+                .logTags(Arrays.asList("a", "b")).message("m").errorStack("stack")
+                .data(Collections.singletonList(Collections.singletonMap("k", "v"))).build();
+        Document document = new Document("level", "ERROR").append("date", date).append("taskName", "t1").append("nodeName", "n1")
+                .append("logTags", Arrays.asList("a", "b")).append("message", "m").append("errorStack", "stack")
+                .append("data", Collections.singletonList(new Document("k", "v")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MonitoringLogsExporter((s, e) -> Collections.singletonList(document).iterator(), 1, 10).export(0, 1, out);
+        Assertions.assertEquals(dto.formatMonitoringLog() + "\n", out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    @DisplayName("test parallel slices are written in timestamp order")
+    void testParallelOrder() throws IOException {
+        long end = 10 * MINUTE;
+        List<long[]> slices = MonitoringLogsExporter.split(0, end, 4);
+        Assertions.assertEquals(4, slices.size());
+        Assertions.assertEquals(end, slices.get(3)[1]);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new MonitoringLogsExporter(syntheticReader(1000L), 4, 8).export(0, end, out);
+        Assertions.assertEquals(end / 1000L, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        Assertions.assertEquals(count, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            Assertions.assertTrue(lines[i].endsWith(" - message " + i * 1000L + " "), lines[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("test read failure of one slice stops the export")
+    void testSliceFailure() {
+        MonitoringLogsExporter exporter = new MonitoringLogsExporter((start, end) -> {
+            if (start > 0) {
+                throw new IllegalStateException("cursor failed");
+            }
+            return syntheticReader(1000L).read(start, end);
+        }, 2, 8);
+        Assertions.assertThrows(IOException.class, () -> exporter.export(0, 4 * MINUTE, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @DisplayName("harness: export throughput and peak heap")
+    void testThroughput() throws IOException {
+        long lines = 500_000L;
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long begin = System.nanoTime();
+        long count = new MonitoringLogsExporter(syntheticReader(1L), 4, 2000).export(0, lines, discard);
+        long elapsedNanos = System.nanoTime() - begin;
+
+        long peakHeap = heapPools.stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        System.out.printf("Exported %d lines, %.0f lines/s, peak heap %d MB%n",
+                count, count * 1e9 / elapsedNanos, peakHeap >> 20);
+        Assertions.assertEquals(lines, count);
+    }
+}
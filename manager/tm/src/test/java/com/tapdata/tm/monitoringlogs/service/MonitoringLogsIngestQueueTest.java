@@ -0,0 +1,143 @@
+package com.tapdata.tm.monitoringlogs.service;
+
+import com.tapdata.tm.monitoringlogs.entity.MonitoringLogsEntity;
+import com.tapdata.tm.monitoringlogs.vo.MonitoringLogIngestVo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MonitoringLogsIngestQueueTest {
+
+    private static MonitoringLogsEntity entity(String nodeId, String message, long timestamp) {
+        MonitoringLogsEntity entity = new MonitoringLogsEntity();
+        entity.setTaskId("taskId");
+        entity.setNodeId(nodeId);
+        entity.setLevel("WARN");
+        entity.setMessage(message);
+        entity.setTimestamp(timestamp);
+        return entity;
+    }
+
+    @Test
+    @DisplayName("test repeated messages are merged with a counter")
+    void testMergeRepeated() {
+        List<MonitoringLogsEntity> written = new CopyOnWriteArrayList<>();
+        MonitoringLogsIngestQueue queue = new MonitoringLogsIngestQueue(written::addAll, 100, 100, 60000L);
+        MonitoringLogIngestVo vo = queue.offer(Arrays.asList(
+                entity("n1", "m1", 1L), entity("n1", "m1", 2L), entity("n2", "m1", 3L), entity("n1", "m1", 4L)));
+        Assertions.assertEquals(2, vo.getAccepted());
+        Assertions.assertEquals(2, vo.getMerged());
+        Assertions.assertEquals(0, vo.getDirectWritten());
+        Assertions.assertEquals(0L, vo.getRetryAfter());
+
+        queue.stop();
+        Assertions.assertEquals(2, written.size());
+        Assertions.assertEquals(3L, written.get(0).getRepeatCount());
+        Assertions.assertEquals(1L, written.get(0).getTimestamp());
+        Assertions.assertEquals(4L, written.get(0).getLastTimestamp());
+        Assertions.assertNull(written.get(1).getRepeatCount());
+    }
+
+    @Test
+    @DisplayName("test offer waits for the flush thread when queue is full and nothing is dropped")
+    void testBlockWhenFull() throws Exception {
+        List<MonitoringLogsEntity> written = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        MonitoringLogsIngestQueue queue = new MonitoringLogsIngestQueue(batch -> {
+            // 第一批写入卡住, 队列随之写满
+            if ("m0".equals(batch.get(0).getMessage())) {
+                awaitQuietly(release);
+            }
+            written.addAll(batch);
+        }, 2, 2, 60000L, 10000L);
+        Thread releaser = new Thread(() -> {
+            sleepQuietly(200L);
+            release.countDown();
+        });
+        releaser.start();
+        MonitoringLogIngestVo vo = queue.offer(entities(5));
+        Assertions.assertEquals(5, vo.getAccepted());
+        Assertions.assertEquals(0, vo.getDirectWritten());
+        Assertions.assertTrue(vo.getRetryAfter() > 0);
+        queue.stop();
+        Assertions.assertEquals(5, written.size());
+    }
+
+    @Test
+    @DisplayName("test logs still not queued after the block timeout are written by the caller")
+    void testWriteDirectlyAfterTimeout() {
+        List<MonitoringLogsEntity> written = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        MonitoringLogsIngestQueue queue = new MonitoringLogsIngestQueue(batch -> {
+            // 第一批写入卡住, 队列随之写满
+            if ("m0".equals(batch.get(0).getMessage())) {
+                awaitQuietly(release);
+            }
+            written.addAll(batch);
+        }, 2, 2, 60000L, 100L);
+        MonitoringLogIngestVo vo = queue.offer(entities(5));
+        Assertions.assertEquals(4, vo.getAccepted());
+        Assertions.assertEquals(1, vo.getDirectWritten());
+        Assertions.assertEquals("m4", written.get(0).getMessage());
+        release.countDown();
+        queue.stop();
+        Assertions.assertEquals(5, written.size());
+    }
+
+    @Test
+    @DisplayName("test direct write failure is thrown to the caller")
+    void testDirectWriteFailed() {
+        MonitoringLogsIngestQueue queue = new MonitoringLogsIngestQueue(batch -> {
+            throw new RuntimeException("mongo down");
+        }, 2, 100, 60000L, 0L);
+        queue.stop();
+        Assertions.assertThrows(RuntimeException.class, () -> queue.offer(entities(1)));
+    }
+
+    private static List<MonitoringLogsEntity> entities(int count) {
+        List<MonitoringLogsEntity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entities.add(entity("n1", "m" + i, i));
+        }
+        return entities;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("test pending logs are written in bounded batches")
+    void testBatchSize() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        MonitoringLogsIngestQueue queue = new MonitoringLogsIngestQueue(batch -> batchSizes.add(batch.size()), 100, 3, 60000L);
+        List<MonitoringLogsEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            entities.add(entity("n1", "m" + i, i));
+        }
+        queue.offer(entities);
+        queue.stop();
+        Assertions.assertEquals(7, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 3));
+        Assertions.assertEquals(0, queue.size());
+    }
+}
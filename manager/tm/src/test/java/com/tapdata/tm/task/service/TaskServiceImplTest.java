@@ -75,6 +75,7 @@ import com.tapdata.tm.task.service.batchin.ParseRelMigFile;
 import com.tapdata.tm.task.service.batchin.entity.ParseParam;
 import com.tapdata.tm.task.service.chart.ChartViewService;
 import com.tapdata.tm.task.service.utils.TaskServiceUtil;
+import com.tapdata.tm.task.service.batchup.ImportNameResolver;
 import com.tapdata.tm.task.vo.*;
 import com.tapdata.tm.transform.service.MetadataTransformerService;
 import com.tapdata.tm.user.service.UserService;
@@ -98,6 +99,7 @@ import org.mockito.internal.verification.Times;
 import org.quartz.CronScheduleBuilder;
 import org.springframework.beans.BeanUtils;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -1292,7 +1294,7 @@ class TaskServiceImplTest {
             when(taskDto.getId()).thenReturn(mock(ObjectId.class));
             doCallRealMethod().when(taskService).renew(id,user,system);
             taskService.renew(id,user,system);
-            verify(disruptorService,new Times(1)).sendMessage(any(DisruptorTopicEnum.class),any(TaskRecord.class));
+            verify(disruptorService,new Times(1)).sendMessage(any(DisruptorTopicEnum.class),any(),any(TaskRecord.class));
         }
         @Test
         @DisplayName("test renew method when state machine result is not ok")
@@ -2446,6 +2448,7 @@ class TaskServiceImplTest {
             when(taskDto.getStartTime()).thenReturn(null);
             when(taskDto.getShareCache()).thenReturn(false);
             when(taskDto.getId()).thenReturn(mock(ObjectId.class));
+            doCallRealMethod().when(taskService).start(any(TaskDto.class), any(UserDetail.class), anyString(), nullable(TaskServiceImpl.BatchStartLookups.class));
         }
         @Test
         @DisplayName("test start method when dag is invalid")
@@ -2476,7 +2479,7 @@ class TaskServiceImplTest {
             when(transformedCheck.getTransformed()).thenReturn(true);
             doCallRealMethod().when(taskService).start(taskDto,user,startFlag);
             taskService.start(taskDto,user,startFlag);
-            verify(taskService,new Times(1)).run(taskDto,user);
+            verify(taskService,new Times(1)).run(taskDto,user,null);
         }
 //        @Test
         @DisplayName("test start method when transformedCheck is false")
@@ -2502,7 +2505,7 @@ class TaskServiceImplTest {
             when(taskDto.getSyncType()).thenReturn("connHeartbeat");
             doCallRealMethod().when(taskService).start(taskDto,user,startFlag);
             taskService.start(taskDto,user,startFlag);
-            verify(taskService,new Times(1)).run(taskDto,user);
+            verify(taskService,new Times(1)).run(taskDto,user,null);
         }
         @Test
         @DisplayName("test start method when sync type heartbeat and status is renew failed")
@@ -2513,7 +2516,7 @@ class TaskServiceImplTest {
             when(taskDto.getSyncType()).thenReturn("connHeartbeat");
             doCallRealMethod().when(taskService).start(taskDto,user,startFlag);
             taskService.start(taskDto,user,startFlag);
-            verify(taskService,new Times(0)).run(taskDto,user);
+            verify(taskService,new Times(0)).run(taskDto,user,null);
         }
     }
     @Nested
@@ -2544,7 +2547,7 @@ class TaskServiceImplTest {
             when(dto.getId()).thenReturn(mock(ObjectId.class));
             doCallRealMethod().when(taskService).updateTaskRecordStatus(dto,status,user);
             taskService.updateTaskRecordStatus(dto,status,user);
-            verify(disruptorService,new Times(1)).sendMessage(any(DisruptorTopicEnum.class),any(SyncTaskStatusDto.class));
+            verify(disruptorService,new Times(1)).sendMessage(any(DisruptorTopicEnum.class),any(),any(SyncTaskStatusDto.class));
         }
     }
     @Nested
@@ -2883,6 +2886,27 @@ class TaskServiceImplTest {
             taskService.updateSyncProgress(taskId,document);
             verify(taskService).update(any(Query.class),any(Update.class));
         }
+        @Test
+        @DisplayName("test updateSyncProgress merge all keys into one update")
+        void testMultiKeys(){
+            taskId = mock(ObjectId.class);
+            Map<String, Object> map = new HashMap<>();
+            map.put("k1","v1");
+            map.put("k2","v2");
+            document = new Document(map);
+            doCallRealMethod().when(taskService).updateSyncProgress(taskId,document);
+            taskService.updateSyncProgress(taskId,document);
+            verify(taskService, new Times(1)).update(any(Query.class),any(Update.class));
+        }
+        @Test
+        @DisplayName("test updateSyncProgress with empty document")
+        void testEmpty(){
+            taskId = mock(ObjectId.class);
+            document = new Document();
+            doCallRealMethod().when(taskService).updateSyncProgress(taskId,document);
+            taskService.updateSyncProgress(taskId,document);
+            verify(taskService, new Times(0)).update(any(Query.class),any(Update.class));
+        }
     }
     @Nested
     class UpdateDelayTimeTest{
@@ -3062,9 +3086,105 @@ class TaskServiceImplTest {
                 MonitoringLogsService monitoringLogsService = mock(MonitoringLogsService.class);
                 taskService.setMonitoringLogsService(monitoringLogsService);
                 taskService.batchStart(ids, user, null, null);
-                verify(taskService, times(1)).start(taskDtos.get(0), user, "11");
+                verify(taskService, times(1)).start(eq(taskDtos.get(0)), eq(user), eq("11"), any(TaskServiceImpl.BatchStartLookups.class));
+            }
+        }
+
+        @Test
+        void testBatchStartLimitSharedInBatch() {
+            try (MockedStatic<DataPermissionHelper> dataPermissionHelperMockedStatic = mockStatic(DataPermissionHelper.class)) {
+                TaskEntity other = new TaskEntity();
+                other.setUserId(taskEntity.getUserId());
+                other.setAgentId(taskEntity.getAgentId());
+                other.setName("test2");
+                other.setId(MongoUtils.toObjectId("6324562fc5c0a4052d821d91"));
+                List<ObjectId> twoIds = Arrays.asList(taskEntity.getId(), other.getId());
+                when(repository.findAll(new Query(Criteria.where("_id").in(twoIds)))).thenReturn(Arrays.asList(taskEntity, other));
+                CalculationEngineVo calculationEngineVo = new CalculationEngineVo();
+                calculationEngineVo.setTaskLimit(2);
+                calculationEngineVo.setRunningNum(1);
+                calculationEngineVo.setTotalLimit(10);
+                when(taskScheduleService.cloudTaskLimitNum(any(TaskDto.class), eq(user), eq(true))).thenReturn(calculationEngineVo);
+                taskService.setMonitoringLogsService(mock(MonitoringLogsService.class));
+                doNothing().when(taskService).start(any(TaskDto.class), eq(user), eq("11"), any(TaskServiceImpl.BatchStartLookups.class));
+
+                List<MutiResponseMessage> mutiResponseMessages = taskService.batchStart(twoIds, user, null, null);
+                assertEquals(ResponseMessage.OK, mutiResponseMessages.get(0).getCode());
+                assertEquals("Task.ScheduleLimit", mutiResponseMessages.get(1).getCode());
+                verify(taskScheduleService, times(1)).cloudTaskLimitNum(any(TaskDto.class), eq(user), eq(true));
+                verify(taskService, times(1)).start(any(TaskDto.class), eq(user), eq("11"), any(TaskServiceImpl.BatchStartLookups.class));
+            }
+        }
+
+        @Test
+        void testBatchStartAsync() throws InterruptedException {
+            try (MockedStatic<DataPermissionHelper> dataPermissionHelperMockedStatic = mockStatic(DataPermissionHelper.class)) {
+                when(settingsService.isCloud()).thenReturn(false);
+                doNothing().when(taskService).start(any(TaskDto.class), eq(user), eq("11"), any(TaskServiceImpl.BatchStartLookups.class));
+
+                BatchStartJobVo job = taskService.batchStartAsync(ids, user, null);
+                assertEquals(1, job.getTotal());
+                for (int i = 0; i < 50 && BatchStartJobVo.STATUS_RUNNING.equals(job.getStatus()); i++) {
+                    Thread.sleep(100L);
+                    job = taskService.findBatchStartJob(job.getId(), user);
+                }
+                assertEquals(BatchStartJobVo.STATUS_FINISHED, job.getStatus());
+                assertEquals(1, job.getFinished());
+                assertEquals(0, job.getFailed());
+                assertTrue(job.getPending().isEmpty());
+                assertEquals(taskEntity.getId().toHexString(), job.getResults().get(0).getId());
+
+                UserDetail other = mock(UserDetail.class);
+                when(other.getUserId()).thenReturn("other");
+                String jobId = job.getId();
+                assertThrows(BizException.class, () -> taskService.findBatchStartJob(jobId, other));
+            }
+        }
+
+        @Test
+        void testBatchStartPlacesTasksOnce() {
+            try (MockedStatic<DataPermissionHelper> dataPermissionHelperMockedStatic = mockStatic(DataPermissionHelper.class)) {
+                when(settingsService.isCloud()).thenReturn(false);
+                TaskEntity other = new TaskEntity();
+                other.setUserId(taskEntity.getUserId());
+                other.setName("test2");
+                other.setId(MongoUtils.toObjectId("6324562fc5c0a4052d821d91"));
+                List<ObjectId> twoIds = Arrays.asList(taskEntity.getId(), other.getId());
+                when(repository.findAll(new Query(Criteria.where("_id").in(twoIds)))).thenReturn(Arrays.asList(taskEntity, other));
+                WorkerService workerService = mock(WorkerService.class);
+                ReflectionTestUtils.setField(taskService, "workerService", workerService);
+                Map<String, String> placements = new HashMap<>();
+                placements.put(taskEntity.getId().toHexString(), "p1");
+                placements.put(other.getId().toHexString(), "p2");
+                when(workerService.scheduleTasksToEngines(anyList(), eq(user))).thenReturn(placements);
+                List<TaskServiceImpl.BatchStartLookups> lookups = new ArrayList<>();
+                doAnswer(invocation -> {
+                    lookups.add(invocation.getArgument(3));
+                    return null;
+                }).when(taskService).start(any(TaskDto.class), eq(user), eq("11"), any(TaskServiceImpl.BatchStartLookups.class));
+
+                taskService.batchStart(twoIds, user, null, null);
+                verify(workerService, times(1)).scheduleTasksToEngines(anyList(), eq(user));
+                assertEquals(2, lookups.size());
+                assertSame(lookups.get(0), lookups.get(1));
+                assertEquals(placements, ReflectionTestUtils.getField(lookups.get(0), "placements"));
             }
         }
+
+        @Test
+        void testBatchLookupsShareAvailableAgents() {
+            AgentGroupService agentGroupService = mock(AgentGroupService.class);
+            WorkerService workerService = mock(WorkerService.class);
+            ReflectionTestUtils.setField(taskService, "agentGroupService", agentGroupService);
+            ReflectionTestUtils.setField(taskService, "workerService", workerService);
+            when(agentGroupService.getProcessNodeListWithGroup(any(TaskDto.class), eq(user))).thenReturn(new ArrayList<>(Arrays.asList("p1")));
+            when(workerService.findAvailableAgentByAccessNode(eq(user), anyList())).thenReturn(Arrays.asList(new Worker()));
+            TaskServiceImpl.BatchStartLookups lookups = new TaskServiceImpl.BatchStartLookups(new HashMap<>());
+
+            taskService.checkEngineStatus(new TaskDto(), user, lookups);
+            taskService.checkEngineStatus(new TaskDto(), user, lookups);
+            verify(workerService, times(1)).findAvailableAgentByAccessNode(eq(user), anyList());
+        }
     }
 
     @Nested
@@ -3134,8 +3254,30 @@ class TaskServiceImplTest {
                 StateMachineService stateMachineService = mock(StateMachineService.class);
                 taskService.setStateMachineService(stateMachineService);
                 assertThrows(BizException.class, () -> taskService.run(taskDto, user));
+                assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(taskService, "scheduleLockMap")).isEmpty());
             }
         }
+
+        @Test
+        void testRunOnPlacedEngine() {
+            try (MockedStatic<DataPermissionHelper> dataPermissionHelperMockedStatic = mockStatic(DataPermissionHelper.class)) {
+                TaskDto taskDto = new TaskDto();
+                copyProperties(taskEntity, taskDto, TaskDto.class);
+                StateMachineService stateMachineService = mock(StateMachineService.class);
+                taskService.setStateMachineService(stateMachineService);
+                when(stateMachineService.executeAboutTask(taskDto, DataFlowEvent.START, user)).thenReturn(StateMachineResult.ok());
+                taskService.run(taskDto, user, "p1");
+                verify(taskScheduleService, never()).cloudTaskLimitNum(any(TaskDto.class), any(UserDetail.class), anyBoolean());
+                verify(taskScheduleService, times(1)).scheduling(taskDto, user, "p1");
+            }
+        }
+
+        @Test
+        void testScheduleLockKeptWhileUsed() {
+            TaskServiceImpl.ScheduleLock lock = new TaskServiceImpl.ScheduleLock().retain().retain();
+            assertFalse(lock.release());
+            assertTrue(lock.release());
+        }
     }
     @Nested
     class TestSubCronOrPlanNum{
@@ -4904,4 +5046,121 @@ class TaskServiceImplTest {
             verify(taskService,new Times(2)).findByTaskId(any(ObjectId.class),anyString());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class TestBatchImport {
+        TaskRepository repository;
+        BulkOperations bulkOperations;
+        MongoTemplate mongoTemplate;
+        TaskServiceImpl.TaskImportJob job;
+
+        @BeforeEach
+        void beforeEach() {
+            repository = mock(TaskRepository.class);
+            taskService = spy(new TaskServiceImpl(repository));
+            bulkOperations = mock(BulkOperations.class);
+            when(repository.bulkOperations(BulkOperations.BulkMode.UNORDERED)).thenReturn(bulkOperations);
+            mongoTemplate = mock(MongoTemplate.class);
+            when(repository.getMongoOperations()).thenReturn(mongoTemplate);
+            when(repository.findAll(any(Query.class), any(UserDetail.class))).thenReturn(new ArrayList<>());
+            job = new TaskServiceImpl.TaskImportJob("job", "userId");
+        }
+
+        TaskDto importTask(String id, String name) {
+            TaskDto task = new TaskDto();
+            task.setId(null == id ? null : new ObjectId(id));
+            task.setName(name);
+            DAG dag = mock(DAG.class);
+            when(dag.validate()).thenReturn(null);
+            task.setDag(dag);
+            return task;
+        }
+
+        @Test
+        void testSkipExistsWithoutCover() {
+            TaskDto task = importTask("6324562fc5c0a4052d821d90", "test");
+            doReturn(Collections.singleton(task.getId())).when(taskService).findImportTaskIds(anyList(), any());
+            doReturn(new ImportNameResolver(Collections.singleton("test"), (name, id) -> false)).when(taskService).importTaskNameResolver(anyList(), eq(user));
+
+            taskService.batchImport(Collections.singletonList(task), user, false, null, new HashMap<>(), new HashMap<>(), job);
+            TaskImportResultVo vo = job.toVo();
+            assertEquals(1, vo.getSkipped());
+            assertEquals(TaskImportResultVo.ITEM_SKIPPED, vo.getItems().get(0).getStatus());
+            verify(bulkOperations, never()).execute();
+            verify(taskService, never()).confirmById(any(TaskDto.class), any(UserDetail.class), anyBoolean(), anyBoolean());
+        }
+
+        @Test
+        void testBulkWriteNewTasksAndRename() {
+            TaskDto task1 = importTask("6324562fc5c0a4052d821d90", "test");
+            TaskDto task2 = importTask(null, "test");
+            doReturn(Collections.emptySet()).when(taskService).findImportTaskIds(anyList(), any());
+            ImportNameResolver nameResolver = new ImportNameResolver(Collections.singleton("test"), (name, id) -> false);
+            nameResolver.exists("test", new ObjectId());
+            doReturn(nameResolver).when(taskService).importTaskNameResolver(anyList(), eq(user));
+            doReturn(null).when(taskService).confirmById(any(TaskDto.class), eq(user), eq(true), eq(true));
+
+            taskService.batchImport(Arrays.asList(task1, task2), user, false, null, new HashMap<>(), new HashMap<>(), job);
+            assertEquals("test_import", task1.getName());
+            assertEquals("test_import_import", task2.getName());
+            assertNotNull(task2.getId());
+            verify(bulkOperations, times(2)).upsert(any(Query.class), nullable(Update.class));
+            verify(bulkOperations, times(1)).execute();
+            verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(TaskEntity.class));
+            TaskImportResultVo vo = job.toVo();
+            assertEquals(2, vo.getImported());
+            assertEquals(2, vo.getProcessed());
+        }
+
+        @Test
+        void testConfirmFailedNotAffectOthers() {
+            TaskDto task1 = importTask("6324562fc5c0a4052d821d90", "test1");
+            TaskDto task2 = importTask("6324562fc5c0a4052d821d91", "test2");
+            doReturn(Collections.emptySet()).when(taskService).findImportTaskIds(anyList(), any());
+            doReturn(new ImportNameResolver(Arrays.asList("test1", "test2"), (name, id) -> false)).when(taskService).importTaskNameResolver(anyList(), eq(user));
+            doThrow(new RuntimeException("confirm failed")).when(taskService).confirmById(argThat(t -> null != t && "test1".equals(t.getName())), eq(user), eq(true), eq(true));
+            doReturn(null).when(taskService).confirmById(argThat(t -> null != t && "test2".equals(t.getName())), eq(user), eq(true), eq(true));
+
+            taskService.batchImport(Arrays.asList(task1, task2), user, false, null, new HashMap<>(), new HashMap<>(), job);
+            TaskImportResultVo vo = job.toVo();
+            assertEquals(1, vo.getFailed());
+            assertEquals(1, vo.getImported());
+            assertEquals("confirm failed", vo.getItems().get(0).getMessage());
+        }
+
+        @Test
+        void testValidateImportTasks() {
+            DataSourceServiceImpl dataSourceService = mock(DataSourceServiceImpl.class);
+            taskService.setDataSourceService(dataSourceService);
+            when(dataSourceService.findAllDto(any(Query.class), eq(user))).thenReturn(new ArrayList<>());
+            ObjectId packageConnectionId = new ObjectId();
+
+            TaskDto noDag = new TaskDto();
+            noDag.setName("noDag");
+            TaskDto valid = importTask("6324562fc5c0a4052d821d90", "valid");
+            TableNode validNode = new TableNode();
+            validNode.setConnectionId(packageConnectionId.toHexString());
+            when(valid.getDag().getNodes()).thenReturn(Collections.<Node>singletonList(validNode));
+            TaskDto duplicate = importTask("6324562fc5c0a4052d821d90", "duplicate");
+            TaskDto lost = importTask("6324562fc5c0a4052d821d91", "lost");
+            TableNode lostNode = new TableNode();
+            lostNode.setConnectionId(new ObjectId().toHexString());
+            when(lost.getDag().getNodes()).thenReturn(Collections.<Node>singletonList(lostNode));
+            job.tasks.addAll(Arrays.asList(noDag, valid, duplicate, lost));
+
+            taskService.validateImportTasks(job, Collections.singleton(packageConnectionId), user);
+            assertEquals(Collections.singletonList(valid), job.tasks);
+            TaskImportResultVo vo = job.toVo();
+            assertEquals(2, vo.getFailed());
+            assertEquals(1, vo.getSkipped());
+            verify(dataSourceService, times(1)).findAllDto(any(Query.class), eq(user));
+        }
+
+        @Test
+        void testFindImportJobOfOtherUser() {
+            UserDetail other = mock(UserDetail.class);
+            when(other.getUserId()).thenReturn("other");
+            assertThrows(BizException.class, () -> taskService.findImportJob("notExists", other));
+        }
+    }
+}
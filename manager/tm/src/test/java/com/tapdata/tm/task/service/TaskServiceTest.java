@@ -238,7 +238,7 @@ public class TaskServiceTest {
                 MonitoringLogsService monitoringLogsService = mock(MonitoringLogsService.class);
                 taskService.setMonitoringLogsService(monitoringLogsService);
                 taskService.batchStart(ids, user, null, null);
-                verify(taskService, times(1)).start(taskDtos.get(0), user, "11");
+                verify(taskService, times(1)).start(eq(taskDtos.get(0)), eq(user), eq("11"), any(TaskServiceImpl.BatchStartLookups.class));
             }
         }
     }
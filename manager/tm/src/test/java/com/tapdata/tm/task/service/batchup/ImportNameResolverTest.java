@@ -0,0 +1,51 @@
+package com.tapdata.tm.task.service.batchup;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class ImportNameResolverTest {
+
+    @Test
+    void testNameNotExists() {
+        ImportNameResolver nameResolver = new ImportNameResolver(Collections.singleton("task"), (name, id) -> {
+            throw new IllegalStateException("should not query preloaded name");
+        });
+        Assertions.assertEquals("task", nameResolver.resolve("task", null));
+    }
+
+    @Test
+    void testRenameWhenExists() {
+        List<String> queried = new ArrayList<>();
+        ImportNameResolver nameResolver = new ImportNameResolver(Collections.singleton("task"), (name, id) -> {
+            queried.add(name);
+            return "task_import".equals(name);
+        });
+        nameResolver.exists("task", new ObjectId());
+        Assertions.assertEquals("task_import_import", nameResolver.resolve("task", null));
+        Assertions.assertEquals(Arrays.asList("task_import", "task_import_import"), queried);
+    }
+
+    @Test
+    void testSameIdNotConflict() {
+        ObjectId id = new ObjectId();
+        ImportNameResolver nameResolver = new ImportNameResolver(Collections.singleton("task"), (name, i) -> false);
+        nameResolver.exists("task", id);
+        Assertions.assertEquals("task", nameResolver.resolve("task", id));
+        Assertions.assertEquals("task_import", nameResolver.resolve("task", null));
+    }
+
+    @Test
+    void testConflictInSameBatch() {
+        ImportNameResolver nameResolver = new ImportNameResolver(Arrays.asList("a", "b"), (name, id) -> false);
+        Assertions.assertEquals("a", nameResolver.resolve("a", null));
+        Assertions.assertEquals("a_import", nameResolver.resolve("a", null));
+        Assertions.assertEquals("a_import_import", nameResolver.resolve("a", new ObjectId()));
+        Assertions.assertEquals("b", nameResolver.resolve("b", new ObjectId()));
+    }
+}
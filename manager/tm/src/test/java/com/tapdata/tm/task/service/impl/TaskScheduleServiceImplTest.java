@@ -10,6 +10,8 @@ import com.tapdata.tm.config.security.UserDetail;
 import com.tapdata.tm.statemachine.enums.DataFlowEvent;
 import com.tapdata.tm.statemachine.model.StateMachineResult;
 import com.tapdata.tm.statemachine.service.StateMachineService;
+import com.tapdata.tm.worker.service.WorkerService;
+import com.tapdata.tm.worker.vo.CalculationEngineVo;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -22,10 +24,13 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -110,4 +115,23 @@ class TaskScheduleServiceImplTest {
             verify(agentGroupService, times(1)).getProcessNodeListWithGroup(taskDto, user);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class ScheduleToPlacedEngineTest {
+        @Test
+        void testUsePlacedEngine() {
+            WorkerService workerService = mock(WorkerService.class);
+            ReflectionTestUtils.setField(taskScheduleService, "workerService", workerService);
+            TaskDto taskDto = new TaskDto();
+            taskDto.setName("name");
+            taskDto.setAgentId("last");
+            CalculationEngineVo calculationEngineVo = new CalculationEngineVo();
+            when(workerService.scheduleTaskToEngine(taskDto, user, "task", "name")).thenReturn(calculationEngineVo);
+            doCallRealMethod().when(taskScheduleService).scheduleToPlacedEngine(taskDto, user, "placed");
+
+            Assertions.assertSame(calculationEngineVo, taskScheduleService.scheduleToPlacedEngine(taskDto, user, "placed"));
+            Assertions.assertEquals("placed", taskDto.getAgentId());
+            verify(taskScheduleService, never()).cloudTaskLimitNum(any(TaskDto.class), any(UserDetail.class), anyBoolean());
+        }
+    }
+}
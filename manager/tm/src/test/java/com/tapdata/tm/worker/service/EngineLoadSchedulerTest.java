@@ -0,0 +1,115 @@
+package com.tapdata.tm.worker.service;
+
+import com.tapdata.tm.worker.dto.RebalanceAdviceDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EngineLoadScheduler Class Test")
+class EngineLoadSchedulerTest {
+
+    private static Map<String, Object> metrics(double cpu, double heap) {
+        Map<String, Object> metricValues = new HashMap<>();
+        metricValues.put(EngineLoadScheduler.METRIC_CPU_USAGE, cpu);
+        metricValues.put(EngineLoadScheduler.METRIC_HEAP_MEMORY_USAGE, heap);
+        return metricValues;
+    }
+
+    @Nested
+    @DisplayName("Method place test")
+    class PlaceTest {
+        @Test
+        @DisplayName("Select the engine with the lowest load instead of the most free slots")
+        void testLowestLoad() {
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(null);
+            scheduler.addEngine("busy", 1, 10, metrics(0.9D, 0.8D), Collections.emptyList());
+            scheduler.addEngine("idle", 1, 5, metrics(0.1D, 0.2D), Collections.singletonList("t1"));
+            assertEquals("idle", scheduler.place("t2", EngineLoadScheduler.BASE_TASK_COST, false));
+        }
+
+        @Test
+        @DisplayName("Higher weight wins")
+        void testWeight() {
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(null);
+            scheduler.addEngine("shared", 1, 10, metrics(0D, 0D), Collections.emptyList());
+            scheduler.addEngine("own", 99, 10, metrics(0.9D, 0.9D), Collections.emptyList());
+            assertEquals("own", scheduler.place("t1", EngineLoadScheduler.BASE_TASK_COST, false));
+        }
+
+        @Test
+        @DisplayName("Skip engines over the task limit when check limit")
+        void testCheckLimit() {
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(null);
+            scheduler.addEngine("full", 1, 1, null, Arrays.asList("t1", "t2"));
+            assertNull(scheduler.place("t3", EngineLoadScheduler.BASE_TASK_COST, true));
+            assertEquals("full", scheduler.place("t3", EngineLoadScheduler.BASE_TASK_COST, false));
+        }
+
+        @Test
+        @DisplayName("Fall back to free slots without metric values")
+        void testWithoutMetrics() {
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(null);
+            scheduler.addEngine("e1", 1, 10, null, Collections.singletonList("t1"));
+            scheduler.addEngine("e2", 1, 10, null, Collections.emptyList());
+            assertEquals("e2", scheduler.place("t2", EngineLoadScheduler.BASE_TASK_COST, false));
+        }
+    }
+
+    @Nested
+    @DisplayName("Method placeAll test")
+    class PlaceAllTest {
+        @Test
+        @DisplayName("Heavy tasks are spread across engines")
+        void testSpread() {
+            Map<String, Double> costs = new HashMap<>();
+            costs.put("heavy1", EngineLoadScheduler.taskCost(5000D));
+            costs.put("heavy2", EngineLoadScheduler.taskCost(5000D));
+            costs.put("light", EngineLoadScheduler.taskCost(null));
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(costs);
+            scheduler.addEngine("e1", 1, 10, null, Collections.emptyList());
+            scheduler.addEngine("e2", 1, 10, null, Collections.emptyList());
+
+            Map<String, String> result = scheduler.placeAll(Arrays.asList("light", "heavy1", "heavy2"), false);
+            assertEquals(3, result.size());
+            assertNotEquals(result.get("heavy1"), result.get("heavy2"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Method rebalanceAdvice test")
+    class RebalanceAdviceTest {
+        @Test
+        @DisplayName("Move tasks from the busiest engine to the idlest")
+        void testAdvice() {
+            Map<String, Double> costs = new HashMap<>();
+            costs.put("t1", EngineLoadScheduler.taskCost(2000D));
+            costs.put("t2", EngineLoadScheduler.taskCost(2000D));
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(costs);
+            scheduler.addEngine("busy", 1, 10, metrics(0.8D, 0.5D), Arrays.asList("t1", "t2"));
+            scheduler.addEngine("idle", 1, 10, metrics(0.05D, 0.1D), Collections.emptyList());
+
+            List<RebalanceAdviceDto> advices = scheduler.rebalanceAdvice();
+            assertEquals(1, advices.size());
+            assertEquals("busy", advices.get(0).getFromProcessId());
+            assertEquals("idle", advices.get(0).getToProcessId());
+            assertTrue(advices.get(0).getFromLoad() > advices.get(0).getToLoad());
+        }
+
+        @Test
+        @DisplayName("No advice when engines are balanced")
+        void testBalanced() {
+            EngineLoadScheduler scheduler = new EngineLoadScheduler(null);
+            scheduler.addEngine("e1", 1, 10, metrics(0.3D, 0.3D), Collections.singletonList("t1"));
+            scheduler.addEngine("e2", 1, 10, metrics(0.3D, 0.3D), Collections.singletonList("t2"));
+            assertTrue(scheduler.rebalanceAdvice().isEmpty());
+        }
+    }
+}
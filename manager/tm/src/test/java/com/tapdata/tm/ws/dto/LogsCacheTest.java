@@ -0,0 +1,39 @@
+package com.tapdata.tm.ws.dto;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LogsCacheTest {
+
+    @Test
+    @DisplayName("test offer drops oldest line when buffer is full")
+    void testOfferWhenFull() {
+        LogsCache logsCache = new LogsCache("sessionId", "receiver", 2);
+        logsCache.offer(new Document("i", 1));
+        logsCache.offer(new Document("i", 2));
+        logsCache.offer(new Document("i", 3));
+        List<Document> batch = new ArrayList<>();
+        Assertions.assertEquals(2, logsCache.drainTo(batch, 10));
+        Assertions.assertEquals(2, batch.get(0).getInteger("i"));
+        Assertions.assertEquals(3, batch.get(1).getInteger("i"));
+        Assertions.assertEquals(1, logsCache.getAndResetDropped());
+        Assertions.assertEquals(0, logsCache.getAndResetDropped());
+    }
+
+    @Test
+    @DisplayName("test drain is limited by max size")
+    void testDrainMaxSize() {
+        LogsCache logsCache = new LogsCache("sessionId", "receiver");
+        for (int i = 0; i < 5; i++) {
+            logsCache.offer(new Document("i", i));
+        }
+        List<Document> batch = new ArrayList<>();
+        Assertions.assertEquals(3, logsCache.drainTo(batch, 3));
+        Assertions.assertEquals(2, logsCache.getCaches().size());
+    }
+}
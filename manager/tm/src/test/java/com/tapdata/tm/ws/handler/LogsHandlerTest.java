@@ -0,0 +1,76 @@
+package com.tapdata.tm.ws.handler;
+
+import com.tapdata.tm.log.dto.LogDto;
+import com.tapdata.tm.ws.dto.LogsCache;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogsHandlerTest {
+
+    private static LogDto logDto(String message, long createAt) {
+        LogDto logDto = new LogDto();
+        Map<String, Object> contextMap = new HashMap<>();
+        contextMap.put("dataFlowId", "task");
+        logDto.setContextMap(contextMap);
+        logDto.setMessage(message);
+        logDto.setCreateAt(new Date(createAt));
+        return logDto;
+    }
+
+    @Nested
+    class RemoveSentHistoryTest {
+        @Test
+        @DisplayName("test lines polled from elasticsearch which are already in the history are removed")
+        void testElasticDocument() {
+            LogsCache logsCache = new LogsCache("session", "receiver");
+            logsCache.offer(LogsHandler.toDocument(logDto("sent", 1000L)));
+            logsCache.offer(LogsHandler.toDocument(logDto("new", 1001L)));
+            logsCache.setLastTime(1000L);
+
+            LogsHandler.removeSentHistory(logsCache);
+
+            assertEquals(1, logsCache.getCaches().size());
+            Document document = logsCache.getCaches().peek();
+            assertEquals("new", document.get("message"));
+            assertEquals(new Date(1001L), document.get("createTime"));
+            assertFalse(document.containsKey("createAt"));
+        }
+
+        @Test
+        @DisplayName("test lines from the change stream which are already in the history are removed")
+        void testChangeStreamDocument() {
+            LogsCache logsCache = new LogsCache("session", "receiver");
+            logsCache.offer(new Document("message", "sent").append("createTime", new Date(1000L)));
+            logsCache.offer(new Document("message", "new").append("createTime", new Date(1001L)));
+            logsCache.setLastTime(1000L);
+
+            LogsHandler.removeSentHistory(logsCache);
+
+            assertEquals(1, logsCache.getCaches().size());
+            assertEquals("new", logsCache.getCaches().peek().get("message"));
+        }
+
+        @Test
+        @DisplayName("test lines without a creation time are kept")
+        void testWithoutCreateTime() {
+            LogsCache logsCache = new LogsCache("session", "receiver");
+            logsCache.offer(new Document("message", "unknown").append("createTime", "Oct 19, 2026"));
+            logsCache.setLastTime(1000L);
+
+            LogsHandler.removeSentHistory(logsCache);
+
+            assertEquals(1, logsCache.getCaches().size());
+            assertNull(LogsHandler.createTime(logsCache.getCaches().peek()));
+        }
+    }
+}